@@ -0,0 +1,104 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.balancer;
+
+import com.amazonaws.services.s3.AmazonS3;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Client of a single RGW endpoint together with its load and health state.
+ */
+@Slf4j
+public class BalancedEndpoint {
+
+  private final String endpoint;
+  private final AmazonS3 client;
+  private final AtomicInteger outstandingRequests = new AtomicInteger();
+  private volatile double latencyEwmaMillis;
+  private int consecutiveFailures;
+  private volatile long ejectedUntilNanos;
+  private volatile boolean ejected;
+
+  BalancedEndpoint(String endpoint, AmazonS3 client) {
+    this.endpoint = endpoint;
+    this.client = client;
+  }
+
+  public String getEndpoint() {
+    return endpoint;
+  }
+
+  public int getOutstandingRequests() {
+    return outstandingRequests.get();
+  }
+
+  public double getLatencyEwmaMillis() {
+    return latencyEwmaMillis;
+  }
+
+  public boolean isHealthy() {
+    return !ejected;
+  }
+
+  AmazonS3 getClient() {
+    return client;
+  }
+
+  long getEjectedUntilNanos() {
+    return ejectedUntilNanos;
+  }
+
+  boolean isAvailable(long nowNanos) {
+    if (ejected && nowNanos - ejectedUntilNanos >= 0) {
+      ejected = false;
+      log.info("Endpoint {} is back in rotation", endpoint);
+    }
+    return !ejected;
+  }
+
+  void onRequestStarted() {
+    outstandingRequests.incrementAndGet();
+  }
+
+  void onRequestFinished() {
+    outstandingRequests.decrementAndGet();
+  }
+
+  synchronized void onSuccess(long latencyNanos, double ewmaWeight) {
+    consecutiveFailures = 0;
+    var latencyMillis = latencyNanos / 1_000_000d;
+    latencyEwmaMillis = latencyEwmaMillis == 0d ? latencyMillis
+        : latencyEwmaMillis + ewmaWeight * (latencyMillis - latencyEwmaMillis);
+  }
+
+  /**
+   * Register connection failure or 5xx response. After an ejection is over a single failure
+   * ejects the endpoint again.
+   */
+  synchronized void onFailure(long nowNanos, int failureThreshold, long ejectionNanos) {
+    consecutiveFailures++;
+    if (consecutiveFailures >= failureThreshold) {
+      consecutiveFailures = failureThreshold - 1;
+      ejectedUntilNanos = nowNanos + ejectionNanos;
+      ejected = true;
+      log.warn("Endpoint {} is ejected for {} ms after {} consecutive failures", endpoint,
+          ejectionNanos / 1_000_000, failureThreshold);
+    }
+  }
+}
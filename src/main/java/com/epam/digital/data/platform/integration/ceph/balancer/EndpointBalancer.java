@@ -0,0 +1,168 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.balancer;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.epam.digital.data.platform.integration.ceph.config.BalancerProperties;
+import com.epam.digital.data.platform.integration.ceph.config.BalancerProperties.Strategy;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Routes every call of {@link AmazonS3} to one of the clients of several RGW endpoints. Endpoints
+ * that fail with connection errors or 5xx responses several times in a row are ejected from
+ * routing for a while. If all endpoints are ejected, the one to be back first is used.
+ *
+ * <p>A request is in progress only while the call lasts, reading of the returned object
+ * content isn't taken into account.
+ */
+public class EndpointBalancer implements InvocationHandler {
+
+  private static final int SERVER_ERROR_STATUS_CODE = 500;
+
+  private final List<BalancedEndpoint> endpoints;
+  private final BalancerProperties properties;
+  private final LongSupplier nanoClock;
+  private final AtomicInteger cursor = new AtomicInteger();
+
+  EndpointBalancer(Map<String, AmazonS3> clients, BalancerProperties properties,
+      LongSupplier nanoClock) {
+    var balancedEndpoints = new ArrayList<BalancedEndpoint>();
+    clients.forEach((endpoint, client) -> balancedEndpoints.add(
+        new BalancedEndpoint(endpoint, client)));
+    this.endpoints = Collections.unmodifiableList(balancedEndpoints);
+    this.properties = properties;
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Create client that balances calls between the clients of the endpoints.
+   *
+   * @param clients    clients by endpoint
+   * @param properties balancing properties
+   * @return balancing client
+   */
+  public static AmazonS3 balance(Map<String, AmazonS3> clients, BalancerProperties properties) {
+    return proxy(new EndpointBalancer(clients, properties, System::nanoTime));
+  }
+
+  /**
+   * @param client client created by {@link #balance(Map, BalancerProperties)}
+   * @return endpoints of the balancing client
+   */
+  public static List<BalancedEndpoint> getEndpoints(AmazonS3 client) {
+    return ((EndpointBalancer) Proxy.getInvocationHandler(client)).endpoints;
+  }
+
+  static AmazonS3 proxy(EndpointBalancer balancer) {
+    return (AmazonS3) Proxy.newProxyInstance(AmazonS3.class.getClassLoader(),
+        new Class<?>[]{AmazonS3.class}, balancer);
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    if (method.getDeclaringClass() == Object.class) {
+      return invokeObjectMethod(proxy, method, args);
+    }
+    if ("shutdown".equals(method.getName())) {
+      endpoints.forEach(endpoint -> endpoint.getClient().shutdown());
+      return null;
+    }
+    var endpoint = choose();
+    endpoint.onRequestStarted();
+    var startedAt = nanoClock.getAsLong();
+    try {
+      var result = method.invoke(endpoint.getClient(), args);
+      endpoint.onSuccess(nanoClock.getAsLong() - startedAt, properties.getEwmaWeight());
+      return result;
+    } catch (InvocationTargetException exception) {
+      var cause = exception.getCause();
+      if (isEndpointFailure(cause)) {
+        endpoint.onFailure(nanoClock.getAsLong(), properties.getFailureThreshold(),
+            properties.getEjectionDuration().toNanos());
+      } else {
+        endpoint.onSuccess(nanoClock.getAsLong() - startedAt, properties.getEwmaWeight());
+      }
+      throw cause;
+    } finally {
+      endpoint.onRequestFinished();
+    }
+  }
+
+  BalancedEndpoint choose() {
+    var now = nanoClock.getAsLong();
+    var start = Math.floorMod(cursor.getAndIncrement(), endpoints.size());
+    BalancedEndpoint chosen = null;
+    var chosenCost = Double.MAX_VALUE;
+    // starting from the next endpoint every time spreads requests between equal endpoints
+    for (int i = 0; i < endpoints.size(); i++) {
+      var endpoint = endpoints.get((start + i) % endpoints.size());
+      if (endpoint.isAvailable(now)) {
+        var cost = cost(endpoint);
+        if (cost < chosenCost) {
+          chosen = endpoint;
+          chosenCost = cost;
+        }
+      }
+    }
+    if (chosen == null) {
+      return endpoints.stream()
+          .min(Comparator.comparingLong(endpoint -> endpoint.getEjectedUntilNanos() - now))
+          .orElseThrow();
+    }
+    return chosen;
+  }
+
+  private double cost(BalancedEndpoint endpoint) {
+    if (properties.getStrategy() == Strategy.LATENCY_EWMA) {
+      return endpoint.getLatencyEwmaMillis() * (endpoint.getOutstandingRequests() + 1);
+    }
+    return endpoint.getOutstandingRequests();
+  }
+
+  private static boolean isEndpointFailure(Throwable exception) {
+    if (exception instanceof AmazonServiceException) {
+      return ((AmazonServiceException) exception).getStatusCode() >= SERVER_ERROR_STATUS_CODE;
+    }
+    return exception instanceof SdkClientException;
+  }
+
+  private Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+    switch (method.getName()) {
+      case "equals":
+        return proxy == args[0];
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      default:
+        return "BalancedAmazonS3" + endpoints.stream().map(BalancedEndpoint::getEndpoint)
+            .collect(Collectors.toList());
+    }
+  }
+}
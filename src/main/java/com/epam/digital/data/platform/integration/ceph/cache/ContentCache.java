@@ -0,0 +1,322 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.cache;
+
+import com.amazonaws.util.BinaryUtils;
+import com.epam.digital.data.platform.integration.ceph.config.CacheProperties;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local disk cache of immutable object contents. Content is identified by bucket, key and ETag,
+ * so a changed object is never served from the cache. Total size of the cache is bounded, the
+ * least recently used content is evicted first.
+ *
+ * <p>Content is written to a temporary file while the caller reads the remote stream and is
+ * moved into the cache only when the stream was read to the end. Any failure of the cache,
+ * including lack of disk space, only makes the content not cached.
+ */
+@Slf4j
+public class ContentCache {
+
+  private static final String TEMP_FILE_SUFFIX = ".tmp";
+
+  private final CacheProperties properties;
+  private final Path directory;
+  private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long size;
+
+  public ContentCache(CacheProperties properties) {
+    this.properties = properties;
+    this.directory = Paths.get(properties.getDirectory());
+    load();
+  }
+
+  public boolean isCached(String cephBucketName) {
+    return properties.getBuckets().contains(cephBucketName);
+  }
+
+  /**
+   * @return stream of the cached content or empty if the content isn't cached
+   */
+  public Optional<InputStream> get(String cephBucketName, String key, String eTag) {
+    var name = fileName(cephBucketName, key, eTag);
+    synchronized (this) {
+      if (entries.get(name) == null) {
+        return Optional.empty();
+      }
+    }
+    try {
+      return Optional.of(
+          Channels.newInputStream(FileChannel.open(directory.resolve(name),
+              StandardOpenOption.READ)));
+    } catch (IOException exception) {
+      log.warn("Cached content of {} in bucket {} can't be read", key, cephBucketName, exception);
+      remove(name);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Wrap the remote content stream to put the content into the cache while it is read.
+   *
+   * @return stream to read the content from, the remote stream itself if the content can't be
+   * cached
+   */
+  public InputStream put(String cephBucketName, String key, String eTag, long contentLength,
+      InputStream content) {
+    if (eTag == null || contentLength < properties.getMinObjectSize()
+        || !reserve(contentLength)) {
+      return content;
+    }
+    var name = fileName(cephBucketName, key, eTag);
+    try {
+      var tempFile = Files.createTempFile(directory, name, TEMP_FILE_SUFFIX);
+      var channel = FileChannel.open(tempFile, StandardOpenOption.WRITE);
+      return new CachingInputStream(content, name, contentLength, tempFile, channel);
+    } catch (IOException exception) {
+      log.warn("Content of {} in bucket {} won't be cached", key, cephBucketName, exception);
+      release(contentLength);
+      return content;
+    }
+  }
+
+  public synchronized long getSize() {
+    return size;
+  }
+
+  private void load() {
+    try {
+      Files.createDirectories(directory);
+      try (var files = Files.list(directory)) {
+        var sortedFiles = files.sorted(Comparator.comparing(ContentCache::lastModified))
+            .collect(Collectors.toList());
+        for (var file : sortedFiles) {
+          if (file.getFileName().toString().endsWith(TEMP_FILE_SUFFIX)) {
+            Files.deleteIfExists(file);
+          } else {
+            var fileSize = Files.size(file);
+            entries.put(file.getFileName().toString(), fileSize);
+            size += fileSize;
+          }
+        }
+      }
+      synchronized (this) {
+        evict(0L);
+      }
+      log.info("Content cache in {} loaded, {} entries of {} bytes", directory, entries.size(),
+          size);
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  private synchronized boolean reserve(long contentLength) {
+    if (contentLength > properties.getMaxSize()) {
+      return false;
+    }
+    evict(contentLength);
+    size += contentLength;
+    return true;
+  }
+
+  private synchronized void release(long contentLength) {
+    size -= contentLength;
+  }
+
+  private synchronized void commit(String name, long contentLength) {
+    if (entries.put(name, contentLength) != null) {
+      size -= contentLength;
+    }
+  }
+
+  private synchronized void remove(String name) {
+    var removed = entries.remove(name);
+    if (removed != null) {
+      size -= removed;
+      delete(directory.resolve(name));
+    }
+  }
+
+  private void evict(long required) {
+    var iterator = entries.entrySet().iterator();
+    while (size + required > properties.getMaxSize() && iterator.hasNext()) {
+      var eldest = iterator.next();
+      iterator.remove();
+      size -= eldest.getValue();
+      delete(directory.resolve(eldest.getKey()));
+    }
+  }
+
+  private static void delete(Path file) {
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException exception) {
+      log.warn("Failed to delete cache file {}", file, exception);
+    }
+  }
+
+  private static long lastModified(Path file) {
+    try {
+      return Files.getLastModifiedTime(file).toMillis();
+    } catch (IOException exception) {
+      return 0L;
+    }
+  }
+
+  private static String fileName(String cephBucketName, String key, String eTag) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      digest.update(cephBucketName.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(key.getBytes(StandardCharsets.UTF_8));
+      digest.update((byte) 0);
+      digest.update(eTag.getBytes(StandardCharsets.UTF_8));
+      return BinaryUtils.toHex(digest.digest());
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private class CachingInputStream extends FilterInputStream {
+
+    private final String name;
+    private final long contentLength;
+    private final Path tempFile;
+    private FileChannel channel;
+    private long written;
+
+    CachingInputStream(InputStream content, String name, long contentLength, Path tempFile,
+        FileChannel channel) {
+      super(content);
+      this.name = name;
+      this.contentLength = contentLength;
+      this.tempFile = tempFile;
+      this.channel = channel;
+    }
+
+    @Override
+    public int read() throws IOException {
+      var value = super.read();
+      if (value < 0) {
+        commitContent();
+      } else {
+        writeContent(new byte[]{(byte) value}, 0, 1);
+      }
+      return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      var count = super.read(buffer, offset, length);
+      if (count < 0) {
+        commitContent();
+      } else {
+        writeContent(buffer, offset, count);
+      }
+      return count;
+    }
+
+    @Override
+    public long skip(long count) throws IOException {
+      // skipped content can't be cached
+      abandonContent();
+      return super.skip(count);
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+      abandonContent();
+      super.close();
+    }
+
+    private void writeContent(byte[] buffer, int offset, int count) {
+      if (channel == null) {
+        return;
+      }
+      try {
+        var byteBuffer = ByteBuffer.wrap(buffer, offset, count);
+        while (byteBuffer.hasRemaining()) {
+          channel.write(byteBuffer);
+        }
+        written += count;
+      } catch (IOException exception) {
+        log.warn("Failed to write content to cache file {}", tempFile, exception);
+        abandonContent();
+      }
+    }
+
+    private void commitContent() {
+      if (channel == null) {
+        return;
+      }
+      if (written != contentLength) {
+        abandonContent();
+        return;
+      }
+      try {
+        channel.close();
+        channel = null;
+        Files.move(tempFile, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+        commit(name, contentLength);
+      } catch (IOException exception) {
+        log.warn("Failed to move content to cache file {}", name, exception);
+        release(contentLength);
+        delete(tempFile);
+      }
+    }
+
+    private void abandonContent() {
+      if (channel == null) {
+        return;
+      }
+      try {
+        channel.close();
+      } catch (IOException exception) {
+        log.warn("Failed to close cache file {}", tempFile, exception);
+      }
+      channel = null;
+      release(contentLength);
+      delete(tempFile);
+    }
+  }
+}
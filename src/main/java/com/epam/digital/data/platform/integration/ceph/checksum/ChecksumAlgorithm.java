@@ -0,0 +1,70 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.checksum;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Algorithms of integrity checksums. Checksums are base64 encoded like the values of Content-MD5
+ * and S3 checksum headers.
+ */
+public enum ChecksumAlgorithm {
+
+  MD5,
+  SHA256,
+  CRC32C;
+
+  private static final String USER_METADATA_KEY_PREFIX = "checksum-";
+
+  public MessageDigest newDigest() {
+    switch (this) {
+      case MD5:
+        return getDigest("MD5");
+      case SHA256:
+        return getDigest("SHA-256");
+      default:
+        return new Crc32cDigest();
+    }
+  }
+
+  /**
+   * Key of the user metadata the checksum is stored with.
+   */
+  public String getMetadataKey() {
+    return USER_METADATA_KEY_PREFIX + name().toLowerCase(Locale.ROOT);
+  }
+
+  public String checksumOf(byte[] content) {
+    return encode(newDigest().digest(content));
+  }
+
+  static String encode(byte[] digest) {
+    return Base64.getEncoder().encodeToString(digest);
+  }
+
+  private static MessageDigest getDigest(String algorithm) {
+    try {
+      return MessageDigest.getInstance(algorithm);
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+}
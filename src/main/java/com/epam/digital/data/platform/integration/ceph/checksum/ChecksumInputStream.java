@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.checksum;
+
+import com.epam.digital.data.platform.integration.ceph.exception.ChecksumMismatchException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+
+/**
+ * Computes checksum of the content while it is read. If the expected checksum is given, the
+ * content is verified when the end of the stream is reached. Skipped content can't be verified.
+ */
+public class ChecksumInputStream extends DigestInputStream {
+
+  private final String expectedChecksum;
+  private String checksum;
+  private boolean skipped;
+
+  public ChecksumInputStream(InputStream content, ChecksumAlgorithm algorithm,
+      String expectedChecksum) {
+    super(content, algorithm.newDigest());
+    this.expectedChecksum = expectedChecksum;
+  }
+
+  @Override
+  public int read() throws IOException {
+    var result = super.read();
+    if (result == -1) {
+      verify();
+    }
+    return result;
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) throws IOException {
+    var result = super.read(bytes, offset, length);
+    if (result == -1) {
+      verify();
+    }
+    return result;
+  }
+
+  /**
+   * Content read again after reset would be added to the checksum twice.
+   */
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    var skippedBytes = super.skip(n);
+    skipped |= skippedBytes > 0;
+    return skippedBytes;
+  }
+
+  /**
+   * Checksum of the content read so far. Once it's taken the checksum isn't updated anymore.
+   */
+  public String getChecksum() {
+    if (checksum == null) {
+      checksum = ChecksumAlgorithm.encode(getMessageDigest().digest());
+      on(false);
+    }
+    return checksum;
+  }
+
+  private void verify() throws ChecksumMismatchException {
+    var actualChecksum = getChecksum();
+    if (expectedChecksum != null && !skipped && !expectedChecksum.equals(actualChecksum)) {
+      throw new ChecksumMismatchException(String.format(
+          "Checksum of the content %s doesn't match the expected %s", actualChecksum,
+          expectedChecksum));
+    }
+  }
+}
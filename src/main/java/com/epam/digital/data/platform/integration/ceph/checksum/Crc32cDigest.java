@@ -0,0 +1,57 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.checksum;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.util.zip.CRC32C;
+
+/**
+ * CRC32C checksum exposed as {@link MessageDigest}, so it's computed the same way as the
+ * cryptographic digests. The digest is the big-endian value of the checksum.
+ */
+class Crc32cDigest extends MessageDigest {
+
+  private final CRC32C crc32c = new CRC32C();
+
+  Crc32cDigest() {
+    super("CRC32C");
+  }
+
+  @Override
+  protected void engineUpdate(byte input) {
+    crc32c.update(input);
+  }
+
+  @Override
+  protected void engineUpdate(byte[] input, int offset, int len) {
+    crc32c.update(input, offset, len);
+  }
+
+  @Override
+  protected byte[] engineDigest() {
+    var digest = ByteBuffer.allocate(Integer.BYTES).putInt((int) crc32c.getValue()).array();
+    crc32c.reset();
+    return digest;
+  }
+
+  @Override
+  protected void engineReset() {
+    crc32c.reset();
+  }
+}
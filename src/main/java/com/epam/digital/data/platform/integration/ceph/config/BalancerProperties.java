@@ -0,0 +1,78 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.config;
+
+import java.time.Duration;
+
+public class BalancerProperties {
+
+  public enum Strategy {
+    /**
+     * Route to the endpoint with the least number of requests in progress.
+     */
+    LEAST_OUTSTANDING_REQUESTS,
+    /**
+     * Route to the endpoint with the least exponentially weighted moving average of latency
+     * multiplied by the number of requests in progress.
+     */
+    LATENCY_EWMA
+  }
+
+  private Strategy strategy = Strategy.LEAST_OUTSTANDING_REQUESTS;
+  /**
+   * Weight of the latest latency sample in the moving average.
+   */
+  private double ewmaWeight = 0.3;
+  /**
+   * Number of consecutive connection failures or 5xx responses to eject the endpoint.
+   */
+  private int failureThreshold = 5;
+  private Duration ejectionDuration = Duration.ofSeconds(30);
+
+  public Strategy getStrategy() {
+    return strategy;
+  }
+
+  public void setStrategy(Strategy strategy) {
+    this.strategy = strategy;
+  }
+
+  public double getEwmaWeight() {
+    return ewmaWeight;
+  }
+
+  public void setEwmaWeight(double ewmaWeight) {
+    this.ewmaWeight = ewmaWeight;
+  }
+
+  public int getFailureThreshold() {
+    return failureThreshold;
+  }
+
+  public void setFailureThreshold(int failureThreshold) {
+    this.failureThreshold = failureThreshold;
+  }
+
+  public Duration getEjectionDuration() {
+    return ejectionDuration;
+  }
+
+  public void setEjectionDuration(Duration ejectionDuration) {
+    this.ejectionDuration = ejectionDuration;
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CacheProperties {
+
+  private static final long MB = 1024L * 1024L;
+
+  private boolean enabled;
+  private String directory = System.getProperty("java.io.tmpdir") + "/ceph-cache";
+  /**
+   * Buckets with immutable objects whose content is cached.
+   */
+  private List<String> buckets = new ArrayList<>();
+  /**
+   * Max total size of cached content in bytes, least recently used content is evicted first.
+   */
+  private long maxSize = 1024L * MB;
+  /**
+   * Objects smaller than this size in bytes aren't cached.
+   */
+  private long minObjectSize = MB;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public String getDirectory() {
+    return directory;
+  }
+
+  public void setDirectory(String directory) {
+    this.directory = directory;
+  }
+
+  public List<String> getBuckets() {
+    return buckets;
+  }
+
+  public void setBuckets(List<String> buckets) {
+    this.buckets = buckets;
+  }
+
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  public void setMaxSize(long maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public long getMinObjectSize() {
+    return minObjectSize;
+  }
+
+  public void setMinObjectSize(long minObjectSize) {
+    this.minObjectSize = minObjectSize;
+  }
+}
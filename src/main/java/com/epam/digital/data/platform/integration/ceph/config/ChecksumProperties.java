@@ -0,0 +1,42 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.config;
+
+import com.epam.digital.data.platform.integration.ceph.checksum.ChecksumAlgorithm;
+
+public class ChecksumProperties {
+
+  private boolean enabled;
+  private ChecksumAlgorithm algorithm = ChecksumAlgorithm.SHA256;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public ChecksumAlgorithm getAlgorithm() {
+    return algorithm;
+  }
+
+  public void setAlgorithm(ChecksumAlgorithm algorithm) {
+    this.algorithm = algorithm;
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.config;
+
+import com.amazonaws.ClientConfiguration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Client configuration (connection pool, timeouts, retry policy) used for the calls to the
+ * buckets of the profile instead of the default one.
+ */
+public class ClientProfileProperties {
+
+  /**
+   * Bucket names or patterns with {@code *} wildcard.
+   */
+  private List<String> buckets = new ArrayList<>();
+  private ClientConfiguration client = new ClientConfiguration();
+
+  public List<String> getBuckets() {
+    return buckets;
+  }
+
+  public void setBuckets(List<String> buckets) {
+    this.buckets = buckets;
+  }
+
+  public ClientConfiguration getClient() {
+    return client;
+  }
+
+  public void setClient(ClientConfiguration client) {
+    this.client = client;
+  }
+}
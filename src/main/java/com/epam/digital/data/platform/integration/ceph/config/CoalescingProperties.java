@@ -0,0 +1,44 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.config;
+
+public class CoalescingProperties {
+
+  private boolean enabled;
+  /**
+   * Content of objects up to this size in bytes read by {@code get} is buffered and every waiting
+   * caller gets its own copy. Bigger objects are read by every caller separately.
+   */
+  private long maxSharedContentSize = 1024L * 1024L;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public long getMaxSharedContentSize() {
+    return maxSharedContentSize;
+  }
+
+  public void setMaxSharedContentSize(long maxSharedContentSize) {
+    this.maxSharedContentSize = maxSharedContentSize;
+  }
+}
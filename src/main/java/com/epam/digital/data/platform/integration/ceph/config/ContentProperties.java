@@ -0,0 +1,48 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.config;
+
+public class ContentProperties {
+
+  /**
+   * Object content with at most this number of bytes left unread is read to the end on close,
+   * so the connection is returned to the pool. The connection of bigger remainder is aborted.
+   */
+  private long drainThreshold = 64L * 1024L;
+  /**
+   * Detect object content that became unreachable without being closed, abort its connection
+   * and report it.
+   */
+  private boolean leakDetection = true;
+
+  public long getDrainThreshold() {
+    return drainThreshold;
+  }
+
+  public void setDrainThreshold(long drainThreshold) {
+    this.drainThreshold = drainThreshold;
+  }
+
+  public boolean isLeakDetection() {
+    return leakDetection;
+  }
+
+  public void setLeakDetection(boolean leakDetection) {
+    this.leakDetection = leakDetection;
+  }
+}
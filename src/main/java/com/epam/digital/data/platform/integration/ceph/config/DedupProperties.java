@@ -0,0 +1,84 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DedupProperties {
+
+  private boolean enabled;
+  /**
+   * Buckets whose stream contents are stored once per distinct content.
+   */
+  private List<String> buckets = new ArrayList<>();
+  /**
+   * Key prefix of the content objects in the bucket. Keys with this prefix are hidden from
+   * listings.
+   */
+  private String prefix = ".content/";
+  /**
+   * Contents up to this size in bytes are buffered in memory while they are hashed, bigger ones
+   * are buffered in a temporary file.
+   */
+  private int memoryThreshold = 1024 * 1024;
+  /**
+   * Directory of the temporary files of the contents being hashed.
+   */
+  private String directory = System.getProperty("java.io.tmpdir");
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public List<String> getBuckets() {
+    return buckets;
+  }
+
+  public void setBuckets(List<String> buckets) {
+    this.buckets = buckets;
+  }
+
+  public String getPrefix() {
+    return prefix;
+  }
+
+  public void setPrefix(String prefix) {
+    this.prefix = prefix;
+  }
+
+  public int getMemoryThreshold() {
+    return memoryThreshold;
+  }
+
+  public void setMemoryThreshold(int memoryThreshold) {
+    this.memoryThreshold = memoryThreshold;
+  }
+
+  public String getDirectory() {
+    return directory;
+  }
+
+  public void setDirectory(String directory) {
+    this.directory = directory;
+  }
+}
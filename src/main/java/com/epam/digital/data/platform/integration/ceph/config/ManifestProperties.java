@@ -0,0 +1,84 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ManifestProperties {
+
+  private boolean enabled;
+  /**
+   * Directory where manifest files are stored, one file per bucket.
+   */
+  private String directory = System.getProperty("java.io.tmpdir") + "/ceph-manifest";
+  /**
+   * Buckets to keep manifests for.
+   */
+  private List<String> buckets = new ArrayList<>();
+  /**
+   * Max age of the last full listing for the manifest to answer queries locally. The manifest
+   * starts to be refreshed in background after half of this time.
+   */
+  private Duration maxStaleness = Duration.ofMinutes(10);
+  /**
+   * Number of writes and deletes kept in memory before they are merged into the manifest file.
+   */
+  private int compactionThreshold = 10000;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public String getDirectory() {
+    return directory;
+  }
+
+  public void setDirectory(String directory) {
+    this.directory = directory;
+  }
+
+  public List<String> getBuckets() {
+    return buckets;
+  }
+
+  public void setBuckets(List<String> buckets) {
+    this.buckets = buckets;
+  }
+
+  public Duration getMaxStaleness() {
+    return maxStaleness;
+  }
+
+  public void setMaxStaleness(Duration maxStaleness) {
+    this.maxStaleness = maxStaleness;
+  }
+
+  public int getCompactionThreshold() {
+    return compactionThreshold;
+  }
+
+  public void setCompactionThreshold(int compactionThreshold) {
+    this.compactionThreshold = compactionThreshold;
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class PackingProperties {
+
+  private boolean enabled;
+  /**
+   * Buckets whose small string contents are packed.
+   */
+  private List<String> buckets = new ArrayList<>();
+  /**
+   * Key prefix of the pack objects in the bucket. Keys with this prefix are hidden from listings.
+   */
+  private String prefix = ".packs/";
+  /**
+   * Contents up to this size in bytes are packed, bigger ones are put as separate objects.
+   */
+  private int maxObjectSize = 4 * 1024;
+  /**
+   * Size in bytes at which a pack is written without waiting for {@code maxDelay}.
+   */
+  private long packSize = 4L * 1024L * 1024L;
+  /**
+   * Max time a put waits for other puts to share its pack.
+   */
+  private Duration maxDelay = Duration.ofMillis(20);
+  /**
+   * Min interval between listings of the packs triggered by lookups of unknown keys.
+   */
+  private Duration refreshInterval = Duration.ofSeconds(10);
+  /**
+   * Interval of background compaction of the packs, zero disables it. Compaction should run on a
+   * single instance of the service.
+   */
+  private Duration compactionInterval = Duration.ofMinutes(5);
+  /**
+   * Share of overwritten or deleted entries at which a pack is rewritten by compaction.
+   */
+  private double compactionThreshold = 0.5;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public List<String> getBuckets() {
+    return buckets;
+  }
+
+  public void setBuckets(List<String> buckets) {
+    this.buckets = buckets;
+  }
+
+  public String getPrefix() {
+    return prefix;
+  }
+
+  public void setPrefix(String prefix) {
+    this.prefix = prefix;
+  }
+
+  public int getMaxObjectSize() {
+    return maxObjectSize;
+  }
+
+  public void setMaxObjectSize(int maxObjectSize) {
+    this.maxObjectSize = maxObjectSize;
+  }
+
+  public long getPackSize() {
+    return packSize;
+  }
+
+  public void setPackSize(long packSize) {
+    this.packSize = packSize;
+  }
+
+  public Duration getMaxDelay() {
+    return maxDelay;
+  }
+
+  public void setMaxDelay(Duration maxDelay) {
+    this.maxDelay = maxDelay;
+  }
+
+  public Duration getRefreshInterval() {
+    return refreshInterval;
+  }
+
+  public void setRefreshInterval(Duration refreshInterval) {
+    this.refreshInterval = refreshInterval;
+  }
+
+  public Duration getCompactionInterval() {
+    return compactionInterval;
+  }
+
+  public void setCompactionInterval(Duration compactionInterval) {
+    this.compactionInterval = compactionInterval;
+  }
+
+  public double getCompactionThreshold() {
+    return compactionThreshold;
+  }
+
+  public void setCompactionThreshold(double compactionThreshold) {
+    this.compactionThreshold = compactionThreshold;
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.config;
+
+public class PrefetchProperties {
+
+  private boolean enabled;
+  /**
+   * Objects of at least this size in bytes are read by {@code get} with prefetching.
+   */
+  private long minObjectSize = 16L * 1024L * 1024L;
+  /**
+   * Size in bytes of the ranges the object is fetched by.
+   */
+  private int chunkSize = 4 * 1024 * 1024;
+  /**
+   * Number of chunks fetched ahead of the consumer, so at most this number of chunk buffers is
+   * allocated for every stream.
+   */
+  private int buffers = 4;
+  /**
+   * Number of attempts to resume fetching of a chunk from the last received byte after the
+   * connection was dropped.
+   */
+  private int maxResumeAttempts = 3;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public long getMinObjectSize() {
+    return minObjectSize;
+  }
+
+  public void setMinObjectSize(long minObjectSize) {
+    this.minObjectSize = minObjectSize;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  public void setChunkSize(int chunkSize) {
+    this.chunkSize = chunkSize;
+  }
+
+  public int getBuffers() {
+    return buffers;
+  }
+
+  public void setBuffers(int buffers) {
+    this.buffers = buffers;
+  }
+
+  public int getMaxResumeAttempts() {
+    return maxResumeAttempts;
+  }
+
+  public void setMaxResumeAttempts(int maxResumeAttempts) {
+    this.maxResumeAttempts = maxResumeAttempts;
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.config;
+
+import java.time.Duration;
+
+public class RetryProperties {
+
+  private boolean enabled;
+  /**
+   * Max number of retries of a request.
+   */
+  private int maxRetries = 3;
+  /**
+   * Min delay before a retry of a failed request. Delays grow with decorrelated jitter: every
+   * delay is random between the min one and three times the previous one.
+   */
+  private Duration baseDelay = Duration.ofMillis(25);
+  /**
+   * Min delay before a retry of a request throttled by Ceph, i.e. of a 503 SlowDown or 429
+   * response. A longer Retry-After of the response is honoured.
+   */
+  private Duration throttledBaseDelay = Duration.ofMillis(500);
+  private Duration maxDelay = Duration.ofSeconds(20);
+  /**
+   * Max ratio of retries to requests of a client. Every request adds this fraction of a token to
+   * the retry budget of its endpoint, every retry takes a whole token.
+   */
+  private double budgetRatio = 0.1;
+  /**
+   * Max number of tokens of a retry budget, the budget starts full.
+   */
+  private int budgetCapacity = 10;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getMaxRetries() {
+    return maxRetries;
+  }
+
+  public void setMaxRetries(int maxRetries) {
+    this.maxRetries = maxRetries;
+  }
+
+  public Duration getBaseDelay() {
+    return baseDelay;
+  }
+
+  public void setBaseDelay(Duration baseDelay) {
+    this.baseDelay = baseDelay;
+  }
+
+  public Duration getThrottledBaseDelay() {
+    return throttledBaseDelay;
+  }
+
+  public void setThrottledBaseDelay(Duration throttledBaseDelay) {
+    this.throttledBaseDelay = throttledBaseDelay;
+  }
+
+  public Duration getMaxDelay() {
+    return maxDelay;
+  }
+
+  public void setMaxDelay(Duration maxDelay) {
+    this.maxDelay = maxDelay;
+  }
+
+  public double getBudgetRatio() {
+    return budgetRatio;
+  }
+
+  public void setBudgetRatio(double budgetRatio) {
+    this.budgetRatio = budgetRatio;
+  }
+
+  public int getBudgetCapacity() {
+    return budgetCapacity;
+  }
+
+  public void setBudgetCapacity(int budgetCapacity) {
+    this.budgetCapacity = budgetCapacity;
+  }
+}
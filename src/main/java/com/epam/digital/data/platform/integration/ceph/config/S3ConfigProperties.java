@@ -18,11 +18,28 @@ package com.epam.digital.data.platform.integration.ceph.config;
 
 import com.amazonaws.ClientConfiguration;
 import com.amazonaws.services.s3.S3ClientOptions;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 public class S3ConfigProperties {
 
   private S3ClientOptions options = S3ClientOptions.builder().build();
   private ClientConfiguration client = new ClientConfiguration();
+  private TransferProperties transfer = new TransferProperties();
+  private ManifestProperties manifest = new ManifestProperties();
+  private CacheProperties cache = new CacheProperties();
+  private WarmUpProperties warmUp = new WarmUpProperties();
+  private BalancerProperties balancer = new BalancerProperties();
+  private CoalescingProperties coalescing = new CoalescingProperties();
+  private ChecksumProperties checksum = new ChecksumProperties();
+  private PrefetchProperties prefetch = new PrefetchProperties();
+  private Map<String, ClientProfileProperties> profiles = new LinkedHashMap<>();
+  private ContentProperties content = new ContentProperties();
+  private PackingProperties packing = new PackingProperties();
+  private SpoolProperties spool = new SpoolProperties();
+  private TracingProperties tracing = new TracingProperties();
+  private DedupProperties dedup = new DedupProperties();
+  private RetryProperties retry = new RetryProperties();
 
   public S3ClientOptions getOptions() {
     return options;
@@ -39,4 +56,124 @@ public class S3ConfigProperties {
   public void setClient(ClientConfiguration client) {
     this.client = client;
   }
+
+  public TransferProperties getTransfer() {
+    return transfer;
+  }
+
+  public void setTransfer(TransferProperties transfer) {
+    this.transfer = transfer;
+  }
+
+  public ManifestProperties getManifest() {
+    return manifest;
+  }
+
+  public void setManifest(ManifestProperties manifest) {
+    this.manifest = manifest;
+  }
+
+  public CacheProperties getCache() {
+    return cache;
+  }
+
+  public void setCache(CacheProperties cache) {
+    this.cache = cache;
+  }
+
+  public WarmUpProperties getWarmUp() {
+    return warmUp;
+  }
+
+  public void setWarmUp(WarmUpProperties warmUp) {
+    this.warmUp = warmUp;
+  }
+
+  public BalancerProperties getBalancer() {
+    return balancer;
+  }
+
+  public void setBalancer(BalancerProperties balancer) {
+    this.balancer = balancer;
+  }
+
+  public CoalescingProperties getCoalescing() {
+    return coalescing;
+  }
+
+  public void setCoalescing(CoalescingProperties coalescing) {
+    this.coalescing = coalescing;
+  }
+
+  public ChecksumProperties getChecksum() {
+    return checksum;
+  }
+
+  public void setChecksum(ChecksumProperties checksum) {
+    this.checksum = checksum;
+  }
+
+  public PrefetchProperties getPrefetch() {
+    return prefetch;
+  }
+
+  public void setPrefetch(PrefetchProperties prefetch) {
+    this.prefetch = prefetch;
+  }
+
+  public Map<String, ClientProfileProperties> getProfiles() {
+    return profiles;
+  }
+
+  public void setProfiles(Map<String, ClientProfileProperties> profiles) {
+    this.profiles = profiles;
+  }
+
+  public ContentProperties getContent() {
+    return content;
+  }
+
+  public void setContent(ContentProperties content) {
+    this.content = content;
+  }
+
+  public PackingProperties getPacking() {
+    return packing;
+  }
+
+  public void setPacking(PackingProperties packing) {
+    this.packing = packing;
+  }
+
+  public SpoolProperties getSpool() {
+    return spool;
+  }
+
+  public void setSpool(SpoolProperties spool) {
+    this.spool = spool;
+  }
+
+  public TracingProperties getTracing() {
+    return tracing;
+  }
+
+  public void setTracing(TracingProperties tracing) {
+    this.tracing = tracing;
+  }
+
+  public DedupProperties getDedup() {
+    return dedup;
+  }
+
+  public void setDedup(DedupProperties dedup) {
+    this.dedup = dedup;
+  }
+
+  public RetryProperties getRetry() {
+    return retry;
+  }
+
+  public void setRetry(RetryProperties retry) {
+    this.retry = retry;
+  }
 }
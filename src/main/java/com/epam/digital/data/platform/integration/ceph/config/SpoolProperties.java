@@ -0,0 +1,117 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SpoolProperties {
+
+  private boolean enabled;
+  /**
+   * Buckets whose string puts are spooled.
+   */
+  private List<String> buckets = new ArrayList<>();
+  /**
+   * Directory of the journal, it should be on a persistent volume so that spooled puts survive a
+   * restart.
+   */
+  private String directory = System.getProperty("java.io.tmpdir") + "/ceph-spool";
+  /**
+   * Max size of the journal in bytes. Puts are sent to Ceph directly while it is full.
+   */
+  private long maxSize = 256L * 1024L * 1024L;
+  /**
+   * Size of a journal segment file in bytes. A segment is deleted once all its puts are uploaded.
+   */
+  private long segmentSize = 16L * 1024L * 1024L;
+  /**
+   * Max number of concurrent uploads of spooled puts.
+   */
+  private int uploadConcurrency = 4;
+  /**
+   * Delay before the first retry of a failed upload, doubled for every next one.
+   */
+  private Duration retryDelay = Duration.ofSeconds(1);
+  private Duration maxRetryDelay = Duration.ofMinutes(1);
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public List<String> getBuckets() {
+    return buckets;
+  }
+
+  public void setBuckets(List<String> buckets) {
+    this.buckets = buckets;
+  }
+
+  public String getDirectory() {
+    return directory;
+  }
+
+  public void setDirectory(String directory) {
+    this.directory = directory;
+  }
+
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  public void setMaxSize(long maxSize) {
+    this.maxSize = maxSize;
+  }
+
+  public long getSegmentSize() {
+    return segmentSize;
+  }
+
+  public void setSegmentSize(long segmentSize) {
+    this.segmentSize = segmentSize;
+  }
+
+  public int getUploadConcurrency() {
+    return uploadConcurrency;
+  }
+
+  public void setUploadConcurrency(int uploadConcurrency) {
+    this.uploadConcurrency = uploadConcurrency;
+  }
+
+  public Duration getRetryDelay() {
+    return retryDelay;
+  }
+
+  public void setRetryDelay(Duration retryDelay) {
+    this.retryDelay = retryDelay;
+  }
+
+  public Duration getMaxRetryDelay() {
+    return maxRetryDelay;
+  }
+
+  public void setMaxRetryDelay(Duration maxRetryDelay) {
+    this.maxRetryDelay = maxRetryDelay;
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.config;
+
+public class TransferProperties {
+
+  private static final long MB = 1024L * 1024L;
+
+  /**
+   * Objects bigger than this size are copied with multipart copy (UploadPartCopy), 5 GB is the
+   * max size of the object that can be copied with a single copy request.
+   */
+  private long multipartCopyThreshold = 5L * 1024L * MB;
+  private long multipartCopyPartSize = 512L * MB;
+
+  public long getMultipartCopyThreshold() {
+    return multipartCopyThreshold;
+  }
+
+  public void setMultipartCopyThreshold(long multipartCopyThreshold) {
+    this.multipartCopyThreshold = multipartCopyThreshold;
+  }
+
+  public long getMultipartCopyPartSize() {
+    return multipartCopyPartSize;
+  }
+
+  public void setMultipartCopyPartSize(long multipartCopyPartSize) {
+    this.multipartCopyPartSize = multipartCopyPartSize;
+  }
+}
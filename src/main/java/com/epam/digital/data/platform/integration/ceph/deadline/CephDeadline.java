@@ -0,0 +1,129 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.deadline;
+
+import com.epam.digital.data.platform.integration.ceph.exception.CephTimeoutException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Deadline of the calls to Ceph made by the current thread. Every request sent within a scope
+ * gets the remaining time as its client execution timeout, which also bounds its retries, and
+ * fails with {@link CephTimeoutException} once the deadline is exceeded:
+ * <pre>{@code
+ * try (var scope = CephDeadline.within(Duration.ofMillis(200))) {
+ *   cephService.getAsString(bucket, key);
+ * }
+ * }</pre>
+ * Scopes can be nested, an inner scope can't extend the deadline of an outer one. Batch
+ * operations of {@code CephServiceS3Impl} run their requests within the deadline of the caller,
+ * background work like spool uploads, prefetching or manifest refreshes doesn't.
+ * Requests are bounded only by clients with {@link DeadlineRequestHandler}, which is added to the
+ * clients created by the library.
+ */
+public final class CephDeadline {
+
+  private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+  private CephDeadline() {
+  }
+
+  /**
+   * Start a scope whose calls must complete within the timeout.
+   */
+  public static Scope within(Duration timeout) {
+    var deadlineNanos = System.nanoTime() + Math.max(timeout.toNanos(), 0L);
+    return open(deadlineNanos);
+  }
+
+  /**
+   * Start a scope whose calls must complete before the instant.
+   */
+  public static Scope until(Instant deadline) {
+    return within(Duration.between(Instant.now(), deadline));
+  }
+
+  /**
+   * @return time left before the deadline of the current thread, negative once it is exceeded,
+   * empty if there is no deadline
+   */
+  public static Optional<Duration> remaining() {
+    var deadlineNanos = DEADLINE_NANOS.get();
+    return deadlineNanos == null ? Optional.empty()
+        : Optional.of(Duration.ofNanos(deadlineNanos - System.nanoTime()));
+  }
+
+  /**
+   * @return true if the current thread has a deadline and it is exceeded
+   */
+  public static boolean isExceeded() {
+    var deadlineNanos = DEADLINE_NANOS.get();
+    return deadlineNanos != null && deadlineNanos - System.nanoTime() <= 0L;
+  }
+
+  /**
+   * @return task that runs within the deadline of the current thread
+   */
+  public static Runnable wrap(Runnable task) {
+    var deadlineNanos = DEADLINE_NANOS.get();
+    if (deadlineNanos == null) {
+      return task;
+    }
+    return () -> {
+      try (var scope = open(deadlineNanos)) {
+        task.run();
+      }
+    };
+  }
+
+  /**
+   * @return exception of a call that didn't complete before the deadline
+   */
+  public static CephTimeoutException exceeded(Throwable cause) {
+    return new CephTimeoutException("Deadline of the call to Ceph is exceeded", cause);
+  }
+
+  private static Scope open(long deadlineNanos) {
+    var previous = DEADLINE_NANOS.get();
+    DEADLINE_NANOS.set(previous != null && previous - deadlineNanos < 0L ? previous
+        : deadlineNanos);
+    return new Scope(previous);
+  }
+
+  /**
+   * Scope of a deadline, closing it restores the deadline the thread had before.
+   */
+  public static final class Scope implements AutoCloseable {
+
+    private final Long previous;
+
+    private Scope(Long previous) {
+      this.previous = previous;
+    }
+
+    @Override
+    public void close() {
+      if (previous == null) {
+        DEADLINE_NANOS.remove();
+      } else {
+        DEADLINE_NANOS.set(previous);
+      }
+    }
+  }
+}
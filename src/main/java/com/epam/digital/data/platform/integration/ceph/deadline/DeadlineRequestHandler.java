@@ -0,0 +1,55 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.deadline;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.handlers.HandlerBeforeAttemptContext;
+import com.amazonaws.handlers.RequestHandler2;
+
+/**
+ * Request handler that bounds every request sent within a {@link CephDeadline} scope by the time
+ * left before the deadline. Requests aren't sent and retries aren't attempted once the deadline
+ * is exceeded.
+ */
+public class DeadlineRequestHandler extends RequestHandler2 {
+
+  @Override
+  public AmazonWebServiceRequest beforeExecution(AmazonWebServiceRequest request) {
+    var remaining = CephDeadline.remaining();
+    if (remaining.isEmpty()) {
+      return request;
+    }
+    var remainingMillis = remaining.get().toMillis();
+    if (remainingMillis < 1L) {
+      throw CephDeadline.exceeded(null);
+    }
+    var timeout = (int) Math.min(remainingMillis, Integer.MAX_VALUE);
+    var currentTimeout = request.getSdkClientExecutionTimeout();
+    if (currentTimeout == null || currentTimeout <= 0 || currentTimeout > timeout) {
+      request.setSdkClientExecutionTimeout(timeout);
+    }
+    return request;
+  }
+
+  @Override
+  public void beforeAttempt(HandlerBeforeAttemptContext context) {
+    if (CephDeadline.isExceeded()) {
+      throw CephDeadline.exceeded(null);
+    }
+  }
+}
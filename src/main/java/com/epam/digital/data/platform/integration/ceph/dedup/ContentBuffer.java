@@ -0,0 +1,125 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.dedup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Content read once and hashed while it is read. Content is kept in memory up to the threshold
+ * and in a temporary file, deleted on close, above it.
+ */
+final class ContentBuffer implements Closeable {
+
+  private static final String HASH_ALGORITHM = "SHA-256";
+  private static final int CHUNK_SIZE = 8192;
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private final byte[] bytes;
+  private final Path file;
+  private final long size;
+  private final String hash;
+
+  private ContentBuffer(byte[] bytes, Path file, long size, String hash) {
+    this.bytes = bytes;
+    this.file = file;
+    this.size = size;
+    this.hash = hash;
+  }
+
+  static ContentBuffer read(InputStream content, int memoryThreshold, Path directory)
+      throws IOException {
+    var digest = newDigest();
+    var memory = new ByteArrayOutputStream();
+    OutputStream output = memory;
+    Path file = null;
+    var size = 0L;
+    var chunk = new byte[CHUNK_SIZE];
+    try {
+      int read;
+      while ((read = content.read(chunk)) != -1) {
+        digest.update(chunk, 0, read);
+        if (file == null && size + read > memoryThreshold) {
+          Files.createDirectories(directory);
+          file = Files.createTempFile(directory, "ceph-dedup-", ".tmp");
+          output = Files.newOutputStream(file);
+          memory.writeTo(output);
+          memory = null;
+        }
+        output.write(chunk, 0, read);
+        size += read;
+      }
+      output.close();
+    } catch (IOException | RuntimeException exception) {
+      output.close();
+      if (file != null) {
+        Files.deleteIfExists(file);
+      }
+      throw exception;
+    }
+    var hash = toHex(digest.digest());
+    return new ContentBuffer(file == null ? memory.toByteArray() : null, file, size, hash);
+  }
+
+  /**
+   * @return hex of SHA-256 of the content
+   */
+  String getHash() {
+    return hash;
+  }
+
+  long getSize() {
+    return size;
+  }
+
+  InputStream open() throws IOException {
+    return file == null ? new ByteArrayInputStream(bytes) : Files.newInputStream(file);
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (file != null) {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(HASH_ALGORITHM);
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private static String toHex(byte[] digest) {
+    var hex = new char[digest.length * 2];
+    for (var i = 0; i < digest.length; i++) {
+      hex[2 * i] = HEX_DIGITS[(digest[i] >> 4) & 0xf];
+      hex[2 * i + 1] = HEX_DIGITS[digest[i] & 0xf];
+    }
+    return new String(hex);
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.dedup;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.epam.digital.data.platform.integration.ceph.config.DedupProperties;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stores stream contents of the configured buckets once per distinct content. Content is hashed
+ * while it is buffered, stored under the key of its hash unless an object with this key already
+ * exists, and the key of the content is put as a pointer object whose user metadata refers to
+ * the content object. Pointers are resolved by the service on reads.
+ * <p>
+ * Content objects aren't deleted with the pointers, as other pointers may refer to them.
+ */
+@Slf4j
+public class DedupStore {
+
+  /**
+   * User metadata of a pointer holding the key of the content object.
+   */
+  public static final String CONTENT_KEY_METADATA = "ceph-content-key";
+  /**
+   * User metadata of a pointer holding the length of the content.
+   */
+  public static final String CONTENT_LENGTH_METADATA = "ceph-content-length";
+
+  private final AmazonS3 cephAmazonS3;
+  private final DedupProperties properties;
+
+  public DedupStore(AmazonS3 cephAmazonS3, DedupProperties properties) {
+    this.cephAmazonS3 = cephAmazonS3;
+    this.properties = properties;
+  }
+
+  public boolean isDeduplicated(String cephBucketName) {
+    return properties.getBuckets().contains(cephBucketName);
+  }
+
+  /**
+   * @return whether the key belongs to a content object rather than to a user object
+   */
+  public boolean isContentKey(String key) {
+    return key.startsWith(properties.getPrefix());
+  }
+
+  /**
+   * Put content under the key of its hash if there is no such content yet and the pointer to it
+   * under the key.
+   *
+   * @return metadata of the pointer
+   */
+  public ObjectMetadata put(String cephBucketName, String key, String contentType,
+      Map<String, String> userMetadata, InputStream content) throws IOException {
+    try (var buffer = ContentBuffer.read(content, properties.getMemoryThreshold(),
+        Path.of(properties.getDirectory()))) {
+      var contentKey = properties.getPrefix() + buffer.getHash();
+      if (cephAmazonS3.doesObjectExist(cephBucketName, contentKey)) {
+        log.info("Content of {} is already stored as {} in ceph bucket {}", key, contentKey,
+            cephBucketName);
+      } else {
+        var contentMetadata = new ObjectMetadata();
+        contentMetadata.setContentType(contentType);
+        contentMetadata.setContentLength(buffer.getSize());
+        try (var bufferedContent = buffer.open()) {
+          cephAmazonS3.putObject(cephBucketName, contentKey, bufferedContent, contentMetadata);
+        }
+      }
+      var pointer = contentKey.getBytes(StandardCharsets.UTF_8);
+      var pointerUserMetadata = userMetadata == null ? new HashMap<String, String>()
+          : new HashMap<>(userMetadata);
+      pointerUserMetadata.put(CONTENT_KEY_METADATA, contentKey);
+      pointerUserMetadata.put(CONTENT_LENGTH_METADATA, String.valueOf(buffer.getSize()));
+      var pointerMetadata = new ObjectMetadata();
+      pointerMetadata.setContentType(contentType);
+      pointerMetadata.setContentLength(pointer.length);
+      pointerMetadata.setUserMetadata(pointerUserMetadata);
+      var result = cephAmazonS3.putObject(cephBucketName, key, new ByteArrayInputStream(pointer),
+          pointerMetadata);
+      pointerMetadata.setHeader("ETag", result.getETag());
+      pointerMetadata.setLastModified(new Date());
+      return pointerMetadata;
+    }
+  }
+
+  /**
+   * @return key of the content object if the metadata is the one of a pointer
+   */
+  public static Optional<String> getContentKey(ObjectMetadata objectMetadata) {
+    var userMetadata = objectMetadata.getUserMetadata();
+    return userMetadata == null ? Optional.empty()
+        : Optional.ofNullable(userMetadata.get(CONTENT_KEY_METADATA));
+  }
+
+  /**
+   * Metadata replacing the one of a stored object on change of its user metadata. A pointer keeps
+   * its attributes and content type, so that it still refers to its content.
+   */
+  public static ObjectMetadata toReplacingMetadata(ObjectMetadata storedMetadata,
+      Map<String, String> userMetadata) {
+    var newMetadata = new ObjectMetadata();
+    var contentKey = getContentKey(storedMetadata);
+    if (contentKey.isEmpty()) {
+      newMetadata.setUserMetadata(userMetadata);
+      return newMetadata;
+    }
+    var pointerUserMetadata = userMetadata == null ? new HashMap<String, String>()
+        : new HashMap<>(userMetadata);
+    pointerUserMetadata.put(CONTENT_KEY_METADATA, contentKey.get());
+    var contentLength = storedMetadata.getUserMetadata().get(CONTENT_LENGTH_METADATA);
+    if (contentLength != null) {
+      pointerUserMetadata.put(CONTENT_LENGTH_METADATA, contentLength);
+    }
+    newMetadata.setContentType(storedMetadata.getContentType());
+    newMetadata.setUserMetadata(pointerUserMetadata);
+    return newMetadata;
+  }
+
+  /**
+   * Metadata of the content a pointer refers to: the length of the content and the user metadata
+   * without the pointer attributes. Metadata of other objects is returned as is.
+   */
+  public static ObjectMetadata toContentMetadata(ObjectMetadata objectMetadata) {
+    var userMetadata = objectMetadata.getUserMetadata();
+    if (userMetadata == null || !userMetadata.containsKey(CONTENT_KEY_METADATA)) {
+      return objectMetadata;
+    }
+    var contentMetadata = objectMetadata.clone();
+    var contentUserMetadata = new HashMap<>(userMetadata);
+    contentUserMetadata.remove(CONTENT_KEY_METADATA);
+    var contentLength = contentUserMetadata.remove(CONTENT_LENGTH_METADATA);
+    contentMetadata.setUserMetadata(contentUserMetadata);
+    if (contentLength != null) {
+      contentMetadata.setContentLength(Long.parseLong(contentLength));
+    }
+    return contentMetadata;
+  }
+}
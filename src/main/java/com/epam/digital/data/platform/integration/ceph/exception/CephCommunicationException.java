@@ -21,4 +21,11 @@ public class CephCommunicationException extends RuntimeException {
   public CephCommunicationException(String message, Throwable cause) {
     super(message, cause);
   }
+
+  /**
+   * @return whether the call may succeed if it is retried, see {@link CephRetryableException}
+   */
+  public boolean isRetryable() {
+    return false;
+  }
 }
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.exception;
+
+/**
+ * Thrown if Ceph throttled a call (503 SlowDown or 429). Retrying is safe, but only after a
+ * long backoff, as retries add to the overload of Ceph.
+ */
+public class CephThrottledException extends CephRetryableException {
+
+  public CephThrottledException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
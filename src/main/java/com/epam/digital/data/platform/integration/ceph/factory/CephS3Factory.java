@@ -16,20 +16,50 @@
 
 package com.epam.digital.data.platform.integration.ceph.factory;
 
+import com.amazonaws.ClientConfiguration;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.handlers.RequestHandler2;
 import com.amazonaws.metrics.RequestMetricCollector;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.epam.digital.data.platform.integration.ceph.balancer.EndpointBalancer;
+import com.epam.digital.data.platform.integration.ceph.balancer.EndpointMetricsBinder;
 import com.epam.digital.data.platform.integration.ceph.config.S3ConfigProperties;
+import com.epam.digital.data.platform.integration.ceph.deadline.DeadlineRequestHandler;
+import com.epam.digital.data.platform.integration.ceph.model.WarmUpResult;
+import com.epam.digital.data.platform.integration.ceph.retry.CephRetryPolicy;
+import com.epam.digital.data.platform.integration.ceph.retry.RetryBudget;
+import com.epam.digital.data.platform.integration.ceph.retry.RetryBudgetHandler;
+import com.epam.digital.data.platform.integration.ceph.retry.RetryMetricsBinder;
+import com.epam.digital.data.platform.integration.ceph.routing.BucketRouter;
 import com.epam.digital.data.platform.integration.ceph.service.CephService;
+import com.epam.digital.data.platform.integration.ceph.service.ContentLeakListener;
+import com.epam.digital.data.platform.integration.ceph.service.impl.CephExecutors;
 import com.epam.digital.data.platform.integration.ceph.service.impl.CephServiceS3Impl;
+import com.epam.digital.data.platform.integration.ceph.spool.SpoolMetricsBinder;
+import com.epam.digital.data.platform.integration.ceph.tracing.TracingRequestHandler;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.DisposableBean;
 
-public class CephS3Factory {
+public class CephS3Factory implements DisposableBean {
 
   private final S3ConfigProperties s3ConfigProperties;
   private final RequestMetricCollector metricsCollector;
+  private final IntFunction<ExecutorService> executorFactory;
+  private final List<CompletableFuture<WarmUpResult>> warmUps = new CopyOnWriteArrayList<>();
+  private final List<CephServiceS3Impl> services = new CopyOnWriteArrayList<>();
+  private final Map<String, RetryBudget> retryBudgets = new ConcurrentHashMap<>();
 
   public CephS3Factory(S3ConfigProperties s3ConfigProperties) {
     this(s3ConfigProperties, null);
@@ -37,21 +67,145 @@ public class CephS3Factory {
 
   public CephS3Factory(S3ConfigProperties s3ConfigProperties,
       RequestMetricCollector metricsCollector) {
+    this(s3ConfigProperties, metricsCollector, CephExecutors::newBoundedExecutor);
+  }
+
+  /**
+   * @param executorFactory factory of the executor of the parallel operations of a service by the
+   *                        max number of concurrent tasks, which is the biggest connection
+   *                        pool size of the default client and of the profiles
+   */
+  public CephS3Factory(S3ConfigProperties s3ConfigProperties,
+      RequestMetricCollector metricsCollector, IntFunction<ExecutorService> executorFactory) {
     this.s3ConfigProperties = s3ConfigProperties;
     this.metricsCollector = metricsCollector;
+    this.executorFactory = executorFactory;
   }
 
+  /**
+   * Create ceph service. If warm-up is enabled, it is started in background, use
+   * {@link #isReady()} to check whether it is over. Calls to the buckets of the client profiles
+   * are sent with the clients of the profiles.
+   */
   public CephService createCephService(
       String cephEndpoint, String cephAccessKey, String cephSecretKey) {
-    return new CephServiceS3Impl(s3Client(cephEndpoint, cephAccessKey, cephSecretKey));
+    return createCephService(List.of(cephEndpoint), cephAccessKey, cephSecretKey);
+  }
+
+  private CephService createCephService(AmazonS3 s3Client) {
+    var contentLeakListener = metricsCollector instanceof ContentLeakListener
+        ? (ContentLeakListener) metricsCollector : null;
+    var cephService = new CephServiceS3Impl(s3Client, s3ConfigProperties, contentLeakListener,
+        executorFactory.apply(getMaxConnections()));
+    if (metricsCollector instanceof SpoolMetricsBinder) {
+      cephService.getWriteSpool().ifPresent(((SpoolMetricsBinder) metricsCollector)::bindSpool);
+    }
+    if (s3ConfigProperties.getWarmUp().isEnabled()) {
+      warmUps.add(cephService.warmUp(s3ConfigProperties.getWarmUp()));
+    }
+    services.add(cephService);
+    return cephService;
+  }
+
+  /**
+   * @return the biggest connection pool of the default client and of the clients of the profiles,
+   * so that parallel operations on the buckets of any profile can use its whole pool
+   */
+  private int getMaxConnections() {
+    return s3ConfigProperties.getProfiles().values().stream()
+        .mapToInt(profile -> profile.getClient().getMaxConnections())
+        .reduce(s3ConfigProperties.getClient().getMaxConnections(), Math::max);
+  }
+
+  /**
+   * Create ceph service that balances requests between several RGW endpoints of the same
+   * cluster. Every endpoint gets its own client, unhealthy endpoints are ejected from routing.
+   * State of the endpoints is exposed by the metrics collector if it supports it.
+   */
+  public CephService createCephService(
+      List<String> cephEndpoints, String cephAccessKey, String cephSecretKey) {
+    var defaultClient = s3Client(cephEndpoints, cephAccessKey, cephSecretKey,
+        s3ConfigProperties.getClient(), true);
+    if (s3ConfigProperties.getProfiles().isEmpty()) {
+      return createCephService(defaultClient);
+    }
+    var clientsByBucketPattern = new LinkedHashMap<String, AmazonS3>();
+    s3ConfigProperties.getProfiles().values().forEach(profile -> {
+      var client = s3Client(cephEndpoints, cephAccessKey, cephSecretKey, profile.getClient(),
+          false);
+      profile.getBuckets().forEach(bucket -> clientsByBucketPattern.putIfAbsent(bucket, client));
+    });
+    return createCephService(BucketRouter.route(defaultClient, clientsByBucketPattern));
+  }
+
+  /**
+   * @return true if warm-up of every created service is over and succeeded, always true if
+   * warm-up is disabled
+   */
+  public boolean isReady() {
+    return warmUps.stream().allMatch(warmUp -> warmUp.isDone() && warmUp.join().isReady());
+  }
+
+  /**
+   * @return results of the finished warm-ups of the created services
+   */
+  public List<WarmUpResult> getWarmUpResults() {
+    return warmUps.stream().filter(CompletableFuture::isDone).map(CompletableFuture::join)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Shut down the executors of the created services. Called by Spring when the context is closed,
+   * if the factory is a bean.
+   */
+  @Override
+  public void destroy() {
+    services.forEach(CephServiceS3Impl::destroy);
+  }
+
+  /**
+   * Endpoints of the profiles aren't bound to the metrics collector, only the ones of the default
+   * client are.
+   */
+  private AmazonS3 s3Client(List<String> cephEndpoints, String cephAccessKey,
+      String cephSecretKey, ClientConfiguration clientConfiguration, boolean bindEndpoints) {
+    if (cephEndpoints.size() == 1) {
+      return s3Client(cephEndpoints.get(0), cephAccessKey, cephSecretKey, clientConfiguration);
+    }
+    var clients = new LinkedHashMap<String, AmazonS3>();
+    cephEndpoints.forEach(cephEndpoint -> clients.put(cephEndpoint,
+        s3Client(cephEndpoint, cephAccessKey, cephSecretKey, clientConfiguration)));
+    var balancedClient = EndpointBalancer.balance(clients, s3ConfigProperties.getBalancer());
+    if (bindEndpoints && metricsCollector instanceof EndpointMetricsBinder) {
+      ((EndpointMetricsBinder) metricsCollector).bindEndpoints(
+          EndpointBalancer.getEndpoints(balancedClient));
+    }
+    return balancedClient;
   }
 
-  private AmazonS3 s3Client(String cephEndpoint, String cephAccessKey, String cephSecretKey) {
+  /**
+   * If retries are limited by a budget, the clients of the same endpoint share it, whatever
+   * profile they are created for. Max retries and retry condition of the client configuration
+   * are kept.
+   */
+  private AmazonS3 s3Client(String cephEndpoint, String cephAccessKey, String cephSecretKey,
+      ClientConfiguration clientConfiguration) {
     var clientOptions = s3ConfigProperties.getOptions();
+    var requestHandlers = new ArrayList<RequestHandler2>();
+    requestHandlers.add(new DeadlineRequestHandler());
+    var retryProperties = s3ConfigProperties.getRetry();
+    if (retryProperties.isEnabled()) {
+      var retryBudget = retryBudgets.computeIfAbsent(cephEndpoint, this::retryBudget);
+      clientConfiguration = new ClientConfiguration(clientConfiguration)
+          .withRetryPolicy(
+              CephRetryPolicy.create(retryProperties, retryBudget, clientConfiguration))
+          .withThrottledRetries(false);
+      requestHandlers.add(new RetryBudgetHandler(retryBudget));
+    }
     var builder = AmazonS3ClientBuilder.standard()
         .withCredentials(
             new AWSStaticCredentialsProvider(new BasicAWSCredentials(cephAccessKey, cephSecretKey)))
-        .withClientConfiguration(s3ConfigProperties.getClient())
+        .withClientConfiguration(clientConfiguration)
         .withEndpointConfiguration(new AwsClientBuilder.EndpointConfiguration(cephEndpoint, null))
         .withPathStyleAccessEnabled(clientOptions.isPathStyleAccess())
         .withChunkedEncodingDisabled(clientOptions.isChunkedEncodingDisabled())
@@ -62,6 +216,22 @@ public class CephS3Factory {
     if (metricsCollector != null) {
       builder.withMetricsCollector(metricsCollector);
     }
-    return builder.build();
+    if (s3ConfigProperties.getTracing().isEnabled()) {
+      requestHandlers.add(new TracingRequestHandler());
+      if (metricsCollector == null) {
+        builder.withMetricsCollector(TracingRequestHandler.TIMING_COLLECTOR);
+      }
+    }
+    return builder.withRequestHandlers(requestHandlers.toArray(RequestHandler2[]::new)).build();
+  }
+
+  private RetryBudget retryBudget(String cephEndpoint) {
+    var retryProperties = s3ConfigProperties.getRetry();
+    var retryBudget = new RetryBudget(cephEndpoint, retryProperties.getBudgetRatio(),
+        retryProperties.getBudgetCapacity());
+    if (metricsCollector instanceof RetryMetricsBinder) {
+      ((RetryMetricsBinder) metricsCollector).bindRetryBudget(retryBudget);
+    }
+    return retryBudget;
   }
 }
@@ -0,0 +1,380 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.manifest;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.epam.digital.data.platform.integration.ceph.manifest.model.ManifestEntry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Manifest of the keys of one bucket. It consists of the manifest file written by the last full
+ * listing of the bucket and of the in-memory overlay of writes and deletes made after it. The
+ * overlay is merged into the file by compaction.
+ */
+@Slf4j
+public class KeyManifest {
+
+  private final Path path;
+  private final int compactionThreshold;
+  private final ConcurrentSkipListMap<String, Change> overlay =
+      new ConcurrentSkipListMap<>(ManifestFile.KEY_ORDER);
+  private volatile ManifestFile file;
+  private RefreshPass refreshPass;
+
+  KeyManifest(Path path, int compactionThreshold) {
+    this(path, compactionThreshold, ManifestFile.empty());
+  }
+
+  KeyManifest(Path path, int compactionThreshold, ManifestFile file) {
+    this.path = path;
+    this.compactionThreshold = compactionThreshold;
+    this.file = file;
+  }
+
+  /**
+   * @return time of the last full listing of the bucket in millis, 0 if it was never listed
+   */
+  public long getListedAt() {
+    return file.getListedAt();
+  }
+
+  public int getPendingChanges() {
+    return overlay.size();
+  }
+
+  public Optional<ManifestEntry> get(String key) {
+    var change = overlay.get(key);
+    if (change != null) {
+      return Optional.ofNullable(change.entry);
+    }
+    return read(current -> current.get(key));
+  }
+
+  public boolean exists(String key) {
+    return get(key).isPresent();
+  }
+
+  /**
+   * @return entries with the key prefix in the key order
+   */
+  public List<ManifestEntry> list(String prefix) {
+    return list(prefix, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @return first entries with the key prefix in the key order, at most {@code maxKeys} of them
+   * like in a single page of a bucket listing
+   */
+  public List<ManifestEntry> list(String prefix, int maxKeys) {
+    return read(current -> {
+      var result = new ArrayList<ManifestEntry>();
+      var fileEntries = current.iterateFrom(prefix);
+      var changes = overlay.tailMap(prefix).entrySet().iterator();
+      var fileEntry = nextEntry(fileEntries, prefix);
+      var change = nextChange(changes, prefix);
+      while ((fileEntry != null || change != null) && result.size() < maxKeys) {
+        var order = fileEntry == null ? 1 : change == null ? -1
+            : ManifestFile.KEY_ORDER.compare(fileEntry.getKey(), change.getKey());
+        if (order < 0) {
+          result.add(fileEntry);
+          fileEntry = nextEntry(fileEntries, prefix);
+        } else {
+          if (change.getValue().entry != null) {
+            result.add(change.getValue().entry);
+          }
+          if (order == 0) {
+            fileEntry = nextEntry(fileEntries, prefix);
+          }
+          change = nextChange(changes, prefix);
+        }
+      }
+      return result;
+    });
+  }
+
+  public void put(ManifestEntry entry) {
+    overlay.put(entry.getKey(), new Change(entry, System.currentTimeMillis()));
+  }
+
+  public void delete(String key) {
+    overlay.put(key, new Change(null, System.currentTimeMillis()));
+  }
+
+  /**
+   * Make a full listing of the bucket page by page, each page is requested after the last
+   * listed key. If listing fails, the next refresh continues from the last listed key instead of
+   * starting over.
+   *
+   * <p>The first listing writes the manifest file. Later listings are compared with the file and
+   * only the differences are applied to the overlay, which is merged into the file by compaction.
+   * If nothing has changed, only the time of the listing is updated in the file.
+   */
+  public synchronized void refresh(AmazonS3 cephAmazonS3, String cephBucketName) {
+    try {
+      if (refreshPass == null) {
+        refreshPass = new RefreshPass(
+            getListedAt() == 0L ? new ManifestFile.Writer(path) : null,
+            System.currentTimeMillis());
+      }
+      log.debug("Listing bucket {} for manifest after key {}", cephBucketName,
+          refreshPass.lastKey);
+      ObjectListing page = cephAmazonS3.listObjects(new ListObjectsRequest()
+          .withBucketName(cephBucketName)
+          .withMarker(refreshPass.lastKey));
+      while (true) {
+        var entries = page.getObjectSummaries().stream()
+            .map(KeyManifest::toEntry)
+            .collect(Collectors.toList());
+        if (refreshPass.writer != null) {
+          for (var entry : entries) {
+            refreshPass.writer.append(entry);
+          }
+        } else {
+          applyListedPage(entries, !page.isTruncated());
+        }
+        if (!entries.isEmpty()) {
+          refreshPass.lastKey = entries.get(entries.size() - 1).getKey();
+        }
+        if (!page.isTruncated()) {
+          break;
+        }
+        page = cephAmazonS3.listNextBatchOfObjects(page);
+      }
+      finishRefresh(cephBucketName);
+    } catch (IOException exception) {
+      abortRefresh();
+      throw new UncheckedIOException(exception);
+    } catch (IllegalArgumentException exception) {
+      abortRefresh();
+      throw exception;
+    }
+  }
+
+  /**
+   * Merge the overlay into the manifest file keeping the time of the last full listing.
+   */
+  public synchronized void compact() {
+    if (refreshPass != null) {
+      return;
+    }
+    try {
+      merge(file.getListedAt());
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  private <T> T read(Function<ManifestFile, T> reader) {
+    while (true) {
+      var current = file;
+      if (current.acquire()) {
+        try {
+          return reader.apply(current);
+        } finally {
+          current.release();
+        }
+      }
+    }
+  }
+
+  /**
+   * Compare a page of the listing with the file entries after the previous page. Keys missing in
+   * the file or listed with other attributes are recorded as puts, file keys missing in the
+   * listing are recorded as deletes. Changes recorded after the listing has started are newer
+   * than the listing and are kept.
+   */
+  private void applyListedPage(List<ManifestEntry> entries, boolean lastPage) throws IOException {
+    var lastKey = refreshPass.lastKey;
+    var fileEntries = file.iterateFrom(lastKey == null ? "" : lastKey);
+    var fileEntry = fileEntries.hasNext() ? fileEntries.next() : null;
+    if (fileEntry != null && fileEntry.getKey().equals(lastKey)) {
+      fileEntry = fileEntries.hasNext() ? fileEntries.next() : null;
+    }
+    for (var entry : entries) {
+      while (fileEntry != null
+          && ManifestFile.KEY_ORDER.compare(fileEntry.getKey(), entry.getKey()) < 0) {
+        applyListed(fileEntry.getKey(), null, fileEntry);
+        fileEntry = fileEntries.hasNext() ? fileEntries.next() : null;
+      }
+      if (fileEntry != null && fileEntry.getKey().equals(entry.getKey())) {
+        applyListed(entry.getKey(), entry, fileEntry);
+        fileEntry = fileEntries.hasNext() ? fileEntries.next() : null;
+      } else {
+        applyListed(entry.getKey(), entry, null);
+      }
+    }
+    while (lastPage && fileEntry != null) {
+      applyListed(fileEntry.getKey(), null, fileEntry);
+      fileEntry = fileEntries.hasNext() ? fileEntries.next() : null;
+    }
+    // older changes of the keys up to the end of the page are either listed or gone
+    var startedAt = refreshPass.startedAt;
+    if (lastPage) {
+      overlay.values().removeIf(change -> change.recordedAt < startedAt);
+    } else if (!entries.isEmpty()) {
+      overlay.headMap(entries.get(entries.size() - 1).getKey(), true).values()
+          .removeIf(change -> change.recordedAt < startedAt);
+    }
+    if (overlay.size() >= compactionThreshold) {
+      merge(file.getListedAt());
+    }
+  }
+
+  private void applyListed(String key, ManifestEntry listed, ManifestEntry fileEntry) {
+    var startedAt = refreshPass.startedAt;
+    overlay.compute(key, (k, change) -> {
+      if (change != null && change.recordedAt >= startedAt) {
+        return change;
+      }
+      return Objects.equals(listed, fileEntry) ? null : new Change(listed, startedAt);
+    });
+    if (!Objects.equals(listed, fileEntry)) {
+      refreshPass.changes++;
+    }
+  }
+
+  private void finishRefresh(String cephBucketName) throws IOException {
+    var startedAt = refreshPass.startedAt;
+    var writer = refreshPass.writer;
+    var changes = refreshPass.changes;
+    if (writer != null) {
+      replaceFile(writer.finish(startedAt));
+      writer.close();
+      // changes made before the listing has started are already in the file
+      overlay.entrySet().removeIf(change -> change.getValue().recordedAt < startedAt);
+      log.info("Manifest of bucket {} was built, {} keys", cephBucketName, file.getCount());
+    } else {
+      if (changes == 0) {
+        replaceFile(ManifestFile.updateListedAt(path, startedAt));
+      } else {
+        merge(startedAt);
+      }
+      log.info("Manifest of bucket {} was refreshed, {} keys, {} changes", cephBucketName,
+          file.getCount(), changes);
+    }
+    refreshPass = null;
+  }
+
+  private void merge(long listedAt) throws IOException {
+    var changes = new ArrayList<>(overlay.entrySet());
+    try (var writer = new ManifestFile.Writer(path)) {
+      var fileEntries = file.iterateFrom("");
+      var fileEntry = fileEntries.hasNext() ? fileEntries.next() : null;
+      for (var change : changes) {
+        while (fileEntry != null
+            && ManifestFile.KEY_ORDER.compare(fileEntry.getKey(), change.getKey()) < 0) {
+          writer.append(fileEntry);
+          fileEntry = fileEntries.hasNext() ? fileEntries.next() : null;
+        }
+        if (fileEntry != null && fileEntry.getKey().equals(change.getKey())) {
+          fileEntry = fileEntries.hasNext() ? fileEntries.next() : null;
+        }
+        if (change.getValue().entry != null) {
+          writer.append(change.getValue().entry);
+        }
+      }
+      while (fileEntry != null) {
+        writer.append(fileEntry);
+        fileEntry = fileEntries.hasNext() ? fileEntries.next() : null;
+      }
+      replaceFile(writer.finish(listedAt));
+    }
+    changes.forEach(change -> overlay.remove(change.getKey(), change.getValue()));
+  }
+
+  private void replaceFile(ManifestFile replacement) {
+    var previous = file;
+    file = replacement;
+    previous.retire();
+  }
+
+  private void abortRefresh() {
+    if (refreshPass != null) {
+      if (refreshPass.writer != null) {
+        try {
+          refreshPass.writer.close();
+        } catch (IOException exception) {
+          log.warn("Failed to remove temporary manifest files", exception);
+        }
+      }
+      refreshPass = null;
+    }
+  }
+
+  private static ManifestEntry toEntry(S3ObjectSummary summary) {
+    return ManifestEntry.builder()
+        .key(summary.getKey())
+        .eTag(summary.getETag())
+        .size(summary.getSize())
+        .lastModified(summary.getLastModified() == null ? 0L : summary.getLastModified().getTime())
+        .build();
+  }
+
+  private static ManifestEntry nextEntry(Iterator<ManifestEntry> iterator, String prefix) {
+    if (iterator.hasNext()) {
+      var entry = iterator.next();
+      return entry.getKey().startsWith(prefix) ? entry : null;
+    }
+    return null;
+  }
+
+  private static Entry<String, Change> nextChange(Iterator<Entry<String, Change>> iterator,
+      String prefix) {
+    if (iterator.hasNext()) {
+      var entry = iterator.next();
+      return entry.getKey().startsWith(prefix) ? entry : null;
+    }
+    return null;
+  }
+
+  @RequiredArgsConstructor
+  private static class Change {
+
+    private final ManifestEntry entry;
+    private final long recordedAt;
+  }
+
+  private static class RefreshPass {
+
+    private final ManifestFile.Writer writer;
+    private final long startedAt;
+    private String lastKey;
+    private long changes;
+
+    private RefreshPass(ManifestFile.Writer writer, long startedAt) {
+      this.writer = writer;
+      this.startedAt = startedAt;
+    }
+  }
+}
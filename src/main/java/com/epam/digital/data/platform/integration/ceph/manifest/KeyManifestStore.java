@@ -0,0 +1,162 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.manifest;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.epam.digital.data.platform.integration.ceph.config.ManifestProperties;
+import com.epam.digital.data.platform.integration.ceph.manifest.model.ManifestEntry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local manifests of the keys of the configured buckets. A manifest answers queries only while
+ * its last full listing is not older than the configured staleness bound, otherwise callers have
+ * to query Ceph. Manifests are refreshed in background on the provided executor.
+ */
+@Slf4j
+public class KeyManifestStore {
+
+  private static final String FILE_EXTENSION = ".manifest";
+
+  private final AmazonS3 cephAmazonS3;
+  private final ManifestProperties properties;
+  private final Executor executor;
+  private final Path directory;
+  private final Map<String, KeyManifest> manifests = new ConcurrentHashMap<>();
+  private final Set<String> refreshingBuckets = ConcurrentHashMap.newKeySet();
+  private final Set<String> compactingBuckets = ConcurrentHashMap.newKeySet();
+  private volatile boolean closed;
+
+  public KeyManifestStore(AmazonS3 cephAmazonS3, ManifestProperties properties,
+      Executor executor) {
+    this.cephAmazonS3 = cephAmazonS3;
+    this.properties = properties;
+    this.executor = executor;
+    this.directory = Paths.get(properties.getDirectory());
+  }
+
+  /**
+   * Stop starting background refreshes and compactions, the running ones finish.
+   */
+  public void close() {
+    closed = true;
+  }
+
+  public boolean isTracked(String cephBucketName) {
+    return properties.getBuckets().contains(cephBucketName);
+  }
+
+  /**
+   * Get manifest of the bucket if it is fresh enough to answer queries. Refresh of the manifest
+   * is started in background once half of the staleness bound has passed.
+   *
+   * @param cephBucketName ceph bucket name
+   * @return manifest or empty if the bucket isn't tracked or its manifest is stale
+   */
+  public Optional<KeyManifest> getFresh(String cephBucketName) {
+    if (!isTracked(cephBucketName)) {
+      return Optional.empty();
+    }
+    var manifest = manifest(cephBucketName);
+    var age = System.currentTimeMillis() - manifest.getListedAt();
+    var maxStaleness = properties.getMaxStaleness().toMillis();
+    if (age > maxStaleness / 2) {
+      refreshAsync(cephBucketName);
+    }
+    return age <= maxStaleness ? Optional.of(manifest) : Optional.empty();
+  }
+
+  /**
+   * Refresh manifest of the bucket in the calling thread.
+   */
+  public void refresh(String cephBucketName) {
+    manifest(cephBucketName).refresh(cephAmazonS3, cephBucketName);
+  }
+
+  public void recordPut(String cephBucketName, ManifestEntry entry) {
+    if (isTracked(cephBucketName)) {
+      var manifest = manifest(cephBucketName);
+      manifest.put(entry);
+      compactIfNeeded(cephBucketName, manifest);
+    }
+  }
+
+  public void recordDelete(String cephBucketName, Collection<String> keys) {
+    if (isTracked(cephBucketName)) {
+      var manifest = manifest(cephBucketName);
+      keys.forEach(manifest::delete);
+      compactIfNeeded(cephBucketName, manifest);
+    }
+  }
+
+  private KeyManifest manifest(String cephBucketName) {
+    return manifests.computeIfAbsent(cephBucketName, this::load);
+  }
+
+  private KeyManifest load(String cephBucketName) {
+    var path = directory.resolve(cephBucketName + FILE_EXTENSION);
+    if (Files.exists(path)) {
+      try {
+        return new KeyManifest(path, properties.getCompactionThreshold(),
+            ManifestFile.open(path));
+      } catch (IOException exception) {
+        log.warn("Manifest file {} can't be read, the bucket will be listed again", path,
+            exception);
+      }
+    }
+    return new KeyManifest(path, properties.getCompactionThreshold());
+  }
+
+  private void refreshAsync(String cephBucketName) {
+    if (!closed && refreshingBuckets.add(cephBucketName)) {
+      executor.execute(() -> {
+        try {
+          refresh(cephBucketName);
+        } catch (RuntimeException exception) {
+          log.warn("Failed to refresh manifest of bucket {}", cephBucketName, exception);
+        } finally {
+          refreshingBuckets.remove(cephBucketName);
+        }
+      });
+    }
+  }
+
+  private void compactIfNeeded(String cephBucketName, KeyManifest manifest) {
+    if (!closed && manifest.getPendingChanges() >= properties.getCompactionThreshold()
+        && compactingBuckets.add(cephBucketName)) {
+      executor.execute(() -> {
+        try {
+          manifest.compact();
+        } catch (RuntimeException exception) {
+          log.warn("Failed to compact manifest of bucket {}", cephBucketName, exception);
+        } finally {
+          compactingBuckets.remove(cephBucketName);
+        }
+      });
+    }
+  }
+}
@@ -0,0 +1,396 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.manifest;
+
+import com.epam.digital.data.platform.integration.ceph.manifest.model.ManifestEntry;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Immutable memory-mapped file of manifest entries sorted by key.
+ *
+ * <p>Layout: records {@code [key length: u16][key][etag length: u16][etag][size: i64]
+ * [last modified: i64]}, then offsets of the records {@code [i64] * count}, then footer
+ * {@code [offsets position: i64][count: i64][listed at: i64][version: i32][magic: i32]}.
+ *
+ * <p>The file is mapped by overlapping windows, so every record or offset starting in a window
+ * fits into it entirely and files bigger than 2 GB can be mapped too.
+ *
+ * <p>Readers {@link #acquire()} the file before reading it. A replaced file is {@link #retire()
+ * retired} and unmapped as soon as the last reader releases it, so the mappings of the old files
+ * don't wait for the garbage collector.
+ */
+@Slf4j
+class ManifestFile {
+
+  /**
+   * Order of keys in S3 listings: by UTF-8 bytes, which is the same as by code points.
+   */
+  static final Comparator<String> KEY_ORDER = ManifestFile::compareKeys;
+
+  private static final int MAGIC = 0x4345504d;
+  private static final int VERSION = 1;
+  private static final int FOOTER_SIZE = 8 + 8 + 8 + 4 + 4;
+  private static final long WINDOW_SIZE = 1L << 30;
+  private static final long WINDOW_OVERLAP = 1L << 16;
+  private static final long LISTED_AT_FOOTER_OFFSET = 16L;
+  private static final MethodHandle UNMAPPER = unmapper();
+
+  private final ByteBuffer[] windows;
+  private final long offsetsPosition;
+  private final long count;
+  private final long listedAt;
+  private final AtomicInteger references = new AtomicInteger(1);
+
+  private ManifestFile(ByteBuffer[] windows, long offsetsPosition, long count, long listedAt) {
+    this.windows = windows;
+    this.offsetsPosition = offsetsPosition;
+    this.count = count;
+    this.listedAt = listedAt;
+  }
+
+  static ManifestFile empty() {
+    return new ManifestFile(new ByteBuffer[0], 0L, 0L, 0L);
+  }
+
+  static ManifestFile open(Path path) throws IOException {
+    try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      var fileSize = channel.size();
+      if (fileSize < FOOTER_SIZE) {
+        throw new IOException("Manifest file " + path + " is truncated");
+      }
+      var windowCount = (int) ((fileSize + WINDOW_SIZE - 1) / WINDOW_SIZE);
+      var windows = new ByteBuffer[windowCount];
+      for (int i = 0; i < windowCount; i++) {
+        var start = i * WINDOW_SIZE;
+        windows[i] = channel.map(MapMode.READ_ONLY, start,
+            Math.min(WINDOW_SIZE + WINDOW_OVERLAP, fileSize - start));
+      }
+      var file = new ManifestFile(windows, 0L, 0L, 0L);
+      if (file.readInt(fileSize - 4) != MAGIC || file.readInt(fileSize - 8) != VERSION) {
+        throw new IOException("File " + path + " isn't a manifest file of a supported version");
+      }
+      var footerPosition = fileSize - FOOTER_SIZE;
+      return new ManifestFile(windows, file.readLong(footerPosition),
+          file.readLong(footerPosition + 8), file.readLong(footerPosition + 16));
+    }
+  }
+
+  /**
+   * Rewrite the time of the last full listing in the footer of the manifest file when the
+   * listing found no changes.
+   *
+   * @return the file mapped again
+   */
+  static ManifestFile updateListedAt(Path path, long listedAt) throws IOException {
+    try (var channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+      var position = channel.size() - FOOTER_SIZE + LISTED_AT_FOOTER_OFFSET;
+      var buffer = ByteBuffer.allocate(8).putLong(listedAt).flip();
+      while (buffer.hasRemaining()) {
+        channel.write(buffer, position + buffer.position());
+      }
+      channel.force(true);
+    }
+    return open(path);
+  }
+
+  /**
+   * @return false if the file was already unmapped and the current one has to be read instead
+   */
+  boolean acquire() {
+    while (true) {
+      var current = references.get();
+      if (current == 0) {
+        return false;
+      }
+      if (references.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  void release() {
+    if (references.decrementAndGet() == 0) {
+      unmap();
+    }
+  }
+
+  /**
+   * Drop the reference of the manifest after the file was replaced.
+   */
+  void retire() {
+    release();
+  }
+
+  boolean isUnmapped() {
+    return references.get() == 0;
+  }
+
+  long getCount() {
+    return count;
+  }
+
+  long getListedAt() {
+    return listedAt;
+  }
+
+  Optional<ManifestEntry> get(String key) {
+    var index = lowerBound(key);
+    if (index < count) {
+      var entry = readEntry(index);
+      if (entry.getKey().equals(key)) {
+        return Optional.of(entry);
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * @return entries with keys not less than the specified one in the key order
+   */
+  Iterator<ManifestEntry> iterateFrom(String key) {
+    var start = lowerBound(key);
+    return new Iterator<>() {
+      private long index = start;
+
+      @Override
+      public boolean hasNext() {
+        return index < count;
+      }
+
+      @Override
+      public ManifestEntry next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        return readEntry(index++);
+      }
+    };
+  }
+
+  private long lowerBound(String key) {
+    long low = 0;
+    long high = count;
+    while (low < high) {
+      var middle = (low + high) >>> 1;
+      if (compareKeys(readKey(recordPosition(middle)), key) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private long recordPosition(long index) {
+    return readLong(offsetsPosition + index * 8);
+  }
+
+  private String readKey(long position) {
+    var length = Short.toUnsignedInt(window(position).getShort(local(position)));
+    return readString(position + 2, length);
+  }
+
+  private ManifestEntry readEntry(long index) {
+    var position = recordPosition(index);
+    var key = readKey(position);
+    position += 2 + key.getBytes(StandardCharsets.UTF_8).length;
+    var eTagLength = Short.toUnsignedInt(window(position).getShort(local(position)));
+    var eTag = readString(position + 2, eTagLength);
+    position += 2 + eTagLength;
+    return ManifestEntry.builder()
+        .key(key)
+        .eTag(eTag.isEmpty() ? null : eTag)
+        .size(readLong(position))
+        .lastModified(readLong(position + 8))
+        .build();
+  }
+
+  private String readString(long position, int length) {
+    var bytes = new byte[length];
+    window(position).duplicate().position(local(position)).get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private long readLong(long position) {
+    return window(position).getLong(local(position));
+  }
+
+  private int readInt(long position) {
+    return window(position).getInt(local(position));
+  }
+
+  private ByteBuffer window(long position) {
+    return windows[(int) (position / WINDOW_SIZE)];
+  }
+
+  private static int local(long position) {
+    return (int) (position % WINDOW_SIZE);
+  }
+
+  private void unmap() {
+    if (UNMAPPER == null) {
+      return;
+    }
+    for (var window : windows) {
+      try {
+        UNMAPPER.invokeExact(window);
+      } catch (Throwable exception) {
+        log.warn("Failed to unmap manifest file window", exception);
+      }
+    }
+  }
+
+  private static MethodHandle unmapper() {
+    try {
+      var unsafeClass = Class.forName("sun.misc.Unsafe");
+      var unsafeField = unsafeClass.getDeclaredField("theUnsafe");
+      unsafeField.setAccessible(true);
+      return MethodHandles.lookup()
+          .findVirtual(unsafeClass, "invokeCleaner",
+              MethodType.methodType(void.class, ByteBuffer.class))
+          .bindTo(unsafeField.get(null));
+    } catch (ReflectiveOperationException | RuntimeException exception) {
+      log.info("Manifest files will be unmapped by the garbage collector", exception);
+      return null;
+    }
+  }
+
+  private static int compareKeys(String first, String second) {
+    int i = 0;
+    int j = 0;
+    while (i < first.length() && j < second.length()) {
+      var firstCodePoint = first.codePointAt(i);
+      var secondCodePoint = second.codePointAt(j);
+      if (firstCodePoint != secondCodePoint) {
+        return Integer.compare(firstCodePoint, secondCodePoint);
+      }
+      i += Character.charCount(firstCodePoint);
+      j += Character.charCount(secondCodePoint);
+    }
+    return Integer.compare(first.length() - i, second.length() - j);
+  }
+
+  /**
+   * Writes entries in the key order into temporary files and atomically replaces the target
+   * manifest file on finish.
+   */
+  static class Writer implements Closeable {
+
+    private final Path target;
+    private final Path recordsFile;
+    private final Path offsetsFile;
+    private final DataOutputStream records;
+    private final DataOutputStream offsets;
+    private long position;
+    private long count;
+    private String lastKey;
+
+    Writer(Path target) throws IOException {
+      this.target = target;
+      var directory = target.toAbsolutePath().getParent();
+      Files.createDirectories(directory);
+      var name = target.getFileName().toString();
+      recordsFile = Files.createTempFile(directory, name, ".tmp");
+      offsetsFile = Files.createTempFile(directory, name, ".idx.tmp");
+      records = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(recordsFile)));
+      offsets = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(offsetsFile)));
+    }
+
+    String getLastKey() {
+      return lastKey;
+    }
+
+    void append(ManifestEntry entry) throws IOException {
+      if (lastKey != null && compareKeys(lastKey, entry.getKey()) >= 0) {
+        throw new IllegalArgumentException(String.format(
+            "Manifest entries must be appended in the key order, %s after %s", entry.getKey(),
+            lastKey));
+      }
+      var key = entry.getKey().getBytes(StandardCharsets.UTF_8);
+      var eTag = entry.getETag() == null ? new byte[0]
+          : entry.getETag().getBytes(StandardCharsets.UTF_8);
+      offsets.writeLong(position);
+      records.writeShort(key.length);
+      records.write(key);
+      records.writeShort(eTag.length);
+      records.write(eTag);
+      records.writeLong(entry.getSize());
+      records.writeLong(entry.getLastModified());
+      position += 2 + key.length + 2 + eTag.length + 8 + 8;
+      count++;
+      lastKey = entry.getKey();
+    }
+
+    ManifestFile finish(long listedAt) throws IOException {
+      records.close();
+      offsets.close();
+      try (var recordsChannel = FileChannel.open(recordsFile, StandardOpenOption.WRITE);
+          var offsetsChannel = FileChannel.open(offsetsFile, StandardOpenOption.READ)) {
+        var offsetsSize = offsetsChannel.size();
+        var transferred = 0L;
+        while (transferred < offsetsSize) {
+          transferred += offsetsChannel.transferTo(transferred, offsetsSize - transferred,
+              recordsChannel.position(position + transferred));
+        }
+        var footer = ByteBuffer.allocate(FOOTER_SIZE)
+            .putLong(position)
+            .putLong(count)
+            .putLong(listedAt)
+            .putInt(VERSION)
+            .putInt(MAGIC)
+            .flip();
+        while (footer.hasRemaining()) {
+          recordsChannel.write(footer, position + offsetsSize + footer.position());
+        }
+        recordsChannel.force(true);
+      }
+      Files.delete(offsetsFile);
+      Files.move(recordsFile, target, StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+      return open(target);
+    }
+
+    @Override
+    public void close() throws IOException {
+      records.close();
+      offsets.close();
+      Files.deleteIfExists(recordsFile);
+      Files.deleteIfExists(offsetsFile);
+    }
+  }
+}
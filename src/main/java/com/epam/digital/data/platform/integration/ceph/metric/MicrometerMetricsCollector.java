@@ -25,11 +25,20 @@ import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ListObjectsRequest;
 import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.util.TimingInfo;
+import com.epam.digital.data.platform.integration.ceph.balancer.BalancedEndpoint;
+import com.epam.digital.data.platform.integration.ceph.balancer.EndpointMetricsBinder;
 import com.epam.digital.data.platform.integration.ceph.metric.model.OperationInfo;
+import com.epam.digital.data.platform.integration.ceph.retry.RetryBudget;
+import com.epam.digital.data.platform.integration.ceph.retry.RetryMetricsBinder;
+import com.epam.digital.data.platform.integration.ceph.service.ContentLeakListener;
+import com.epam.digital.data.platform.integration.ceph.spool.SpoolMetricsBinder;
+import com.epam.digital.data.platform.integration.ceph.spool.WriteSpool;
 import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
 import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
@@ -37,7 +46,8 @@ import java.util.concurrent.atomic.AtomicLong;
 import lombok.RequiredArgsConstructor;
 
 @RequiredArgsConstructor
-public class MicrometerMetricsCollector extends RequestMetricCollector {
+public class MicrometerMetricsCollector extends RequestMetricCollector implements
+    EndpointMetricsBinder, ContentLeakListener, SpoolMetricsBinder, RetryMetricsBinder {
 
   private final MeterRegistry registry;
   private final Map<String, AtomicLong> gauges = new ConcurrentHashMap<>();
@@ -54,6 +64,15 @@ public class MicrometerMetricsCollector extends RequestMetricCollector {
     setGauge("aws_sdk_pool_leased", timingInfo.getCounter("HttpClientPoolLeasedCount"));
     setGauge("aws_sdk_pool_pending", timingInfo.getCounter("HttpClientPoolPendingCount"));
 
+    // Connection pool gauges per endpoint, every endpoint has its own pool
+    String endpoint = request.getEndpoint() != null ? request.getEndpoint().getAuthority() : "";
+    setEndpointGauge("aws_sdk_endpoint_pool_available", endpoint,
+        timingInfo.getCounter("HttpClientPoolAvailableCount"));
+    setEndpointGauge("aws_sdk_endpoint_pool_leased", endpoint,
+        timingInfo.getCounter("HttpClientPoolLeasedCount"));
+    setEndpointGauge("aws_sdk_endpoint_pool_pending", endpoint,
+        timingInfo.getCounter("HttpClientPoolPendingCount"));
+
     OperationInfo operationInfo = extractOperationInfo(request);
     if (operationInfo == null) return;
 
@@ -64,6 +83,68 @@ public class MicrometerMetricsCollector extends RequestMetricCollector {
     recordLatency("ClientExecuteTime", timingInfo, operationInfo);
   }
 
+  @Override
+  public void bindEndpoints(List<BalancedEndpoint> endpoints) {
+    for (BalancedEndpoint endpoint : endpoints) {
+      Gauge.builder("aws_sdk_endpoint_outstanding_requests", endpoint,
+              BalancedEndpoint::getOutstandingRequests)
+          .tag("endpoint", endpoint.getEndpoint())
+          .strongReference(true)
+          .register(registry);
+      Gauge.builder("aws_sdk_endpoint_latency_ewma", endpoint,
+              BalancedEndpoint::getLatencyEwmaMillis)
+          .tag("endpoint", endpoint.getEndpoint())
+          .strongReference(true)
+          .register(registry);
+      Gauge.builder("aws_sdk_endpoint_healthy", endpoint, e -> e.isHealthy() ? 1 : 0)
+          .tag("endpoint", endpoint.getEndpoint())
+          .strongReference(true)
+          .register(registry);
+    }
+  }
+
+  @Override
+  public void onContentLeaked(String cephBucketName, String key) {
+    Counter.builder("ceph_client_content_leaks")
+        .tag("bucket", cephBucketName == null ? "" : cephBucketName)
+        .register(registry)
+        .increment();
+  }
+
+  @Override
+  public void bindSpool(WriteSpool spool) {
+    Gauge.builder("ceph_client_spool_depth", spool, WriteSpool::getDepth)
+        .strongReference(true)
+        .register(registry);
+    Gauge.builder("ceph_client_spool_size_bytes", spool, WriteSpool::getSize)
+        .strongReference(true)
+        .register(registry);
+    Gauge.builder("ceph_client_spool_lag_seconds", spool, s -> s.getLagMillis() / 1000.0)
+        .strongReference(true)
+        .register(registry);
+  }
+
+  @Override
+  public void bindRetryBudget(RetryBudget budget) {
+    FunctionCounter.builder("ceph_client_retries", budget,
+            b -> b.getRetries() - b.getThrottledRetries())
+        .tag("endpoint", budget.getEndpoint())
+        .tag("reason", "error")
+        .register(registry);
+    FunctionCounter.builder("ceph_client_retries", budget, RetryBudget::getThrottledRetries)
+        .tag("endpoint", budget.getEndpoint())
+        .tag("reason", "throttled")
+        .register(registry);
+    FunctionCounter.builder("ceph_client_retry_budget_exhausted", budget,
+            RetryBudget::getExhaustions)
+        .tag("endpoint", budget.getEndpoint())
+        .register(registry);
+    Gauge.builder("ceph_client_retry_budget_tokens", budget, RetryBudget::getTokens)
+        .tag("endpoint", budget.getEndpoint())
+        .strongReference(true)
+        .register(registry);
+  }
+
   private void recordLatency(String metricName, TimingInfo ti, OperationInfo info) {
     Number value = extractLatency(ti, metricName);
     if (value == null) return;
@@ -96,6 +177,18 @@ public class MicrometerMetricsCollector extends RequestMetricCollector {
     }).set(value.longValue());
   }
 
+  private void setEndpointGauge(String name, String endpoint, Number value) {
+    if (value == null) return;
+
+    gauges.computeIfAbsent(name + "|" + endpoint, k -> {
+      AtomicLong gaugeValue = new AtomicLong(value.longValue());
+      Gauge.builder(name, gaugeValue, AtomicLong::get)
+          .tag("endpoint", endpoint)
+          .register(registry);
+      return gaugeValue;
+    }).set(value.longValue());
+  }
+
   private Number extractLatency(TimingInfo ti, String metricName) {
     TimingInfo sub = ti.getSubMeasurement(metricName);
     return sub.getTimeTakenMillisIfKnown();
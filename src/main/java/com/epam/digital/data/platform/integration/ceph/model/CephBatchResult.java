@@ -0,0 +1,45 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.model;
+
+import com.epam.digital.data.platform.integration.ceph.exception.CephCommunicationException;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a batch operation. Every key of the batch is reported separately, so a failure of
+ * one key doesn't abort the whole batch.
+ *
+ * @param <T> type of per-key result
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CephBatchResult<T> {
+
+  private Map<String, T> results;
+  private Map<String, CephCommunicationException> failures;
+
+  public boolean hasFailures() {
+    return failures != null && !failures.isEmpty();
+  }
+}
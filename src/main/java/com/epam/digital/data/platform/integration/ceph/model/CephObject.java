@@ -16,14 +16,27 @@
 
 package com.epam.digital.data.platform.integration.ceph.model;
 
+import java.io.Closeable;
+import java.io.IOException;
 import java.io.InputStream;
 import lombok.Builder;
 import lombok.Data;
 
+/**
+ * Object read from Ceph. The object should be closed even if its content isn't read to the end,
+ * so the connection it holds is released.
+ */
 @Data
 @Builder
-public class CephObject {
+public class CephObject implements Closeable {
 
   private InputStream content;
   private CephObjectMetadata metadata;
+
+  @Override
+  public void close() throws IOException {
+    if (content != null) {
+      content.close();
+    }
+  }
 }
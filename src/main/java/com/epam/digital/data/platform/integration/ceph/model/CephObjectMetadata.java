@@ -16,6 +16,8 @@
 
 package com.epam.digital.data.platform.integration.ceph.model;
 
+import com.epam.digital.data.platform.integration.ceph.checksum.ChecksumAlgorithm;
+import java.util.Date;
 import java.util.Map;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -23,7 +25,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @AllArgsConstructor
 @NoArgsConstructor
 public class CephObjectMetadata {
@@ -31,4 +33,14 @@ public class CephObjectMetadata {
   private long contentLength;
   private String contentType;
   private Map<String, String> userMetadata;
+  private String eTag;
+  private Date lastModified;
+  private String versionId;
+  private String cacheControl;
+  private ChecksumAlgorithm checksumAlgorithm;
+  /**
+   * Checksum computed while the content was put or the stored checksum the content is verified
+   * against while it is read.
+   */
+  private String checksum;
 }
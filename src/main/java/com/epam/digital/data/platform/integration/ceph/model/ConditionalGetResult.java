@@ -0,0 +1,51 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of a conditional read. The object is present only if it was modified, content of not
+ * modified object isn't transferred.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ConditionalGetResult {
+
+  private Status status;
+  private CephObject object;
+
+  public boolean isModified() {
+    return status == Status.MODIFIED;
+  }
+
+  public boolean isNotModified() {
+    return status == Status.NOT_MODIFIED;
+  }
+
+  public enum Status {
+    MODIFIED,
+    NOT_MODIFIED,
+    NOT_FOUND
+  }
+}
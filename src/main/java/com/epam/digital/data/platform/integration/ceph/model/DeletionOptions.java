@@ -0,0 +1,48 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.model;
+
+import java.util.function.Consumer;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Options of the deletion by prefix. Keys are listed by pages of {@code batchSize} keys and every
+ * page is deleted with a single multi-delete request while the next pages are listed. At most
+ * {@code maxPendingBatches} pages are held in memory. In dry-run mode keys are only listed and
+ * counted.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeletionOptions {
+
+  @Builder.Default
+  private boolean dryRun = false;
+  @Builder.Default
+  private int batchSize = 1000;
+  @Builder.Default
+  private int maxPendingBatches = 4;
+  /**
+   * Called with the current counters after every listed page, from the listing thread.
+   */
+  private Consumer<DeletionProgress> progressListener;
+}
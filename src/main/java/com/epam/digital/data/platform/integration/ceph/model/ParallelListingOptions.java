@@ -0,0 +1,53 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.model;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Options of the parallel listing. The key space under the prefix is split into shards either by
+ * common prefixes found with the delimiter or, if boundaries are set, by the boundaries. Shard
+ * {@code i} of the boundaries split contains keys greater than boundary {@code i - 1} and not
+ * greater than boundary {@code i}. If the stream isn't consumed for the consumer timeout, e.g. it
+ * was abandoned without being closed, the listing is stopped.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ParallelListingOptions {
+
+  @Builder.Default
+  private String prefix = "";
+  @Builder.Default
+  private String delimiter = "/";
+  @Builder.Default
+  private List<String> boundaries = Collections.emptyList();
+  @Builder.Default
+  private boolean ordered = false;
+  @Builder.Default
+  private int parallelism = 8;
+  @Builder.Default
+  private Duration consumerTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.packing;
+
+import com.epam.digital.data.platform.integration.ceph.packing.model.PackRecord;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pack object being written. Its layout is the contents of the entries one after another,
+ * followed by the index of the entries and by the footer with the length of the index and the
+ * magic number, so the index is read with two range requests knowing the size of the object.
+ */
+class PackFile {
+
+  static final int FOOTER_LENGTH = 8;
+
+  private static final int MAGIC = 0x43504b31;
+  private static final int TOMBSTONE_LENGTH = -1;
+
+  private final ByteArrayOutputStream data = new ByteArrayOutputStream();
+  private final List<PackRecord> records = new ArrayList<>();
+
+  /**
+   * @param key     key of the entry
+   * @param content content of the entry or null for a tombstone
+   * @return record of the entry
+   */
+  PackRecord append(String key, byte[] content) {
+    var record = new PackRecord(key, data.size(),
+        content == null ? TOMBSTONE_LENGTH : content.length);
+    records.add(record);
+    if (content != null) {
+      data.write(content, 0, content.length);
+    }
+    return record;
+  }
+
+  boolean contains(String key) {
+    return records.stream().anyMatch(record -> record.getKey().equals(key));
+  }
+
+  boolean isEmpty() {
+    return records.isEmpty();
+  }
+
+  int getDataSize() {
+    return data.size();
+  }
+
+  List<PackRecord> getRecords() {
+    return records;
+  }
+
+  byte[] toByteArray() {
+    var index = new ByteArrayOutputStream();
+    try (var out = new DataOutputStream(index)) {
+      out.writeInt(records.size());
+      for (var record : records) {
+        out.writeUTF(record.getKey());
+        out.writeLong(record.getOffset());
+        out.writeInt(record.getLength());
+      }
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+    var result = ByteBuffer.allocate(data.size() + index.size() + FOOTER_LENGTH);
+    result.put(data.toByteArray());
+    result.put(index.toByteArray());
+    result.putInt(index.size());
+    result.putInt(MAGIC);
+    return result.array();
+  }
+
+  /**
+   * @param footer last {@link #FOOTER_LENGTH} bytes of a pack
+   * @return length of the index preceding the footer
+   */
+  static int readIndexLength(byte[] footer) {
+    var buffer = ByteBuffer.wrap(footer);
+    var indexLength = buffer.getInt();
+    if (buffer.getInt() != MAGIC) {
+      throw new IllegalStateException("Object isn't a pack, its footer doesn't match");
+    }
+    return indexLength;
+  }
+
+  static List<PackRecord> readIndex(byte[] index) {
+    try (var in = new DataInputStream(new ByteArrayInputStream(index))) {
+      var count = in.readInt();
+      var result = new ArrayList<PackRecord>(count);
+      for (var i = 0; i < count; i++) {
+        result.add(new PackRecord(in.readUTF(), in.readLong(), in.readInt()));
+      }
+      return result;
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  static List<PackRecord> readRecords(byte[] pack) {
+    var footerOffset = pack.length - FOOTER_LENGTH;
+    var indexLength = readIndexLength(Arrays.copyOfRange(pack, footerOffset, pack.length));
+    return readIndex(Arrays.copyOfRange(pack, footerOffset - indexLength, footerOffset));
+  }
+
+  static byte[] readContent(byte[] pack, PackRecord record) {
+    var offset = (int) record.getOffset();
+    return Arrays.copyOfRange(pack, offset, offset + record.getLength());
+  }
+}
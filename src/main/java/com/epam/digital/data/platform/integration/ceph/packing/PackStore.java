@@ -0,0 +1,437 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.packing;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.util.IOUtils;
+import com.epam.digital.data.platform.integration.ceph.config.PackingProperties;
+import com.epam.digital.data.platform.integration.ceph.packing.model.PackEntry;
+import com.epam.digital.data.platform.integration.ceph.packing.model.PackRecord;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Packs small contents of the configured buckets into pack objects, so that a lot of tiny objects
+ * cost neither a request per write nor per-object overhead in Ceph. Puts and deletes made within
+ * {@code maxDelay} share one pack and complete once it is written. The index of the packed keys
+ * is kept in memory, built from the indexes stored in the packs, and contents are read with range
+ * requests. Overwritten and deleted entries are reclaimed by background compaction.
+ */
+@Slf4j
+public class PackStore {
+
+  private static final int NOT_FOUND_STATUS_CODE = 404;
+  private static final String COMPACTED_SUFFIX = "~c";
+  private static final String PACK_CONTENT_TYPE = "application/octet-stream";
+  // pack names start with the write time padded to 13 digits
+  private static final int TIMESTAMP_LENGTH = 13;
+
+  private final AmazonS3 cephAmazonS3;
+  private final PackingProperties properties;
+  private final Executor executor;
+  private final ScheduledExecutorService scheduler;
+  private final String instanceId = String.format("%08x", ThreadLocalRandom.current().nextInt());
+  private final AtomicLong packCounter = new AtomicLong();
+  private final Map<String, PackedBucket> buckets = new ConcurrentHashMap<>();
+  private final Set<String> compactingBuckets = ConcurrentHashMap.newKeySet();
+
+  /**
+   * @param executor executor running compactions, packs are written by an own thread
+   */
+  public PackStore(AmazonS3 cephAmazonS3, PackingProperties properties, Executor executor) {
+    this.cephAmazonS3 = cephAmazonS3;
+    this.properties = properties;
+    this.executor = executor;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      var thread = new Thread(runnable, "ceph-pack-writer");
+      thread.setDaemon(true);
+      return thread;
+    });
+    var compactionInterval = properties.getCompactionInterval().toMillis();
+    if (compactionInterval > 0) {
+      scheduler.scheduleWithFixedDelay(this::compactAsync, compactionInterval,
+          compactionInterval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stop compactions and write the pending packs right away, so that the puts waiting for them
+   * don't wait for the pack writer, which is stopped.
+   */
+  public void close() {
+    scheduler.shutdown();
+    buckets.forEach((cephBucketName, bucket) -> {
+      PendingPack pending;
+      synchronized (bucket) {
+        pending = bucket.pending;
+      }
+      if (pending != null) {
+        write(cephBucketName, bucket, pending);
+      }
+    });
+  }
+
+  public boolean isPacked(String cephBucketName) {
+    return properties.getBuckets().contains(cephBucketName);
+  }
+
+  public boolean isPackable(String cephBucketName, byte[] content) {
+    return isPacked(cephBucketName) && content.length <= properties.getMaxObjectSize();
+  }
+
+  /**
+   * @return whether the key belongs to a pack object rather than to a user object
+   */
+  public boolean isPackKey(String key) {
+    return key.startsWith(properties.getPrefix());
+  }
+
+  /**
+   * Find the entry of a packed key. If the key is unknown, packs are listed again once per
+   * {@code refreshInterval} to see the packs written by other instances.
+   *
+   * @return entry or empty if the key isn't packed
+   */
+  public Optional<PackEntry> find(String cephBucketName, String key) {
+    var bucket = bucket(cephBucketName);
+    var entry = bucket.get(key);
+    if (entry == null && isRefreshDue(bucket)) {
+      refresh(cephBucketName, false);
+      entry = bucket.get(key);
+    }
+    return Optional.ofNullable(entry).filter(found -> !found.isTombstone());
+  }
+
+  /**
+   * Read content of the entry with a single range request. If the pack was removed by compaction
+   * meanwhile, the key is looked up again.
+   *
+   * @return content or empty if the key isn't packed anymore
+   */
+  public Optional<byte[]> read(String cephBucketName, String key, PackEntry entry) {
+    try {
+      return Optional.of(readRange(cephBucketName, entry.getPackName(), entry.getOffset(),
+          entry.getLength()));
+    } catch (AmazonS3Exception exception) {
+      if (exception.getStatusCode() != NOT_FOUND_STATUS_CODE) {
+        throw exception;
+      }
+    }
+    log.info("Pack {} of ceph bucket {} wasn't found, looking key {} up again",
+        entry.getPackName(), cephBucketName, key);
+    refresh(cephBucketName, true);
+    var current = bucket(cephBucketName).get(key);
+    if (current == null || current.isTombstone() || current.equals(entry)) {
+      return Optional.empty();
+    }
+    return Optional.of(readRange(cephBucketName, current.getPackName(), current.getOffset(),
+        current.getLength()));
+  }
+
+  /**
+   * @return time the pack of the entry was written, which isn't earlier than the put of the entry
+   * as compacted packs are named after the latest of their packs
+   */
+  public Date getLastModified(PackEntry entry) {
+    var prefixLength = properties.getPrefix().length();
+    return new Date(Long.parseLong(
+        entry.getPackName().substring(prefixLength, prefixLength + TIMESTAMP_LENGTH)));
+  }
+
+  /**
+   * @return packed keys with the prefix
+   */
+  public Set<String> getKeys(String cephBucketName, String prefix) {
+    var bucket = bucket(cephBucketName);
+    if (isRefreshDue(bucket)) {
+      refresh(cephBucketName, false);
+    }
+    return bucket.getKeys(prefix);
+  }
+
+  /**
+   * Add content of the key to the pending pack of the bucket.
+   *
+   * @return future completed with the ETag of the pack once it is written
+   */
+  public CompletableFuture<String> put(String cephBucketName, String key, byte[] content) {
+    return append(cephBucketName, List.of(key), content);
+  }
+
+  /**
+   * Add tombstones of the packed keys to the pending pack of the bucket, so the keys are looked
+   * up as separate objects again.
+   *
+   * @return future completed once the tombstones are written, completed at once if none of the
+   * keys is packed
+   */
+  public CompletableFuture<String> delete(String cephBucketName, Collection<String> keys) {
+    var bucket = bucket(cephBucketName);
+    if (isRefreshDue(bucket)) {
+      refresh(cephBucketName, false);
+    }
+    synchronized (bucket) {
+      var packedKeys = keys.stream()
+          .filter(key -> isPacked(bucket, key))
+          .collect(Collectors.toList());
+      return packedKeys.isEmpty() ? CompletableFuture.completedFuture(null)
+          : append(cephBucketName, packedKeys, null);
+    }
+  }
+
+  /**
+   * List the packs of the bucket, load the indexes of the new ones and forget the removed ones.
+   */
+  public void refresh(String cephBucketName) {
+    refresh(cephBucketName, true);
+  }
+
+  /**
+   * Rewrite packs selected for compaction into one pack with their live entries and remove them.
+   * Tombstones are dropped only if the oldest pack is rewritten, as older packs can't hold entries
+   * of their keys anymore.
+   */
+  public void compact(String cephBucketName) {
+    var bucket = bucket(cephBucketName);
+    synchronized (bucket.maintenance) {
+      refresh(cephBucketName, true);
+      var group = bucket.selectCompaction(properties.getPackSize(),
+          properties.getCompactionThreshold());
+      if (group.isEmpty()) {
+        return;
+      }
+      var dropTombstones = bucket.isFirst(group.get(0));
+      var compacted = new PackFile();
+      var moved = new LinkedHashMap<PackRecord, PackEntry>();
+      for (var packName : group) {
+        var pack = readRange(cephBucketName, packName, 0L, -1);
+        for (var record : PackFile.readRecords(pack)) {
+          var entry = new PackEntry(packName, record.getOffset(), record.getLength());
+          if (!entry.equals(bucket.get(record.getKey()))
+              || entry.isTombstone() && dropTombstones) {
+            continue;
+          }
+          var content = entry.isTombstone() ? null : PackFile.readContent(pack, record);
+          moved.put(compacted.append(record.getKey(), content), entry);
+        }
+      }
+      if (!compacted.isEmpty()) {
+        var compactedName = group.get(group.size() - 1) + COMPACTED_SUFFIX;
+        if (bucket.isKnown(compactedName)) {
+          log.warn("Pack {} of ceph bucket {} already exists, compaction is skipped",
+              compactedName, cephBucketName);
+          return;
+        }
+        var pack = compacted.toByteArray();
+        writePack(cephBucketName, compactedName, pack);
+        bucket.replace(compactedName, pack.length, moved);
+      }
+      cephAmazonS3.deleteObjects(new DeleteObjectsRequest(cephBucketName).withKeys(
+          group.stream().map(KeyVersion::new).collect(Collectors.toList())));
+      bucket.forget(group);
+      log.info("Compacted {} packs of ceph bucket {}, kept {} entries", group.size(),
+          cephBucketName, moved.size());
+    }
+  }
+
+  private boolean isPacked(PackedBucket bucket, String key) {
+    var entry = bucket.get(key);
+    return entry != null && !entry.isTombstone()
+        || bucket.pending != null && bucket.pending.file.contains(key);
+  }
+
+  private CompletableFuture<String> append(String cephBucketName, List<String> keys,
+      byte[] content) {
+    var bucket = bucket(cephBucketName);
+    synchronized (bucket) {
+      var pending = bucket.pending;
+      if (pending == null) {
+        var created = new PendingPack();
+        bucket.pending = created;
+        scheduler.schedule(() -> write(cephBucketName, bucket, created),
+            properties.getMaxDelay().toMillis(), TimeUnit.MILLISECONDS);
+        pending = created;
+      }
+      for (var key : keys) {
+        pending.file.append(key, content);
+      }
+      if (pending.file.getDataSize() >= properties.getPackSize()) {
+        bucket.pending = null;
+        var full = pending;
+        scheduler.execute(() -> write(cephBucketName, bucket, full));
+      }
+      return pending.written;
+    }
+  }
+
+  private void write(String cephBucketName, PackedBucket bucket, PendingPack pending) {
+    synchronized (bucket) {
+      if (bucket.pending == pending) {
+        bucket.pending = null;
+      }
+    }
+    if (!pending.writing.compareAndSet(false, true)) {
+      return;
+    }
+    try {
+      var packName = String.format("%s%013d-%s-%06d", properties.getPrefix(),
+          System.currentTimeMillis(), instanceId, packCounter.incrementAndGet());
+      var pack = pending.file.toByteArray();
+      var eTag = writePack(cephBucketName, packName, pack);
+      bucket.apply(packName, pack.length, pending.file.getRecords());
+      pending.written.complete(eTag);
+    } catch (RuntimeException exception) {
+      log.error("Pack of {} entries wasn't written to ceph bucket {}",
+          pending.file.getRecords().size(), cephBucketName, exception);
+      pending.written.completeExceptionally(exception);
+    }
+  }
+
+  private String writePack(String cephBucketName, String packName, byte[] pack) {
+    var objectMetadata = new ObjectMetadata();
+    objectMetadata.setContentType(PACK_CONTENT_TYPE);
+    objectMetadata.setContentLength(pack.length);
+    return cephAmazonS3.putObject(cephBucketName, packName, new ByteArrayInputStream(pack),
+        objectMetadata).getETag();
+  }
+
+  private void refresh(String cephBucketName, boolean force) {
+    var bucket = bucket(cephBucketName);
+    synchronized (bucket.maintenance) {
+      if (!force && !isRefreshDue(bucket)) {
+        return;
+      }
+      var startedAt = System.currentTimeMillis();
+      // packs written after the snapshot may be missing in the listing, but aren't removed
+      var removed = bucket.getPacks();
+      var listed = listPacks(cephBucketName);
+      removed.removeAll(listed.keySet());
+      bucket.forget(removed);
+      listed.forEach((packName, size) -> {
+        if (!bucket.isKnown(packName)) {
+          readIndex(cephBucketName, packName, size)
+              .ifPresent(records -> bucket.apply(packName, size, records));
+        }
+      });
+      bucket.setRefreshedAt(startedAt);
+      log.info("Listed {} packs of ceph bucket {}, removed {}", listed.size(), cephBucketName,
+          removed.size());
+    }
+  }
+
+  private Map<String, Long> listPacks(String cephBucketName) {
+    var result = new TreeMap<String, Long>();
+    var listing = cephAmazonS3.listObjects(new ListObjectsRequest()
+        .withBucketName(cephBucketName)
+        .withPrefix(properties.getPrefix()));
+    while (true) {
+      listing.getObjectSummaries()
+          .forEach(summary -> result.put(summary.getKey(), summary.getSize()));
+      if (!listing.isTruncated()) {
+        return result;
+      }
+      listing = cephAmazonS3.listNextBatchOfObjects(listing);
+    }
+  }
+
+  private Optional<List<PackRecord>> readIndex(String cephBucketName, String packName,
+      long size) {
+    try {
+      var footerOffset = size - PackFile.FOOTER_LENGTH;
+      var indexLength = PackFile.readIndexLength(
+          readRange(cephBucketName, packName, footerOffset, PackFile.FOOTER_LENGTH));
+      return Optional.of(PackFile.readIndex(
+          readRange(cephBucketName, packName, footerOffset - indexLength, indexLength)));
+    } catch (AmazonS3Exception exception) {
+      if (exception.getStatusCode() != NOT_FOUND_STATUS_CODE) {
+        throw exception;
+      }
+      log.info("Pack {} of ceph bucket {} was removed while listed", packName, cephBucketName);
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * @param length number of bytes to read, negative to read the whole object
+   */
+  private byte[] readRange(String cephBucketName, String packName, long offset, int length) {
+    if (length == 0) {
+      return new byte[0];
+    }
+    var request = new GetObjectRequest(cephBucketName, packName);
+    if (length > 0) {
+      request.setRange(offset, offset + length - 1);
+    }
+    try (var object = cephAmazonS3.getObject(request)) {
+      return IOUtils.toByteArray(object.getObjectContent());
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  private boolean isRefreshDue(PackedBucket bucket) {
+    return System.currentTimeMillis() - bucket.getRefreshedAt()
+        >= properties.getRefreshInterval().toMillis();
+  }
+
+  private PackedBucket bucket(String cephBucketName) {
+    return buckets.computeIfAbsent(cephBucketName, name -> new PackedBucket());
+  }
+
+  private void compactAsync() {
+    for (var cephBucketName : buckets.keySet()) {
+      if (!compactingBuckets.add(cephBucketName)) {
+        continue;
+      }
+      executor.execute(() -> {
+        try {
+          compact(cephBucketName);
+        } catch (RuntimeException exception) {
+          log.warn("Compaction of packs of ceph bucket {} failed", cephBucketName, exception);
+        } finally {
+          compactingBuckets.remove(cephBucketName);
+        }
+      });
+    }
+  }
+}
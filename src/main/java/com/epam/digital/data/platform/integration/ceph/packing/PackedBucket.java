@@ -0,0 +1,177 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.packing;
+
+import com.epam.digital.data.platform.integration.ceph.packing.model.PackEntry;
+import com.epam.digital.data.platform.integration.ceph.packing.model.PackRecord;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Index of the packed keys of one bucket. The entry of a key is replaced only by entries of packs
+ * with greater names, which are written later, so packs can be applied in any order.
+ */
+class PackedBucket {
+
+  private final Map<String, PackEntry> index = new HashMap<>();
+  private final TreeMap<String, PackStats> packs = new TreeMap<>();
+  /**
+   * Lock serializing refreshes and compactions of the bucket.
+   */
+  final Object maintenance = new Object();
+  private volatile long refreshedAt;
+  /**
+   * Pack collecting puts and deletes, guarded by the monitor of this object.
+   */
+  PendingPack pending;
+
+  synchronized PackEntry get(String key) {
+    return index.get(key);
+  }
+
+  synchronized boolean isKnown(String packName) {
+    return packs.containsKey(packName);
+  }
+
+  synchronized List<String> getPacks() {
+    return new ArrayList<>(packs.keySet());
+  }
+
+  /**
+   * @return live (not deleted) keys with the prefix
+   */
+  synchronized Set<String> getKeys(String prefix) {
+    return index.entrySet().stream()
+        .filter(entry -> !entry.getValue().isTombstone() && entry.getKey().startsWith(prefix))
+        .map(Map.Entry::getKey)
+        .collect(Collectors.toSet());
+  }
+
+  long getRefreshedAt() {
+    return refreshedAt;
+  }
+
+  void setRefreshedAt(long refreshedAt) {
+    this.refreshedAt = refreshedAt;
+  }
+
+  synchronized void apply(String packName, long size, List<PackRecord> records) {
+    if (packs.containsKey(packName)) {
+      return;
+    }
+    var stats = new PackStats(size, records.size());
+    for (var record : records) {
+      var current = index.get(record.getKey());
+      if (current != null && current.getPackName().compareTo(packName) > 0) {
+        continue;
+      }
+      if (current != null) {
+        release(current, packName, stats);
+      }
+      index.put(record.getKey(),
+          new PackEntry(packName, record.getOffset(), record.getLength()));
+      stats.live++;
+    }
+    packs.put(packName, stats);
+  }
+
+  /**
+   * Point the keys to the pack written by compaction, unless they were overwritten meanwhile.
+   *
+   * @param moved records of the new pack mapped to the entries they replace
+   */
+  synchronized void replace(String packName, long size, Map<PackRecord, PackEntry> moved) {
+    var stats = new PackStats(size, moved.size());
+    moved.forEach((record, previous) -> {
+      if (previous.equals(index.get(record.getKey()))) {
+        index.put(record.getKey(),
+            new PackEntry(packName, record.getOffset(), record.getLength()));
+        stats.live++;
+      }
+    });
+    packs.put(packName, stats);
+  }
+
+  /**
+   * Drop the packs and the entries which still point to them.
+   */
+  synchronized void forget(Collection<String> packNames) {
+    packs.keySet().removeAll(packNames);
+    index.values().removeIf(entry -> packNames.contains(entry.getPackName()));
+  }
+
+  /**
+   * Select consecutive packs to be rewritten into one: either several packs smaller than half of
+   * the pack size or packs with enough overwritten or deleted entries. Packs which are already
+   * dense and big enough are skipped.
+   */
+  synchronized List<String> selectCompaction(long packSize, double threshold) {
+    var group = new ArrayList<String>();
+    var groupSize = 0L;
+    var records = 0;
+    var live = 0;
+    for (var pack : packs.entrySet()) {
+      var stats = pack.getValue();
+      if (group.isEmpty() && stats.size >= packSize / 2 && stats.deadRatio() < threshold) {
+        continue;
+      }
+      group.add(pack.getKey());
+      groupSize += stats.size;
+      records += stats.records;
+      live += stats.live;
+      if (groupSize >= packSize) {
+        break;
+      }
+    }
+    var deadRatio = records == 0 ? 1.0 : 1.0 - (double) live / records;
+    return group.size() > 1 || deadRatio >= threshold ? group : List.of();
+  }
+
+  synchronized boolean isFirst(String packName) {
+    return !packs.isEmpty() && packs.firstKey().equals(packName);
+  }
+
+  private void release(PackEntry entry, String packName, PackStats stats) {
+    var owner = entry.getPackName().equals(packName) ? stats : packs.get(entry.getPackName());
+    if (owner != null) {
+      owner.live--;
+    }
+  }
+
+  private static class PackStats {
+
+    private final long size;
+    private final int records;
+    private int live;
+
+    private PackStats(long size, int records) {
+      this.size = size;
+      this.records = records;
+    }
+
+    private double deadRatio() {
+      return records == 0 ? 1.0 : 1.0 - (double) live / records;
+    }
+  }
+}
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.retry;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.retry.RetryPolicy;
+import com.amazonaws.retry.RetryPolicy.RetryCondition;
+import com.amazonaws.retry.RetryUtils;
+import com.epam.digital.data.platform.integration.ceph.config.RetryProperties;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry policy of the clients created by the library. Retryable failures are retried with
+ * decorrelated jitter backoff, requests throttled by Ceph with a longer base delay, and every
+ * retry takes a token of the retry budget of the client, so retries stop once they would exceed
+ * the configured fraction of the traffic.
+ */
+public final class CephRetryPolicy {
+
+  private static final HandlerContextKey<Long> PREVIOUS_DELAY =
+      new HandlerContextKey<>("CephRetryDelay");
+  static final HandlerContextKey<Integer> REFUSED_RETRY =
+      new HandlerContextKey<>("CephRefusedRetry");
+  private static final String RETRY_AFTER_HEADER = "Retry-After";
+  private static final int SERVICE_UNAVAILABLE_STATUS_CODE = 503;
+  private static final int REQUEST_TIMEOUT_STATUS_CODE = 408;
+
+  private CephRetryPolicy() {
+  }
+
+  public static RetryPolicy create(RetryProperties properties, RetryBudget budget) {
+    return create(properties, budget, new ClientConfiguration());
+  }
+
+  /**
+   * Create retry policy for a client configuration. The max retries of the configuration and the
+   * retry condition of its own retry policy, if it has one, take precedence over the defaults.
+   */
+  public static RetryPolicy create(RetryProperties properties, RetryBudget budget,
+      ClientConfiguration clientConfiguration) {
+    var configuredPolicy = clientConfiguration.getRetryPolicy();
+    var customPolicy = configuredPolicy != null
+        && configuredPolicy != PredefinedRetryPolicies.DEFAULT;
+    RetryCondition retryCondition = customPolicy ? configuredPolicy.getRetryCondition()
+        : (request, exception, retriesAttempted) -> isThrottled(exception)
+            || PredefinedRetryPolicies.DEFAULT_RETRY_CONDITION.shouldRetry(request, exception,
+            retriesAttempted);
+    int maxRetries;
+    if (clientConfiguration.getMaxErrorRetry() >= 0
+        && (!customPolicy || configuredPolicy.isMaxErrorRetryInClientConfigHonored())) {
+      maxRetries = clientConfiguration.getMaxErrorRetry();
+    } else {
+      maxRetries = customPolicy ? configuredPolicy.getMaxErrorRetry() : properties.getMaxRetries();
+    }
+    return new RetryPolicy(
+        (request, exception, retriesAttempted) -> shouldRetry(request, exception,
+            retriesAttempted, maxRetries, retryCondition, budget),
+        (request, exception, retriesAttempted) -> delayBeforeNextRetry(request, exception,
+            retriesAttempted, properties),
+        maxRetries, false);
+  }
+
+  /**
+   * @return whether Ceph throttled the request: 503 SlowDown, 429 or a throttling error code
+   */
+  public static boolean isThrottled(Throwable exception) {
+    if (!(exception instanceof AmazonServiceException)) {
+      return false;
+    }
+    var serviceException = (AmazonServiceException) exception;
+    return serviceException.getStatusCode() == SERVICE_UNAVAILABLE_STATUS_CODE
+        || RetryUtils.isThrottlingException(serviceException);
+  }
+
+  /**
+   * @return whether the request may succeed if it is sent again: it was throttled, failed on the
+   * side of Ceph or wasn't completed because of an IO error
+   */
+  public static boolean isRetryable(Throwable exception) {
+    if (isThrottled(exception)) {
+      return true;
+    }
+    if (exception instanceof AmazonServiceException) {
+      var statusCode = ((AmazonServiceException) exception).getStatusCode();
+      return statusCode >= 500 || statusCode == REQUEST_TIMEOUT_STATUS_CODE;
+    }
+    return exception instanceof AmazonClientException
+        && exception.getCause() instanceof IOException;
+  }
+
+  /**
+   * The SDK asks again whether a failure is retryable when it gives up retrying, only to report
+   * it, so the budget is charged at most once per failed attempt.
+   */
+  private static boolean shouldRetry(AmazonWebServiceRequest request,
+      AmazonClientException exception, int retriesAttempted, int maxRetries,
+      RetryCondition retryCondition, RetryBudget budget) {
+    if (!retryCondition.shouldRetry(request, exception, retriesAttempted)) {
+      return false;
+    }
+    if (retriesAttempted >= maxRetries) {
+      return true;
+    }
+    if (Integer.valueOf(retriesAttempted).equals(request.getHandlerContext(REFUSED_RETRY))) {
+      return false;
+    }
+    if (budget.tryAcquire(isThrottled(exception))) {
+      return true;
+    }
+    request.addHandlerContext(REFUSED_RETRY, retriesAttempted);
+    return false;
+  }
+
+  /**
+   * Decorrelated jitter: the delay is random between the base delay and three times the
+   * previous delay of the request, but not longer than the max delay.
+   */
+  private static long delayBeforeNextRetry(AmazonWebServiceRequest request,
+      AmazonClientException exception, int retriesAttempted, RetryProperties properties) {
+    var throttled = isThrottled(exception);
+    var baseDelay = (throttled ? properties.getThrottledBaseDelay() : properties.getBaseDelay())
+        .toMillis();
+    var maxDelay = properties.getMaxDelay().toMillis();
+    var previousDelay = retriesAttempted == 0 ? null : request.getHandlerContext(PREVIOUS_DELAY);
+    var upperDelay = previousDelay == null ? baseDelay : Math.max(baseDelay, previousDelay * 3);
+    var delay = upperDelay > baseDelay
+        ? ThreadLocalRandom.current().nextLong(baseDelay, upperDelay + 1) : baseDelay;
+    if (throttled) {
+      delay = Math.max(delay, getRetryAfterMillis((AmazonServiceException) exception));
+    }
+    delay = Math.min(delay, maxDelay);
+    request.addHandlerContext(PREVIOUS_DELAY, delay);
+    return delay;
+  }
+
+  private static long getRetryAfterMillis(AmazonServiceException serviceException) {
+    var headers = serviceException.getHttpHeaders();
+    var retryAfter = headers == null ? null : headers.get(RETRY_AFTER_HEADER);
+    if (retryAfter == null) {
+      return 0L;
+    }
+    try {
+      return Long.parseLong(retryAfter.trim()) * 1000L;
+    } catch (NumberFormatException exception) {
+      // Retry-After as an HTTP date isn't sent by Ceph
+      return 0L;
+    }
+  }
+}
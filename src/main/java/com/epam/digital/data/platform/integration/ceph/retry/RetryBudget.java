@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.retry;
+
+/**
+ * Token bucket limiting retries of a client to a fraction of its requests, so that retries don't
+ * multiply the load of an overloaded Ceph. Every request adds {@code ratio} tokens, every retry
+ * takes a whole token, the bucket holds at most {@code capacity} tokens and starts full.
+ */
+public class RetryBudget {
+
+  private final String endpoint;
+  private final double ratio;
+  private final double capacity;
+  private double tokens;
+  private long retries;
+  private long throttledRetries;
+  private long exhaustions;
+
+  public RetryBudget(String endpoint, double ratio, int capacity) {
+    this.endpoint = endpoint;
+    this.ratio = ratio;
+    this.capacity = capacity;
+    this.tokens = capacity;
+  }
+
+  /**
+   * Add the share of a request to the budget.
+   */
+  public synchronized void onRequest() {
+    tokens = Math.min(tokens + ratio, capacity);
+  }
+
+  /**
+   * Take a token for a retry.
+   *
+   * @param throttled whether the retried request was throttled by Ceph
+   * @return false if the budget is exhausted and the request must not be retried
+   */
+  public synchronized boolean tryAcquire(boolean throttled) {
+    if (tokens < 1d) {
+      exhaustions++;
+      return false;
+    }
+    tokens -= 1d;
+    retries++;
+    if (throttled) {
+      throttledRetries++;
+    }
+    return true;
+  }
+
+  public String getEndpoint() {
+    return endpoint;
+  }
+
+  public synchronized double getTokens() {
+    return tokens;
+  }
+
+  /**
+   * @return number of retries, including the throttled ones
+   */
+  public synchronized long getRetries() {
+    return retries;
+  }
+
+  public synchronized long getThrottledRetries() {
+    return throttledRetries;
+  }
+
+  /**
+   * @return number of retries refused as the budget was exhausted
+   */
+  public synchronized long getExhaustions() {
+    return exhaustions;
+  }
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.retry;
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.Request;
+import com.amazonaws.handlers.RequestHandler2;
+
+/**
+ * Request handler that adds the share of every request sent by a client to its retry budget.
+ * Requests reused by callers are retried within the budget again.
+ */
+public class RetryBudgetHandler extends RequestHandler2 {
+
+  private final RetryBudget budget;
+
+  public RetryBudgetHandler(RetryBudget budget) {
+    this.budget = budget;
+  }
+
+  @Override
+  public AmazonWebServiceRequest beforeExecution(AmazonWebServiceRequest request) {
+    request.addHandlerContext(CephRetryPolicy.REFUSED_RETRY, null);
+    return request;
+  }
+
+  @Override
+  public void beforeRequest(Request<?> request) {
+    budget.onRequest();
+  }
+}
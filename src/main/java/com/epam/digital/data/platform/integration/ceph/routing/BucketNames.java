@@ -0,0 +1,70 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.routing;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bucket of an Amazon S3 request object: the destination bucket of copies, otherwise the bucket
+ * of the request. Shared by routing and tracing, so that both resolve the same bucket.
+ */
+public final class BucketNames {
+
+  private static final List<String> BUCKET_NAME_GETTERS = List.of("getDestinationBucketName",
+      "getBucketName");
+  private static final Map<Class<?>, Optional<Method>> GETTERS = new ConcurrentHashMap<>();
+
+  private BucketNames() {
+  }
+
+  /**
+   * @return bucket of the request or null if the request has no bucket
+   */
+  public static String of(Object request) {
+    if (request == null) {
+      return null;
+    }
+    var getter = GETTERS.computeIfAbsent(request.getClass(), BucketNames::findGetter);
+    if (getter.isEmpty()) {
+      return null;
+    }
+    try {
+      return (String) getter.get().invoke(request);
+    } catch (ReflectiveOperationException exception) {
+      return null;
+    }
+  }
+
+  private static Optional<Method> findGetter(Class<?> requestClass) {
+    for (var getterName : BUCKET_NAME_GETTERS) {
+      try {
+        var getter = requestClass.getMethod(getterName);
+        if (getter.getReturnType() == String.class) {
+          return Optional.of(getter);
+        }
+      } catch (NoSuchMethodException exception) {
+        // the request has no bucket of this kind
+      }
+    }
+    return Optional.empty();
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.routing;
+
+import com.amazonaws.services.s3.AmazonS3;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Routes every call of {@link AmazonS3} to the client of the first bucket pattern matching the
+ * bucket of the call, calls to other buckets and calls without a bucket go to the default client.
+ * The bucket is the first string argument of the call or the bucket of its request, copies are
+ * routed by the destination bucket.
+ */
+public class BucketRouter implements InvocationHandler {
+
+  private static final Set<String> BROADCAST_METHODS = Set.of("shutdown", "setEndpoint",
+      "setRegion", "setS3ClientOptions");
+  /**
+   * Index of the destination bucket in {@code copyObject(sourceBucketName, sourceKey,
+   * destinationBucketName, destinationKey)}.
+   */
+  private static final int COPY_DESTINATION_BUCKET_ARGUMENT = 2;
+
+  private final AmazonS3 defaultClient;
+  private final List<Route> routes;
+
+  BucketRouter(AmazonS3 defaultClient, Map<String, AmazonS3> clientsByBucketPattern) {
+    this.defaultClient = defaultClient;
+    var bucketRoutes = new ArrayList<Route>();
+    clientsByBucketPattern.forEach((bucketPattern, client) -> bucketRoutes.add(
+        new Route(toRegex(bucketPattern), client)));
+    this.routes = Collections.unmodifiableList(bucketRoutes);
+  }
+
+  /**
+   * Create client that routes calls by bucket.
+   *
+   * @param defaultClient          client of the buckets not matching any pattern
+   * @param clientsByBucketPattern clients by bucket name or pattern with {@code *} wildcard in
+   *                               the order of matching
+   * @return routing client
+   */
+  public static AmazonS3 route(AmazonS3 defaultClient,
+      Map<String, AmazonS3> clientsByBucketPattern) {
+    return (AmazonS3) Proxy.newProxyInstance(AmazonS3.class.getClassLoader(),
+        new Class<?>[]{AmazonS3.class}, new BucketRouter(defaultClient, clientsByBucketPattern));
+  }
+
+  @Override
+  public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+    if (method.getDeclaringClass() == Object.class) {
+      return invokeObjectMethod(proxy, method, args);
+    }
+    if (BROADCAST_METHODS.contains(method.getName())) {
+      for (var client : getClients()) {
+        invoke(client, method, args);
+      }
+      return null;
+    }
+    return invoke(choose(findBucketName(method, args)), method, args);
+  }
+
+  AmazonS3 choose(String cephBucketName) {
+    if (cephBucketName == null) {
+      return defaultClient;
+    }
+    return routes.stream()
+        .filter(route -> route.bucketPattern.matcher(cephBucketName).matches())
+        .map(route -> route.client)
+        .findFirst()
+        .orElse(defaultClient);
+  }
+
+  private static String findBucketName(Method method, Object[] args) {
+    if (args == null || args.length == 0) {
+      return null;
+    }
+    if ("copyObject".equals(method.getName()) && args.length > COPY_DESTINATION_BUCKET_ARGUMENT
+        && args[COPY_DESTINATION_BUCKET_ARGUMENT] instanceof String) {
+      return (String) args[COPY_DESTINATION_BUCKET_ARGUMENT];
+    }
+    if (args[0] instanceof String) {
+      return (String) args[0];
+    }
+    return BucketNames.of(args[0]);
+  }
+
+  private Set<AmazonS3> getClients() {
+    var clients = new LinkedHashSet<AmazonS3>();
+    clients.add(defaultClient);
+    routes.forEach(route -> clients.add(route.client));
+    return clients;
+  }
+
+  private static Object invoke(AmazonS3 client, Method method, Object[] args) throws Throwable {
+    try {
+      return method.invoke(client, args);
+    } catch (InvocationTargetException exception) {
+      throw exception.getCause();
+    }
+  }
+
+  private static Pattern toRegex(String bucketPattern) {
+    return Pattern.compile(Arrays.stream(bucketPattern.split("\\*", -1))
+        .map(Pattern::quote)
+        .collect(Collectors.joining(".*")));
+  }
+
+  private Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+    switch (method.getName()) {
+      case "equals":
+        return proxy == args[0];
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      default:
+        return "BucketRoutingAmazonS3" + routes.stream().map(route -> route.bucketPattern)
+            .collect(Collectors.toList());
+    }
+  }
+
+  private static class Route {
+
+    private final Pattern bucketPattern;
+    private final AmazonS3 client;
+
+    private Route(Pattern bucketPattern, AmazonS3 client) {
+      this.bucketPattern = bucketPattern;
+      this.client = client;
+    }
+  }
+}
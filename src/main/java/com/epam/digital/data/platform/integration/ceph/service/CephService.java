@@ -18,13 +18,24 @@ package com.epam.digital.data.platform.integration.ceph.service;
 
 import com.epam.digital.data.platform.integration.ceph.exception.CephCommunicationException;
 import com.epam.digital.data.platform.integration.ceph.exception.MisconfigurationException;
+import com.epam.digital.data.platform.integration.ceph.model.CephBatchResult;
+import com.epam.digital.data.platform.integration.ceph.model.CephListing;
 import com.epam.digital.data.platform.integration.ceph.model.CephObject;
 import com.epam.digital.data.platform.integration.ceph.model.CephObjectMetadata;
+import com.epam.digital.data.platform.integration.ceph.model.ConditionalGetResult;
+import com.epam.digital.data.platform.integration.ceph.model.DeletionOptions;
+import com.epam.digital.data.platform.integration.ceph.model.DeletionProgress;
+import com.epam.digital.data.platform.integration.ceph.model.ParallelListingOptions;
+import com.epam.digital.data.platform.integration.ceph.model.PresignedUrlOptions;
 import java.io.InputStream;
+import java.net.URL;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.stream.Stream;
 import org.springframework.cloud.sleuth.annotation.NewSpan;
 
 public interface CephService {
@@ -53,6 +64,34 @@ public interface CephService {
   @NewSpan
   Optional<String> getAsString(String cephBucketName, String key);
 
+  /**
+   * Retrieve ceph content only if its ETag differs from the given one. Content isn't transferred
+   * if the object wasn't changed.
+   *
+   * @param cephBucketName ceph bucket name
+   * @param key            document id
+   * @param eTag           ETag of the object version known to the caller
+   * @return modified ceph content and metadata, not modified or not found status
+   * @throws MisconfigurationException  if ceph bucket not exist
+   * @throws CephCommunicationException if faced any 4xx or 5xx error from Ceph
+   */
+  @NewSpan("getObjectIfChanged")
+  ConditionalGetResult getIfChanged(String cephBucketName, String key, String eTag);
+
+  /**
+   * Retrieve ceph content only if it was modified after the given date. Content isn't transferred
+   * if the object wasn't modified.
+   *
+   * @param cephBucketName ceph bucket name
+   * @param key            document id
+   * @param modifiedSince  last modification date of the object known to the caller
+   * @return modified ceph content and metadata, not modified or not found status
+   * @throws MisconfigurationException  if ceph bucket not exist
+   * @throws CephCommunicationException if faced any 4xx or 5xx error from Ceph
+   */
+  @NewSpan("getObjectIfModifiedSince")
+  ConditionalGetResult getIfModifiedSince(String cephBucketName, String key, Date modifiedSince);
+
   /**
    * Put string content to ceph bucket
    *
@@ -65,6 +104,50 @@ public interface CephService {
   @NewSpan("putContentAsString")
   void put(String cephBucketName, String key, String content);
 
+  /**
+   * Retrieve contents as strings for a batch of keys. Keys are read in parallel and the bucket is
+   * checked only once per batch.
+   *
+   * @param cephBucketName ceph bucket name
+   * @param keys           document ids
+   * @return contents of the found documents by key; keys that don't exist are absent both in
+   * results and failures, keys that failed to be read are reported in failures
+   * @throws MisconfigurationException  if ceph bucket not exist
+   * @throws CephCommunicationException if faced any 4xx or 5xx error from Ceph during bucket check
+   */
+  @NewSpan("getContentsAsString")
+  CephBatchResult<String> getAll(String cephBucketName, Collection<String> keys);
+
+  /**
+   * Put a batch of string contents to ceph bucket. Contents are put in parallel and the bucket
+   * is checked only once per batch.
+   *
+   * @param cephBucketName ceph bucket name
+   * @param contents       contents to put by document id
+   * @return ETag of every stored document by key, keys that failed to be put are reported in
+   * failures
+   * @throws MisconfigurationException  if ceph bucket not exist
+   * @throws CephCommunicationException if faced any 4xx or 5xx error from Ceph during bucket check
+   */
+  @NewSpan("putContentsAsString")
+  CephBatchResult<String> putAll(String cephBucketName, Map<String, String> contents);
+
+  /**
+   * Put a batch of binary contents of the same content type to ceph bucket. Contents are put in
+   * parallel and the bucket is checked only once per batch.
+   *
+   * @param cephBucketName ceph bucket name
+   * @param contentType    content type of every object
+   * @param contents       contents to put by object id
+   * @return ETag of every stored object by key, keys that failed to be put are reported in
+   * failures
+   * @throws MisconfigurationException  if ceph bucket not exist
+   * @throws CephCommunicationException if faced any 4xx or 5xx error from Ceph during bucket check
+   */
+  @NewSpan("putObjects")
+  CephBatchResult<String> putAll(String cephBucketName, String contentType,
+      Map<String, byte[]> contents);
+
   /**
    * Put file object to ceph storage.
    *
@@ -96,6 +179,53 @@ public interface CephService {
       Map<String, String> userMetadata, InputStream inputStream);
 
   
+  /**
+   * Copy object on the ceph side, so the content isn't transferred through the client. Objects
+   * bigger than the configured threshold are copied with parallel multipart copy.
+   *
+   * @param sourceBucketName      source ceph bucket name
+   * @param sourceKey             source object id
+   * @param destinationBucketName destination ceph bucket name
+   * @param destinationKey        destination object id
+   * @throws MisconfigurationException  if any of ceph buckets not exist
+   * @throws CephCommunicationException if faced any 4xx or 5xx error from Ceph
+   */
+  @NewSpan("copyObject")
+  void copy(String sourceBucketName, String sourceKey, String destinationBucketName,
+      String destinationKey);
+
+  /**
+   * Move object on the ceph side: copy it to destination and delete the source.
+   *
+   * @param sourceBucketName      source ceph bucket name
+   * @param sourceKey             source object id
+   * @param destinationBucketName destination ceph bucket name
+   * @param destinationKey        destination object id
+   * @throws MisconfigurationException  if any of ceph buckets not exist
+   * @throws CephCommunicationException if faced any 4xx or 5xx error from Ceph
+   */
+  @NewSpan("moveObject")
+  void move(String sourceBucketName, String sourceKey, String destinationBucketName,
+      String destinationKey);
+
+  /**
+   * Copy all objects with the source prefix on the ceph side. Key of the copy is the source key
+   * with the source prefix replaced by the destination prefix. Objects are copied in parallel
+   * while the next page of keys is being listed.
+   *
+   * @param sourceBucketName      source ceph bucket name
+   * @param sourcePrefix          prefix of objects to copy
+   * @param destinationBucketName destination ceph bucket name
+   * @param destinationPrefix     prefix of the copies
+   * @return destination key by source key, keys that failed to be copied are reported in
+   * failures
+   * @throws MisconfigurationException  if any of ceph buckets not exist
+   * @throws CephCommunicationException if faced any 4xx or 5xx error from Ceph during listing
+   */
+  @NewSpan("copyObjectsByPrefix")
+  CephBatchResult<String> copyPrefix(String sourceBucketName, String sourcePrefix,
+      String destinationBucketName, String destinationPrefix);
+
   /**
    * Delete objects by keys.
    *
@@ -106,6 +236,20 @@ public interface CephService {
   @NewSpan
   void delete(String cephBucketName, Set<String> keys);
 
+  /**
+   * Delete all objects with the key prefix listing and deleting them page by page, so memory
+   * consumption doesn't depend on the number of objects.
+   *
+   * @param cephBucketName ceph bucket name
+   * @param prefix         key prefix
+   * @param options        batch size, pipeline depth, dry-run mode and progress listener
+   * @return number of listed, deleted and failed keys
+   * @throws MisconfigurationException  if ceph bucket not exist
+   * @throws CephCommunicationException if faced any 4xx or 5xx error from Ceph
+   */
+  @NewSpan("deleteObjectsByPrefix")
+  DeletionProgress deleteByPrefix(String cephBucketName, String prefix, DeletionOptions options);
+
   /**
    * Check keys existence.
    *
@@ -147,8 +291,46 @@ public interface CephService {
    * @throws MisconfigurationException  if ceph bucket not exist
    * @throws CephCommunicationException if faced any 4xx or 5xx error from Ceph
    */
+  @NewSpan
   Set<String> getKeys(String cephBucketName);
 
+  /**
+   * Get keys of a very large bucket listing several shards of the key space concurrently. The
+   * shards are merged into a single stream, in the key order if requested. The stream holds
+   * listing threads until it is fully consumed, so it should be closed if it is abandoned before.
+   * Otherwise the threads are released once the stream is garbage collected or isn't consumed for
+   * the consumer timeout of the options.
+   *
+   * @param cephBucketName ceph bucket name
+   * @param options        how to split the key space and whether to keep the key order
+   * @return stream of keys
+   * @throws MisconfigurationException  if ceph bucket not exist
+   * @throws CephCommunicationException if faced any 4xx or 5xx error from Ceph, also thrown
+   *                                    while consuming the stream
+   */
+  @NewSpan("getKeysInParallel")
+  Stream<String> getKeysInParallel(String cephBucketName, ParallelListingOptions options);
+
+  /**
+   * Get a page of the keys with the prefix, rolling up the keys that contain the delimiter after
+   * the prefix into common prefixes, e.g. to browse one "folder" at a time. Pack objects and
+   * contents which aren't separate objects yet are listed as the keys they hold, so a page may
+   * have a bit more or fewer entries than requested.
+   *
+   * @param cephBucketName ceph bucket name
+   * @param prefix         key prefix, null or empty to list the whole bucket
+   * @param delimiter      delimiter of the common prefixes, null to list keys recursively
+   * @param pageSize       max number of keys and common prefixes listed from Ceph
+   * @param pageToken      token of the page returned with the previous one, null for the first
+   * @return page of the common prefixes and objects in the key order
+   * @throws IllegalArgumentException   if page size isn't positive or page token is invalid
+   * @throws MisconfigurationException  if ceph bucket not exist
+   * @throws CephCommunicationException if faced any 4xx or 5xx error from Ceph
+   */
+  @NewSpan
+  CephListing list(String cephBucketName, String prefix, String delimiter, int pageSize,
+      String pageToken);
+
   /**
    * Get objects metadata by keys.
    *
@@ -166,7 +348,7 @@ public interface CephService {
    * @param keyPrefix specified key prefix
    * @return list of objects metadata.
    */
-  @NewSpan("getObjectsMetadata")
+  @NewSpan("getObjectsMetadataByPrefix")
   List<CephObjectMetadata> getMetadata(String cephBucketName, String keyPrefix);
 
 
@@ -180,4 +362,82 @@ public interface CephService {
   @NewSpan("setUserMetadata")
   CephObjectMetadata setUserMetadata(
       String cephBucketName, String key, Map<String, String> userMetadata);
+
+  /**
+   * Generate pre-signed URL to download the object directly from Ceph. The URL is signed with the
+   * configured credentials without any request to Ceph.
+   *
+   * @param cephBucketName ceph bucket name
+   * @param key            document id
+   * @param options        expiration and response content type
+   * @return pre-signed GET URL
+   */
+  @NewSpan("generatePresignedGetUrl")
+  URL generatePresignedGetUrl(String cephBucketName, String key, PresignedUrlOptions options);
+
+  /**
+   * Generate pre-signed URL to upload the object directly to Ceph. The URL is signed with the
+   * configured credentials without any request to Ceph.
+   *
+   * @param cephBucketName ceph bucket name
+   * @param key            document id
+   * @param options        expiration, content type and length the upload has to be sent with
+   * @return pre-signed PUT URL
+   */
+  @NewSpan("generatePresignedPutUrl")
+  URL generatePresignedPutUrl(String cephBucketName, String key, PresignedUrlOptions options);
+
+  /**
+   * Start multipart upload which parts are uploaded with pre-signed part URLs.
+   *
+   * @param cephBucketName ceph bucket name
+   * @param key            document id
+   * @param contentType    content type of the object
+   * @return upload id
+   * @throws MisconfigurationException  if ceph bucket not exist
+   * @throws CephCommunicationException if faced any 4xx or 5xx error from Ceph
+   */
+  @NewSpan("initiateMultipartUpload")
+  String initiateMultipartUpload(String cephBucketName, String key, String contentType);
+
+  /**
+   * Generate pre-signed URL to upload a part of multipart upload directly to Ceph. The URL is
+   * signed with the configured credentials without any request to Ceph.
+   *
+   * @param cephBucketName ceph bucket name
+   * @param key            document id
+   * @param uploadId       upload id
+   * @param partNumber     part number starting from 1
+   * @param options        expiration and content length of the part
+   * @return pre-signed PUT URL of the part
+   */
+  @NewSpan("generatePresignedPartUrl")
+  URL generatePresignedPartUrl(String cephBucketName, String key, String uploadId, int partNumber,
+      PresignedUrlOptions options);
+
+  /**
+   * Complete multipart upload.
+   *
+   * @param cephBucketName ceph bucket name
+   * @param key            document id
+   * @param uploadId       upload id
+   * @param partETags      ETags of the uploaded parts in the order of their numbers
+   * @return metadata of the uploaded object
+   * @throws MisconfigurationException  if ceph bucket not exist
+   * @throws CephCommunicationException if faced any 4xx or 5xx error from Ceph
+   */
+  @NewSpan("completeMultipartUpload")
+  CephObjectMetadata completeMultipartUpload(String cephBucketName, String key, String uploadId,
+      List<String> partETags);
+
+  /**
+   * Abort multipart upload releasing its uploaded parts.
+   *
+   * @param cephBucketName ceph bucket name
+   * @param key            document id
+   * @param uploadId       upload id
+   * @throws CephCommunicationException if faced any 4xx or 5xx error from Ceph
+   */
+  @NewSpan("abortMultipartUpload")
+  void abortMultipartUpload(String cephBucketName, String key, String uploadId);
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.service.impl;
+
+import brave.Tracing;
+import com.epam.digital.data.platform.integration.ceph.deadline.CephDeadline;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factory of executors used by {@link CephServiceS3Impl} for parallel (batch) operations.
+ */
+public final class CephExecutors {
+
+  private CephExecutors() {
+  }
+
+  /**
+   * Create executor that runs at most {@code parallelism} tasks at the same time. On Java 11-20
+   * it is a pool of daemon threads, created on demand and released after a minute of inactivity,
+   * so an idle service doesn't hold any threads. On Java 21+ every task gets a virtual thread
+   * and waits for a permit of a semaphore with {@code parallelism} permits. Tasks run within the
+   * context of the submitting thread, see {@link #withContext(ExecutorService)}.
+   *
+   * @param parallelism max number of concurrently running tasks
+   * @return bounded executor
+   */
+  public static ExecutorService newBoundedExecutor(int parallelism) {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be positive, but was " + parallelism);
+    }
+    return withContext(BoundedExecutors.newExecutor(parallelism));
+  }
+
+  /**
+   * Wrap executor so that tasks run within the trace context and the deadline of the thread that
+   * submitted them, so the requests they send are traced as children of the calling service
+   * method and are bounded by its deadline. Use it only for tasks the caller waits for.
+   *
+   * @param executor executor to run the tasks
+   * @return executor propagating the context, the same one if it already does
+   */
+  public static ExecutorService withContext(ExecutorService executor) {
+    if (executor instanceof ContextExecutorService
+        && ((ContextExecutorService) executor).propagateDeadline) {
+      return executor;
+    }
+    return new ContextExecutorService(unwrap(executor), true);
+  }
+
+  /**
+   * Wrap executor so that tasks run within the trace context of the thread that submitted them,
+   * but not within its deadline. Used for background tasks and tasks whose result is shared
+   * between callers, e.g. spool uploads or prefetched chunks, which mustn't fail because the
+   * deadline of the caller that started them is exceeded.
+   *
+   * @param executor executor to run the tasks
+   * @return executor propagating the trace context only
+   */
+  public static ExecutorService withoutDeadline(ExecutorService executor) {
+    return new ContextExecutorService(unwrap(executor), false);
+  }
+
+  private static ExecutorService unwrap(ExecutorService executor) {
+    return executor instanceof ContextExecutorService
+        ? ((ContextExecutorService) executor).delegate : executor;
+  }
+
+  private static class ContextExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final boolean propagateDeadline;
+
+    ContextExecutorService(ExecutorService delegate, boolean propagateDeadline) {
+      this.delegate = delegate;
+      this.propagateDeadline = propagateDeadline;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      var tracing = Tracing.current();
+      var task = propagateDeadline ? CephDeadline.wrap(command) : command;
+      delegate.execute(tracing == null ? task : tracing.currentTraceContext().wrap(task));
+    }
+
+    @Override
+    public void shutdown() {
+      delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+      return delegate.awaitTermination(timeout, unit);
+    }
+  }
+}
@@ -17,38 +17,143 @@
 package com.epam.digital.data.platform.integration.ceph.service.impl;
 
 import com.amazonaws.ClientConfiguration;
+import com.amazonaws.HttpMethod;
 import com.amazonaws.Protocol;
 import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.http.timers.client.ClientExecutionTimeoutException;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.Bucket;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.CopyPartRequest;
+import com.amazonaws.services.s3.model.CopyPartResult;
 import com.amazonaws.services.s3.model.DeleteObjectsRequest;
 import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.amazonaws.services.s3.model.GeneratePresignedUrlRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException.DeleteError;
+import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.ResponseHeaderOverrides;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.util.BinaryUtils;
+import com.amazonaws.util.Md5Utils;
+import com.epam.digital.data.platform.integration.ceph.cache.ContentCache;
+import com.epam.digital.data.platform.integration.ceph.checksum.ChecksumAlgorithm;
+import com.epam.digital.data.platform.integration.ceph.checksum.ChecksumInputStream;
+import com.epam.digital.data.platform.integration.ceph.config.ContentProperties;
+import com.epam.digital.data.platform.integration.ceph.config.PrefetchProperties;
+import com.epam.digital.data.platform.integration.ceph.config.S3ConfigProperties;
+import com.epam.digital.data.platform.integration.ceph.config.TransferProperties;
+import com.epam.digital.data.platform.integration.ceph.config.WarmUpProperties;
+import com.epam.digital.data.platform.integration.ceph.deadline.DeadlineRequestHandler;
+import com.epam.digital.data.platform.integration.ceph.dedup.DedupStore;
 import com.epam.digital.data.platform.integration.ceph.exception.CephCommunicationException;
+import com.epam.digital.data.platform.integration.ceph.exception.CephRetryableException;
+import com.epam.digital.data.platform.integration.ceph.exception.CephThrottledException;
+import com.epam.digital.data.platform.integration.ceph.exception.CephTimeoutException;
 import com.epam.digital.data.platform.integration.ceph.exception.MisconfigurationException;
+import com.epam.digital.data.platform.integration.ceph.manifest.KeyManifest;
+import com.epam.digital.data.platform.integration.ceph.manifest.KeyManifestStore;
+import com.epam.digital.data.platform.integration.ceph.manifest.model.ManifestEntry;
+import com.epam.digital.data.platform.integration.ceph.model.CephBatchResult;
+import com.epam.digital.data.platform.integration.ceph.model.CephListing;
 import com.epam.digital.data.platform.integration.ceph.model.CephObject;
 import com.epam.digital.data.platform.integration.ceph.model.CephObjectMetadata;
+import com.epam.digital.data.platform.integration.ceph.model.CephObjectSummary;
+import com.epam.digital.data.platform.integration.ceph.model.ConditionalGetResult;
+import com.epam.digital.data.platform.integration.ceph.model.ConditionalGetResult.Status;
+import com.epam.digital.data.platform.integration.ceph.model.DeletionOptions;
+import com.epam.digital.data.platform.integration.ceph.model.DeletionProgress;
+import com.epam.digital.data.platform.integration.ceph.model.ParallelListingOptions;
+import com.epam.digital.data.platform.integration.ceph.model.PresignedUrlOptions;
+import com.epam.digital.data.platform.integration.ceph.model.WarmUpResult;
+import com.epam.digital.data.platform.integration.ceph.packing.PackStore;
+import com.epam.digital.data.platform.integration.ceph.packing.model.PackEntry;
+import com.epam.digital.data.platform.integration.ceph.retry.CephRetryPolicy;
 import com.epam.digital.data.platform.integration.ceph.service.CephService;
+import com.epam.digital.data.platform.integration.ceph.service.ContentLeakListener;
+import com.epam.digital.data.platform.integration.ceph.spool.WriteSpool;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 
 @Slf4j
-public class CephServiceS3Impl implements CephService {
+public class CephServiceS3Impl implements CephService, DisposableBean {
+
+  private static final int NOT_FOUND_STATUS_CODE = 404;
+  private static final long WARM_UP_BARRIER_TIMEOUT_SECONDS = 1L;
+  private static final long EXECUTOR_TERMINATION_TIMEOUT_SECONDS = 10L;
+  private static final int LISTING_PAGE_SIZE = 1000;
+  private static final String TEXT_CONTENT_TYPE = "text/plain";
+  private static final String UPLOAD_ID_PARAMETER = "uploadId";
+  private static final String PART_NUMBER_PARAMETER = "partNumber";
+  private static final Pattern MD5_ETAG_PATTERN = Pattern.compile("[0-9a-fA-F]{32}");
 
   private final AmazonS3 cephAmazonS3;
+  private final TransferProperties transferProperties;
+  private final ExecutorService executor;
+  private final ExecutorService backgroundExecutor;
+  private final int maxConnections;
+  private final ParallelKeyLister parallelKeyLister;
+  private final KeyManifestStore keyManifestStore;
+  private final ContentCache contentCache;
+  private final RequestCoalescer requestCoalescer;
+  private final long maxSharedContentSize;
+  private final ChecksumAlgorithm checksumAlgorithm;
+  private final PrefetchProperties prefetchProperties;
+  private final ContentProperties contentProperties;
+  private final ContentLeakListener contentLeakListener;
+  private final PackStore packStore;
+  private final WriteSpool writeSpool;
+  private final DedupStore dedupStore;
 
   @Builder
   public CephServiceS3Impl(String cephEndpoint, String cephAccessKey, String cephSecretKey) {
@@ -61,17 +166,173 @@ public class CephServiceS3Impl implements CephService {
         .withClientConfiguration(clientConfig)
         .withEndpointConfiguration(new EndpointConfiguration(cephEndpoint, null))
         .withPathStyleAccessEnabled(true)
+        .withRequestHandlers(new DeadlineRequestHandler())
         .build();
+    transferProperties = new TransferProperties();
+    executor = CephExecutors.newBoundedExecutor(clientConfig.getMaxConnections());
+    backgroundExecutor = CephExecutors.withoutDeadline(executor);
+    maxConnections = clientConfig.getMaxConnections();
+    parallelKeyLister = new ParallelKeyLister(cephAmazonS3, backgroundExecutor);
+    keyManifestStore = null;
+    contentCache = null;
+    requestCoalescer = null;
+    maxSharedContentSize = 0L;
+    checksumAlgorithm = null;
+    prefetchProperties = null;
+    contentProperties = new ContentProperties();
+    contentLeakListener = null;
+    packStore = null;
+    writeSpool = null;
+    dedupStore = null;
   }
 
   public CephServiceS3Impl(AmazonS3 amazonS3) {
+    this(amazonS3, new S3ConfigProperties());
+  }
+
+  /**
+   * Create service that runs parallel operations with at most as many concurrent requests as
+   * the connection pool of the configured client allows.
+   */
+  public CephServiceS3Impl(AmazonS3 amazonS3, S3ConfigProperties s3ConfigProperties) {
+    this(amazonS3, s3ConfigProperties, null);
+  }
+
+  /**
+   * Create service that reports object content which wasn't closed to the listener.
+   */
+  public CephServiceS3Impl(AmazonS3 amazonS3, S3ConfigProperties s3ConfigProperties,
+      ContentLeakListener contentLeakListener) {
+    this(amazonS3, s3ConfigProperties, contentLeakListener,
+        CephExecutors.newBoundedExecutor(s3ConfigProperties.getClient().getMaxConnections()));
+  }
+
+  /**
+   * Create service that runs parallel operations on the executor, e.g. a virtual-thread one.
+   * The executor should limit the number of concurrent tasks to the connection pool of the
+   * client, otherwise the tasks wait for connections. It is shut down with the service.
+   */
+  public CephServiceS3Impl(AmazonS3 amazonS3, S3ConfigProperties s3ConfigProperties,
+      ContentLeakListener contentLeakListener, ExecutorService executor) {
     this.cephAmazonS3 = amazonS3;
+    this.transferProperties = s3ConfigProperties.getTransfer();
+    this.executor = CephExecutors.withContext(executor);
+    // work the caller doesn't wait for isn't bounded by its deadline
+    this.backgroundExecutor = CephExecutors.withoutDeadline(executor);
+    this.maxConnections = s3ConfigProperties.getClient().getMaxConnections();
+    this.parallelKeyLister = new ParallelKeyLister(amazonS3, backgroundExecutor);
+    this.keyManifestStore = s3ConfigProperties.getManifest().isEnabled()
+        ? new KeyManifestStore(amazonS3, s3ConfigProperties.getManifest(), backgroundExecutor)
+        : null;
+    this.contentCache = s3ConfigProperties.getCache().isEnabled()
+        ? new ContentCache(s3ConfigProperties.getCache()) : null;
+    this.requestCoalescer = s3ConfigProperties.getCoalescing().isEnabled()
+        ? new RequestCoalescer() : null;
+    this.maxSharedContentSize = s3ConfigProperties.getCoalescing().getMaxSharedContentSize();
+    this.checksumAlgorithm = s3ConfigProperties.getChecksum().isEnabled()
+        ? s3ConfigProperties.getChecksum().getAlgorithm() : null;
+    this.prefetchProperties = s3ConfigProperties.getPrefetch().isEnabled()
+        ? s3ConfigProperties.getPrefetch() : null;
+    this.contentProperties = s3ConfigProperties.getContent();
+    this.contentLeakListener = contentLeakListener;
+    this.packStore = s3ConfigProperties.getPacking().isEnabled()
+        ? new PackStore(amazonS3, s3ConfigProperties.getPacking(), backgroundExecutor) : null;
+    this.dedupStore = s3ConfigProperties.getDedup().isEnabled()
+        ? new DedupStore(amazonS3, s3ConfigProperties.getDedup()) : null;
+    // created last, as it may start uploading puts left by the previous run right away
+    this.writeSpool = s3ConfigProperties.getSpool().isEnabled()
+        ? new WriteSpool(s3ConfigProperties.getSpool(), backgroundExecutor,
+        (bucket, key, content) ->
+            putContent(bucket, key, new String(content, StandardCharsets.UTF_8))) : null;
+  }
+
+  /**
+   * Close the spool, the pack store and the manifest store, then shut down the executor of the
+   * service, letting the running tasks finish. Called by Spring when the context is closed, if the
+   * service is a bean.
+   */
+  @Override
+  public void destroy() {
+    log.info("Shutting down executor of ceph service");
+    // closed first, as they submit work to the executor
+    if (writeSpool != null) {
+      writeSpool.close();
+    }
+    if (packStore != null) {
+      packStore.close();
+    }
+    if (keyManifestStore != null) {
+      keyManifestStore.close();
+    }
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(EXECUTOR_TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        log.warn("Tasks of ceph service didn't finish in {} seconds, interrupting them",
+            EXECUTOR_TERMINATION_TIMEOUT_SECONDS);
+        executor.shutdownNow();
+      }
+    } catch (InterruptedException exception) {
+      executor.shutdownNow();
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * @return write spool if it is enabled, e.g. to expose its metrics or wait for its uploads
+   */
+  public Optional<WriteSpool> getWriteSpool() {
+    return Optional.ofNullable(writeSpool);
   }
 
   @Override
   public Optional<CephObject> get(String cephBucketName, String key) {
+    if (requestCoalescer == null) {
+      return getObject(cephBucketName, key);
+    }
+    var ownObject = new CephObject[1];
+    var sharedObject = requestCoalescer.execute("get", cephBucketName, key,
+        () -> getObject(cephBucketName, key).map(cephObject -> {
+          ownObject[0] = cephObject;
+          return toSharedObject(cephObject);
+        }));
+    if (sharedObject.isEmpty()) {
+      return Optional.empty();
+    }
+    if (sharedObject.get().content != null) {
+      return Optional.of(sharedObject.get().copy());
+    }
+    if (ownObject[0] != null) {
+      return Optional.of(ownObject[0]);
+    }
+    log.info("File {} of ceph bucket {} is too big to be shared, reading it again", key,
+        cephBucketName);
+    return getObject(cephBucketName, key);
+  }
+
+  private Optional<CephObject> getObject(String cephBucketName, String key) {
     log.info("Getting file with key {} from ceph bucket {}", key, cephBucketName);
     assertBucketExists(cephAmazonS3, cephBucketName);
+    var unlisted = getUnlistedObject(cephBucketName, key);
+    if (unlisted.isPresent()) {
+      log.info("File {} was found in spool or pack of ceph bucket {}", key, cephBucketName);
+      return unlisted;
+    }
+    return getStoredObject(cephBucketName, key, true);
+  }
+
+  /**
+   * Get object stored as a separate object, resolving it if it is a pointer to deduplicated
+   * content. Tasks running on the executor read without prefetching, as the prefetch runs on the
+   * same executor and would wait for its own threads.
+   */
+  private Optional<CephObject> getStoredObject(String cephBucketName, String key,
+      boolean prefetch) {
+    if (contentCache != null && contentCache.isCached(cephBucketName)) {
+      return getThroughCache(cephBucketName, key, prefetch);
+    }
+    if (prefetch && prefetchProperties != null) {
+      return getWithPrefetching(cephBucketName, key);
+    }
     var doesContentExist = execute(() -> cephAmazonS3.doesObjectExist(cephBucketName, key));
     if (!doesContentExist) {
       log.info("File {} wasn't found in ceph bucket {}", key, cephBucketName);
@@ -79,13 +340,64 @@ public class CephServiceS3Impl implements CephService {
     }
     var result = execute(() -> Optional.of(cephAmazonS3.getObject(cephBucketName, key)));
     log.info("File {} was found in ceph bucket {}", key, cephBucketName);
+    var contentKey = DedupStore.getContentKey(result.get().getObjectMetadata());
+    if (contentKey.isPresent()) {
+      executeRunnable(() -> readPointer(result.get()));
+      return getPointedObject(cephBucketName, result.get().getObjectMetadata(), contentKey.get(),
+          prefetch);
+    }
     return result.map(this::tpCephObject);
   }
 
+  /**
+   * Get content object a pointer put by {@link DedupStore} refers to, with the metadata of the
+   * pointer.
+   */
+  private Optional<CephObject> getPointedObject(String cephBucketName,
+      ObjectMetadata pointerMetadata, String contentKey, boolean prefetch) {
+    log.info("File is a pointer to content {} of ceph bucket {}", contentKey, cephBucketName);
+    return getStoredObject(cephBucketName, contentKey, prefetch).map(content -> CephObject.builder()
+        .metadata(toCephObjectMetadata(pointerMetadata))
+        .content(content.getContent())
+        .build());
+  }
+
+  private String readAsString(CephObject cephObject) {
+    try (var object = cephObject) {
+      return new String(object.getContent().readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException exception) {
+      throw new CephCommunicationException(exception.getMessage(), exception);
+    }
+  }
+
+  /**
+   * Read the tiny content of a pointer to the end, so that its connection is reused.
+   */
+  private static void readPointer(S3Object pointer) {
+    try (var content = pointer.getObjectContent()) {
+      content.readAllBytes();
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
   @Override
   public Optional<String> getAsString(String cephBucketName, String key) {
+    return coalesce("getAsString", cephBucketName, key,
+        () -> getObjectAsString(cephBucketName, key));
+  }
+
+  private Optional<String> getObjectAsString(String cephBucketName, String key) {
     log.info("Getting content with key {} from ceph bucket {}", key, cephBucketName);
     assertBucketExists(cephAmazonS3, cephBucketName);
+    var unlisted = getUnlisted(cephBucketName, key);
+    if (unlisted.isPresent()) {
+      log.info("Content {} was found in spool or pack of ceph bucket {}", key, cephBucketName);
+      return unlisted.map(content -> new String(content, StandardCharsets.UTF_8));
+    }
+    if (isDeduplicated(cephBucketName)) {
+      return getStoredObject(cephBucketName, key, true).map(this::readAsString);
+    }
     var doesContentExist = execute(() -> cephAmazonS3.doesObjectExist(cephBucketName, key));
     if (Boolean.FALSE.equals(doesContentExist)) {
       log.warn("Content {} wasn't found in ceph bucket {}", key, cephBucketName);
@@ -96,28 +408,154 @@ public class CephServiceS3Impl implements CephService {
     return result;
   }
 
+  @Override
+  public ConditionalGetResult getIfChanged(String cephBucketName, String key, String eTag) {
+    log.info("Getting file with key {} from ceph bucket {} if its ETag isn't {}", key,
+        cephBucketName, eTag);
+    return getConditionally(
+        new GetObjectRequest(cephBucketName, key).withNonmatchingETagConstraint(eTag));
+  }
+
+  @Override
+  public ConditionalGetResult getIfModifiedSince(String cephBucketName, String key,
+      Date modifiedSince) {
+    log.info("Getting file with key {} from ceph bucket {} if it was modified since {}", key,
+        cephBucketName, modifiedSince);
+    return getConditionally(
+        new GetObjectRequest(cephBucketName, key).withModifiedSinceConstraint(modifiedSince));
+  }
+
   @Override
   public void put(String cephBucketName, String key, String content) {
     log.info("Putting content with key {} to ceph bucket {}", key, cephBucketName);
     assertBucketExists(cephAmazonS3, cephBucketName);
-    execute(() -> cephAmazonS3.putObject(cephBucketName, key, content));
+    if (writeSpool != null && writeSpool.isSpooled(cephBucketName) && execute(
+        () -> writeSpool.offer(cephBucketName, key, content.getBytes(StandardCharsets.UTF_8)))) {
+      log.info("Content {} was spooled for ceph bucket {}", key, cephBucketName);
+      return;
+    }
+    discardSpooled(cephBucketName, List.of(key));
+    putContent(cephBucketName, key, content);
+  }
+
+  private void putContent(String cephBucketName, String key, String content) {
+    var bytes = content.getBytes(StandardCharsets.UTF_8);
+    if (isPackable(cephBucketName, bytes)) {
+      execute(() -> joinUnwrapped(packStore.put(cephBucketName, key, bytes)));
+      log.info("Content {} was packed to ceph bucket {}", key, cephBucketName);
+      return;
+    }
+    var result = execute(() -> putString(cephBucketName, key, content));
+    unpack(cephBucketName, List.of(key));
+    if (keyManifestStore != null) {
+      recordPut(cephBucketName, key, result.getETag(), bytes.length, new Date());
+    }
     log.info("Content {} was put to ceph bucket {}", key, cephBucketName);
   }
 
+  @Override
+  public CephBatchResult<String> getAll(String cephBucketName, Collection<String> keys) {
+    log.info("Getting {} contents from ceph bucket {}", keys.size(), cephBucketName);
+    assertBucketExists(cephAmazonS3, cephBucketName);
+    var result = executeBatch(keys, key -> {
+      var unlisted = getUnlisted(cephBucketName, key);
+      if (unlisted.isPresent()) {
+        return unlisted.map(content -> new String(content, StandardCharsets.UTF_8));
+      }
+      if (isDeduplicated(cephBucketName)) {
+        return getStoredObject(cephBucketName, key, false).map(this::readAsString);
+      }
+      try {
+        return Optional.of(cephAmazonS3.getObjectAsString(cephBucketName, key));
+      } catch (AmazonS3Exception exception) {
+        if (exception.getStatusCode() == NOT_FOUND_STATUS_CODE) {
+          return Optional.empty();
+        }
+        throw exception;
+      }
+    });
+    log.info("Found {} of {} contents in ceph bucket {}, failed {}", result.getResults().size(),
+        keys.size(), cephBucketName, result.getFailures().keySet());
+    return result;
+  }
+
+  @Override
+  public CephBatchResult<String> putAll(String cephBucketName, Map<String, String> contents) {
+    log.info("Putting {} contents to ceph bucket {}", contents.size(), cephBucketName);
+    assertBucketExists(cephAmazonS3, cephBucketName);
+    discardSpooled(cephBucketName, contents.keySet());
+    // packed contents share pending packs, so they are added at once instead of on the executor
+    var packedFutures = new LinkedHashMap<String, CompletableFuture<Optional<String>>>();
+    var separateKeys = new ArrayList<String>();
+    contents.forEach((key, content) -> {
+      var bytes = content.getBytes(StandardCharsets.UTF_8);
+      if (isPackable(cephBucketName, bytes)) {
+        packedFutures.put(key,
+            packStore.put(cephBucketName, key, bytes).thenApply(Optional::of));
+      } else {
+        separateKeys.add(key);
+      }
+    });
+    var futures = submitBatch(separateKeys, key -> {
+      var content = contents.get(key);
+      var eTag = putString(cephBucketName, key, content).getETag();
+      unpack(cephBucketName, List.of(key));
+      recordPut(cephBucketName, key, eTag, content.getBytes(StandardCharsets.UTF_8).length,
+          new Date());
+      return Optional.of(eTag);
+    });
+    var results = new LinkedHashMap<String, String>();
+    var failures = new LinkedHashMap<String, CephCommunicationException>();
+    collectBatch(packedFutures, results, failures);
+    collectBatch(futures, results, failures);
+    var result = new CephBatchResult<>(results, failures);
+    log.info("Put {} of {} contents to ceph bucket {}, failed {}", result.getResults().size(),
+        contents.size(), cephBucketName, result.getFailures().keySet());
+    return result;
+  }
+
+  @Override
+  public CephBatchResult<String> putAll(String cephBucketName, String contentType,
+      Map<String, byte[]> contents) {
+    log.info("Putting {} files to ceph bucket {}", contents.size(), cephBucketName);
+    assertBucketExists(cephAmazonS3, cephBucketName);
+    discardSpooled(cephBucketName, contents.keySet());
+    var result = executeBatch(contents.keySet(), key -> {
+      var content = contents.get(key);
+      var objectMetadata = new ObjectMetadata();
+      objectMetadata.setContentType(contentType);
+      objectMetadata.setContentLength(content.length);
+      var eTag = putBytes(cephBucketName, key, content, objectMetadata).getETag();
+      unpack(cephBucketName, List.of(key));
+      recordPut(cephBucketName, key, eTag, content.length, new Date());
+      return Optional.of(eTag);
+    });
+    log.info("Put {} of {} files to ceph bucket {}, failed {}", result.getResults().size(),
+        contents.size(), cephBucketName, result.getFailures().keySet());
+    return result;
+  }
+
   @Override
   public CephObjectMetadata put(String cephBucketName, String key, String contentType,
       Map<String, String> userMetadata, InputStream content) {
     log.info("Putting file with key {} to ceph bucket {}", key, cephBucketName);
     assertBucketExists(cephAmazonS3, cephBucketName);
+    discardSpooled(cephBucketName, List.of(key));
+    if (isDeduplicated(cephBucketName)) {
+      return putDeduplicated(cephBucketName, key, contentType, userMetadata, content);
+    }
+    var checksumContent = withChecksum(content);
     var result = execute(() -> {
       var objectMetadata = new ObjectMetadata();
       objectMetadata.setContentType(contentType);
       objectMetadata.setUserMetadata(userMetadata);
-      cephAmazonS3.putObject(cephBucketName, key, content, objectMetadata);
+      cephAmazonS3.putObject(cephBucketName, key, checksumContent, objectMetadata);
       return cephAmazonS3.getObjectMetadata(cephBucketName, key);
     });
+    unpack(cephBucketName, List.of(key));
+    recordPut(cephBucketName, key, result);
     log.info("File {} was put to ceph bucket {}", key, cephBucketName);
-    return toCephObjectMetadata(result);
+    return withComputedChecksum(toCephObjectMetadata(result), checksumContent);
   }
 
   @Override
@@ -125,45 +563,265 @@ public class CephServiceS3Impl implements CephService {
       long contentLength, Map<String, String> userMetadata, InputStream content) {
     log.info("Putting file with key {} to ceph bucket {}", key, cephBucketName);
     assertBucketExists(cephAmazonS3, cephBucketName);
+    discardSpooled(cephBucketName, List.of(key));
+    if (isDeduplicated(cephBucketName)) {
+      return putDeduplicated(cephBucketName, key, contentType, userMetadata, content);
+    }
+    var checksumContent = withChecksum(content);
     var result = execute(() -> {
       var objectMetadata = new ObjectMetadata();
       objectMetadata.setContentType(contentType);
       objectMetadata.setContentLength(contentLength);
       objectMetadata.setUserMetadata(userMetadata);
-      cephAmazonS3.putObject(cephBucketName, key, content, objectMetadata);
+      cephAmazonS3.putObject(cephBucketName, key, checksumContent, objectMetadata);
       return cephAmazonS3.getObjectMetadata(cephBucketName, key);
     });
+    unpack(cephBucketName, List.of(key));
+    recordPut(cephBucketName, key, result);
     log.info("File {} was put to ceph bucket {}", key, cephBucketName);
-    return toCephObjectMetadata(result);
+    return withComputedChecksum(toCephObjectMetadata(result), checksumContent);
+  }
+
+  private CephObjectMetadata putDeduplicated(String cephBucketName, String key,
+      String contentType, Map<String, String> userMetadata, InputStream content) {
+    var result = execute(() -> {
+      try {
+        return dedupStore.put(cephBucketName, key, contentType, userMetadata, content);
+      } catch (IOException exception) {
+        throw new UncheckedIOException(exception);
+      }
+    });
+    var metadata = toCephObjectMetadata(result);
+    unpack(cephBucketName, List.of(key));
+    recordPut(cephBucketName, key, metadata.getETag(), metadata.getContentLength(),
+        metadata.getLastModified());
+    log.info("File {} was put to ceph bucket {} as a pointer to its content", key,
+        cephBucketName);
+    return metadata;
+  }
+
+  @Override
+  public void copy(String sourceBucketName, String sourceKey, String destinationBucketName,
+      String destinationKey) {
+    log.info("Copying object {} from ceph bucket {} to {} in ceph bucket {}", sourceKey,
+        sourceBucketName, destinationKey, destinationBucketName);
+    assertBucketExists(cephAmazonS3, sourceBucketName, destinationBucketName);
+    discardSpooled(destinationBucketName, List.of(destinationKey));
+    if (!copyUnlisted(sourceBucketName, sourceKey, destinationBucketName, destinationKey)) {
+      executeRunnable(() -> {
+        var sourceMetadata = cephAmazonS3.getObjectMetadata(sourceBucketName, sourceKey);
+        var eTag = copyObject(sourceBucketName, sourceKey, destinationBucketName,
+            destinationKey, sourceMetadata.getContentLength(), sourceMetadata, true);
+        recordPut(destinationBucketName, destinationKey, eTag,
+            sourceMetadata.getContentLength(), new Date());
+      });
+      unpack(destinationBucketName, List.of(destinationKey));
+    }
+    log.info("Object {} was copied from ceph bucket {} to {} in ceph bucket {}", sourceKey,
+        sourceBucketName, destinationKey, destinationBucketName);
+  }
+
+  @Override
+  public void move(String sourceBucketName, String sourceKey, String destinationBucketName,
+      String destinationKey) {
+    log.info("Moving object {} from ceph bucket {} to {} in ceph bucket {}", sourceKey,
+        sourceBucketName, destinationKey, destinationBucketName);
+    if (sourceBucketName.equals(destinationBucketName) && sourceKey.equals(destinationKey)) {
+      log.info("Object {} is already in place", sourceKey);
+      return;
+    }
+    assertBucketExists(cephAmazonS3, sourceBucketName, destinationBucketName);
+    discardSpooled(destinationBucketName, List.of(destinationKey));
+    if (copyUnlisted(sourceBucketName, sourceKey, destinationBucketName, destinationKey)) {
+      discardSpooled(sourceBucketName, List.of(sourceKey));
+      unpack(sourceBucketName, List.of(sourceKey));
+      // an object stored before the key was spooled is deleted too
+      executeRunnable(() -> cephAmazonS3.deleteObject(sourceBucketName, sourceKey));
+      recordDelete(sourceBucketName, List.of(sourceKey));
+    } else {
+      executeRunnable(() -> {
+        var sourceMetadata = cephAmazonS3.getObjectMetadata(sourceBucketName, sourceKey);
+        var eTag = copyObject(sourceBucketName, sourceKey, destinationBucketName,
+            destinationKey, sourceMetadata.getContentLength(), sourceMetadata, true);
+        recordPut(destinationBucketName, destinationKey, eTag,
+            sourceMetadata.getContentLength(), new Date());
+        cephAmazonS3.deleteObject(sourceBucketName, sourceKey);
+        recordDelete(sourceBucketName, List.of(sourceKey));
+      });
+      unpack(destinationBucketName, List.of(destinationKey));
+    }
+    log.info("Object {} was moved from ceph bucket {} to {} in ceph bucket {}", sourceKey,
+        sourceBucketName, destinationKey, destinationBucketName);
+  }
+
+  @Override
+  public CephBatchResult<String> copyPrefix(String sourceBucketName, String sourcePrefix,
+      String destinationBucketName, String destinationPrefix) {
+    log.info("Copying objects with prefix {} from ceph bucket {} to prefix {} in ceph bucket {}",
+        sourcePrefix, sourceBucketName, destinationPrefix, destinationBucketName);
+    if (sourceBucketName.equals(destinationBucketName)
+        && destinationPrefix.startsWith(sourcePrefix)) {
+      throw new IllegalArgumentException(String.format(
+          "Destination prefix %s must not be inside of source prefix %s in the same bucket",
+          destinationPrefix, sourcePrefix));
+    }
+    assertBucketExists(cephAmazonS3, sourceBucketName, destinationBucketName);
+    var results = new LinkedHashMap<String, String>();
+    var failures = new LinkedHashMap<String, CephCommunicationException>();
+    // spooled and packed keys are copied from the spool and the packs
+    var unlistedKeys = getUnlistedKeys(sourceBucketName, sourcePrefix);
+    var listing = execute(() -> cephAmazonS3.listObjects(sourceBucketName, sourcePrefix));
+    Map<String, CompletableFuture<Optional<String>>> previousPage = Collections.emptyMap();
+    while (true) {
+      var sizes = new LinkedHashMap<String, Long>();
+      listing.getObjectSummaries().stream()
+          .filter(summary -> !isHiddenKey(sourceBucketName, summary.getKey())
+              && !unlistedKeys.contains(summary.getKey()))
+          .forEach(summary -> sizes.put(summary.getKey(), summary.getSize()));
+      // copies of the current page overlap with listing of the next one
+      var currentPage = submitBatch(sizes.keySet(), key -> {
+        var destinationKey = destinationPrefix + key.substring(sourcePrefix.length());
+        discardSpooled(destinationBucketName, List.of(destinationKey));
+        var eTag = copyObject(sourceBucketName, key, destinationBucketName, destinationKey,
+            sizes.get(key), null, false);
+        unpack(destinationBucketName, List.of(destinationKey));
+        recordPut(destinationBucketName, destinationKey, eTag, sizes.get(key), new Date());
+        return Optional.of(destinationKey);
+      });
+      collectBatch(previousPage, results, failures);
+      previousPage = currentPage;
+      if (!listing.isTruncated()) {
+        break;
+      }
+      var currentListing = listing;
+      listing = execute(() -> cephAmazonS3.listNextBatchOfObjects(currentListing));
+    }
+    collectBatch(previousPage, results, failures);
+    collectBatch(submitBatch(unlistedKeys, key -> {
+      var destinationKey = destinationPrefix + key.substring(sourcePrefix.length());
+      discardSpooled(destinationBucketName, List.of(destinationKey));
+      return copyUnlisted(sourceBucketName, key, destinationBucketName, destinationKey)
+          ? Optional.of(destinationKey) : Optional.empty();
+    }), results, failures);
+    log.info("Copied {} objects from ceph bucket {} to ceph bucket {}, failed {}", results.size(),
+        sourceBucketName, destinationBucketName, failures.keySet());
+    return new CephBatchResult<>(results, failures);
   }
 
   @Override
   public void delete(String cephBucketName, Set<String> keys) {
     log.info("Deleting files with keys {} from ceph bucket {}", keys, cephBucketName);
     assertBucketExists(cephAmazonS3, cephBucketName);
+    discardSpooled(cephBucketName, keys);
+    unpack(cephBucketName, keys);
     executeRunnable(() -> {
       var keyVersions = keys.stream().map(KeyVersion::new).collect(Collectors.toList());
       var deleteObjectsRequest = new DeleteObjectsRequest(cephBucketName).withKeys(keyVersions);
       cephAmazonS3.deleteObjects(deleteObjectsRequest);
     });
+    recordDelete(cephBucketName, keys);
     log.info("Files {} was deleted from ceph bucket {}", keys, cephBucketName);
   }
 
+  @Override
+  public DeletionProgress deleteByPrefix(String cephBucketName, String prefix,
+      DeletionOptions options) {
+    log.info("Deleting files with prefix {} from ceph bucket {}, dry run - {}", prefix,
+        cephBucketName, options.isDryRun());
+    assertBucketExists(cephAmazonS3, cephBucketName);
+    var listedKeys = new AtomicLong();
+    var deletedKeys = new AtomicLong();
+    var failedKeys = new AtomicLong();
+    var pendingBatches = new ArrayDeque<CompletableFuture<Void>>();
+    // discarded before listing, so that the keys uploaded meanwhile are listed
+    var spooledKeys = new HashSet<String>();
+    if (writeSpool != null && writeSpool.isSpooled(cephBucketName)) {
+      spooledKeys.addAll(writeSpool.getKeys(cephBucketName, prefix == null ? "" : prefix));
+      if (!options.isDryRun()) {
+        discardSpooled(cephBucketName, spooledKeys);
+      }
+    }
+    var listing = execute(() -> cephAmazonS3.listObjects(new ListObjectsRequest()
+        .withBucketName(cephBucketName)
+        .withPrefix(prefix)
+        .withMaxKeys(options.getBatchSize())));
+    while (true) {
+      var keys = listing.getObjectSummaries().stream()
+          .map(S3ObjectSummary::getKey)
+          .filter(key -> !isHiddenKey(cephBucketName, key))
+          .collect(Collectors.toList());
+      listedKeys.addAndGet(keys.size());
+      keys.forEach(spooledKeys::remove);
+      // deletion of the page overlaps with listing of the next ones
+      if (!options.isDryRun() && !keys.isEmpty()) {
+        if (pendingBatches.size() >= options.getMaxPendingBatches()) {
+          awaitBatch(pendingBatches.poll());
+        }
+        pendingBatches.add(CompletableFuture.runAsync(
+            () -> deleteBatch(cephBucketName, keys, deletedKeys, failedKeys), executor));
+      }
+      reportProgress(options, listedKeys, deletedKeys, failedKeys);
+      if (!listing.isTruncated()) {
+        break;
+      }
+      var currentListing = listing;
+      listing = execute(() -> cephAmazonS3.listNextBatchOfObjects(currentListing));
+    }
+    while (!pendingBatches.isEmpty()) {
+      awaitBatch(pendingBatches.poll());
+    }
+    // spooled keys which weren't uploaded yet aren't listed
+    listedKeys.addAndGet(spooledKeys.size());
+    if (!options.isDryRun()) {
+      deletedKeys.addAndGet(spooledKeys.size());
+    }
+    if (packStore != null && packStore.isPacked(cephBucketName)) {
+      var packedKeys = execute(() -> packStore.getKeys(cephBucketName,
+          prefix == null ? "" : prefix));
+      listedKeys.addAndGet(packedKeys.size());
+      if (!options.isDryRun() && !packedKeys.isEmpty()) {
+        unpack(cephBucketName, packedKeys);
+        deletedKeys.addAndGet(packedKeys.size());
+      }
+    }
+    var progress = reportProgress(options, listedKeys, deletedKeys, failedKeys);
+    log.info("Listed {} files with prefix {} in ceph bucket {}, deleted {}, failed {}",
+        progress.getListedKeys(), prefix, cephBucketName, progress.getDeletedKeys(),
+        progress.getFailedKeys());
+    return progress;
+  }
+
   @Override
   public Boolean exist(String cephBucketName, Set<String> keys) {
     log.info("Checking if all files with keys {} exist in ceph bucket {}", keys, cephBucketName);
     assertBucketExists(cephAmazonS3, cephBucketName);
-    var result = execute(
-        () -> keys.stream().allMatch(k -> cephAmazonS3.doesObjectExist(cephBucketName, k)));
+    var separateKeys = keys.stream()
+        .filter(key -> !isUnlisted(cephBucketName, key))
+        .collect(Collectors.toList());
+    var manifest = getFreshManifest(cephBucketName);
+    var result = manifest.isPresent() ? separateKeys.stream().allMatch(manifest.get()::exists)
+        : getOrThrow(executeBatch(separateKeys,
+            key -> Optional.of(cephAmazonS3.doesObjectExist(cephBucketName, key))))
+            .values().stream().allMatch(Boolean::booleanValue);
     log.info("All files {} existing in ceph bucket {} - {}", keys, cephBucketName, result);
     return result;
   }
 
   @Override
   public Boolean exist(String cephBucketName, String key) {
+    return coalesce("exist", cephBucketName, key, () -> doesObjectExist(cephBucketName, key));
+  }
+
+  private Boolean doesObjectExist(String cephBucketName, String key) {
     log.info("Checking if object with key {} exists in ceph bucket {}", key, cephBucketName);
     assertBucketExists(cephAmazonS3, cephBucketName);
-    var result = execute(() -> cephAmazonS3.doesObjectExist(cephBucketName, key));
+    if (isUnlisted(cephBucketName, key)) {
+      log.info("Object {} exists in spool or pack of ceph bucket {}", key, cephBucketName);
+      return true;
+    }
+    var manifest = getFreshManifest(cephBucketName);
+    var result = manifest.isPresent() ? manifest.get().exists(key)
+        : execute(() -> cephAmazonS3.doesObjectExist(cephBucketName, key));
     log.info("Object {} existing in ceph bucket {} - {}", key, cephBucketName, result);
     return result;
   }
@@ -172,10 +830,19 @@ public class CephServiceS3Impl implements CephService {
   public Set<String> getKeys(String cephBucketName, String prefix) {
     log.info("Getting all ceph keys with prefix {} from ceph bucket {}", prefix, cephBucketName);
     assertBucketExists(cephAmazonS3, cephBucketName);
-    var result = execute(
+    var manifest = getFreshManifest(cephBucketName);
+    if (manifest.isPresent()) {
+      var result = withUnlistedKeys(cephBucketName, prefix,
+          manifest.get().list(prefix == null ? "" : prefix, LISTING_PAGE_SIZE).stream()
+              .map(ManifestEntry::getKey).collect(Collectors.toSet()));
+      log.info("Found {} keys for prefix {} in manifest of ceph bucket {}", result.size(), prefix,
+          cephBucketName);
+      return result;
+    }
+    var result = withUnlistedKeys(cephBucketName, prefix, execute(
         () -> cephAmazonS3.listObjects(cephBucketName, prefix).getObjectSummaries().stream()
             .map(S3ObjectSummary::getKey).collect(Collectors.toSet())
-    );
+    ));
     log.info("Found {} keys for prefix {} in ceph bucket {}", result.size(), prefix,
         cephBucketName);
     return result;
@@ -185,29 +852,165 @@ public class CephServiceS3Impl implements CephService {
   public Set<String> getKeys(String cephBucketName) {
     log.info("Getting all ceph keys from bucket {}", cephBucketName);
     assertBucketExists(cephAmazonS3, cephBucketName);
-    var result = execute(
+    var manifest = getFreshManifest(cephBucketName);
+    if (manifest.isPresent()) {
+      var result = withUnlistedKeys(cephBucketName, "",
+          manifest.get().list("", LISTING_PAGE_SIZE).stream()
+              .map(ManifestEntry::getKey).collect(Collectors.toSet()));
+      log.info("Found {} keys in manifest of bucket {}", result.size(), cephBucketName);
+      return result;
+    }
+    var result = withUnlistedKeys(cephBucketName, "", execute(
         () -> cephAmazonS3.listObjects(cephBucketName).getObjectSummaries().stream()
-            .map(S3ObjectSummary::getKey).collect(Collectors.toSet()));
+            .map(S3ObjectSummary::getKey).collect(Collectors.toSet())));
     log.info("Found {} keys from bucket {}", result.size(), cephBucketName);
     return result;
   }
 
+  @Override
+  public Stream<String> getKeysInParallel(String cephBucketName,
+      ParallelListingOptions options) {
+    log.info("Getting all ceph keys with prefix {} from bucket {} in parallel",
+        options.getPrefix(), cephBucketName);
+    assertBucketExists(cephAmazonS3, cephBucketName);
+    return execute(() -> parallelKeyLister.list(cephBucketName, options));
+  }
+
+  @Override
+  public CephListing list(String cephBucketName, String prefix, String delimiter, int pageSize,
+      String pageToken) {
+    log.info("Listing page of ceph bucket {} with prefix {} and delimiter {}", cephBucketName,
+        prefix, delimiter);
+    if (pageSize < 1) {
+      throw new IllegalArgumentException("Page size must be positive, but was " + pageSize);
+    }
+    var marker = pageToken == null ? null : decodePageToken(pageToken);
+    assertBucketExists(cephAmazonS3, cephBucketName);
+    var listing = execute(() -> cephAmazonS3.listObjects(new ListObjectsRequest()
+        .withBucketName(cephBucketName)
+        .withPrefix(prefix)
+        .withDelimiter(delimiter)
+        .withMarker(marker)
+        .withMaxKeys(pageSize)));
+    var nextMarker = listing.isTruncated() ? getNextMarker(listing) : null;
+    var objects = new TreeMap<String, CephObjectSummary>();
+    listing.getObjectSummaries().stream()
+        .filter(summary -> !isHiddenKey(cephBucketName, summary.getKey()))
+        .forEach(summary -> objects.put(summary.getKey(), CephObjectSummary.builder()
+            .key(summary.getKey())
+            .size(summary.getSize())
+            .eTag(summary.getETag())
+            .lastModified(summary.getLastModified())
+            .build()));
+    var commonPrefixes = new TreeSet<String>();
+    listing.getCommonPrefixes().stream()
+        .filter(commonPrefix -> !isHiddenKey(cephBucketName, commonPrefix))
+        .forEach(commonPrefixes::add);
+    addUnlistedEntries(cephBucketName, prefix, delimiter, marker, nextMarker, objects,
+        commonPrefixes);
+    var result = CephListing.builder()
+        .commonPrefixes(new ArrayList<>(commonPrefixes))
+        .objects(new ArrayList<>(objects.values()))
+        .nextPageToken(nextMarker == null ? null : encodePageToken(nextMarker))
+        .build();
+    log.info("Listed {} common prefixes and {} objects with prefix {} in ceph bucket {}",
+        commonPrefixes.size(), objects.size(), prefix, cephBucketName);
+    return result;
+  }
+
+  /**
+   * Ceph returns the next marker only if the delimiter is set, otherwise the last key is the one.
+   */
+  private static String getNextMarker(ObjectListing listing) {
+    if (listing.getNextMarker() != null) {
+      return listing.getNextMarker();
+    }
+    var lastEntries = new TreeSet<String>(listing.getCommonPrefixes());
+    listing.getObjectSummaries().forEach(summary -> lastEntries.add(summary.getKey()));
+    return lastEntries.isEmpty() ? null : lastEntries.last();
+  }
+
+  /**
+   * Add the spooled and packed keys between the marker of the page and the marker of the next
+   * one, so that every such key is listed on exactly one page.
+   */
+  private void addUnlistedEntries(String cephBucketName, String prefix, String delimiter,
+      String marker, String nextMarker, Map<String, CephObjectSummary> objects,
+      Set<String> commonPrefixes) {
+    var keyPrefix = prefix == null ? "" : prefix;
+    for (var key : withUnlistedKeys(cephBucketName, keyPrefix, new HashSet<>())) {
+      var delimiterIndex = delimiter == null || delimiter.isEmpty() ? -1
+          : key.indexOf(delimiter, keyPrefix.length());
+      var entry = delimiterIndex < 0 ? key : key.substring(0, delimiterIndex + delimiter.length());
+      if ((marker != null && entry.compareTo(marker) <= 0)
+          || (nextMarker != null && entry.compareTo(nextMarker) > 0)) {
+        continue;
+      }
+      if (delimiterIndex < 0) {
+        objects.put(key, CephObjectSummary.builder()
+            .key(key)
+            .size(getUnlistedSize(cephBucketName, key))
+            .build());
+      } else {
+        commonPrefixes.add(entry);
+      }
+    }
+  }
+
+  private long getUnlistedSize(String cephBucketName, String key) {
+    var spooled = findSpooled(cephBucketName, key);
+    if (spooled.isPresent()) {
+      return spooled.get().length;
+    }
+    return findPacked(cephBucketName, key).map(PackEntry::getLength).orElse(0);
+  }
+
+  /**
+   * @return whether the key belongs to a pack or content object rather than to a user object
+   */
+  private boolean isHiddenKey(String cephBucketName, String key) {
+    return packStore != null && packStore.isPacked(cephBucketName) && packStore.isPackKey(key)
+        || isDeduplicated(cephBucketName) && dedupStore.isContentKey(key);
+  }
+
+  private boolean isDeduplicated(String cephBucketName) {
+    return dedupStore != null && dedupStore.isDeduplicated(cephBucketName);
+  }
+
+  private static String encodePageToken(String marker) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(marker.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String decodePageToken(String pageToken) {
+    try {
+      return new String(Base64.getUrlDecoder().decode(pageToken), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException exception) {
+      throw new IllegalArgumentException("Invalid page token " + pageToken, exception);
+    }
+  }
+
   @Override
   public List<CephObjectMetadata> getMetadata(String cephBucketName, Set<String> keys) {
     log.info("Getting file metadata for keys {} from ceph bucket {}", keys, cephBucketName);
     assertBucketExists(cephAmazonS3, cephBucketName);
-    var existingKeys = execute(
-        () -> keys.stream().filter(k -> cephAmazonS3.doesObjectExist(cephBucketName, k)).collect(
-            Collectors.toList()));
-    if (existingKeys.isEmpty()) {
+    // every key is looked up by a task of the executor, as by getAll
+    var result = getOrThrow(executeBatch(keys, key -> {
+      var unlisted = getUnlistedObject(cephBucketName, key);
+      if (unlisted.isPresent()) {
+        return unlisted.map(CephObject::getMetadata);
+      }
+      if (!cephAmazonS3.doesObjectExist(cephBucketName, key)) {
+        return Optional.empty();
+      }
+      return Optional.of(toCephObjectMetadata(cephAmazonS3.getObjectMetadata(cephBucketName, key)));
+    }));
+    if (result.isEmpty()) {
       log.info("Files {} wasn't found in ceph bucket {}", keys, cephBucketName);
       return Collections.emptyList();
     }
-    var result = execute(() -> existingKeys.stream()
-        .map(k -> cephAmazonS3.getObjectMetadata(cephBucketName, k)).collect(Collectors.toList()));
-
-    log.info("Files metadata {} was found in ceph bucket {}", existingKeys, cephBucketName);
-    return toCephObjectMetadataList(result);
+    log.info("Files metadata {} was found in ceph bucket {}", result.keySet(), cephBucketName);
+    return new ArrayList<>(result.values());
   }
 
   @Override
@@ -215,13 +1018,16 @@ public class CephServiceS3Impl implements CephService {
     log.info("Getting file metadata by key prefix {} from ceph bucket {}", keyPrefix,
         cephBucketName);
     assertBucketExists(cephAmazonS3, cephBucketName);
-    var keys = execute(
+    var keys = withUnlistedKeys(cephBucketName, keyPrefix, execute(
         () -> cephAmazonS3.listObjects(cephBucketName, keyPrefix).getObjectSummaries().stream()
-            .map(S3ObjectSummary::getKey).collect(Collectors.toSet()));
-    var result = execute(() -> keys.stream()
-        .map(k -> cephAmazonS3.getObjectMetadata(cephBucketName, k)).collect(Collectors.toList()));
+            .map(S3ObjectSummary::getKey).collect(Collectors.toSet())));
+    var result = keys.stream()
+        .map(k -> getUnlistedObject(cephBucketName, k).map(CephObject::getMetadata)
+            .orElseGet(() -> toCephObjectMetadata(
+                execute(() -> cephAmazonS3.getObjectMetadata(cephBucketName, k)))))
+        .collect(Collectors.toList());
     log.info("Files metadata {} was found in ceph bucket {}", keys, cephBucketName);
-    return toCephObjectMetadataList(result);
+    return result;
   }
 
   @Override
@@ -229,38 +1035,661 @@ public class CephServiceS3Impl implements CephService {
       Map<String, String> userMetadata) {
     assertBucketExists(cephAmazonS3, cephBucketName);
 
-    var newMetadata = new ObjectMetadata();
-    newMetadata.setUserMetadata(userMetadata);
-
-    var request = new CopyObjectRequest(cephBucketName, key, cephBucketName, key)
-        .withSourceBucketName(cephBucketName)
-        .withSourceKey(key)
-        .withNewObjectMetadata(newMetadata);
-
     var result = execute(() -> {
+      var storedMetadata = cephAmazonS3.getObjectMetadata(cephBucketName, key);
+      var request = new CopyObjectRequest(cephBucketName, key, cephBucketName, key)
+          .withSourceBucketName(cephBucketName)
+          .withSourceKey(key)
+          .withNewObjectMetadata(DedupStore.toReplacingMetadata(storedMetadata, userMetadata));
       cephAmazonS3.copyObject(request);
       return cephAmazonS3.getObjectMetadata(cephBucketName, key);
     });
+    recordPut(cephBucketName, key, result);
     log.info("User metadata has been assigned to the object with the key {} in the bucket {}",
         key, cephBucketName);
     return toCephObjectMetadata(result);
   }
 
-  private void assertBucketExists(AmazonS3 cephAmazonS3, String cephBucketName) {
-    log.debug("Checking if bucket {} exists", cephBucketName);
+  @Override
+  public URL generatePresignedGetUrl(String cephBucketName, String key,
+      PresignedUrlOptions options) {
+    var request = newPresignedUrlRequest(cephBucketName, key, HttpMethod.GET, options);
+    if (options.getContentType() != null) {
+      request.setResponseHeaders(
+          new ResponseHeaderOverrides().withContentType(options.getContentType()));
+    }
+    return generatePresignedUrl(request);
+  }
+
+  @Override
+  public URL generatePresignedPutUrl(String cephBucketName, String key,
+      PresignedUrlOptions options) {
+    var request = newPresignedUrlRequest(cephBucketName, key, HttpMethod.PUT, options);
+    request.setContentType(options.getContentType());
+    return generatePresignedUrl(request);
+  }
+
+  @Override
+  public String initiateMultipartUpload(String cephBucketName, String key, String contentType) {
+    log.info("Initiating multipart upload of file {} to ceph bucket {}", key, cephBucketName);
+    assertBucketExists(cephAmazonS3, cephBucketName);
+    var objectMetadata = new ObjectMetadata();
+    objectMetadata.setContentType(contentType);
+    var uploadId = execute(() -> cephAmazonS3.initiateMultipartUpload(
+        new InitiateMultipartUploadRequest(cephBucketName, key, objectMetadata)).getUploadId());
+    log.info("Multipart upload {} of file {} to ceph bucket {} was initiated", uploadId, key,
+        cephBucketName);
+    return uploadId;
+  }
+
+  @Override
+  public URL generatePresignedPartUrl(String cephBucketName, String key, String uploadId,
+      int partNumber, PresignedUrlOptions options) {
+    var request = newPresignedUrlRequest(cephBucketName, key, HttpMethod.PUT, options);
+    request.addRequestParameter(UPLOAD_ID_PARAMETER, uploadId);
+    request.addRequestParameter(PART_NUMBER_PARAMETER, String.valueOf(partNumber));
+    return generatePresignedUrl(request);
+  }
+
+  @Override
+  public CephObjectMetadata completeMultipartUpload(String cephBucketName, String key,
+      String uploadId, List<String> partETags) {
+    log.info("Completing multipart upload {} of file {} to ceph bucket {}", uploadId, key,
+        cephBucketName);
+    assertBucketExists(cephAmazonS3, cephBucketName);
+    var parts = new ArrayList<PartETag>();
+    for (var i = 0; i < partETags.size(); i++) {
+      parts.add(new PartETag(i + 1, partETags.get(i)));
+    }
+    var result = execute(() -> {
+      cephAmazonS3.completeMultipartUpload(
+          new CompleteMultipartUploadRequest(cephBucketName, key, uploadId, parts));
+      return cephAmazonS3.getObjectMetadata(cephBucketName, key);
+    });
+    recordPut(cephBucketName, key, result);
+    log.info("File {} was uploaded to ceph bucket {}", key, cephBucketName);
+    return toCephObjectMetadata(result);
+  }
+
+  @Override
+  public void abortMultipartUpload(String cephBucketName, String key, String uploadId) {
+    log.info("Aborting multipart upload {} of file {} to ceph bucket {}", uploadId, key,
+        cephBucketName);
+    executeRunnable(() -> cephAmazonS3.abortMultipartUpload(
+        new AbortMultipartUploadRequest(cephBucketName, key, uploadId)));
+  }
+
+  /**
+   * Warm up the service before it gets live traffic: open pooled connections, which also resolves
+   * the endpoint and initializes request signing, verify the buckets and refresh their manifests.
+   * Warm-up runs on the service executor and doesn't block the caller.
+   *
+   * @param warmUpProperties what to warm up
+   * @return result of the warm-up, completed when the warm-up is over
+   */
+  public CompletableFuture<WarmUpResult> warmUp(WarmUpProperties warmUpProperties) {
+    var startedAt = System.nanoTime();
+    // more requests than pooled connections would only wait for each other
+    var connections = Math.min(Math.max(warmUpProperties.getConnections(), 1), maxConnections);
+    log.info("Warming up ceph service with {} connections", connections);
+    // requests wait for each other, so every one of them leases its own connection
+    var barrier = new CountDownLatch(connections);
+    var requests = new ArrayList<CompletableFuture<List<Bucket>>>();
+    for (int i = 0; i < connections; i++) {
+      requests.add(CompletableFuture.supplyAsync(() -> {
+        awaitWarmUpBarrier(barrier);
+        return cephAmazonS3.listBuckets();
+      }, backgroundExecutor));
+    }
+    return CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new))
+        .handle((ignored, exception) -> requests)
+        .thenCompose(completed -> {
+          var openedConnections = (int) requests.stream()
+              .filter(request -> !request.isCompletedExceptionally()).count();
+          var error = requests.stream().filter(CompletableFuture::isCompletedExceptionally)
+              .findFirst().map(request -> request.handle((value, exception) -> exception).join())
+              .map(exception -> exception.getCause() != null ? exception.getCause() : exception)
+              .map(Throwable::getMessage).orElse(null);
+          if (openedConnections == 0) {
+            return CompletableFuture.completedFuture(
+                toWarmUpResult(startedAt, 0, warmUpProperties.getBuckets(), error, false));
+          }
+          var existingBuckets = requests.stream()
+              .filter(request -> !request.isCompletedExceptionally()).findFirst()
+              .map(CompletableFuture::join).orElseThrow().stream()
+              .map(Bucket::getName).collect(Collectors.toSet());
+          var missingBuckets = warmUpProperties.getBuckets().stream()
+              .filter(bucket -> !existingBuckets.contains(bucket)).collect(Collectors.toList());
+          var refreshes = warmUpProperties.getBuckets().stream()
+              .filter(existingBuckets::contains)
+              .filter(bucket -> keyManifestStore != null && keyManifestStore.isTracked(bucket))
+              .map(bucket -> CompletableFuture.runAsync(() -> keyManifestStore.refresh(bucket),
+                  backgroundExecutor))
+              .toArray(CompletableFuture[]::new);
+          return CompletableFuture.allOf(refreshes).handle((ignored, exception) -> toWarmUpResult(
+              startedAt, openedConnections, missingBuckets,
+              exception == null ? error : exception.getMessage(),
+              missingBuckets.isEmpty() && exception == null));
+        });
+  }
+
+  private static void awaitWarmUpBarrier(CountDownLatch barrier) {
+    barrier.countDown();
+    try {
+      barrier.await(WARM_UP_BARRIER_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static WarmUpResult toWarmUpResult(long startedAt, int openedConnections,
+      List<String> missingBuckets, String error, boolean ready) {
+    var result = WarmUpResult.builder()
+        .ready(ready)
+        .duration(Duration.ofNanos(System.nanoTime() - startedAt))
+        .openedConnections(openedConnections)
+        .missingBuckets(missingBuckets)
+        .error(error)
+        .build();
+    log.info("Ceph service warm-up finished in {} ms, ready - {}, missing buckets {}, error {}",
+        result.getDuration().toMillis(), ready, missingBuckets, error);
+    return result;
+  }
+
+  private void assertBucketExists(AmazonS3 cephAmazonS3, String... cephBucketNames) {
+    log.debug("Checking if buckets {} exist", (Object) cephBucketNames);
     var buckets = execute(cephAmazonS3::listBuckets);
-    buckets.stream()
-        .filter(bucket -> bucket.getName().equals(cephBucketName))
-        .findFirst()
-        .orElseThrow(() -> new MisconfigurationException(
-            String.format("Bucket %s hasn't found", cephBucketName)));
+    for (var cephBucketName : cephBucketNames) {
+      buckets.stream()
+          .filter(bucket -> bucket.getName().equals(cephBucketName))
+          .findFirst()
+          .orElseThrow(() -> new MisconfigurationException(
+              String.format("Bucket %s hasn't found", cephBucketName)));
+    }
+  }
+
+  /**
+   * Get object checking its size with HEAD request first, so content of big object is fetched by
+   * ranges ahead of the consumer.
+   */
+  private Optional<CephObject> getWithPrefetching(String cephBucketName, String key) {
+    var objectMetadata = execute(() -> findObjectMetadata(cephBucketName, key));
+    if (objectMetadata.isEmpty()) {
+      log.info("File {} wasn't found in ceph bucket {}", key, cephBucketName);
+      return Optional.empty();
+    }
+    var contentKey = DedupStore.getContentKey(objectMetadata.get());
+    if (contentKey.isPresent()) {
+      return getPointedObject(cephBucketName, objectMetadata.get(), contentKey.get(), true);
+    }
+    log.info("File {} was found in ceph bucket {}", key, cephBucketName);
+    var contentLength = objectMetadata.get().getContentLength();
+    if (contentLength < prefetchProperties.getMinObjectSize()) {
+      return Optional.of(tpCephObject(execute(() -> cephAmazonS3.getObject(cephBucketName, key))));
+    }
+    var content = new PrefetchingInputStream(cephAmazonS3, cephBucketName, key,
+        objectMetadata.get().getETag(), contentLength, prefetchProperties, backgroundExecutor);
+    return Optional.of(toCephObject(toCephObjectMetadata(objectMetadata.get()), content));
+  }
+
+  /**
+   * Get object checking its ETag with HEAD request first, so the cached content is served
+   * without GET request. Content that isn't cached is put into the cache while it is read.
+   */
+  private Optional<CephObject> getThroughCache(String cephBucketName, String key,
+      boolean prefetch) {
+    var objectMetadata = execute(() -> findObjectMetadata(cephBucketName, key));
+    if (objectMetadata.isEmpty()) {
+      log.info("File {} wasn't found in ceph bucket {}", key, cephBucketName);
+      return Optional.empty();
+    }
+    var contentKey = DedupStore.getContentKey(objectMetadata.get());
+    if (contentKey.isPresent()) {
+      return getPointedObject(cephBucketName, objectMetadata.get(), contentKey.get(), prefetch);
+    }
+    var eTag = objectMetadata.get().getETag();
+    var cachedContent = contentCache.get(cephBucketName, key, eTag);
+    if (cachedContent.isPresent()) {
+      log.info("File {} of ceph bucket {} was found in cache", key, cephBucketName);
+      return Optional.of(
+          toCephObject(toCephObjectMetadata(objectMetadata.get()), cachedContent.get()));
+    }
+    var s3Object = execute(() -> cephAmazonS3.getObject(
+        new GetObjectRequest(cephBucketName, key).withMatchingETagConstraint(eTag)));
+    if (s3Object == null) {
+      log.info("File {} was changed in ceph bucket {} while reading, it won't be cached", key,
+          cephBucketName);
+      return Optional.of(tpCephObject(execute(() -> cephAmazonS3.getObject(cephBucketName, key))));
+    }
+    log.info("File {} was found in ceph bucket {}", key, cephBucketName);
+    return Optional.of(toCephObject(toCephObjectMetadata(s3Object.getObjectMetadata()),
+        contentCache.put(cephBucketName, key, eTag,
+            s3Object.getObjectMetadata().getContentLength(), toObjectContent(s3Object))));
+  }
+
+  /**
+   * Amazon S3 client returns {@code null} instead of the object if the constraint of the request
+   * isn't met, i.e. Ceph responded with 304 Not Modified.
+   */
+  private ConditionalGetResult getConditionally(GetObjectRequest getObjectRequest) {
+    var cephBucketName = getObjectRequest.getBucketName();
+    var key = getObjectRequest.getKey();
+    assertBucketExists(cephAmazonS3, cephBucketName);
+    var unlisted = getUnlistedObject(cephBucketName, key);
+    if (unlisted.isPresent()) {
+      var status = isModified(getObjectRequest, unlisted.get().getMetadata())
+          ? Status.MODIFIED : Status.NOT_MODIFIED;
+      log.info("File {} in spool or pack of ceph bucket {} - {}", key, cephBucketName, status);
+      return ConditionalGetResult.builder().status(status)
+          .object(status == Status.MODIFIED ? unlisted.get() : null).build();
+    }
+    var result = execute(() -> {
+      try {
+        var s3Object = cephAmazonS3.getObject(getObjectRequest);
+        return s3Object == null
+            ? ConditionalGetResult.builder().status(Status.NOT_MODIFIED).build()
+            : ConditionalGetResult.builder().status(Status.MODIFIED)
+                .object(toResolvedCephObject(s3Object)).build();
+      } catch (AmazonS3Exception exception) {
+        if (exception.getStatusCode() == NOT_FOUND_STATUS_CODE) {
+          return ConditionalGetResult.builder().status(Status.NOT_FOUND).build();
+        }
+        throw exception;
+      }
+    });
+    log.info("File {} of ceph bucket {} - {}", key, cephBucketName, result.getStatus());
+    return result;
+  }
+
+  /**
+   * Evaluate the constraints of the request like Ceph does for a key which isn't a separate
+   * object.
+   */
+  private static boolean isModified(GetObjectRequest getObjectRequest,
+      CephObjectMetadata metadata) {
+    if (getObjectRequest.getNonmatchingETagConstraints().contains(metadata.getETag())) {
+      return false;
+    }
+    var modifiedSince = getObjectRequest.getModifiedSinceConstraint();
+    return modifiedSince == null || metadata.getLastModified().after(modifiedSince);
+  }
+
+  /**
+   * Content object of a pointer put by {@link DedupStore} with the metadata of the pointer, or
+   * the object itself if it isn't a pointer.
+   */
+  private CephObject toResolvedCephObject(S3Object s3Object) {
+    var contentKey = DedupStore.getContentKey(s3Object.getObjectMetadata());
+    if (contentKey.isEmpty()) {
+      return tpCephObject(s3Object);
+    }
+    readPointer(s3Object);
+    var content = tpCephObject(cephAmazonS3.getObject(s3Object.getBucketName(), contentKey.get()));
+    return CephObject.builder()
+        .metadata(toCephObjectMetadata(s3Object.getObjectMetadata()))
+        .content(content.getContent())
+        .build();
+  }
+
+  /**
+   * @return metadata of the object or empty if it doesn't exist
+   */
+  private Optional<ObjectMetadata> findObjectMetadata(String cephBucketName, String key) {
+    try {
+      return Optional.of(cephAmazonS3.getObjectMetadata(cephBucketName, key));
+    } catch (AmazonS3Exception exception) {
+      if (exception.getStatusCode() == NOT_FOUND_STATUS_CODE) {
+        return Optional.empty();
+      }
+      throw exception;
+    }
+  }
+
+  private boolean isPackable(String cephBucketName, byte[] content) {
+    return packStore != null && packStore.isPackable(cephBucketName, content);
+  }
+
+  private Optional<PackEntry> findPacked(String cephBucketName, String key) {
+    if (packStore == null || !packStore.isPacked(cephBucketName)) {
+      return Optional.empty();
+    }
+    return execute(() -> packStore.find(cephBucketName, key));
+  }
+
+  private Optional<byte[]> findSpooled(String cephBucketName, String key) {
+    return writeSpool == null || !writeSpool.isSpooled(cephBucketName) ? Optional.empty()
+        : writeSpool.find(cephBucketName, key);
+  }
+
+  /**
+   * Content of a key which isn't a separate object: spooled and not uploaded yet, or packed.
+   */
+  private Optional<byte[]> getUnlisted(String cephBucketName, String key) {
+    var spooled = findSpooled(cephBucketName, key);
+    if (spooled.isPresent()) {
+      return spooled;
+    }
+    return findPacked(cephBucketName, key)
+        .flatMap(entry -> execute(() -> packStore.read(cephBucketName, key, entry)));
+  }
+
+  /**
+   * Object of a key which isn't a separate object. Its ETag is the MD5 of the content, as Ceph
+   * computes it for a single part put, and it was modified when its pack was written, or now if
+   * it is still spooled.
+   */
+  private Optional<CephObject> getUnlistedObject(String cephBucketName, String key) {
+    var spooled = findSpooled(cephBucketName, key);
+    if (spooled.isPresent()) {
+      return spooled.map(content -> toUnlistedCephObject(content, new Date()));
+    }
+    var entry = findPacked(cephBucketName, key);
+    return entry.flatMap(found -> execute(() -> packStore.read(cephBucketName, key, found)))
+        .map(content -> toUnlistedCephObject(content, packStore.getLastModified(entry.get())));
+  }
+
+  /**
+   * Copy content of a key which isn't a separate object by putting it to the destination, as Ceph
+   * has no object to copy.
+   *
+   * @return false if the source key is a separate object or doesn't exist
+   */
+  private boolean copyUnlisted(String sourceBucketName, String sourceKey,
+      String destinationBucketName, String destinationKey) {
+    var content = getUnlisted(sourceBucketName, sourceKey);
+    content.ifPresent(found -> putContent(destinationBucketName, destinationKey,
+        new String(found, StandardCharsets.UTF_8)));
+    return content.isPresent();
+  }
+
+  private Set<String> getUnlistedKeys(String cephBucketName, String prefix) {
+    var unlistedKeys = new HashSet<String>();
+    if (packStore != null && packStore.isPacked(cephBucketName)) {
+      unlistedKeys.addAll(execute(() -> packStore.getKeys(cephBucketName, prefix)));
+    }
+    if (writeSpool != null && writeSpool.isSpooled(cephBucketName)) {
+      unlistedKeys.addAll(writeSpool.getKeys(cephBucketName, prefix));
+    }
+    return unlistedKeys;
+  }
+
+  private boolean isUnlisted(String cephBucketName, String key) {
+    return findSpooled(cephBucketName, key).isPresent()
+        || findPacked(cephBucketName, key).isPresent();
+  }
+
+  /**
+   * Discard spooled puts of the keys before they are written or deleted directly, so the spool
+   * doesn't overwrite them later.
+   */
+  private void discardSpooled(String cephBucketName, Collection<String> keys) {
+    if (writeSpool != null && writeSpool.isSpooled(cephBucketName)) {
+      executeRunnable(() -> writeSpool.discard(cephBucketName, keys));
+    }
+  }
+
+  /**
+   * Write tombstones of the keys which are packed, so that content put or deleted as a separate
+   * object isn't shadowed by the pack.
+   */
+  private void unpack(String cephBucketName, Collection<String> keys) {
+    if (packStore != null && packStore.isPacked(cephBucketName)) {
+      execute(() -> joinUnwrapped(packStore.delete(cephBucketName, keys)));
+    }
+  }
+
+  private Set<String> withUnlistedKeys(String cephBucketName, String prefix, Set<String> keys) {
+    var keyPrefix = prefix == null ? "" : prefix;
+    var result = keys;
+    if (packStore != null && packStore.isPacked(cephBucketName)) {
+      result = keys.stream()
+          .filter(key -> !packStore.isPackKey(key))
+          .collect(Collectors.toSet());
+      result.addAll(execute(() -> packStore.getKeys(cephBucketName, keyPrefix)));
+    }
+    if (isDeduplicated(cephBucketName)) {
+      result = result.stream()
+          .filter(key -> !dedupStore.isContentKey(key))
+          .collect(Collectors.toSet());
+    }
+    if (writeSpool != null && writeSpool.isSpooled(cephBucketName)) {
+      result.addAll(writeSpool.getKeys(cephBucketName, keyPrefix));
+    }
+    return result;
+  }
+
+  private static CephObject toUnlistedCephObject(byte[] content, Date lastModified) {
+    return CephObject.builder()
+        .content(new ByteArrayInputStream(content))
+        .metadata(CephObjectMetadata.builder()
+            .contentType(TEXT_CONTENT_TYPE)
+            .contentLength(content.length)
+            .eTag(BinaryUtils.toHex(Md5Utils.computeMD5Hash(content)))
+            .lastModified(lastModified)
+            .build())
+        .build();
+  }
+
+  private Optional<KeyManifest> getFreshManifest(String cephBucketName) {
+    return keyManifestStore == null ? Optional.empty()
+        : keyManifestStore.getFresh(cephBucketName);
+  }
+
+  private void recordPut(String cephBucketName, String key, ObjectMetadata objectMetadata) {
+    if (keyManifestStore != null) {
+      recordPut(cephBucketName, key, objectMetadata.getETag(), objectMetadata.getContentLength(),
+          objectMetadata.getLastModified());
+    }
+  }
+
+  private void recordPut(String cephBucketName, String key, String eTag, long size,
+      Date lastModified) {
+    if (keyManifestStore != null) {
+      keyManifestStore.recordPut(cephBucketName, ManifestEntry.builder()
+          .key(key)
+          .eTag(eTag)
+          .size(size)
+          .lastModified(lastModified == null ? 0L : lastModified.getTime())
+          .build());
+    }
+  }
+
+  private void deleteBatch(String cephBucketName, List<String> keys, AtomicLong deletedKeys,
+      AtomicLong failedKeys) {
+    try {
+      cephAmazonS3.deleteObjects(new DeleteObjectsRequest(cephBucketName)
+          .withKeys(keys.toArray(String[]::new))
+          .withQuiet(true));
+      deletedKeys.addAndGet(keys.size());
+      recordDelete(cephBucketName, keys);
+    } catch (MultiObjectDeleteException exception) {
+      var failed = exception.getErrors().stream()
+          .map(DeleteError::getKey)
+          .collect(Collectors.toSet());
+      log.warn("Files {} weren't deleted from ceph bucket {}", failed, cephBucketName);
+      failedKeys.addAndGet(failed.size());
+      deletedKeys.addAndGet(keys.size() - failed.size());
+      recordDelete(cephBucketName,
+          keys.stream().filter(key -> !failed.contains(key)).collect(Collectors.toList()));
+    }
+  }
+
+  private void awaitBatch(CompletableFuture<Void> batch) {
+    try {
+      batch.join();
+    } catch (CompletionException exception) {
+      throw toCephException(exception.getCause());
+    }
+  }
+
+  private DeletionProgress reportProgress(DeletionOptions options, AtomicLong listedKeys,
+      AtomicLong deletedKeys, AtomicLong failedKeys) {
+    var progress = DeletionProgress.builder()
+        .dryRun(options.isDryRun())
+        .listedKeys(listedKeys.get())
+        .deletedKeys(deletedKeys.get())
+        .failedKeys(failedKeys.get())
+        .build();
+    if (options.getProgressListener() != null) {
+      options.getProgressListener().accept(progress);
+    }
+    return progress;
+  }
+
+  private void recordDelete(String cephBucketName, Collection<String> keys) {
+    if (keyManifestStore != null) {
+      keyManifestStore.recordDelete(cephBucketName, keys);
+    }
+  }
+
+  /**
+   * Copy object on the ceph side. Objects above the multipart copy threshold are copied part by
+   * part, parts are copied in parallel if {@code parallelParts} is set. Parts must be copied
+   * sequentially when the method itself runs on the executor, to not wait for the tasks queued
+   * behind the current one.
+   *
+   * @param sourceMetadata metadata of the source if it was already fetched, otherwise it is
+   *                       fetched for multipart copy only
+   * @return ETag of the copy
+   */
+  private String copyObject(String sourceBucketName, String sourceKey,
+      String destinationBucketName, String destinationKey, long contentLength,
+      ObjectMetadata sourceMetadata, boolean parallelParts) {
+    if (contentLength <= transferProperties.getMultipartCopyThreshold()) {
+      return cephAmazonS3.copyObject(new CopyObjectRequest(sourceBucketName, sourceKey,
+          destinationBucketName, destinationKey)).getETag();
+    }
+    log.debug("Copying object {} of {} bytes with multipart copy", sourceKey, contentLength);
+    var copiedMetadata = toCopiedMetadata(sourceMetadata != null ? sourceMetadata
+        : cephAmazonS3.getObjectMetadata(sourceBucketName, sourceKey));
+    var uploadId = cephAmazonS3.initiateMultipartUpload(new InitiateMultipartUploadRequest(
+        destinationBucketName, destinationKey, copiedMetadata)).getUploadId();
+    try {
+      var partSize = transferProperties.getMultipartCopyPartSize();
+      var parts = new ArrayList<CompletableFuture<CopyPartResult>>();
+      for (long firstByte = 0, partNumber = 1; firstByte < contentLength;
+          firstByte += partSize, partNumber++) {
+        var request = new CopyPartRequest()
+            .withSourceBucketName(sourceBucketName)
+            .withSourceKey(sourceKey)
+            .withDestinationBucketName(destinationBucketName)
+            .withDestinationKey(destinationKey)
+            .withUploadId(uploadId)
+            .withPartNumber((int) partNumber)
+            .withFirstByte(firstByte)
+            .withLastByte(Math.min(firstByte + partSize, contentLength) - 1);
+        parts.add(parallelParts
+            ? CompletableFuture.supplyAsync(() -> cephAmazonS3.copyPart(request), executor)
+            : CompletableFuture.completedFuture(cephAmazonS3.copyPart(request)));
+      }
+      var partETags = new ArrayList<PartETag>();
+      for (var part : parts) {
+        partETags.add(joinUnwrapped(part).getPartETag());
+      }
+      partETags.sort(Comparator.comparingInt(PartETag::getPartNumber));
+      return cephAmazonS3.completeMultipartUpload(new CompleteMultipartUploadRequest(
+          destinationBucketName, destinationKey, uploadId, partETags)).getETag();
+    } catch (RuntimeException exception) {
+      cephAmazonS3.abortMultipartUpload(
+          new AbortMultipartUploadRequest(destinationBucketName, destinationKey, uploadId));
+      throw exception;
+    }
+  }
+
+  /**
+   * Metadata a multipart copy is initiated with: the content type and user metadata of the
+   * source. The rest of it, e.g. ETag and content length, is set by Ceph for the copy.
+   */
+  private static ObjectMetadata toCopiedMetadata(ObjectMetadata sourceMetadata) {
+    var copiedMetadata = new ObjectMetadata();
+    copiedMetadata.setContentType(sourceMetadata.getContentType());
+    copiedMetadata.setUserMetadata(sourceMetadata.getUserMetadata());
+    return copiedMetadata;
   }
 
   private <T> T execute(Supplier<T> supplier) {
     try {
       return supplier.get();
     } catch (RuntimeException exception) {
-      throw new CephCommunicationException(exception.getMessage(), exception);
+      throw toCephException(exception);
+    }
+  }
+
+  /**
+   * Run the operation for every key on the executor and wait for all of them. Empty result of
+   * the operation means that there is nothing to report for the key.
+   */
+  private <T> CephBatchResult<T> executeBatch(Collection<String> keys,
+      Function<String, Optional<T>> operation) {
+    var results = new LinkedHashMap<String, T>();
+    var failures = new LinkedHashMap<String, CephCommunicationException>();
+    collectBatch(submitBatch(keys, operation), results, failures);
+    return new CephBatchResult<>(results, failures);
+  }
+
+  /**
+   * @return results of a batch which is expected to succeed as a whole
+   * @throws CephCommunicationException failure of the first failed key
+   */
+  private static <T> Map<String, T> getOrThrow(CephBatchResult<T> batchResult) {
+    if (!batchResult.getFailures().isEmpty()) {
+      throw batchResult.getFailures().values().iterator().next();
+    }
+    return batchResult.getResults();
+  }
+
+  private <T> Map<String, CompletableFuture<Optional<T>>> submitBatch(Collection<String> keys,
+      Function<String, Optional<T>> operation) {
+    var futures = new LinkedHashMap<String, CompletableFuture<Optional<T>>>();
+    for (var key : keys) {
+      futures.put(key, CompletableFuture.supplyAsync(() -> operation.apply(key), executor));
+    }
+    return futures;
+  }
+
+  private <T> void collectBatch(Map<String, CompletableFuture<Optional<T>>> futures,
+      Map<String, T> results, Map<String, CephCommunicationException> failures) {
+    futures.forEach((key, future) -> {
+      try {
+        future.join().ifPresent(value -> results.put(key, value));
+      } catch (CompletionException exception) {
+        var cause = exception.getCause();
+        log.warn("Batch operation failed for key {}", key, cause);
+        failures.put(key, toCephException(cause));
+      }
+    });
+  }
+
+  /**
+   * Timeouts of the requests bounded by a deadline are reported as {@link CephTimeoutException}.
+   */
+  private static CephCommunicationException toCephException(Throwable exception) {
+    if (exception instanceof CephTimeoutException
+        || exception instanceof CephRetryableException) {
+      return (CephCommunicationException) exception;
+    }
+    if (exception instanceof ClientExecutionTimeoutException
+        || exception.getCause() instanceof CephTimeoutException
+        || exception.getCause() instanceof ClientExecutionTimeoutException) {
+      return new CephTimeoutException(exception.getMessage(), exception);
+    }
+    if (CephRetryPolicy.isThrottled(exception)) {
+      return new CephThrottledException(exception.getMessage(), exception);
+    }
+    if (CephRetryPolicy.isRetryable(exception)) {
+      return new CephRetryableException(exception.getMessage(), exception);
+    }
+    return new CephCommunicationException(exception.getMessage(), exception);
+  }
+
+  private static <T> T joinUnwrapped(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException exception) {
+      if (exception.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exception.getCause();
+      }
+      throw exception;
     }
   }
 
@@ -268,27 +1697,169 @@ public class CephServiceS3Impl implements CephService {
     try {
       runnable.run();
     } catch (RuntimeException exception) {
-      throw new CephCommunicationException(exception.getMessage(), exception);
+      throw toCephException(exception);
     }
   }
 
-  private List<CephObjectMetadata> toCephObjectMetadataList(
-      List<ObjectMetadata> objectMetadataList) {
-    return objectMetadataList.stream().map(this::toCephObjectMetadata).collect(Collectors.toList());
-  }
-
-  private CephObjectMetadata toCephObjectMetadata(ObjectMetadata objectMetadata) {
+  /**
+   * Metadata of a pointer put by {@link DedupStore} is the one of the content it refers to.
+   */
+  private CephObjectMetadata toCephObjectMetadata(ObjectMetadata storedMetadata) {
+    var objectMetadata = DedupStore.toContentMetadata(storedMetadata);
     return CephObjectMetadata.builder()
         .contentType(objectMetadata.getContentType())
         .userMetadata(objectMetadata.getUserMetadata())
         .contentLength(objectMetadata.getContentLength())
+        .eTag(objectMetadata.getETag())
+        .lastModified(objectMetadata.getLastModified())
+        .versionId(objectMetadata.getVersionId())
+        .cacheControl(objectMetadata.getCacheControl())
         .build();
   }
 
+  private <T> T coalesce(String operation, String cephBucketName, String key, Supplier<T> call) {
+    return requestCoalescer == null ? call.get()
+        : requestCoalescer.execute(operation, cephBucketName, key, call);
+  }
+
+  /**
+   * Buffers content of small object, so it can be given to every caller waiting for it. Content
+   * of bigger object is left to the caller that read it.
+   */
+  private SharedObject toSharedObject(CephObject cephObject) {
+    var contentLength = cephObject.getMetadata().getContentLength();
+    if (contentLength > maxSharedContentSize) {
+      return new SharedObject(cephObject.getMetadata(), null);
+    }
+    try (var content = cephObject.getContent()) {
+      return new SharedObject(cephObject.getMetadata(), content.readAllBytes());
+    } catch (IOException exception) {
+      throw new CephCommunicationException(exception.getMessage(), exception);
+    }
+  }
+
+  private GeneratePresignedUrlRequest newPresignedUrlRequest(String cephBucketName, String key,
+      HttpMethod method, PresignedUrlOptions options) {
+    var request = new GeneratePresignedUrlRequest(cephBucketName, key, method)
+        .withExpiration(Date.from(Instant.now().plus(options.getExpiration())));
+    if (method == HttpMethod.PUT && options.getContentLength() != null) {
+      request.putCustomRequestHeader(Headers.CONTENT_LENGTH,
+          String.valueOf(options.getContentLength()));
+    }
+    return request;
+  }
+
+  /**
+   * Amazon S3 client signs the URL locally, no request is sent to Ceph.
+   */
+  private URL generatePresignedUrl(GeneratePresignedUrlRequest request) {
+    var url = execute(() -> cephAmazonS3.generatePresignedUrl(request));
+    log.info("Pre-signed {} URL of file {} in ceph bucket {} was generated", request.getMethod(),
+        request.getKey(), request.getBucketName());
+    return url;
+  }
+
   private CephObject tpCephObject(S3Object s3Object) {
+    return toCephObject(toCephObjectMetadata(s3Object.getObjectMetadata()),
+        toObjectContent(s3Object));
+  }
+
+  /**
+   * Content of the object which drains or aborts its connection on close and reports whether it
+   * was closed.
+   */
+  private InputStream toObjectContent(S3Object s3Object) {
+    var s3ObjectContent = s3Object.getObjectContent();
+    if (s3ObjectContent == null) {
+      return null;
+    }
+    var leakDetector = contentProperties.isLeakDetection()
+        ? new ObjectContentInputStream.LeakDetector(s3ObjectContent, s3Object.getBucketName(),
+        s3Object.getKey(), contentLeakListener) : null;
+    var contentLength = toCephObjectMetadata(s3Object.getObjectMetadata()).getContentLength();
+    return new ObjectContentInputStream(s3ObjectContent, contentLength,
+        contentProperties.getDrainThreshold(), leakDetector);
+  }
+
+  /**
+   * Content is verified while it is read against the checksum stored on put, or against the
+   * ETag of the object put in a single part if MD5 checksum is used.
+   */
+  private CephObject toCephObject(CephObjectMetadata metadata, InputStream content) {
+    if (checksumAlgorithm == null) {
+      return CephObject.builder().metadata(metadata).content(content).build();
+    }
+    var storedChecksum = metadata.getUserMetadata() == null ? null
+        : metadata.getUserMetadata().get(checksumAlgorithm.getMetadataKey());
+    if (storedChecksum == null && checksumAlgorithm == ChecksumAlgorithm.MD5
+        && metadata.getETag() != null && MD5_ETAG_PATTERN.matcher(metadata.getETag()).matches()) {
+      storedChecksum = Base64.getEncoder().encodeToString(BinaryUtils.fromHex(metadata.getETag()));
+    }
+    metadata.setChecksumAlgorithm(checksumAlgorithm);
+    metadata.setChecksum(storedChecksum);
     return CephObject.builder()
-        .metadata(toCephObjectMetadata(s3Object.getObjectMetadata()))
-        .content(s3Object.getObjectContent())
+        .metadata(metadata)
+        .content(new ChecksumInputStream(content, checksumAlgorithm, storedChecksum))
         .build();
   }
+
+  private InputStream withChecksum(InputStream content) {
+    return checksumAlgorithm == null ? content
+        : new ChecksumInputStream(content, checksumAlgorithm, null);
+  }
+
+  private CephObjectMetadata withComputedChecksum(CephObjectMetadata metadata,
+      InputStream content) {
+    if (content instanceof ChecksumInputStream) {
+      metadata.setChecksumAlgorithm(checksumAlgorithm);
+      metadata.setChecksum(((ChecksumInputStream) content).getChecksum());
+    }
+    return metadata;
+  }
+
+  private PutObjectResult putString(String cephBucketName, String key, String content) {
+    if (checksumAlgorithm == null) {
+      return cephAmazonS3.putObject(cephBucketName, key, content);
+    }
+    var bytes = content.getBytes(StandardCharsets.UTF_8);
+    var objectMetadata = new ObjectMetadata();
+    objectMetadata.setContentType(TEXT_CONTENT_TYPE);
+    objectMetadata.setContentLength(bytes.length);
+    return putBytes(cephBucketName, key, bytes, objectMetadata);
+  }
+
+  /**
+   * Content in memory is sent with Content-MD5 header and its checksum is stored as user
+   * metadata, so it's verified on read without reading it again after put.
+   */
+  private PutObjectResult putBytes(String cephBucketName, String key, byte[] content,
+      ObjectMetadata objectMetadata) {
+    if (checksumAlgorithm != null) {
+      objectMetadata.setContentMD5(ChecksumAlgorithm.MD5.checksumOf(content));
+      objectMetadata.addUserMetadata(checksumAlgorithm.getMetadataKey(),
+          checksumAlgorithm.checksumOf(content));
+    }
+    return cephAmazonS3.putObject(cephBucketName, key, new ByteArrayInputStream(content),
+        objectMetadata);
+  }
+
+  private static class SharedObject {
+
+    private final CephObjectMetadata metadata;
+    private final byte[] content;
+
+    private SharedObject(CephObjectMetadata metadata, byte[] content) {
+      this.metadata = metadata;
+      this.content = content;
+    }
+
+    private CephObject copy() {
+      var userMetadata = metadata.getUserMetadata() == null ? null
+          : new HashMap<>(metadata.getUserMetadata());
+      return CephObject.builder()
+          .metadata(metadata.toBuilder().userMetadata(userMetadata).build())
+          .content(new ByteArrayInputStream(content))
+          .build();
+    }
+  }
 }
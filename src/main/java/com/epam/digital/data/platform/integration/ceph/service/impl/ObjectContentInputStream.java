@@ -0,0 +1,158 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.service.impl;
+
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.epam.digital.data.platform.integration.ceph.service.ContentLeakListener;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.Cleaner;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Content of an object read from Ceph. On close the rest of the content is drained, so the
+ * connection is reused, if it isn't bigger than the threshold, otherwise the connection is
+ * aborted. Content that becomes unreachable without being closed is aborted and reported,
+ * unless it was read to the end.
+ */
+@Slf4j
+class ObjectContentInputStream extends FilterInputStream {
+
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private final S3ObjectInputStream content;
+  private final long drainThreshold;
+  private final LeakDetector leakDetector;
+  private final Cleaner.Cleanable cleanable;
+  private long remaining;
+
+  ObjectContentInputStream(S3ObjectInputStream content, long contentLength, long drainThreshold,
+      LeakDetector leakDetector) {
+    super(content);
+    this.content = content;
+    this.remaining = contentLength;
+    this.drainThreshold = drainThreshold;
+    this.leakDetector = leakDetector;
+    this.cleanable = leakDetector == null ? null : CLEANER.register(this, leakDetector);
+  }
+
+  @Override
+  public int read() throws IOException {
+    var result = super.read();
+    if (result != -1) {
+      remaining--;
+    }
+    onRead(result == -1);
+    return result;
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) throws IOException {
+    var result = super.read(bytes, offset, length);
+    if (result > 0) {
+      remaining -= result;
+    }
+    onRead(result == -1);
+    return result;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    var result = super.skip(n);
+    remaining -= result;
+    return result;
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (leakDetector != null) {
+      if (leakDetector.closed) {
+        return;
+      }
+      leakDetector.closed = true;
+      cleanable.clean();
+    }
+    if (remaining > drainThreshold) {
+      content.abort();
+      return;
+    }
+    try {
+      content.transferTo(OutputStream.nullOutputStream());
+    } catch (IOException exception) {
+      content.abort();
+      throw exception;
+    }
+    content.close();
+  }
+
+  private void onRead(boolean endOfStream) {
+    if (leakDetector != null && (endOfStream || remaining <= 0)) {
+      leakDetector.drained = true;
+    }
+  }
+
+  /**
+   * Aborts the content if the stream was reclaimed without being closed. Content read to the end
+   * is only closed, as its connection can be reused, and isn't reported. It mustn't reference
+   * the stream itself, otherwise the stream never becomes unreachable.
+   */
+  static class LeakDetector implements Runnable {
+
+    private final S3ObjectInputStream content;
+    private final String cephBucketName;
+    private final String key;
+    private final ContentLeakListener listener;
+    private volatile boolean closed;
+    private volatile boolean drained;
+
+    LeakDetector(S3ObjectInputStream content, String cephBucketName, String key,
+        ContentLeakListener listener) {
+      this.content = content;
+      this.cephBucketName = cephBucketName;
+      this.key = key;
+      this.listener = listener;
+    }
+
+    @Override
+    public void run() {
+      if (closed) {
+        return;
+      }
+      if (drained) {
+        try {
+          content.close();
+        } catch (IOException exception) {
+          content.abort();
+        }
+        return;
+      }
+      log.warn("Content of file {} from ceph bucket {} wasn't closed, aborting it", key,
+          cephBucketName);
+      content.abort();
+      if (listener != null) {
+        listener.onContentLeaked(cephBucketName, key);
+      }
+    }
+  }
+}
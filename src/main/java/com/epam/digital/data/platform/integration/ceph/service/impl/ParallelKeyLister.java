@@ -0,0 +1,366 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.service.impl;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.epam.digital.data.platform.integration.ceph.exception.CephCommunicationException;
+import com.epam.digital.data.platform.integration.ceph.model.ParallelListingOptions;
+import java.lang.ref.Cleaner;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lists keys of a bucket splitting the key space into shards that are listed concurrently and
+ * merged into a single stream. Listing threads stop when the stream is closed, when it becomes
+ * unreachable or when its consumer doesn't take keys for the consumer timeout, so an abandoned
+ * stream doesn't hold the executor.
+ */
+@Slf4j
+@RequiredArgsConstructor
+class ParallelKeyLister {
+
+  private static final int QUEUE_CAPACITY = 1000;
+  private static final long OFFER_TIMEOUT_MILLIS = 100L;
+  private static final int MAX_DISCOVERY_DEPTH = 3;
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  private final AmazonS3 cephAmazonS3;
+  private final Executor executor;
+
+  Stream<String> list(String cephBucketName, ParallelListingOptions options) {
+    var parallelism = Math.max(options.getParallelism(), 1);
+    var shards = options.getBoundaries().isEmpty()
+        ? discoverShards(cephBucketName, options.getPrefix(), options.getDelimiter(), parallelism)
+        : splitByBoundaries(options.getPrefix(), options.getBoundaries());
+    log.debug("Listing bucket {} in {} shards", cephBucketName, shards.size());
+    var listing = new Listing(cephBucketName, shards, options.isOrdered(),
+        options.getConsumerTimeout().toNanos());
+    var workers = Math.min(parallelism, shards.size());
+    for (int i = 0; i < workers; i++) {
+      executor.execute(listing::listShards);
+    }
+    var keys = new ListingIterator(listing);
+    // the cleaning action refers to the listing only, so it doesn't keep the iterator reachable
+    CLEANER.register(keys, listing::close);
+    var characteristics = options.isOrdered()
+        ? Spliterator.ORDERED | Spliterator.NONNULL : Spliterator.NONNULL;
+    return StreamSupport.stream(Spliterators.spliteratorUnknownSize(keys, characteristics),
+        false).onClose(listing::close);
+  }
+
+  /**
+   * Split the key space by common prefixes. While there are fewer shards than listing threads,
+   * the common prefixes are split further by their own common prefixes, all of them at once.
+   */
+  private List<Shard> discoverShards(String cephBucketName, String prefix, String delimiter,
+      int parallelism) {
+    var shards = discoverLevel(cephBucketName, prefix, delimiter);
+    for (int depth = 1; depth < MAX_DISCOVERY_DEPTH && shards.size() < parallelism; depth++) {
+      var levels = new ArrayList<CompletableFuture<List<Shard>>>();
+      for (var shard : shards) {
+        levels.add(shard.isPrefix()
+            ? CompletableFuture.supplyAsync(
+                () -> discoverLevel(cephBucketName, shard.prefix, delimiter), executor)
+            : CompletableFuture.completedFuture(List.of(shard)));
+      }
+      var nextShards = new ArrayList<Shard>();
+      for (var level : levels) {
+        nextShards.addAll(joinUnwrapped(level));
+      }
+      if (nextShards.size() == shards.size()) {
+        break;
+      }
+      shards = nextShards;
+    }
+    return shards;
+  }
+
+  /**
+   * Every common prefix becomes a shard, keys found directly under the prefix are grouped into
+   * shards between common prefixes to keep the key order.
+   */
+  private List<Shard> discoverLevel(String cephBucketName, String prefix, String delimiter) {
+    var keys = new ArrayList<String>();
+    var commonPrefixes = new ArrayList<String>();
+    var request = new ListObjectsRequest().withBucketName(cephBucketName).withPrefix(prefix)
+        .withDelimiter(delimiter);
+    ObjectListing page = cephAmazonS3.listObjects(request);
+    while (true) {
+      page.getObjectSummaries().forEach(summary -> keys.add(summary.getKey()));
+      commonPrefixes.addAll(page.getCommonPrefixes());
+      if (!page.isTruncated()) {
+        break;
+      }
+      page = cephAmazonS3.listNextBatchOfObjects(page);
+    }
+    var shards = new ArrayList<Shard>();
+    var keyIndex = 0;
+    for (var commonPrefix : commonPrefixes) {
+      var fixedKeys = new ArrayList<String>();
+      while (keyIndex < keys.size() && keys.get(keyIndex).compareTo(commonPrefix) < 0) {
+        fixedKeys.add(keys.get(keyIndex++));
+      }
+      if (!fixedKeys.isEmpty()) {
+        shards.add(Shard.ofKeys(fixedKeys));
+      }
+      shards.add(new Shard(commonPrefix, null, null, null));
+    }
+    if (keyIndex < keys.size()) {
+      shards.add(Shard.ofKeys(keys.subList(keyIndex, keys.size())));
+    }
+    return shards;
+  }
+
+  private static <T> T joinUnwrapped(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException exception) {
+      if (exception.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exception.getCause();
+      }
+      throw exception;
+    }
+  }
+
+  private List<Shard> splitByBoundaries(String prefix, List<String> boundaries) {
+    var sortedBoundaries = boundaries.stream().distinct().sorted().collect(Collectors.toList());
+    var shards = new ArrayList<Shard>();
+    String startAfter = null;
+    for (var boundary : sortedBoundaries) {
+      shards.add(new Shard(prefix, startAfter, boundary, null));
+      startAfter = boundary;
+    }
+    shards.add(new Shard(prefix, startAfter, null, null));
+    return shards;
+  }
+
+  @RequiredArgsConstructor
+  private static class Shard {
+
+    private final String prefix;
+    private final String startAfter;
+    private final String lastKey;
+    private final List<String> keys;
+
+    static Shard ofKeys(List<String> keys) {
+      return new Shard(null, null, null, new ArrayList<>(keys));
+    }
+
+    boolean isPrefix() {
+      return keys == null && startAfter == null && lastKey == null;
+    }
+  }
+
+  /**
+   * Iterator given to the stream. Once it is unreachable, the listing is closed by the cleaner.
+   */
+  @RequiredArgsConstructor
+  private static class ListingIterator implements Iterator<String> {
+
+    private final Iterator<String> listing;
+
+    @Override
+    public boolean hasNext() {
+      return listing.hasNext();
+    }
+
+    @Override
+    public String next() {
+      return listing.next();
+    }
+  }
+
+  @RequiredArgsConstructor
+  private static class Element {
+
+    private static final Element END = new Element(null, null);
+
+    private final String key;
+    private final RuntimeException error;
+  }
+
+  /**
+   * Shared state of the listing: shard workers put keys into queues, the stream takes them out.
+   * Ordered listing uses a queue per shard and reads shards one by one, unordered listing uses
+   * one queue for all shards.
+   */
+  private class Listing implements Iterator<String> {
+
+    private final String cephBucketName;
+    private final List<Shard> shards;
+    private final List<BlockingQueue<Element>> queues = new ArrayList<>();
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private final long consumerTimeoutNanos;
+    private volatile boolean closed;
+
+    private int currentQueue;
+    private int finishedShards;
+    private String nextKey;
+
+    Listing(String cephBucketName, List<Shard> shards, boolean ordered,
+        long consumerTimeoutNanos) {
+      this.cephBucketName = cephBucketName;
+      this.shards = shards;
+      this.consumerTimeoutNanos = consumerTimeoutNanos;
+      var queueCount = ordered ? shards.size() : 1;
+      var capacity = ordered ? QUEUE_CAPACITY : QUEUE_CAPACITY * Math.max(queueCount, 1);
+      for (int i = 0; i < queueCount; i++) {
+        queues.add(new ArrayBlockingQueue<>(capacity));
+      }
+    }
+
+    void listShards() {
+      int shardIndex;
+      while (!closed && (shardIndex = nextShard.getAndIncrement()) < shards.size()) {
+        var queue = queues.get(queues.size() == 1 ? 0 : shardIndex);
+        try {
+          listShard(shards.get(shardIndex), queue);
+        } catch (RuntimeException exception) {
+          offer(queue, new Element(null, exception));
+        }
+        offer(queue, Element.END);
+      }
+    }
+
+    private void listShard(Shard shard, BlockingQueue<Element> queue) {
+      if (shard.keys != null) {
+        for (var key : shard.keys) {
+          if (!offer(queue, new Element(key, null))) {
+            return;
+          }
+        }
+        return;
+      }
+      var request = new ListObjectsRequest().withBucketName(cephBucketName)
+          .withPrefix(shard.prefix).withMarker(shard.startAfter);
+      var page = cephAmazonS3.listObjects(request);
+      while (true) {
+        for (S3ObjectSummary summary : page.getObjectSummaries()) {
+          if (shard.lastKey != null && summary.getKey().compareTo(shard.lastKey) > 0) {
+            return;
+          }
+          if (!offer(queue, new Element(summary.getKey(), null))) {
+            return;
+          }
+        }
+        if (!page.isTruncated()) {
+          return;
+        }
+        page = cephAmazonS3.listNextBatchOfObjects(page);
+      }
+    }
+
+    /**
+     * @return false if the listing was closed, or is closed now as the consumer didn't take keys
+     * for the consumer timeout, and the element wasn't put
+     */
+    private boolean offer(BlockingQueue<Element> queue, Element element) {
+      var startedAt = System.nanoTime();
+      try {
+        while (!closed) {
+          if (queue.offer(element, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            return true;
+          }
+          if (System.nanoTime() - startedAt >= consumerTimeoutNanos) {
+            log.warn("Keys of bucket {} weren't consumed for {} ms, stopping abandoned listing",
+                cephBucketName, TimeUnit.NANOSECONDS.toMillis(consumerTimeoutNanos));
+            close();
+          }
+        }
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+      return false;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (nextKey == null && finishedShards < shards.size()) {
+        var element = take(queues.get(currentQueue));
+        if (element.error != null) {
+          close();
+          throw new CephCommunicationException(element.error.getMessage(), element.error);
+        }
+        if (element == Element.END) {
+          finishedShards++;
+          if (queues.size() > 1 && currentQueue < queues.size() - 1) {
+            currentQueue++;
+          }
+        } else {
+          nextKey = element.key;
+        }
+      }
+      return nextKey != null;
+    }
+
+    @Override
+    public String next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      var key = nextKey;
+      nextKey = null;
+      return key;
+    }
+
+    /**
+     * Listing closed while the consumer still takes keys was stopped by the consumer timeout.
+     */
+    private Element take(BlockingQueue<Element> queue) {
+      try {
+        while (true) {
+          var element = queue.poll(OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+          if (element != null) {
+            return element;
+          }
+          if (closed) {
+            throw new CephCommunicationException(
+                "Listing of bucket " + cephBucketName + " was stopped", null);
+          }
+        }
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+        close();
+        throw new CephCommunicationException("Listing of bucket was interrupted", exception);
+      }
+    }
+
+    void close() {
+      closed = true;
+    }
+  }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.service.impl;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.epam.digital.data.platform.integration.ceph.config.PrefetchProperties;
+import com.epam.digital.data.platform.integration.ceph.exception.CephCommunicationException;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads object content by ranges fetched in background ahead of the consumer, so a slow consumer
+ * doesn't keep the connection idle. The number of chunks fetched ahead is bounded and their
+ * buffers are reused. Fetching of a chunk is resumed from the last received byte if the
+ * connection is dropped. Every range is requested with the ETag of the object, so content
+ * changed while it's read isn't mixed up.
+ */
+@Slf4j
+class PrefetchingInputStream extends InputStream {
+
+  private final AmazonS3 cephAmazonS3;
+  private final String cephBucketName;
+  private final String key;
+  private final String eTag;
+  private final long contentLength;
+  private final int chunkSize;
+  private final int maxResumeAttempts;
+  private final Executor executor;
+  private final Deque<CompletableFuture<Chunk>> prefetchedChunks = new ArrayDeque<>();
+
+  private long nextChunkOffset;
+  private Chunk currentChunk;
+  private int position;
+  private boolean closed;
+
+  PrefetchingInputStream(AmazonS3 cephAmazonS3, String cephBucketName, String key, String eTag,
+      long contentLength, PrefetchProperties prefetchProperties, Executor executor) {
+    this.cephAmazonS3 = cephAmazonS3;
+    this.cephBucketName = cephBucketName;
+    this.key = key;
+    this.eTag = eTag;
+    this.contentLength = contentLength;
+    this.chunkSize = prefetchProperties.getChunkSize();
+    this.maxResumeAttempts = prefetchProperties.getMaxResumeAttempts();
+    this.executor = executor;
+    for (var i = 0; i < prefetchProperties.getBuffers() && nextChunkOffset < contentLength; i++) {
+      prefetch(new byte[(int) Math.min(chunkSize, contentLength)]);
+    }
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!nextChunk()) {
+      return -1;
+    }
+    return currentChunk.buffer[position++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    if (!nextChunk()) {
+      return -1;
+    }
+    var result = Math.min(length, currentChunk.length - position);
+    System.arraycopy(currentChunk.buffer, position, bytes, offset, result);
+    position += result;
+    return result;
+  }
+
+  @Override
+  public int available() {
+    return currentChunk == null ? 0 : currentChunk.length - position;
+  }
+
+  /**
+   * Chunks that are being fetched are dropped when they are received.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    currentChunk = null;
+    prefetchedChunks.clear();
+  }
+
+  private boolean nextChunk() throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+    if (currentChunk != null && position < currentChunk.length) {
+      return true;
+    }
+    if (currentChunk != null) {
+      prefetch(currentChunk.buffer);
+      currentChunk = null;
+    }
+    var chunk = prefetchedChunks.poll();
+    if (chunk == null) {
+      return false;
+    }
+    try {
+      currentChunk = chunk.get();
+      position = 0;
+      return true;
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while waiting for content of " + key);
+    } catch (ExecutionException exception) {
+      throw new IOException(exception.getCause().getMessage(), exception.getCause());
+    }
+  }
+
+  private void prefetch(byte[] buffer) {
+    if (nextChunkOffset >= contentLength) {
+      return;
+    }
+    var offset = nextChunkOffset;
+    var length = (int) Math.min(chunkSize, contentLength - offset);
+    nextChunkOffset += length;
+    prefetchedChunks.add(
+        CompletableFuture.supplyAsync(() -> fetch(buffer, offset, length), executor));
+  }
+
+  private Chunk fetch(byte[] buffer, long offset, int length) {
+    var received = 0;
+    var attempts = 0;
+    while (received < length) {
+      var request = new GetObjectRequest(cephBucketName, key)
+          .withRange(offset + received, offset + length - 1);
+      if (eTag != null) {
+        request.withMatchingETagConstraint(eTag);
+      }
+      try (var s3Object = cephAmazonS3.getObject(request)) {
+        if (s3Object == null) {
+          throw new CephCommunicationException(
+              String.format("Object %s was changed in ceph bucket %s while reading", key,
+                  cephBucketName), null);
+        }
+        var content = s3Object.getObjectContent();
+        var count = 0;
+        while (received < length
+            && (count = content.read(buffer, received, length - received)) != -1) {
+          received += count;
+        }
+        if (received < length) {
+          throw new EOFException("Content of " + key + " ended before the end of the range");
+        }
+      } catch (AmazonServiceException exception) {
+        throw new CephCommunicationException(exception.getMessage(), exception);
+      } catch (IOException | SdkClientException exception) {
+        if (++attempts > maxResumeAttempts) {
+          throw new CephCommunicationException(exception.getMessage(), exception);
+        }
+        log.warn("Reading of file {} from ceph bucket {} was interrupted at {}, resuming", key,
+            cephBucketName, offset + received, exception);
+      }
+    }
+    return new Chunk(buffer, length);
+  }
+
+  private static class Chunk {
+
+    private final byte[] buffer;
+    private final int length;
+
+    private Chunk(byte[] buffer, int length) {
+      this.buffer = buffer;
+      this.length = length;
+    }
+  }
+}
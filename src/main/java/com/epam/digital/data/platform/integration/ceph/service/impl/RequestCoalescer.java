@@ -0,0 +1,104 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.service.impl;
+
+import com.epam.digital.data.platform.integration.ceph.deadline.CephDeadline;
+import com.epam.digital.data.platform.integration.ceph.exception.CephCommunicationException;
+import com.epam.digital.data.platform.integration.ceph.exception.CephTimeoutException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Lets concurrent identical requests share a single call: the first caller makes the call and
+ * the callers that come while it is in progress wait for its result. Results must be safe to
+ * share between callers.
+ *
+ * <p>Every caller waits within its own deadline. If the call fails because the deadline of the
+ * caller that made it is exceeded, the waiting callers make the call again instead of sharing
+ * the failure.
+ */
+class RequestCoalescer {
+
+  private static final Object CALL_AGAIN = new Object();
+
+  private final Map<List<String>, CompletableFuture<Object>> inFlightCalls =
+      new ConcurrentHashMap<>();
+
+  @SuppressWarnings("unchecked")
+  <T> T execute(String operation, String cephBucketName, String key, Supplier<T> call) {
+    var requestKey = List.of(operation, cephBucketName, key);
+    while (true) {
+      var future = new CompletableFuture<Object>();
+      var inFlightCall = inFlightCalls.putIfAbsent(requestKey, future);
+      if (inFlightCall == null) {
+        return call(requestKey, future, call);
+      }
+      var result = await(inFlightCall);
+      if (result != CALL_AGAIN) {
+        return (T) result;
+      }
+    }
+  }
+
+  private <T> T call(List<String> requestKey, CompletableFuture<Object> future, Supplier<T> call) {
+    try {
+      var result = call.get();
+      future.complete(result);
+      return result;
+    } catch (Throwable exception) {
+      // errors complete the call too, so that the waiting callers don't wait forever
+      future.completeExceptionally(exception);
+      throw exception;
+    } finally {
+      inFlightCalls.remove(requestKey, future);
+    }
+  }
+
+  private static Object await(CompletableFuture<Object> inFlightCall) {
+    try {
+      var remaining = CephDeadline.remaining();
+      return remaining.isPresent()
+          ? inFlightCall.get(Math.max(remaining.get().toNanos(), 0L), TimeUnit.NANOSECONDS)
+          : inFlightCall.get();
+    } catch (TimeoutException exception) {
+      throw CephDeadline.exceeded(exception);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new CephCommunicationException("Interrupted while waiting for the same call",
+          exception);
+    } catch (ExecutionException exception) {
+      if (exception.getCause() instanceof CephTimeoutException) {
+        return CALL_AGAIN;
+      }
+      if (exception.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exception.getCause();
+      }
+      if (exception.getCause() instanceof Error) {
+        throw (Error) exception.getCause();
+      }
+      throw new CompletionException(exception.getCause());
+    }
+  }
+}
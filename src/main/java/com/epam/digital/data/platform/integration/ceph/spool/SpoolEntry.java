@@ -0,0 +1,58 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.spool;
+
+import java.util.List;
+
+/**
+ * Write of the journal: a put of the content of a key, a delete of a key which discards the puts
+ * journaled before it, or a mark that the latest put of a key was uploaded, which resolves it the
+ * same way.
+ */
+class SpoolEntry {
+
+  static final byte PUT = 1;
+  static final byte DELETE = 2;
+  static final byte UPLOADED = 3;
+
+  final byte type;
+  final String bucket;
+  final String key;
+  final byte[] content;
+  final long appendedAt;
+  long segment;
+  long sequence;
+  int attempts;
+  boolean uploading;
+
+  SpoolEntry(byte type, String bucket, String key, byte[] content, long appendedAt) {
+    this.type = type;
+    this.bucket = bucket;
+    this.key = key;
+    this.content = content;
+    this.appendedAt = appendedAt;
+  }
+
+  boolean isPut() {
+    return type == PUT;
+  }
+
+  List<String> id() {
+    return List.of(bucket, key);
+  }
+}
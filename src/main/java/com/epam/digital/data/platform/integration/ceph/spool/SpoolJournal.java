@@ -0,0 +1,291 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.spool;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Append-only journal of the spool split into segment files. Appends are made durable by
+ * {@link #sync(long)}, which forces all the appends made so far with a single fsync, so
+ * concurrent writers share it. A segment is deleted once all its puts are resolved and all older
+ * segments are deleted, so a replay never sees a put without the later delete of its key.
+ */
+@Slf4j
+class SpoolJournal {
+
+  private static final String SEGMENT_EXTENSION = ".spool";
+
+  private final Path directory;
+  private final long segmentSize;
+  private final TreeMap<Long, Segment> segments = new TreeMap<>();
+  private final Object syncLock = new Object();
+  private Segment current;
+  private long appended;
+  private long size;
+  private long synced;
+
+  SpoolJournal(Path directory, long segmentSize) {
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+  }
+
+  /**
+   * Read the writes left by the previous run and start a new segment.
+   *
+   * @return journaled writes in the order they were made
+   */
+  synchronized List<SpoolEntry> open() throws IOException {
+    Files.createDirectories(directory);
+    List<Path> paths;
+    try (var files = Files.list(directory)) {
+      paths = files.filter(path -> path.toString().endsWith(SEGMENT_EXTENSION))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+    var result = new ArrayList<SpoolEntry>();
+    var lastId = 0L;
+    for (var path : paths) {
+      var fileName = path.getFileName().toString();
+      lastId = Long.parseLong(
+          fileName.substring(0, fileName.length() - SEGMENT_EXTENSION.length()));
+      var segment = new Segment(lastId, path, null);
+      segment.size = Files.size(path);
+      for (var entry : read(path)) {
+        entry.segment = lastId;
+        if (entry.isPut()) {
+          segment.unresolved++;
+        }
+        result.add(entry);
+      }
+      segments.put(lastId, segment);
+      size += segment.size;
+    }
+    current = newSegment(lastId + 1);
+    reclaim();
+    log.info("Read {} writes from {} segments of spool journal {}", result.size(), paths.size(),
+        directory);
+    return result;
+  }
+
+  /**
+   * @return position to be passed to {@link #sync(long)} to make the write durable
+   */
+  synchronized long append(SpoolEntry entry) throws IOException {
+    var frame = encode(entry);
+    if (current.size > 0 && current.size + frame.length > segmentSize) {
+      rotate();
+    }
+    var buffer = ByteBuffer.wrap(frame);
+    while (buffer.hasRemaining()) {
+      current.channel.write(buffer);
+    }
+    current.size += frame.length;
+    size += frame.length;
+    appended += frame.length;
+    entry.segment = current.id;
+    if (entry.isPut()) {
+      current.unresolved++;
+    }
+    return appended;
+  }
+
+  void sync(long position) throws IOException {
+    synchronized (syncLock) {
+      if (synced >= position) {
+        return;
+      }
+      FileChannel channel;
+      long target;
+      synchronized (this) {
+        channel = current.channel;
+        target = appended;
+      }
+      try {
+        channel.force(false);
+      } catch (ClosedChannelException exception) {
+        // the segment was forced and closed by rotation
+      }
+      synced = target;
+    }
+  }
+
+  /**
+   * Mark a put of the segment as uploaded or discarded and delete the segments which aren't
+   * needed anymore.
+   */
+  synchronized void release(long segmentId) {
+    var segment = segments.get(segmentId);
+    if (segment == null) {
+      return;
+    }
+    segment.unresolved--;
+    reclaim();
+  }
+
+  synchronized long getSize() {
+    return size;
+  }
+
+  private void reclaim() {
+    while (!segments.isEmpty()) {
+      var first = segments.firstEntry().getValue();
+      if (first == current && first.unresolved == 0 && first.size > 0) {
+        // a drained journal starts over, so the writes resolving its puts don't pile up
+        try {
+          rotate();
+        } catch (IOException exception) {
+          log.warn("Segment {} of spool journal wasn't rotated", first.path, exception);
+          return;
+        }
+        continue;
+      }
+      if (first == current || first.unresolved > 0) {
+        return;
+      }
+      segments.remove(first.id);
+      size -= first.size;
+      try {
+        if (first.channel != null) {
+          first.channel.close();
+        }
+        Files.deleteIfExists(first.path);
+      } catch (IOException exception) {
+        log.warn("Segment {} of spool journal wasn't deleted", first.path, exception);
+      }
+    }
+  }
+
+  private void rotate() throws IOException {
+    current.channel.force(false);
+    current.channel.close();
+    current = newSegment(current.id + 1);
+  }
+
+  private Segment newSegment(long id) throws IOException {
+    var path = directory.resolve(String.format("%020d%s", id, SEGMENT_EXTENSION));
+    var channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING);
+    var segment = new Segment(id, path, channel);
+    segments.put(id, segment);
+    return segment;
+  }
+
+  private static byte[] encode(SpoolEntry entry) {
+    var body = new ByteArrayOutputStream();
+    try (var out = new DataOutputStream(body)) {
+      out.writeByte(entry.type);
+      out.writeLong(entry.appendedAt);
+      out.writeUTF(entry.bucket);
+      out.writeUTF(entry.key);
+      out.writeInt(entry.content == null ? -1 : entry.content.length);
+      if (entry.content != null) {
+        out.write(entry.content);
+      }
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+    var bytes = body.toByteArray();
+    var crc = new CRC32();
+    crc.update(bytes);
+    return ByteBuffer.allocate(bytes.length + 8)
+        .putInt(bytes.length)
+        .putInt((int) crc.getValue())
+        .put(bytes)
+        .array();
+  }
+
+  /**
+   * Read the writes of a segment up to the first torn or corrupted one.
+   */
+  private static List<SpoolEntry> read(Path path) throws IOException {
+    var result = new ArrayList<SpoolEntry>();
+    var remaining = Files.size(path);
+    try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+      while (true) {
+        var length = in.readInt();
+        var checksum = in.readInt();
+        remaining -= 8;
+        if (length < 0 || length > remaining) {
+          log.warn("Spool journal {} is torn after {} writes", path, result.size());
+          return result;
+        }
+        remaining -= length;
+        var body = new byte[length];
+        in.readFully(body);
+        var crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != checksum) {
+          log.warn("Spool journal {} is corrupted after {} writes", path, result.size());
+          return result;
+        }
+        result.add(decode(body));
+      }
+    } catch (EOFException exception) {
+      return result;
+    }
+  }
+
+  private static SpoolEntry decode(byte[] body) throws IOException {
+    var in = new DataInputStream(new ByteArrayInputStream(body));
+    var type = in.readByte();
+    var appendedAt = in.readLong();
+    var bucket = in.readUTF();
+    var key = in.readUTF();
+    var length = in.readInt();
+    byte[] content = null;
+    if (length >= 0) {
+      content = new byte[length];
+      in.readFully(content);
+    }
+    return new SpoolEntry(type, bucket, key, content, appendedAt);
+  }
+
+  private static class Segment {
+
+    private final long id;
+    private final Path path;
+    private FileChannel channel;
+    private long size;
+    private int unresolved;
+
+    private Segment(long id, Path path, FileChannel channel) {
+      this.id = id;
+      this.path = path;
+      this.channel = channel;
+    }
+  }
+}
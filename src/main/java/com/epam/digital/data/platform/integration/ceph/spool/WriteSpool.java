@@ -0,0 +1,364 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.spool;
+
+import com.amazonaws.AmazonServiceException;
+import com.epam.digital.data.platform.integration.ceph.config.SpoolProperties;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind spool of string puts. A put is appended to the local journal and acknowledged once
+ * it is durable there, then it is uploaded to Ceph in background with bounded concurrency and
+ * retried until it succeeds or fails with a client error. Only the latest put of a key is
+ * uploaded and puts of the same key are never uploaded concurrently. Spooled contents are
+ * returned by {@link #find(String, String)} until they are uploaded, so reads see them.
+ */
+@Slf4j
+public class WriteSpool {
+
+  private final SpoolProperties properties;
+  private final Executor executor;
+  private final SpoolUploader uploader;
+  private final SpoolJournal journal;
+  private final ScheduledExecutorService retryScheduler;
+  private final Map<List<String>, SpoolEntry> pending = new HashMap<>();
+  private final TreeMap<Long, SpoolEntry> pendingBySequence = new TreeMap<>();
+  private final Map<List<String>, CompletableFuture<Void>> uploading = new HashMap<>();
+  private final ArrayDeque<SpoolEntry> ready = new ArrayDeque<>();
+  private long nextSequence;
+  private boolean closed;
+
+  /**
+   * Create spool and start uploading the puts left in the journal by the previous run.
+   *
+   * @param executor executor running uploads
+   * @param uploader upload of a put to Ceph
+   */
+  public WriteSpool(SpoolProperties properties, Executor executor, SpoolUploader uploader) {
+    this.properties = properties;
+    this.executor = executor;
+    this.uploader = uploader;
+    this.journal = new SpoolJournal(Paths.get(properties.getDirectory()),
+        properties.getSegmentSize());
+    this.retryScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      var thread = new Thread(runnable, "ceph-spool-retry");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      synchronized (this) {
+        journal.open().forEach(this::track);
+      }
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+    dispatch();
+  }
+
+  /**
+   * Stop uploading and retrying, the running uploads finish. Puts which aren't uploaded stay in the
+   * journal and are uploaded by the next run.
+   */
+  public synchronized void close() {
+    closed = true;
+    retryScheduler.shutdownNow();
+  }
+
+  public boolean isSpooled(String cephBucketName) {
+    return properties.getBuckets().contains(cephBucketName);
+  }
+
+  /**
+   * Append put to the journal and wait until it is durable.
+   *
+   * @return false if the journal is full and the content should be put to Ceph directly
+   */
+  public boolean offer(String cephBucketName, String key, byte[] content) {
+    var entry = new SpoolEntry(SpoolEntry.PUT, cephBucketName, key, content,
+        System.currentTimeMillis());
+    long position;
+    synchronized (this) {
+      if (journal.getSize() + content.length > properties.getMaxSize()) {
+        log.warn("Spool is full, content {} is put to ceph bucket {} directly", key,
+            cephBucketName);
+        return false;
+      }
+      position = append(entry);
+      track(entry);
+    }
+    sync(position);
+    dispatch();
+    return true;
+  }
+
+  /**
+   * Discard spooled puts of the keys and wait for their running uploads, so that a direct write
+   * or delete of the keys isn't overwritten by the spool afterwards.
+   */
+  public void discard(String cephBucketName, Collection<String> keys) {
+    var uploads = new ArrayList<CompletableFuture<Void>>();
+    var position = -1L;
+    synchronized (this) {
+      for (var key : keys) {
+        var id = List.of(cephBucketName, key);
+        var upload = uploading.get(id);
+        if (upload == null && !pending.containsKey(id)) {
+          continue;
+        }
+        var entry = new SpoolEntry(SpoolEntry.DELETE, cephBucketName, key, null,
+            System.currentTimeMillis());
+        position = append(entry);
+        track(entry);
+        if (upload != null) {
+          uploads.add(upload);
+        }
+      }
+    }
+    if (position >= 0) {
+      sync(position);
+    }
+    uploads.forEach(CompletableFuture::join);
+  }
+
+  /**
+   * @return spooled content of the key which isn't uploaded yet
+   */
+  public synchronized Optional<byte[]> find(String cephBucketName, String key) {
+    return Optional.ofNullable(pending.get(List.of(cephBucketName, key)))
+        .map(entry -> entry.content);
+  }
+
+  /**
+   * @return keys with the prefix whose puts aren't uploaded yet
+   */
+  public synchronized Set<String> getKeys(String cephBucketName, String prefix) {
+    return pending.keySet().stream()
+        .filter(id -> id.get(0).equals(cephBucketName) && id.get(1).startsWith(prefix))
+        .map(id -> id.get(1))
+        .collect(Collectors.toSet());
+  }
+
+  /**
+   * @return number of puts waiting for upload
+   */
+  public synchronized int getDepth() {
+    return pending.size();
+  }
+
+  /**
+   * @return size of the journal in bytes
+   */
+  public long getSize() {
+    return journal.getSize();
+  }
+
+  /**
+   * @return age of the oldest put waiting for upload in millis, 0 if there is none
+   */
+  public synchronized long getLagMillis() {
+    return pendingBySequence.isEmpty() ? 0L
+        : System.currentTimeMillis() - pendingBySequence.firstEntry().getValue().appendedAt;
+  }
+
+  /**
+   * Wait until all spooled puts are uploaded.
+   *
+   * @return false if the timeout elapsed first
+   */
+  public synchronized boolean awaitUploaded(Duration timeout) throws InterruptedException {
+    var deadline = System.currentTimeMillis() + timeout.toMillis();
+    while (!pending.isEmpty() || !uploading.isEmpty()) {
+      var remaining = deadline - System.currentTimeMillis();
+      if (remaining <= 0) {
+        return false;
+      }
+      wait(remaining);
+    }
+    return true;
+  }
+
+  private long append(SpoolEntry entry) {
+    try {
+      return journal.append(entry);
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  private void sync(long position) {
+    try {
+      journal.sync(position);
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  /**
+   * Apply journaled write to the pending puts, guarded by the monitor of the spool.
+   */
+  private void track(SpoolEntry entry) {
+    var id = entry.id();
+    var previous = entry.isPut() ? pending.put(id, entry) : pending.remove(id);
+    if (previous != null) {
+      pendingBySequence.remove(previous.sequence);
+      // the put being uploaded is released once its upload completes
+      if (!previous.uploading) {
+        journal.release(previous.segment);
+      }
+    }
+    if (entry.isPut()) {
+      entry.sequence = nextSequence++;
+      pendingBySequence.put(entry.sequence, entry);
+      ready.add(entry);
+    }
+    notifyAll();
+  }
+
+  private void dispatch() {
+    var started = new ArrayList<SpoolEntry>();
+    synchronized (this) {
+      while (!closed && uploading.size() < properties.getUploadConcurrency()
+          && !ready.isEmpty()) {
+        var entry = ready.poll();
+        // superseded entries are skipped, the ones of keys being uploaded wait for the upload
+        if (pending.get(entry.id()) != entry || uploading.containsKey(entry.id())) {
+          continue;
+        }
+        uploading.put(entry.id(), new CompletableFuture<>());
+        entry.uploading = true;
+        started.add(entry);
+      }
+    }
+    started.forEach(entry -> executor.execute(() -> upload(entry)));
+  }
+
+  private void upload(SpoolEntry entry) {
+    RuntimeException failure = null;
+    try {
+      uploader.upload(entry.bucket, entry.key, entry.content);
+    } catch (RuntimeException exception) {
+      failure = exception;
+    }
+    var resolved = failure == null || !isRetryable(failure);
+    if (resolved) {
+      markUploaded(entry);
+    }
+    synchronized (this) {
+      var id = entry.id();
+      entry.uploading = false;
+      uploading.remove(id).complete(null);
+      var latest = pending.get(id);
+      if (failure == null || latest == entry && resolved) {
+        if (failure != null) {
+          log.error("Spooled content {} wasn't put to ceph bucket {} and is dropped", entry.key,
+              entry.bucket, failure);
+        }
+        if (latest == entry) {
+          pending.remove(id);
+          pendingBySequence.remove(entry.sequence);
+        }
+        journal.release(entry.segment);
+      } else if (latest == entry && closed) {
+        log.warn("Spooled content {} wasn't put to ceph bucket {}, it is uploaded after restart",
+            entry.key, entry.bucket, failure);
+      } else if (latest == entry) {
+        entry.attempts++;
+        var delay = retryDelay(entry.attempts);
+        log.warn("Spooled content {} wasn't put to ceph bucket {}, attempt {}, retry in {}",
+            entry.key, entry.bucket, entry.attempts, delay, failure);
+        retryScheduler.schedule(() -> retry(entry), delay.toMillis(), TimeUnit.MILLISECONDS);
+      } else {
+        journal.release(entry.segment);
+      }
+      if (latest != null && latest != entry) {
+        ready.add(latest);
+      }
+      notifyAll();
+    }
+    dispatch();
+  }
+
+  /**
+   * Journal that the put is uploaded or dropped before it is released, so that a replay doesn't
+   * upload it again over a later direct write of the key. Nothing is journaled if a later write of
+   * the key supersedes the put, as that write resolves it on replay.
+   */
+  private void markUploaded(SpoolEntry entry) {
+    try {
+      long position;
+      synchronized (this) {
+        if (pending.get(entry.id()) != entry) {
+          return;
+        }
+        position = append(new SpoolEntry(SpoolEntry.UPLOADED, entry.bucket, entry.key, null,
+            System.currentTimeMillis()));
+      }
+      sync(position);
+    } catch (UncheckedIOException exception) {
+      log.warn("Upload of spooled content {} to ceph bucket {} wasn't journaled, it is uploaded "
+          + "again after restart", entry.key, entry.bucket, exception);
+    }
+  }
+
+  private void retry(SpoolEntry entry) {
+    synchronized (this) {
+      if (pending.get(entry.id()) == entry) {
+        ready.addFirst(entry);
+      }
+    }
+    dispatch();
+  }
+
+  private Duration retryDelay(int attempts) {
+    var delay = properties.getRetryDelay().multipliedBy(1L << Math.min(attempts - 1, 20));
+    return delay.compareTo(properties.getMaxRetryDelay()) > 0
+        ? properties.getMaxRetryDelay() : delay;
+  }
+
+  /**
+   * Client errors except timeouts and throttling won't succeed on retry.
+   */
+  private static boolean isRetryable(Throwable failure) {
+    for (var cause = failure; cause != null; cause = cause.getCause()) {
+      if (cause instanceof AmazonServiceException) {
+        var statusCode = ((AmazonServiceException) cause).getStatusCode();
+        return statusCode >= 500 || statusCode == 408 || statusCode == 429;
+      }
+    }
+    return true;
+  }
+}
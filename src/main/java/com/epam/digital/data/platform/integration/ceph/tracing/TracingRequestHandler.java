@@ -0,0 +1,195 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.epam.digital.data.platform.integration.ceph.tracing;
+
+import brave.Span;
+import brave.Tracing;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerAfterAttemptContext;
+import com.amazonaws.handlers.HandlerBeforeAttemptContext;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.handlers.RequestHandler2;
+import com.amazonaws.metrics.RequestMetricCollector;
+import com.amazonaws.util.AWSRequestMetrics.Field;
+import com.amazonaws.util.TimingInfo;
+import com.epam.digital.data.platform.integration.ceph.routing.BucketNames;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Request handler that traces every request sent to Ceph, including its retries, as a client
+ * span. A span is started only within a current span, so that the requests are children of the
+ * service call that sent them, e.g. of a {@code @NewSpan} method of {@code CephService}.
+ * <p>
+ * Time spent acquiring a connection and the number of requests waiting for a pooled connection
+ * are only known if the client has an enabled metric collector, use {@link #TIMING_COLLECTOR} if
+ * there is no other one.
+ */
+public class TracingRequestHandler extends RequestHandler2 {
+
+  public static final String OPERATION_TAG = "aws.operation";
+  public static final String BUCKET_TAG = "ceph.bucket";
+  public static final String STATUS_CODE_TAG = "http.status_code";
+  public static final String ATTEMPTS_TAG = "aws.attempts";
+  public static final String REQUEST_SIZE_TAG = "http.request.size";
+  public static final String RESPONSE_SIZE_TAG = "http.response.size";
+  public static final String CONNECTION_WAIT_TAG = "http.connection_wait_ms";
+  public static final String POOL_PENDING_TAG = "http.pool_pending";
+
+  /**
+   * Metric collector that collects nothing, but makes the client record request timings.
+   */
+  public static final RequestMetricCollector TIMING_COLLECTOR = new RequestMetricCollector() {
+    @Override
+    public void collectMetrics(Request<?> request, Response<?> response) {
+      // timings are read by the handler
+    }
+  };
+
+  private static final HandlerContextKey<Span> SPAN = new HandlerContextKey<>("CephSpan");
+  private static final HandlerContextKey<AtomicInteger> ATTEMPTS =
+      new HandlerContextKey<>("CephAttempts");
+  private static final String CONTENT_LENGTH = "Content-Length";
+
+  @Override
+  public void beforeRequest(Request<?> request) {
+    var tracing = Tracing.current();
+    if (tracing == null || tracing.tracer().currentSpan() == null) {
+      return;
+    }
+    var operation = getOperation(request);
+    var span = tracing.tracer().nextSpan().name(operation).kind(Span.Kind.CLIENT)
+        .remoteServiceName("ceph");
+    span.tag(OPERATION_TAG, operation);
+    var bucket = BucketNames.of(request.getOriginalRequest());
+    if (bucket != null) {
+      span.tag(BUCKET_TAG, bucket);
+    }
+    var requestSize = request.getHeaders().get(CONTENT_LENGTH);
+    if (requestSize != null) {
+      span.tag(REQUEST_SIZE_TAG, requestSize);
+    }
+    request.addHandlerContext(SPAN, span.start());
+    request.addHandlerContext(ATTEMPTS, new AtomicInteger());
+  }
+
+  @Override
+  public void beforeAttempt(HandlerBeforeAttemptContext context) {
+    var attempts = context.getRequest().getHandlerContext(ATTEMPTS);
+    if (attempts != null) {
+      attempts.incrementAndGet();
+    }
+  }
+
+  @Override
+  public void afterAttempt(HandlerAfterAttemptContext context) {
+    var span = context.getRequest().getHandlerContext(SPAN);
+    if (span != null && context.getException() != null) {
+      span.annotate("attempt failed: " + context.getException().getClass().getSimpleName());
+    }
+  }
+
+  @Override
+  public void afterResponse(Request<?> request, Response<?> response) {
+    var span = request.getHandlerContext(SPAN);
+    if (span == null) {
+      return;
+    }
+    if (response != null && response.getHttpResponse() != null) {
+      var httpResponse = response.getHttpResponse();
+      span.tag(STATUS_CODE_TAG, String.valueOf(httpResponse.getStatusCode()));
+      var responseSize = httpResponse.getHeaderValues(CONTENT_LENGTH);
+      if (responseSize != null && !responseSize.isEmpty()) {
+        span.tag(RESPONSE_SIZE_TAG, responseSize.get(0));
+      }
+    }
+    finish(request, span);
+  }
+
+  @Override
+  public void afterError(Request<?> request, Response<?> response, Exception exception) {
+    var span = request.getHandlerContext(SPAN);
+    if (span == null) {
+      return;
+    }
+    if (response != null && response.getHttpResponse() != null) {
+      span.tag(STATUS_CODE_TAG, String.valueOf(response.getHttpResponse().getStatusCode()));
+    } else if (exception instanceof AmazonServiceException) {
+      span.tag(STATUS_CODE_TAG,
+          String.valueOf(((AmazonServiceException) exception).getStatusCode()));
+    }
+    span.error(exception);
+    finish(request, span);
+  }
+
+  private void finish(Request<?> request, Span span) {
+    var attempts = request.getHandlerContext(ATTEMPTS);
+    span.tag(ATTEMPTS_TAG, String.valueOf(attempts.get()));
+    var metrics = request.getAWSRequestMetrics();
+    if (metrics != null && metrics.isEnabled()) {
+      var connectionWait = getConnectionWaitMillis(metrics.getTimingInfo());
+      if (connectionWait >= 0) {
+        span.tag(CONNECTION_WAIT_TAG, String.valueOf(connectionWait));
+      }
+      var poolPending = metrics.getTimingInfo().getCounter(Field.HttpClientPoolPendingCount.name());
+      if (poolPending != null) {
+        span.tag(POOL_PENDING_TAG, String.valueOf(poolPending));
+      }
+    }
+    span.finish();
+  }
+
+  private static String getOperation(Request<?> request) {
+    var operation = request.getHandlerContext(HandlerContextKey.OPERATION_NAME);
+    if (operation != null) {
+      return operation;
+    }
+    var originalRequest = request.getOriginalRequest();
+    return originalRequest == null ? request.getHttpMethod().name()
+        : originalRequest.getClass().getSimpleName().replaceFirst("Request$", "");
+  }
+
+  /**
+   * The client doesn't measure a connection lease of a request, so it is estimated as the time of
+   * the attempts except sending the request and receiving the response.
+   *
+   * @return time in millis spent acquiring a connection by all attempts, -1 if it isn't known
+   */
+  private static long getConnectionWaitMillis(TimingInfo timingInfo) {
+    var requestTime = getTotalMillis(timingInfo, Field.HttpRequestTime);
+    if (requestTime < 0d) {
+      return -1L;
+    }
+    var exchangeTime = Math.max(getTotalMillis(timingInfo, Field.HttpClientSendRequestTime), 0d)
+        + Math.max(getTotalMillis(timingInfo, Field.HttpClientReceiveResponseTime), 0d);
+    return Math.max(Math.round(requestTime - exchangeTime), 0L);
+  }
+
+  private static double getTotalMillis(TimingInfo timingInfo, Field field) {
+    var measurements = timingInfo.getAllSubMeasurements(field.name());
+    if (measurements == null || measurements.isEmpty()) {
+      return -1d;
+    }
+    var total = 0d;
+    for (var measurement : measurements) {
+      var time = measurement.getTimeTakenMillisIfKnown();
+      total += time == null ? 0d : time;
+    }
+    return total;
+  }
+}
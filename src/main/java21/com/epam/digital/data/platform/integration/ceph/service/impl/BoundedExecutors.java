@@ -0,0 +1,104 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.service.impl;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded executors of Java 21+. Every task gets a virtual thread, which waits for a permit of
+ * a semaphore sized to the parallelism, so tasks blocked on IO don't hold platform threads and
+ * the number of concurrent requests still doesn't exceed the connection pool. Tasks still waiting
+ * for a permit are dropped by {@code shutdownNow()}, like the queued tasks of a thread pool.
+ */
+final class BoundedExecutors {
+
+  private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+  private BoundedExecutors() {
+  }
+
+  static ExecutorService newExecutor(int parallelism) {
+    var threadFactory = Thread.ofVirtual()
+        .name("ceph-client-" + POOL_NUMBER.incrementAndGet() + "-", 1)
+        .factory();
+    return new SemaphoreExecutor(Executors.newThreadPerTaskExecutor(threadFactory),
+        new Semaphore(parallelism));
+  }
+
+  private static class SemaphoreExecutor extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private volatile boolean stopped;
+
+    SemaphoreExecutor(ExecutorService delegate, Semaphore permits) {
+      this.delegate = delegate;
+      this.permits = permits;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      delegate.execute(() -> {
+        try {
+          permits.acquire();
+        } catch (InterruptedException exception) {
+          return;
+        }
+        try {
+          if (!stopped) {
+            command.run();
+          }
+        } finally {
+          permits.release();
+        }
+      });
+    }
+
+    @Override
+    public void shutdown() {
+      delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      stopped = true;
+      return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+      return delegate.awaitTermination(timeout, unit);
+    }
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.balancer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.SdkClientException;
+import com.amazonaws.services.s3.AmazonS3;
+import com.epam.digital.data.platform.integration.ceph.config.BalancerProperties;
+import com.epam.digital.data.platform.integration.ceph.config.BalancerProperties.Strategy;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class EndpointBalancerTest {
+
+  @Mock
+  private AmazonS3 first;
+  @Mock
+  private AmazonS3 second;
+
+  private final AtomicLong clock = new AtomicLong();
+  private BalancerProperties properties;
+  private EndpointBalancer balancer;
+  private AmazonS3 client;
+
+  @BeforeEach
+  void before() {
+    properties = new BalancerProperties();
+    properties.setFailureThreshold(2);
+    properties.setEjectionDuration(Duration.ofSeconds(10));
+    var clients = new LinkedHashMap<String, AmazonS3>();
+    clients.put("first", first);
+    clients.put("second", second);
+    balancer = new EndpointBalancer(clients, properties, clock::get);
+    client = EndpointBalancer.proxy(balancer);
+  }
+
+  @Test
+  void shouldSpreadRequestsBetweenIdleEndpoints() {
+    client.doesObjectExist("bucket", "key");
+    client.doesObjectExist("bucket", "key");
+
+    verify(first).doesObjectExist("bucket", "key");
+    verify(second).doesObjectExist("bucket", "key");
+  }
+
+  @Test
+  void shouldRouteToEndpointWithLeastOutstandingRequests() {
+    var endpoints = EndpointBalancer.getEndpoints(client);
+    endpoints.get(0).onRequestStarted();
+
+    assertThat(balancer.choose().getEndpoint()).isEqualTo("second");
+    assertThat(balancer.choose().getEndpoint()).isEqualTo("second");
+  }
+
+  @Test
+  void shouldRouteToEndpointWithLowerLatency() {
+    properties.setStrategy(Strategy.LATENCY_EWMA);
+    var endpoints = EndpointBalancer.getEndpoints(client);
+    endpoints.get(0).onSuccess(Duration.ofMillis(100).toNanos(), 0.3);
+    endpoints.get(1).onSuccess(Duration.ofMillis(10).toNanos(), 0.3);
+
+    assertThat(balancer.choose().getEndpoint()).isEqualTo("second");
+    assertThat(balancer.choose().getEndpoint()).isEqualTo("second");
+  }
+
+  @Test
+  void shouldEjectFailingEndpointAndReturnItAfterEjection() {
+    when(first.doesObjectExist("bucket", "key")).thenThrow(new SdkClientException("refused"));
+    var notFound = new AmazonServiceException("not found");
+    notFound.setStatusCode(404);
+    when(second.doesObjectExist("bucket", "key")).thenThrow(notFound);
+
+    for (int i = 0; i < 4; i++) {
+      assertThrows(Exception.class, () -> client.doesObjectExist("bucket", "key"));
+    }
+    var endpoints = EndpointBalancer.getEndpoints(client);
+    assertThat(endpoints.get(0).isHealthy()).isFalse();
+    assertThat(endpoints.get(1).isHealthy()).isTrue();
+
+    assertThrows(AmazonServiceException.class, () -> client.doesObjectExist("bucket", "key"));
+    verify(first, times(2)).doesObjectExist("bucket", "key");
+
+    clock.addAndGet(Duration.ofSeconds(10).toNanos());
+    assertThat(endpoints.get(0).isAvailable(clock.get())).isTrue();
+    assertThat(endpoints.get(0).isHealthy()).isTrue();
+  }
+
+  @Test
+  void shouldShutdownAllClients() {
+    client.shutdown();
+
+    verify(first).shutdown();
+    verify(second).shutdown();
+  }
+}
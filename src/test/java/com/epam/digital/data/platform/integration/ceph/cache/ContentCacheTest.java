@@ -0,0 +1,128 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.epam.digital.data.platform.integration.ceph.config.CacheProperties;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ContentCacheTest {
+
+  private static final String BUCKET = "bucket";
+
+  @TempDir
+  Path directory;
+
+  private CacheProperties properties;
+
+  @BeforeEach
+  void before() {
+    properties = new CacheProperties();
+    properties.setEnabled(true);
+    properties.setDirectory(directory.toString());
+    properties.setBuckets(List.of(BUCKET));
+    properties.setMinObjectSize(1L);
+    properties.setMaxSize(10L);
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldCacheContentReadToTheEnd() {
+    var cache = new ContentCache(properties);
+
+    var content = cache.put(BUCKET, "key", "etag", 5L, stream("12345"));
+    assertThat(cache.get(BUCKET, "key", "etag")).isEmpty();
+    assertThat(content.readAllBytes()).isEqualTo("12345".getBytes());
+
+    assertThat(read(cache.get(BUCKET, "key", "etag").orElseThrow())).isEqualTo("12345");
+    assertThat(cache.get(BUCKET, "key", "otherEtag")).isEmpty();
+    assertThat(cache.getSize()).isEqualTo(5L);
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldNotCachePartiallyReadContent() {
+    var cache = new ContentCache(properties);
+
+    try (var content = cache.put(BUCKET, "key", "etag", 5L, stream("12345"))) {
+      assertThat(content.read()).isEqualTo('1');
+    }
+
+    assertThat(cache.get(BUCKET, "key", "etag")).isEmpty();
+    assertThat(cache.getSize()).isZero();
+    try (var files = Files.list(directory)) {
+      assertThat(files.count()).isZero();
+    }
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldEvictLeastRecentlyUsedContent() {
+    var cache = new ContentCache(properties);
+    cache.put(BUCKET, "first", "etag", 4L, stream("1111")).readAllBytes();
+    cache.put(BUCKET, "second", "etag", 4L, stream("2222")).readAllBytes();
+    read(cache.get(BUCKET, "first", "etag").orElseThrow());
+
+    cache.put(BUCKET, "third", "etag", 4L, stream("3333")).readAllBytes();
+
+    assertThat(cache.get(BUCKET, "first", "etag")).isPresent();
+    assertThat(cache.get(BUCKET, "second", "etag")).isEmpty();
+    assertThat(cache.get(BUCKET, "third", "etag")).isPresent();
+    assertThat(cache.getSize()).isEqualTo(8L);
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldNotCacheContentBiggerThanCache() {
+    var cache = new ContentCache(properties);
+    var remoteContent = stream("12345678901");
+
+    assertThat(cache.put(BUCKET, "key", "etag", 11L, remoteContent)).isSameAs(remoteContent);
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldLoadCachedContentAfterRestart() {
+    new ContentCache(properties).put(BUCKET, "key", "etag", 5L, stream("12345")).readAllBytes();
+
+    var cache = new ContentCache(properties);
+
+    assertThat(read(cache.get(BUCKET, "key", "etag").orElseThrow())).isEqualTo("12345");
+    assertThat(cache.getSize()).isEqualTo(5L);
+  }
+
+  private static InputStream stream(String content) {
+    return new ByteArrayInputStream(content.getBytes());
+  }
+
+  private static String read(InputStream content) throws IOException {
+    try (content) {
+      return new String(content.readAllBytes());
+    }
+  }
+}
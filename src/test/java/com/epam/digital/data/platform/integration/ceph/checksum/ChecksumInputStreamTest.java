@@ -0,0 +1,56 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.checksum;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.epam.digital.data.platform.integration.ceph.exception.ChecksumMismatchException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+class ChecksumInputStreamTest {
+
+  private static final byte[] CONTENT = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+  @Test
+  void shouldComputeCrc32cChecksum() {
+    assertThat(ChecksumAlgorithm.CRC32C.checksumOf(CONTENT)).isEqualTo("4waSgw==");
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldComputeChecksumWhileReading() {
+    var checksum = ChecksumAlgorithm.SHA256.checksumOf(CONTENT);
+    var stream = new ChecksumInputStream(new ByteArrayInputStream(CONTENT),
+        ChecksumAlgorithm.SHA256, checksum);
+
+    assertThat(stream.readAllBytes()).isEqualTo(CONTENT);
+    assertThat(stream.getChecksum()).isEqualTo(checksum);
+  }
+
+  @Test
+  void shouldFailAtTheEndOfContentWithWrongChecksum() {
+    var stream = new ChecksumInputStream(new ByteArrayInputStream(CONTENT),
+        ChecksumAlgorithm.MD5, ChecksumAlgorithm.MD5.checksumOf(new byte[0]));
+
+    assertThrows(ChecksumMismatchException.class, stream::readAllBytes);
+  }
+}
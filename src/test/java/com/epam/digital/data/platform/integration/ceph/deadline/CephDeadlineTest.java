@@ -0,0 +1,129 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.deadline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.handlers.HandlerBeforeAttemptContext;
+import com.amazonaws.http.timers.client.ClientExecutionTimeoutException;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.epam.digital.data.platform.integration.ceph.exception.CephTimeoutException;
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+class CephDeadlineTest {
+
+  private final DeadlineRequestHandler handler = new DeadlineRequestHandler();
+
+  @Test
+  void shouldBoundRequestByRemainingTime() {
+    var request = new GetObjectRequest("bucket", "key");
+
+    try (var scope = CephDeadline.within(Duration.ofSeconds(5))) {
+      handler.beforeExecution(request);
+    }
+
+    assertThat(request.getSdkClientExecutionTimeout()).isBetween(1, 5000);
+    assertThat(CephDeadline.remaining()).isEmpty();
+  }
+
+  @Test
+  void shouldNotExtendDeadlineByNestedScope() {
+    try (var outer = CephDeadline.within(Duration.ofMillis(500))) {
+      try (var inner = CephDeadline.within(Duration.ofMinutes(1))) {
+        assertThat(CephDeadline.remaining()).get()
+            .matches(remaining -> remaining.compareTo(Duration.ofMillis(500)) <= 0);
+      }
+      assertThat(CephDeadline.remaining()).isPresent();
+    }
+    assertThat(CephDeadline.remaining()).isEmpty();
+  }
+
+  @Test
+  void shouldFailFastOnceDeadlineIsExceeded() {
+    var request = new GetObjectRequest("bucket", "key");
+
+    try (var scope = CephDeadline.within(Duration.ZERO)) {
+      assertThrows(CephTimeoutException.class, () -> handler.beforeExecution(request));
+      assertThrows(CephTimeoutException.class, () -> handler.beforeAttempt(
+          HandlerBeforeAttemptContext.builder().build()));
+    }
+  }
+
+  @Test
+  void shouldRunWrappedTaskWithinDeadlineOfSubmitter() {
+    Runnable task;
+    try (var scope = CephDeadline.within(Duration.ofSeconds(5))) {
+      task = CephDeadline.wrap(() -> assertThat(CephDeadline.remaining()).isPresent());
+    }
+
+    task.run();
+
+    assertThat(CephDeadline.remaining()).isEmpty();
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldAbortSlowRequestAndItsRetriesAtDeadline() {
+    var requests = new AtomicInteger();
+    var server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", exchange -> {
+      requests.incrementAndGet();
+      try {
+        Thread.sleep(2000L);
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+      exchange.sendResponseHeaders(503, -1);
+      exchange.close();
+    });
+    server.start();
+    try {
+      var client = AmazonS3ClientBuilder.standard()
+          .withCredentials(new AWSStaticCredentialsProvider(
+              new BasicAWSCredentials("access", "secret")))
+          .withEndpointConfiguration(new EndpointConfiguration(
+              "http://localhost:" + server.getAddress().getPort(), "us-east-1"))
+          .withPathStyleAccessEnabled(true)
+          .withRequestHandlers(handler)
+          .build();
+      var startedAt = System.nanoTime();
+
+      try (var scope = CephDeadline.within(Duration.ofMillis(300))) {
+        assertThrows(ClientExecutionTimeoutException.class,
+            () -> client.getObjectAsString("bucket", "key"));
+      }
+
+      assertThat(Duration.ofNanos(System.nanoTime() - startedAt)).isLessThan(
+          Duration.ofMillis(1500));
+      assertThat(requests).hasValue(1);
+      client.shutdown();
+    } finally {
+      server.stop(0);
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.dedup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.epam.digital.data.platform.integration.ceph.config.DedupProperties;
+import com.epam.digital.data.platform.integration.ceph.service.InMemoryBucket;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class DedupStoreTest {
+
+  private static final String BUCKET = "bucket";
+
+  @TempDir
+  Path directory;
+
+  @Mock
+  private AmazonS3 amazonS3;
+
+  @Test
+  @SneakyThrows
+  void shouldPutSameContentOnceAndPointersToIt() {
+    var bucket = InMemoryBucket.stub(amazonS3, BUCKET);
+    var properties = new DedupProperties();
+    properties.setBuckets(List.of(BUCKET));
+    properties.setDirectory(directory.toString());
+    var store = new DedupStore(amazonS3, properties);
+
+    var first = store.put(BUCKET, "doc/1", "text/plain", Map.of("owner", "1"), stream("content"));
+    var second = store.put(BUCKET, "doc/2", "text/plain", null, stream("content"));
+
+    var contentKey = DedupStore.getContentKey(first).orElseThrow();
+    assertThat(store.isContentKey(contentKey)).isTrue();
+    assertThat(DedupStore.getContentKey(second)).contains(contentKey);
+    assertThat(bucket.getPutKeys()).containsExactly(contentKey, "doc/1", "doc/2");
+    assertThat(new String(bucket.getContent(contentKey), StandardCharsets.UTF_8))
+        .isEqualTo("content");
+    var contentMetadata = DedupStore.toContentMetadata(first);
+    assertThat(contentMetadata.getContentLength()).isEqualTo(7L);
+    assertThat(contentMetadata.getUserMetadata()).containsOnly(Map.entry("owner", "1"));
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldBufferBigContentInTemporaryFileWhileHashing() {
+    var content = "0123456789".repeat(10);
+
+    try (var buffer = ContentBuffer.read(stream(content), 16, directory)) {
+      assertThat(buffer.getSize()).isEqualTo(content.length());
+      assertThat(buffer.getHash()).hasSize(64);
+      try (var bufferedContent = buffer.open()) {
+        assertThat(new String(bufferedContent.readAllBytes(), StandardCharsets.UTF_8))
+            .isEqualTo(content);
+      }
+      try (var files = Files.list(directory)) {
+        assertThat(files).hasSize(1);
+      }
+    }
+
+    try (var files = Files.list(directory)) {
+      assertThat(files).isEmpty();
+    }
+  }
+
+  private static InputStream stream(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
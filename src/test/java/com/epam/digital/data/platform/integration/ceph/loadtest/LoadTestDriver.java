@@ -0,0 +1,171 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.loadtest;
+
+import com.epam.digital.data.platform.integration.ceph.config.S3ConfigProperties;
+import com.epam.digital.data.platform.integration.ceph.factory.CephS3Factory;
+import com.epam.digital.data.platform.integration.ceph.service.CephService;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Runs a mixed workload against Ceph or a local S3 stand-in through {@link CephService} created
+ * by {@link CephS3Factory}. Workers run the operations chosen by the operation mix for the
+ * warm-up period without measuring and then for the measured duration. Run it with the
+ * {@code loadtest.*} system properties described in README.
+ */
+@Slf4j
+public class LoadTestDriver {
+
+  private static final String CONTENT_TYPE = "application/octet-stream";
+  private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+  private static final int SIGNIFICANT_DIGITS = 3;
+
+  private final CephService cephService;
+  private final LoadTestOptions options;
+  private final Map<Operation, Recorder> recorders = new EnumMap<>(Operation.class);
+  private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+  private volatile boolean measuring;
+
+  LoadTestDriver(CephService cephService, LoadTestOptions options) {
+    this.cephService = cephService;
+    this.options = options;
+    for (var operation : Operation.values()) {
+      recorders.put(operation, new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS));
+      errors.put(operation, new AtomicLong());
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    var options = LoadTestOptions.fromSystemProperties();
+    var s3ConfigProperties = new S3ConfigProperties();
+    s3ConfigProperties.getClient().setMaxConnections(options.getConcurrency());
+    var cephService = new CephS3Factory(s3ConfigProperties)
+        .createCephService(options.getEndpoint(), options.getAccessKey(), options.getSecretKey());
+    var report = new LoadTestDriver(cephService, options).run();
+    report.write(Path.of(options.getReportDirectory()));
+    System.out.print(report.toText());
+  }
+
+  LoadTestReport run() throws InterruptedException, ExecutionException {
+    populate();
+    var workers = Executors.newFixedThreadPool(options.getConcurrency());
+    try {
+      var deadline = System.nanoTime() + options.getWarmUp().toNanos()
+          + options.getDuration().toNanos();
+      var tasks = Collections.nCopies(options.getConcurrency(),
+          Executors.callable(() -> work(deadline)));
+      var futures = tasks.stream().map(workers::submit).toArray(Future[]::new);
+      Thread.sleep(options.getWarmUp().toMillis());
+      recorders.values().forEach(Recorder::reset);
+      errors.values().forEach(counter -> counter.set(0L));
+      measuring = true;
+      var startedAt = System.nanoTime();
+      for (var future : futures) {
+        future.get();
+      }
+      var duration = Duration.ofNanos(System.nanoTime() - startedAt);
+      var histograms = new EnumMap<Operation, Histogram>(Operation.class);
+      var errorCounts = new EnumMap<Operation, Long>(Operation.class);
+      for (var operation : options.getOperationMix().getValues()) {
+        histograms.put(operation, recorders.get(operation).getIntervalHistogram());
+        errorCounts.put(operation, errors.get(operation).get());
+      }
+      return new LoadTestReport(duration, histograms, errorCounts);
+    } finally {
+      workers.shutdownNow();
+    }
+  }
+
+  private void populate() {
+    log.info("Putting {} objects to bucket {}", options.getObjects(), options.getBucket());
+    var random = new Random();
+    for (var i = 0; i < options.getObjects(); i++) {
+      put(objectKey(i), options.getObjectSizes().choose(random));
+    }
+  }
+
+  private void work(long deadline) {
+    var random = ThreadLocalRandom.current();
+    while (System.nanoTime() < deadline && !Thread.currentThread().isInterrupted()) {
+      var operation = options.getOperationMix().choose(random);
+      var startedAt = System.nanoTime();
+      try {
+        execute(operation, random);
+        if (measuring) {
+          recorders.get(operation).recordValue(
+              Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startedAt),
+                  HIGHEST_TRACKABLE_MICROS));
+        }
+      } catch (RuntimeException | IOException exception) {
+        errors.get(operation).incrementAndGet();
+        log.debug("Operation {} failed", operation, exception);
+      }
+    }
+  }
+
+  private void execute(Operation operation, Random random) throws IOException {
+    var key = objectKey(random.nextInt(options.getObjects()));
+    switch (operation) {
+      case GET:
+        var object = cephService.get(options.getBucket(), key);
+        if (object.isPresent()) {
+          try (var content = object.get().getContent()) {
+            content.transferTo(OutputStream.nullOutputStream());
+          }
+        }
+        break;
+      case PUT:
+        put(key, options.getObjectSizes().choose(random));
+        break;
+      case LIST:
+        cephService.getKeys(options.getBucket(), options.getKeyPrefix());
+        break;
+      default:
+        cephService.getMetadata(options.getBucket(), Set.of(key));
+    }
+  }
+
+  private void put(String key, int size) {
+    var content = new byte[size];
+    ThreadLocalRandom.current().nextBytes(content);
+    cephService.put(options.getBucket(), key, CONTENT_TYPE, size, Collections.emptyMap(),
+        new ByteArrayInputStream(content));
+  }
+
+  private String objectKey(int index) {
+    return options.getKeyPrefix() + "object-" + index;
+  }
+}
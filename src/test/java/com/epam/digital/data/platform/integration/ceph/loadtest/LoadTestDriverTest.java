@@ -0,0 +1,60 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.epam.digital.data.platform.integration.ceph.service.CephService;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Locale;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LoadTestDriverTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  @SneakyThrows
+  void shouldReportLatenciesOfOperationMix() {
+    var options = LoadTestOptions.builder()
+        .bucket("bucket")
+        .keyPrefix("load-test/")
+        .objects(10)
+        .concurrency(2)
+        .warmUp(Duration.ZERO)
+        .duration(Duration.ofMillis(200))
+        .operationMix(new WeightedChoice<>("list=1,metadata=1",
+            value -> Operation.valueOf(value.toUpperCase(Locale.ROOT))))
+        .objectSizes(new WeightedChoice<>("16=1", Integer::valueOf))
+        .build();
+
+    var report = new LoadTestDriver(mock(CephService.class), options).run();
+    report.write(directory);
+
+    assertThat(report.toText()).contains("LIST", "METADATA").doesNotContain("GET");
+    assertThat(Files.readString(directory.resolve("report.json")))
+        .contains("\"list\"", "\"metadata\"", "\"p99.0\"");
+    assertThat(directory.resolve("list.hgrm")).exists();
+  }
+}
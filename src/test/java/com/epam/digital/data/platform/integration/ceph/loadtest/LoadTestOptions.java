@@ -0,0 +1,76 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.loadtest;
+
+import java.time.Duration;
+import java.util.Locale;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Options of the load test read from {@code loadtest.*} system properties. By default the load
+ * test targets a local S3 stand-in (e.g. MinIO or LocalStack) at {@code http://localhost:9000}.
+ */
+@Data
+@Builder
+class LoadTestOptions {
+
+  private static final String PREFIX = "loadtest.";
+
+  private String endpoint;
+  private String accessKey;
+  private String secretKey;
+  private String bucket;
+  private String keyPrefix;
+  /**
+   * Number of objects put before the measurement, read by get and metadata operations.
+   */
+  private int objects;
+  private int concurrency;
+  private Duration warmUp;
+  private Duration duration;
+  private WeightedChoice<Operation> operationMix;
+  /**
+   * Sizes in bytes of the objects written by put operations.
+   */
+  private WeightedChoice<Integer> objectSizes;
+  private String reportDirectory;
+
+  static LoadTestOptions fromSystemProperties() {
+    return LoadTestOptions.builder()
+        .endpoint(property("endpoint", "http://localhost:9000"))
+        .accessKey(property("accessKey", "minioadmin"))
+        .secretKey(property("secretKey", "minioadmin"))
+        .bucket(property("bucket", "load-test"))
+        .keyPrefix(property("keyPrefix", "load-test/"))
+        .objects(Integer.parseInt(property("objects", "1000")))
+        .concurrency(Integer.parseInt(property("concurrency", "16")))
+        .warmUp(Duration.parse(property("warmUp", "PT10S")))
+        .duration(Duration.parse(property("duration", "PT1M")))
+        .operationMix(new WeightedChoice<>(property("mix", "get=70,put=20,list=5,metadata=5"),
+            value -> Operation.valueOf(value.toUpperCase(Locale.ROOT))))
+        .objectSizes(new WeightedChoice<>(property("sizes", "2048=80,65536=15,4194304=5"),
+            Integer::valueOf))
+        .reportDirectory(property("reportDirectory", "target/load-test"))
+        .build();
+  }
+
+  private static String property(String name, String defaultValue) {
+    return System.getProperty(PREFIX + name, defaultValue);
+  }
+}
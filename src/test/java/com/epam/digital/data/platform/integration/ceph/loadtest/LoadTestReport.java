@@ -0,0 +1,114 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency percentiles and throughput of the measured operations. Latencies are recorded in
+ * microseconds and reported in milliseconds.
+ */
+class LoadTestReport {
+
+  private static final double MICROS_IN_MILLI = 1000.0;
+  private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+
+  private final Duration duration;
+  private final Map<Operation, Histogram> histograms;
+  private final Map<Operation, Long> errors;
+
+  LoadTestReport(Duration duration, Map<Operation, Histogram> histograms,
+      Map<Operation, Long> errors) {
+    this.duration = duration;
+    this.histograms = histograms;
+    this.errors = errors;
+  }
+
+  String toText() {
+    var text = new StringBuilder(String.format(Locale.ROOT,
+        "%-9s %10s %10s %8s %9s %9s %9s %9s %9s%n", "operation", "count", "ops/s", "errors",
+        "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+    histograms.forEach((operation, histogram) -> {
+      text.append(String.format(Locale.ROOT, "%-9s %10d %10.1f %8d", operation,
+          histogram.getTotalCount(), throughput(histogram), errors.get(operation)));
+      for (var percentile : PERCENTILES) {
+        text.append(String.format(Locale.ROOT, " %9.2f", millis(
+            histogram.getValueAtPercentile(percentile))));
+      }
+      text.append(String.format(Locale.ROOT, " %9.2f%n", millis(histogram.getMaxValue())));
+    });
+    return text.toString();
+  }
+
+  Map<String, Object> toJson() {
+    var operations = new LinkedHashMap<String, Object>();
+    histograms.forEach((operation, histogram) -> {
+      var latencies = new LinkedHashMap<String, Object>();
+      for (var percentile : PERCENTILES) {
+        latencies.put("p" + percentile, millis(histogram.getValueAtPercentile(percentile)));
+      }
+      latencies.put("max", millis(histogram.getMaxValue()));
+      latencies.put("mean", histogram.getMean() / MICROS_IN_MILLI);
+      var report = new LinkedHashMap<String, Object>();
+      report.put("count", histogram.getTotalCount());
+      report.put("throughput", throughput(histogram));
+      report.put("errors", errors.get(operation));
+      report.put("latencyMillis", latencies);
+      operations.put(operation.name().toLowerCase(Locale.ROOT), report);
+    });
+    var json = new LinkedHashMap<String, Object>();
+    json.put("durationSeconds", duration.toMillis() / MICROS_IN_MILLI);
+    json.put("operations", operations);
+    return json;
+  }
+
+  /**
+   * Write text and JSON reports and HdrHistogram percentile distribution of every operation,
+   * which can be plotted with HdrHistogram tools.
+   */
+  void write(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    Files.writeString(directory.resolve("report.txt"), toText());
+    new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+        .writeValue(directory.resolve("report.json").toFile(), toJson());
+    for (var entry : histograms.entrySet()) {
+      var file = directory.resolve(entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm");
+      try (var output = new PrintStream(Files.newOutputStream(file))) {
+        entry.getValue().outputPercentileDistribution(output, MICROS_IN_MILLI);
+      }
+    }
+  }
+
+  private double throughput(Histogram histogram) {
+    return histogram.getTotalCount() * MICROS_IN_MILLI / Math.max(1L, duration.toMillis());
+  }
+
+  private static double millis(long micros) {
+    return micros / MICROS_IN_MILLI;
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.loadtest;
+
+/**
+ * Operations of the load test workload.
+ */
+enum Operation {
+
+  /**
+   * Read of a small object with {@code get}, the content is read to the end.
+   */
+  GET,
+  /**
+   * Write of an object of the size chosen from the size distribution.
+   */
+  PUT,
+  /**
+   * Listing of the keys with the load test prefix.
+   */
+  LIST,
+  /**
+   * Read of the metadata of an object.
+   */
+  METADATA
+}
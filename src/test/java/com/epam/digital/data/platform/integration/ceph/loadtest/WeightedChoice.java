@@ -0,0 +1,67 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Chooses values randomly in proportion to their weights given as
+ * {@code value=weight,value=weight}, e.g. {@code get=70,put=20,list=10}.
+ */
+class WeightedChoice<T> {
+
+  private final List<T> values = new ArrayList<>();
+  private final List<Integer> cumulativeWeights = new ArrayList<>();
+  private int totalWeight;
+
+  WeightedChoice(String weights, Function<String, T> valueParser) {
+    for (var entry : weights.split(",")) {
+      var valueAndWeight = entry.trim().split("=");
+      if (valueAndWeight.length != 2) {
+        throw new IllegalArgumentException("Weight should be set as value=weight: " + entry);
+      }
+      var weight = Integer.parseInt(valueAndWeight[1].trim());
+      if (weight <= 0) {
+        continue;
+      }
+      totalWeight += weight;
+      values.add(valueParser.apply(valueAndWeight[0].trim()));
+      cumulativeWeights.add(totalWeight);
+    }
+    if (values.isEmpty()) {
+      throw new IllegalArgumentException("At least one positive weight is required: " + weights);
+    }
+  }
+
+  T choose(Random random) {
+    var point = random.nextInt(totalWeight);
+    for (var i = 0; i < values.size(); i++) {
+      if (point < cumulativeWeights.get(i)) {
+        return values.get(i);
+      }
+    }
+    return values.get(values.size() - 1);
+  }
+
+  List<T> getValues() {
+    return values;
+  }
+}
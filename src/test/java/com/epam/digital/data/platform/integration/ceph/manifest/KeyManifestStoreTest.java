@@ -0,0 +1,238 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.manifest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.epam.digital.data.platform.integration.ceph.config.ManifestProperties;
+import com.epam.digital.data.platform.integration.ceph.manifest.model.ManifestEntry;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class KeyManifestStoreTest {
+
+  private static final String BUCKET = "bucket";
+
+  @Mock
+  private AmazonS3 amazonS3;
+  @TempDir
+  Path directory;
+
+  private ManifestProperties properties;
+
+  @BeforeEach
+  void before() {
+    properties = new ManifestProperties();
+    properties.setEnabled(true);
+    properties.setDirectory(directory.toString());
+    properties.setBuckets(List.of(BUCKET));
+  }
+
+  @Test
+  void shouldAnswerQueriesFromRefreshedManifest() {
+    when(amazonS3.listObjects(any(ListObjectsRequest.class)))
+        .thenReturn(page(false, "doc/1", "doc/2", "form/1"));
+    var store = new KeyManifestStore(amazonS3, properties, Runnable::run);
+
+    store.refresh(BUCKET);
+    store.recordPut(BUCKET, ManifestEntry.builder().key("doc/3").eTag("etag").size(3L).build());
+    store.recordDelete(BUCKET, List.of("doc/1"));
+
+    var manifest = store.getFresh(BUCKET).orElseThrow();
+    assertThat(manifest.exists("doc/1")).isFalse();
+    assertThat(manifest.exists("doc/2")).isTrue();
+    assertThat(manifest.exists("doc/3")).isTrue();
+    assertThat(manifest.exists("doc/4")).isFalse();
+    assertThat(keys(manifest.list("doc/"))).containsExactly("doc/2", "doc/3");
+    assertThat(keys(manifest.list(""))).containsExactly("doc/2", "doc/3", "form/1");
+    assertThat(manifest.get("doc/2").orElseThrow().getETag()).isEqualTo("etag-doc/2");
+  }
+
+  @Test
+  void shouldPersistCompactedManifest() {
+    properties.setCompactionThreshold(1);
+    when(amazonS3.listObjects(any(ListObjectsRequest.class))).thenReturn(page(false, "a", "c"));
+    var store = new KeyManifestStore(amazonS3, properties, Runnable::run);
+    store.refresh(BUCKET);
+    var listedAt = store.getFresh(BUCKET).orElseThrow().getListedAt();
+
+    store.recordPut(BUCKET, ManifestEntry.builder().key("b").size(1L).build());
+    store.recordDelete(BUCKET, List.of("c"));
+
+    var reloaded = new KeyManifestStore(amazonS3, properties, Runnable::run)
+        .getFresh(BUCKET).orElseThrow();
+    assertThat(keys(reloaded.list(""))).containsExactly("a", "b");
+    assertThat(reloaded.getListedAt()).isEqualTo(listedAt);
+    assertThat(reloaded.getPendingChanges()).isZero();
+  }
+
+  @Test
+  void shouldNotAnswerQueriesWhenManifestIsStale() {
+    var store = new KeyManifestStore(amazonS3, properties, runnable -> {
+    });
+
+    assertThat(store.getFresh(BUCKET)).isEmpty();
+    assertThat(store.getFresh("untracked")).isEmpty();
+  }
+
+  @Test
+  void shouldResumeFailedRefreshAfterLastListedKey() {
+    var firstPage = page(true, "a", "b");
+    when(amazonS3.listObjects(any(ListObjectsRequest.class)))
+        .thenReturn(firstPage)
+        .thenReturn(page(false, "c"));
+    when(amazonS3.listNextBatchOfObjects(firstPage)).thenThrow(new RuntimeException());
+    var store = new KeyManifestStore(amazonS3, properties, Runnable::run);
+
+    assertThrows(RuntimeException.class, () -> store.refresh(BUCKET));
+    store.refresh(BUCKET);
+
+    var requestCaptor = ArgumentCaptor.forClass(ListObjectsRequest.class);
+    verify(amazonS3, times(2)).listObjects(requestCaptor.capture());
+    assertThat(requestCaptor.getAllValues().get(1).getMarker()).isEqualTo("b");
+    assertThat(keys(store.getFresh(BUCKET).orElseThrow().list("")))
+        .containsExactly("a", "b", "c");
+  }
+
+  @Test
+  void shouldApplyOnlyChangedKeysOnRefresh() {
+    var changed = page(false, "a", "b", "d");
+    changed.getObjectSummaries().get(1).setETag("etag-b2");
+    when(amazonS3.listObjects(any(ListObjectsRequest.class)))
+        .thenReturn(page(false, "a", "b", "c"))
+        .thenReturn(changed);
+    var store = new KeyManifestStore(amazonS3, properties, Runnable::run);
+    store.refresh(BUCKET);
+
+    store.refresh(BUCKET);
+
+    var manifest = store.getFresh(BUCKET).orElseThrow();
+    assertThat(keys(manifest.list(""))).containsExactly("a", "b", "d");
+    assertThat(manifest.get("b").orElseThrow().getETag()).isEqualTo("etag-b2");
+    assertThat(manifest.getPendingChanges()).isZero();
+    var reloaded = new KeyManifestStore(amazonS3, properties, Runnable::run)
+        .getFresh(BUCKET).orElseThrow();
+    assertThat(keys(reloaded.list(""))).containsExactly("a", "b", "d");
+    assertThat(reloaded.getListedAt()).isEqualTo(manifest.getListedAt());
+  }
+
+  @Test
+  void shouldCompactListedChangesDuringRefresh() {
+    properties.setCompactionThreshold(1);
+    var firstPage = page(true, "a", "b");
+    when(amazonS3.listObjects(any(ListObjectsRequest.class)))
+        .thenReturn(page(false, "a", "c"))
+        .thenReturn(firstPage);
+    when(amazonS3.listNextBatchOfObjects(firstPage)).thenReturn(page(false, "d"));
+    var store = new KeyManifestStore(amazonS3, properties, Runnable::run);
+    store.refresh(BUCKET);
+    var listedAt = store.getFresh(BUCKET).orElseThrow().getListedAt();
+
+    store.refresh(BUCKET);
+
+    var manifest = store.getFresh(BUCKET).orElseThrow();
+    assertThat(keys(manifest.list(""))).containsExactly("a", "b", "d");
+    assertThat(manifest.getListedAt()).isGreaterThanOrEqualTo(listedAt);
+  }
+
+  @Test
+  void shouldOnlyUpdateListingTimeWhenNothingHasChanged() throws Exception {
+    when(amazonS3.listObjects(any(ListObjectsRequest.class)))
+        .thenReturn(page(false, "a", "b"))
+        .thenReturn(page(false, "a", "b"));
+    var store = new KeyManifestStore(amazonS3, properties, Runnable::run);
+    store.refresh(BUCKET);
+    var listedAt = store.getFresh(BUCKET).orElseThrow().getListedAt();
+    Thread.sleep(5);
+
+    store.refresh(BUCKET);
+
+    var manifest = store.getFresh(BUCKET).orElseThrow();
+    assertThat(manifest.getListedAt()).isGreaterThan(listedAt);
+    var reloaded = new KeyManifestStore(amazonS3, properties, Runnable::run)
+        .getFresh(BUCKET).orElseThrow();
+    assertThat(keys(reloaded.list(""))).containsExactly("a", "b");
+    assertThat(reloaded.getListedAt()).isEqualTo(manifest.getListedAt());
+  }
+
+  @Test
+  void shouldListSinglePageOfKeys() {
+    when(amazonS3.listObjects(any(ListObjectsRequest.class)))
+        .thenReturn(page(false, "doc/1", "doc/3"));
+    var store = new KeyManifestStore(amazonS3, properties, Runnable::run);
+    store.refresh(BUCKET);
+    store.recordPut(BUCKET, ManifestEntry.builder().key("doc/2").build());
+
+    var manifest = store.getFresh(BUCKET).orElseThrow();
+
+    assertThat(keys(manifest.list("doc/", 2))).containsExactly("doc/1", "doc/2");
+  }
+
+  @Test
+  void shouldUnmapRetiredFileAfterLastReader() throws Exception {
+    ManifestFile file;
+    try (var writer = new ManifestFile.Writer(directory.resolve("file.manifest"))) {
+      writer.append(ManifestEntry.builder().key("a").build());
+      file = writer.finish(1L);
+    }
+    assertThat(file.acquire()).isTrue();
+
+    file.retire();
+
+    assertThat(file.isUnmapped()).isFalse();
+    assertThat(file.get("a")).isPresent();
+    file.release();
+    assertThat(file.isUnmapped()).isTrue();
+    assertThat(file.acquire()).isFalse();
+  }
+
+  private static ObjectListing page(boolean truncated, String... keys) {
+    var listing = new ObjectListing();
+    for (var key : keys) {
+      var summary = new S3ObjectSummary();
+      summary.setKey(key);
+      summary.setETag("etag-" + key);
+      summary.setSize(key.length());
+      listing.getObjectSummaries().add(summary);
+    }
+    listing.setTruncated(truncated);
+    return listing;
+  }
+
+  private static List<String> keys(List<ManifestEntry> entries) {
+    return entries.stream().map(ManifestEntry::getKey).collect(Collectors.toList());
+  }
+}
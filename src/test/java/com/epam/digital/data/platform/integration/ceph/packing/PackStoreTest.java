@@ -0,0 +1,131 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.packing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.epam.digital.data.platform.integration.ceph.config.PackingProperties;
+import com.epam.digital.data.platform.integration.ceph.service.InMemoryBucket;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class PackStoreTest {
+
+  private static final String BUCKET = "bucket";
+
+  @Mock
+  private AmazonS3 amazonS3;
+
+  private InMemoryBucket bucket;
+  private PackingProperties properties;
+
+  @BeforeEach
+  void before() {
+    bucket = InMemoryBucket.stub(amazonS3, BUCKET);
+    properties = new PackingProperties();
+    properties.setEnabled(true);
+    properties.setBuckets(List.of(BUCKET));
+    properties.setMaxDelay(Duration.ofMillis(50));
+    properties.setRefreshInterval(Duration.ZERO);
+    properties.setCompactionInterval(Duration.ZERO);
+  }
+
+  @Test
+  void shouldWriteConcurrentPutsToOnePackAndReadThemWithRanges() {
+    var store = new PackStore(amazonS3, properties, Runnable::run);
+
+    CompletableFuture.allOf(
+        store.put(BUCKET, "doc/1", bytes("first")),
+        store.put(BUCKET, "doc/2", bytes("second")),
+        store.put(BUCKET, "doc/3", bytes(""))).join();
+
+    assertThat(bucket.getPutKeys()).hasSize(1);
+    assertThat(read(store, "doc/1")).isEqualTo("first");
+    assertThat(read(store, "doc/2")).isEqualTo("second");
+    assertThat(read(store, "doc/3")).isEmpty();
+    assertThat(store.find(BUCKET, "doc/4")).isEmpty();
+    assertThat(store.getKeys(BUCKET, "doc/")).containsOnly("doc/1", "doc/2", "doc/3");
+  }
+
+  @Test
+  void shouldWritePendingPackWhenClosed() {
+    properties.setMaxDelay(Duration.ofMinutes(1));
+    var store = new PackStore(amazonS3, properties, Runnable::run);
+    var written = store.put(BUCKET, "doc/1", bytes("first"));
+
+    store.close();
+
+    assertThat(written).isCompleted();
+    assertThat(bucket.getPutKeys()).hasSize(1);
+    assertThat(read(store, "doc/1")).isEqualTo("first");
+  }
+
+  @Test
+  void shouldRebuildIndexWithoutDeletedKeysFromPacks() {
+    var store = new PackStore(amazonS3, properties, Runnable::run);
+    store.put(BUCKET, "doc/1", bytes("first")).join();
+    store.put(BUCKET, "doc/2", bytes("second")).join();
+    store.put(BUCKET, "doc/1", bytes("updated")).join();
+    store.delete(BUCKET, List.of("doc/2", "doc/3")).join();
+
+    var otherStore = new PackStore(amazonS3, properties, Runnable::run);
+
+    assertThat(read(otherStore, "doc/1")).isEqualTo("updated");
+    assertThat(otherStore.find(BUCKET, "doc/2")).isEmpty();
+    assertThat(otherStore.getKeys(BUCKET, "")).containsOnly("doc/1");
+  }
+
+  @Test
+  void shouldCompactPacksDroppingOverwrittenAndDeletedEntries() {
+    var store = new PackStore(amazonS3, properties, Runnable::run);
+    store.put(BUCKET, "doc/1", bytes("first")).join();
+    store.put(BUCKET, "doc/2", bytes("second")).join();
+    store.put(BUCKET, "doc/1", bytes("updated")).join();
+    store.delete(BUCKET, List.of("doc/2")).join();
+    var otherStore = new PackStore(amazonS3, properties, Runnable::run);
+    var staleEntry = otherStore.find(BUCKET, "doc/1").orElseThrow();
+
+    store.compact(BUCKET);
+
+    assertThat(bucket.getKeys()).hasSize(1);
+    var pack = bucket.getContent(bucket.getKeys().iterator().next());
+    assertThat(PackFile.readRecords(pack)).hasSize(1);
+    assertThat(read(store, "doc/1")).isEqualTo("updated");
+    assertThat(store.find(BUCKET, "doc/2")).isEmpty();
+    var content = otherStore.read(BUCKET, "doc/1", staleEntry).orElseThrow();
+    assertThat(new String(content, StandardCharsets.UTF_8)).isEqualTo("updated");
+  }
+
+  private String read(PackStore store, String key) {
+    var entry = store.find(BUCKET, key).orElseThrow();
+    return new String(store.read(BUCKET, key, entry).orElseThrow(), StandardCharsets.UTF_8);
+  }
+
+  private static byte[] bytes(String content) {
+    return content.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.retry;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.amazonaws.ClientConfiguration;
+import com.amazonaws.auth.AWSStaticCredentialsProvider;
+import com.amazonaws.auth.BasicAWSCredentials;
+import com.amazonaws.client.builder.AwsClientBuilder.EndpointConfiguration;
+import com.amazonaws.retry.PredefinedRetryPolicies;
+import com.amazonaws.services.s3.AmazonS3ClientBuilder;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.epam.digital.data.platform.integration.ceph.config.RetryProperties;
+import com.sun.net.httpserver.HttpServer;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+class CephRetryPolicyTest {
+
+  private final RetryProperties properties = new RetryProperties();
+
+  @Test
+  void shouldLimitRetriesToFractionOfRequests() {
+    var budget = new RetryBudget("endpoint", 0.5, 2);
+
+    assertThat(budget.tryAcquire(false)).isTrue();
+    assertThat(budget.tryAcquire(true)).isTrue();
+    assertThat(budget.tryAcquire(false)).isFalse();
+    budget.onRequest();
+    budget.onRequest();
+
+    assertThat(budget.tryAcquire(false)).isTrue();
+    assertThat(budget.getRetries()).isEqualTo(3L);
+    assertThat(budget.getThrottledRetries()).isEqualTo(1L);
+    assertThat(budget.getExhaustions()).isEqualTo(1L);
+  }
+
+  @Test
+  void shouldRetryOnlyRetryableFailuresWithinBudget() {
+    var budget = new RetryBudget("endpoint", 0.1, 1);
+    var policy = CephRetryPolicy.create(properties, budget);
+    var request = new GetObjectRequest("bucket", "key");
+
+    assertThat(policy.getRetryCondition().shouldRetry(request, exception(404, "NoSuchKey"), 0))
+        .isFalse();
+    assertThat(policy.getRetryCondition().shouldRetry(request, exception(500, "InternalError"),
+        0)).isTrue();
+    assertThat(policy.getRetryCondition().shouldRetry(request, exception(500, "InternalError"),
+        1)).isFalse();
+    assertThat(budget.getRetries()).isEqualTo(1L);
+    assertThat(budget.getExhaustions()).isEqualTo(1L);
+  }
+
+  @Test
+  void shouldHonourMaxErrorRetryAndRetryConditionOfClientConfiguration() {
+    var budget = new RetryBudget("endpoint", 0.1, 10);
+    var request = new GetObjectRequest("bucket", "key");
+
+    assertThat(CephRetryPolicy.create(properties, budget, new ClientConfiguration())
+        .getMaxErrorRetry()).isEqualTo(properties.getMaxRetries());
+    assertThat(CephRetryPolicy.create(properties, budget,
+        new ClientConfiguration().withMaxErrorRetry(1)).getMaxErrorRetry()).isEqualTo(1);
+    var noRetryPolicy = CephRetryPolicy.create(properties, budget,
+        new ClientConfiguration().withRetryPolicy(PredefinedRetryPolicies.NO_RETRY_POLICY));
+    assertThat(noRetryPolicy.getMaxErrorRetry()).isZero();
+    assertThat(noRetryPolicy.getRetryCondition().shouldRetry(request,
+        exception(500, "InternalError"), 0)).isFalse();
+  }
+
+  @Test
+  void shouldBackOffWithDecorrelatedJitterBetweenBaseAndMaxDelay() {
+    properties.setBaseDelay(Duration.ofMillis(10));
+    properties.setMaxDelay(Duration.ofMillis(200));
+    var backoff = CephRetryPolicy.create(properties, new RetryBudget("endpoint", 0.1, 1))
+        .getBackoffStrategy();
+    var request = new GetObjectRequest("bucket", "key");
+    var exception = exception(500, "InternalError");
+
+    var previousDelay = 10L;
+    for (var retry = 0; retry < 20; retry++) {
+      var delay = backoff.delayBeforeNextRetry(request, exception, retry);
+
+      assertThat(delay).isBetween(10L, Math.min(200L, previousDelay * 3));
+      previousDelay = delay;
+    }
+  }
+
+  @Test
+  void shouldBackOffLongerWhenThrottledAndHonourRetryAfter() {
+    properties.setBaseDelay(Duration.ofMillis(10));
+    properties.setThrottledBaseDelay(Duration.ofMillis(500));
+    var backoff = CephRetryPolicy.create(properties, new RetryBudget("endpoint", 0.1, 1))
+        .getBackoffStrategy();
+    var request = new GetObjectRequest("bucket", "key");
+    var slowDown = exception(503, "SlowDown");
+    var tooManyRequests = exception(429, "TooManyRequests");
+    tooManyRequests.setHttpHeaders(Map.of("Retry-After", "3"));
+
+    assertThat(backoff.delayBeforeNextRetry(request, slowDown, 0)).isEqualTo(500L);
+    assertThat(backoff.delayBeforeNextRetry(request, tooManyRequests, 0)).isEqualTo(3000L);
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldStopRetryingSlowDownOnceBudgetIsExhausted() {
+    var requests = new AtomicInteger();
+    var server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.createContext("/", exchange -> {
+      requests.incrementAndGet();
+      var body = "<Error><Code>SlowDown</Code><Message>Please reduce your request rate."
+          + "</Message></Error>";
+      var bytes = body.getBytes(StandardCharsets.UTF_8);
+      exchange.sendResponseHeaders(503, bytes.length);
+      exchange.getResponseBody().write(bytes);
+      exchange.close();
+    });
+    server.start();
+    try {
+      properties.setThrottledBaseDelay(Duration.ofMillis(10));
+      var budget = new RetryBudget("endpoint", 0, 1);
+      var client = AmazonS3ClientBuilder.standard()
+          .withCredentials(new AWSStaticCredentialsProvider(
+              new BasicAWSCredentials("access", "secret")))
+          .withEndpointConfiguration(new EndpointConfiguration(
+              "http://localhost:" + server.getAddress().getPort(), "us-east-1"))
+          .withClientConfiguration(new ClientConfiguration()
+              .withRetryPolicy(CephRetryPolicy.create(properties, budget))
+              .withThrottledRetries(false))
+          .withPathStyleAccessEnabled(true)
+          .withRequestHandlers(new RetryBudgetHandler(budget))
+          .build();
+
+      var exception = assertThrows(AmazonS3Exception.class,
+          () -> client.getObjectAsString("bucket", "key"));
+
+      assertThat(exception.getErrorCode()).isEqualTo("SlowDown");
+      assertThat(requests).hasValue(2);
+      assertThat(budget.getThrottledRetries()).isEqualTo(1L);
+      assertThat(budget.getExhaustions()).isEqualTo(1L);
+      client.shutdown();
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  private AmazonS3Exception exception(int statusCode, String errorCode) {
+    var exception = new AmazonS3Exception(errorCode);
+    exception.setStatusCode(statusCode);
+    exception.setErrorCode(errorCode);
+    return exception;
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.routing;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import java.util.LinkedHashMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class BucketRouterTest {
+
+  @Mock
+  private AmazonS3 defaultClient;
+  @Mock
+  private AmazonS3 filesClient;
+
+  private AmazonS3 client;
+
+  @BeforeEach
+  void before() {
+    var clients = new LinkedHashMap<String, AmazonS3>();
+    clients.put("files-*", filesClient);
+    client = BucketRouter.route(defaultClient, clients);
+  }
+
+  @Test
+  void shouldRouteCallsByBucketArgument() {
+    client.doesObjectExist("files-signed", "key");
+    client.doesObjectExist("lowcode", "key");
+
+    verify(filesClient).doesObjectExist("files-signed", "key");
+    verify(defaultClient).doesObjectExist("lowcode", "key");
+  }
+
+  @Test
+  void shouldRouteCallsByBucketOfRequest() {
+    client.getObject(new GetObjectRequest("lowcode", "key"));
+    client.copyObject(new CopyObjectRequest("lowcode", "key", "files-signed", "key"));
+
+    verify(defaultClient).getObject(any(GetObjectRequest.class));
+    verify(filesClient).copyObject(any(CopyObjectRequest.class));
+  }
+
+  @Test
+  void shouldRouteCopyByDestinationBucketArgument() {
+    client.copyObject("lowcode", "key", "files-signed", "key");
+    client.copyObject("files-signed", "key", "lowcode", "key");
+
+    verify(filesClient).copyObject("lowcode", "key", "files-signed", "key");
+    verify(defaultClient).copyObject("files-signed", "key", "lowcode", "key");
+  }
+
+  @Test
+  void shouldRouteCallsWithoutBucketToDefaultClient() {
+    client.listBuckets();
+
+    verify(defaultClient).listBuckets();
+    verifyNoInteractions(filesClient);
+  }
+
+  @Test
+  void shouldShutdownAllClients() {
+    client.shutdown();
+
+    verify(defaultClient).shutdown();
+    verify(filesClient).shutdown();
+  }
+}
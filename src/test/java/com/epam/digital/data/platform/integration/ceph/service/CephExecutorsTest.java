@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.epam.digital.data.platform.integration.ceph.deadline.CephDeadline;
+import com.epam.digital.data.platform.integration.ceph.service.impl.CephExecutors;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+class CephExecutorsTest {
+
+  @Test
+  @SneakyThrows
+  void shouldNotRunMoreTasksThanParallelism() {
+    var executor = CephExecutors.newBoundedExecutor(2);
+    var running = new AtomicInteger();
+    var maxRunning = new AtomicInteger();
+    var tasks = new ArrayList<CompletableFuture<Void>>();
+
+    for (var i = 0; i < 10; i++) {
+      tasks.add(CompletableFuture.runAsync(() -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        sleep();
+        running.decrementAndGet();
+      }, executor));
+    }
+    CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+    assertThat(maxRunning).hasValueLessThanOrEqualTo(2);
+    executor.shutdown();
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldRunTasksOfPluggedExecutorWithinDeadlineOfSubmitter() {
+    var plugged = Executors.newSingleThreadExecutor();
+    var executor = CephExecutors.withContext(plugged);
+    CompletableFuture<Boolean> hasDeadline;
+
+    try (var scope = CephDeadline.within(Duration.ofSeconds(10))) {
+      hasDeadline = CompletableFuture.supplyAsync(
+          () -> CephDeadline.remaining().isPresent(), executor);
+    }
+
+    assertThat(hasDeadline.get(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(CephExecutors.withContext(executor)).isSameAs(executor);
+    executor.shutdown();
+    assertThat(plugged.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldRunBackgroundTasksWithoutDeadlineOfSubmitter() {
+    var plugged = Executors.newSingleThreadExecutor();
+    var background = CephExecutors.withoutDeadline(plugged);
+    var executor = CephExecutors.withContext(background);
+    CompletableFuture<Boolean> backgroundHasDeadline;
+    CompletableFuture<Boolean> hasDeadline;
+
+    try (var scope = CephDeadline.within(Duration.ofSeconds(10))) {
+      backgroundHasDeadline = CompletableFuture.supplyAsync(
+          () -> CephDeadline.remaining().isPresent(), background);
+      hasDeadline = CompletableFuture.supplyAsync(
+          () -> CephDeadline.remaining().isPresent(), executor);
+    }
+
+    assertThat(backgroundHasDeadline.get(10, TimeUnit.SECONDS)).isFalse();
+    assertThat(hasDeadline.get(10, TimeUnit.SECONDS)).isTrue();
+    background.shutdown();
+    assertThat(plugged.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  void shouldRejectNonPositiveParallelism() {
+    assertThrows(IllegalArgumentException.class, () -> CephExecutors.newBoundedExecutor(0));
+  }
+
+  @SneakyThrows
+  private static void sleep() {
+    Thread.sleep(20L);
+  }
+}
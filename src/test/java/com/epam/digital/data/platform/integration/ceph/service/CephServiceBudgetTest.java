@@ -0,0 +1,267 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.Bucket;
+import com.amazonaws.services.s3.model.CopyObjectResult;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.epam.digital.data.platform.integration.ceph.model.CephBatchResult;
+import com.epam.digital.data.platform.integration.ceph.model.DeletionOptions;
+import com.epam.digital.data.platform.integration.ceph.service.impl.CephServiceS3Impl;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Budgets of Amazon S3 calls and of bytes allocated by the calling thread per operation. The
+ * client is a lightweight stub, so allocations of the service itself (including its logging) are
+ * measured. Batch operations are measured on the calling thread only, what their tasks allocate
+ * on the executor isn't counted. A budget exceeded by a change fails the build, raise it only
+ * deliberately.
+ */
+class CephServiceBudgetTest {
+
+  private static final String BUCKET = "bucket";
+  private static final String KEY = "key";
+  private static final String KEY2 = "key2";
+  private static final byte[] CONTENT = "content".getBytes();
+  private static final int WARM_UP_ITERATIONS = 200;
+  private static final int MEASURED_ITERATIONS = 500;
+
+  private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+  private CephServiceS3Impl cephService;
+
+  @BeforeEach
+  void before() {
+    var amazonS3 = (AmazonS3) Proxy.newProxyInstance(AmazonS3.class.getClassLoader(),
+        new Class<?>[]{AmazonS3.class}, (proxy, method, args) -> {
+          calls.computeIfAbsent(method.getName(), name -> new AtomicInteger()).incrementAndGet();
+          return answer(method.getName());
+        });
+    cephService = new CephServiceS3Impl(amazonS3);
+  }
+
+  @AfterEach
+  void after() {
+    cephService.destroy();
+  }
+
+  @Test
+  void getAsString() {
+    assertBudget(() -> cephService.getAsString(BUCKET, KEY),
+        Map.of("listBuckets", 1, "doesObjectExist", 1, "getObjectAsString", 1), 16 * 1024);
+  }
+
+  @Test
+  void get() {
+    assertBudget(() -> readFully(cephService.get(BUCKET, KEY).orElseThrow().getContent()),
+        Map.of("listBuckets", 1, "doesObjectExist", 1, "getObject", 1), 32 * 1024);
+  }
+
+  @Test
+  void putString() {
+    assertBudget(() -> cephService.put(BUCKET, KEY, "content"),
+        Map.of("listBuckets", 1, "putObject", 1), 16 * 1024);
+  }
+
+  @Test
+  void putStream() {
+    assertBudget(() -> cephService.put(BUCKET, KEY, "text/plain", Collections.emptyMap(),
+            new ByteArrayInputStream(CONTENT)),
+        Map.of("listBuckets", 1, "putObject", 1, "getObjectMetadata", 1), 16 * 1024);
+  }
+
+  @Test
+  void exist() {
+    assertBudget(() -> cephService.exist(BUCKET, KEY),
+        Map.of("listBuckets", 1, "doesObjectExist", 1), 16 * 1024);
+  }
+
+  @Test
+  void getKeys() {
+    assertBudget(() -> cephService.getKeys(BUCKET, "prefix"),
+        Map.of("listBuckets", 1, "listObjects", 1), 16 * 1024);
+  }
+
+  @Test
+  void delete() {
+    assertBudget(() -> cephService.delete(BUCKET, Set.of(KEY)),
+        Map.of("listBuckets", 1, "deleteObjects", 1), 16 * 1024);
+  }
+
+  @Test
+  void getMetadata() {
+    assertBudget(() -> cephService.getMetadata(BUCKET, Set.of(KEY)),
+        Map.of("listBuckets", 1, "doesObjectExist", 1, "getObjectMetadata", 1), 16 * 1024);
+  }
+
+  @Test
+  void getAll() {
+    assertBudget(() -> assertSucceeded(cephService.getAll(BUCKET, List.of(KEY, KEY2))),
+        Map.of("listBuckets", 1, "getObjectAsString", 2), 16 * 1024);
+  }
+
+  @Test
+  void putAll() {
+    assertBudget(() -> assertSucceeded(
+            cephService.putAll(BUCKET, Map.of(KEY, "content", KEY2, "content"))),
+        Map.of("listBuckets", 1, "putObject", 2), 16 * 1024);
+  }
+
+  @Test
+  void existOfKeys() {
+    assertBudget(() -> cephService.exist(BUCKET, Set.of(KEY, KEY2)),
+        Map.of("listBuckets", 1, "doesObjectExist", 2), 16 * 1024);
+  }
+
+  @Test
+  void copy() {
+    assertBudget(() -> cephService.copy(BUCKET, KEY, BUCKET, KEY2),
+        Map.of("listBuckets", 1, "getObjectMetadata", 1, "copyObject", 1), 16 * 1024);
+  }
+
+  @Test
+  void move() {
+    assertBudget(() -> cephService.move(BUCKET, KEY, BUCKET, KEY2),
+        Map.of("listBuckets", 1, "getObjectMetadata", 1, "copyObject", 1, "deleteObject", 1),
+        16 * 1024);
+  }
+
+  @Test
+  void copyPrefix() {
+    assertBudget(() -> assertSucceeded(cephService.copyPrefix(BUCKET, "k", BUCKET, "copy/")),
+        Map.of("listBuckets", 1, "listObjects", 1, "copyObject", 1), 16 * 1024);
+  }
+
+  @Test
+  void list() {
+    assertBudget(() -> cephService.list(BUCKET, "prefix", "/", 100, null),
+        Map.of("listBuckets", 1, "listObjects", 1), 16 * 1024);
+  }
+
+  @Test
+  void getMetadataByPrefix() {
+    assertBudget(() -> cephService.getMetadata(BUCKET, "prefix"),
+        Map.of("listBuckets", 1, "listObjects", 1, "getObjectMetadata", 1), 16 * 1024);
+  }
+
+  @Test
+  void deleteByPrefix() {
+    assertBudget(() -> cephService.deleteByPrefix(BUCKET, "prefix",
+            DeletionOptions.builder().build()),
+        Map.of("listBuckets", 1, "listObjects", 1, "deleteObjects", 1), 16 * 1024);
+  }
+
+  private void assertBudget(Runnable operation, Map<String, Integer> callBudget,
+      long allocationBudget) {
+    var threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+    threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    for (var i = 0; i < WARM_UP_ITERATIONS; i++) {
+      operation.run();
+    }
+    calls.clear();
+    var threadId = Thread.currentThread().getId();
+    var allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+    for (var i = 0; i < MEASURED_ITERATIONS; i++) {
+      operation.run();
+    }
+    var allocatedPerOperation =
+        (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore) / MEASURED_ITERATIONS;
+    var measuredCalls = new TreeMap<String, Integer>();
+    calls.forEach((method, count) -> measuredCalls.put(method, count.get()));
+    // totals are compared, so an extra call in some of the iterations isn't rounded away
+    var budgetedCalls = new TreeMap<String, Integer>();
+    callBudget.forEach((method, budget) -> budgetedCalls.put(method,
+        budget * MEASURED_ITERATIONS));
+
+    assertThat(measuredCalls).isEqualTo(budgetedCalls);
+    assertThat(allocatedPerOperation).isLessThanOrEqualTo(allocationBudget);
+  }
+
+  private static void assertSucceeded(CephBatchResult<?> batchResult) {
+    if (!batchResult.getFailures().isEmpty()) {
+      throw batchResult.getFailures().values().iterator().next();
+    }
+  }
+
+  private static Object answer(String method) {
+    switch (method) {
+      case "listBuckets":
+        return List.of(new Bucket(BUCKET));
+      case "doesObjectExist":
+        return true;
+      case "getObjectAsString":
+        return "content";
+      case "getObject":
+        var s3Object = new S3Object();
+        s3Object.setObjectContent(new ByteArrayInputStream(CONTENT));
+        s3Object.setObjectMetadata(new ObjectMetadata());
+        return s3Object;
+      case "putObject":
+        var putObjectResult = new PutObjectResult();
+        putObjectResult.setETag("etag");
+        return putObjectResult;
+      case "getObjectMetadata":
+        return new ObjectMetadata();
+      case "listObjects":
+        var listing = new ObjectListing();
+        var summary = new S3ObjectSummary();
+        summary.setKey(KEY);
+        listing.getObjectSummaries().add(summary);
+        return listing;
+      case "copyObject":
+        var copyObjectResult = new CopyObjectResult();
+        copyObjectResult.setETag("etag");
+        return copyObjectResult;
+      case "deleteObject":
+      case "deleteObjects":
+        return null;
+      default:
+        throw new UnsupportedOperationException(method);
+    }
+  }
+
+  @SneakyThrows
+  private static void readFully(InputStream content) {
+    try (content) {
+      content.transferTo(OutputStream.nullOutputStream());
+    }
+  }
+}
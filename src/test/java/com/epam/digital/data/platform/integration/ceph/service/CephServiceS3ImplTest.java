@@ -19,38 +19,96 @@ package com.epam.digital.data.platform.integration.ceph.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.amazonaws.http.timers.client.ClientExecutionTimeoutException;
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.Bucket;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
 import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.CopyObjectResult;
+import com.amazonaws.services.s3.model.CopyPartRequest;
+import com.amazonaws.services.s3.model.CopyPartResult;
 import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException;
+import com.amazonaws.services.s3.model.MultiObjectDeleteException.DeleteError;
 import com.amazonaws.services.s3.model.ObjectListing;
 import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectResult;
 import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectInputStream;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.util.BinaryUtils;
+import com.amazonaws.util.Md5Utils;
+import com.epam.digital.data.platform.integration.ceph.checksum.ChecksumAlgorithm;
+import com.epam.digital.data.platform.integration.ceph.config.S3ConfigProperties;
+import com.epam.digital.data.platform.integration.ceph.config.WarmUpProperties;
 import com.epam.digital.data.platform.integration.ceph.exception.CephCommunicationException;
+import com.epam.digital.data.platform.integration.ceph.exception.CephRetryableException;
+import com.epam.digital.data.platform.integration.ceph.exception.CephThrottledException;
+import com.epam.digital.data.platform.integration.ceph.exception.CephTimeoutException;
+import com.epam.digital.data.platform.integration.ceph.exception.ChecksumMismatchException;
 import com.epam.digital.data.platform.integration.ceph.exception.MisconfigurationException;
+import com.epam.digital.data.platform.integration.ceph.model.CephObject;
+import com.epam.digital.data.platform.integration.ceph.model.CephObjectSummary;
+import com.epam.digital.data.platform.integration.ceph.model.ConditionalGetResult;
+import com.epam.digital.data.platform.integration.ceph.model.ConditionalGetResult.Status;
+import com.epam.digital.data.platform.integration.ceph.model.DeletionOptions;
+import com.epam.digital.data.platform.integration.ceph.model.DeletionProgress;
+import com.epam.digital.data.platform.integration.ceph.model.ParallelListingOptions;
+import com.epam.digital.data.platform.integration.ceph.model.PresignedUrlOptions;
 import com.epam.digital.data.platform.integration.ceph.service.impl.CephServiceS3Impl;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
 import lombok.SneakyThrows;
+import org.apache.http.client.methods.HttpGet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.Answer;
 
 @ExtendWith(MockitoExtension.class)
 class CephServiceS3ImplTest {
@@ -406,4 +464,1382 @@ class CephServiceS3ImplTest {
     assertThat(objectMetadata.getUserMetadata().get("checksum")).contains("sha256hex");
     assertThat(objectMetadata.getUserMetadata().get("filename")).contains("filename.png");
   }
+
+  @Test
+  void shouldLookUpKeysConcurrentlyWhenCheckingExistenceAndGettingMetadata() {
+    var bucketName = "bucket";
+    var keys = Set.of("key1", "key2");
+    // every request waits for the request of the other key
+    var bothRequested = new CyclicBarrier(2);
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.doesObjectExist(eq(bucketName), any())).thenAnswer(invocation -> {
+      bothRequested.await(10, TimeUnit.SECONDS);
+      return true;
+    });
+    when(amazonS3.getObjectMetadata(eq(bucketName), any())).thenReturn(new ObjectMetadata());
+
+    assertThat(cephServiceS3.exist(bucketName, keys)).isTrue();
+    assertThat(cephServiceS3.getMetadata(bucketName, keys)).hasSize(2);
+  }
+
+  @Test
+  void shouldGetAllContentsAndReportFailuresPerKey() {
+    var bucketName = "bucket";
+    var notFound = new AmazonS3Exception("Not Found");
+    notFound.setStatusCode(404);
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.getObjectAsString(bucketName, "key1")).thenReturn("content1");
+    when(amazonS3.getObjectAsString(bucketName, "key2")).thenThrow(notFound);
+    when(amazonS3.getObjectAsString(bucketName, "key3")).thenThrow(new RuntimeException("fail"));
+
+    var result = cephServiceS3.getAll(bucketName, List.of("key1", "key2", "key3"));
+
+    assertThat(result.getResults()).isEqualTo(Map.of("key1", "content1"));
+    assertThat(result.getFailures()).containsOnlyKeys("key3");
+    assertThat(result.hasFailures()).isTrue();
+    verify(amazonS3, times(1)).listBuckets();
+    verify(amazonS3, times(0)).doesObjectExist(any(), any());
+  }
+
+  @Test
+  void shouldPutAllContents() {
+    var bucketName = "bucket";
+    var contents = new LinkedHashMap<String, String>();
+    contents.put("key1", "content1");
+    contents.put("key2", "content2");
+    var putObjectResult = new PutObjectResult();
+    putObjectResult.setETag("etag");
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.putObject(bucketName, "key1", "content1")).thenReturn(putObjectResult);
+    when(amazonS3.putObject(bucketName, "key2", "content2")).thenThrow(new RuntimeException());
+
+    var result = cephServiceS3.putAll(bucketName, contents);
+
+    assertThat(result.getResults()).isEqualTo(Map.of("key1", "etag"));
+    assertThat(result.getFailures()).containsOnlyKeys("key2");
+    verify(amazonS3, times(1)).listBuckets();
+  }
+
+  @Test
+  void shouldPutAllBinaryContents() {
+    var bucketName = "bucket";
+    var content = "content".getBytes();
+    var putObjectResult = new PutObjectResult();
+    putObjectResult.setETag("etag");
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.putObject(eq(bucketName), eq("key"), any(), any(ObjectMetadata.class)))
+        .thenReturn(putObjectResult);
+
+    var result = cephServiceS3.putAll(bucketName, "application/json", Map.of("key", content));
+
+    assertThat(result.getResults()).isEqualTo(Map.of("key", "etag"));
+    assertThat(result.hasFailures()).isFalse();
+    var objectMetadataArgCaptor = ArgumentCaptor.forClass(ObjectMetadata.class);
+    verify(amazonS3).putObject(eq(bucketName), eq("key"), any(),
+        objectMetadataArgCaptor.capture());
+    assertThat(objectMetadataArgCaptor.getValue().getContentType()).isEqualTo("application/json");
+    assertThat(objectMetadataArgCaptor.getValue().getContentLength()).isEqualTo(content.length);
+  }
+
+  @Test
+  void shouldShutDownExecutorOnDestroy() {
+    var executor = Executors.newFixedThreadPool(1);
+    var cephService = new CephServiceS3Impl(amazonS3, new S3ConfigProperties(), null, executor);
+
+    cephService.destroy();
+
+    assertThat(executor.isTerminated()).isTrue();
+  }
+
+  @Test
+  void shouldCopyObjectWithSingleRequest() {
+    var objectMetadata = new ObjectMetadata();
+    objectMetadata.setContentLength(100L);
+
+    when(amazonS3.listBuckets()).thenReturn(List.of(new Bucket("temp"), new Bucket("permanent")));
+    when(amazonS3.getObjectMetadata("temp", "key")).thenReturn(objectMetadata);
+    when(amazonS3.copyObject(any(CopyObjectRequest.class))).thenReturn(new CopyObjectResult());
+
+    cephServiceS3.copy("temp", "key", "permanent", "newKey");
+
+    var requestCaptor = ArgumentCaptor.forClass(CopyObjectRequest.class);
+    verify(amazonS3).copyObject(requestCaptor.capture());
+    assertThat(requestCaptor.getValue().getSourceBucketName()).isEqualTo("temp");
+    assertThat(requestCaptor.getValue().getSourceKey()).isEqualTo("key");
+    assertThat(requestCaptor.getValue().getDestinationBucketName()).isEqualTo("permanent");
+    assertThat(requestCaptor.getValue().getDestinationKey()).isEqualTo("newKey");
+    verify(amazonS3, times(1)).listBuckets();
+  }
+
+  @Test
+  void shouldCopyLargeObjectWithMultipartCopy() {
+    var s3ConfigProperties = new S3ConfigProperties();
+    s3ConfigProperties.getTransfer().setMultipartCopyThreshold(100L);
+    s3ConfigProperties.getTransfer().setMultipartCopyPartSize(100L);
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, s3ConfigProperties);
+    var objectMetadata = new ObjectMetadata();
+    objectMetadata.setContentLength(250L);
+    objectMetadata.setContentType("application/pdf");
+    objectMetadata.setHeader("ETag", "sourceETag");
+    objectMetadata.addUserMetadata("owner", "user");
+    var initiateResult = new InitiateMultipartUploadResult();
+    initiateResult.setUploadId("uploadId");
+
+    when(amazonS3.listBuckets()).thenReturn(List.of(new Bucket("temp"), new Bucket("permanent")));
+    when(amazonS3.getObjectMetadata("temp", "key")).thenReturn(objectMetadata);
+    when(amazonS3.initiateMultipartUpload(any(InitiateMultipartUploadRequest.class)))
+        .thenReturn(initiateResult);
+    when(amazonS3.copyPart(any(CopyPartRequest.class))).thenAnswer(invocation -> {
+      CopyPartRequest request = invocation.getArgument(0);
+      var result = new CopyPartResult();
+      result.setPartNumber(request.getPartNumber());
+      result.setETag("etag" + request.getPartNumber());
+      return result;
+    });
+    when(amazonS3.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+        .thenReturn(new CompleteMultipartUploadResult());
+
+    cephServiceS3.copy("temp", "key", "permanent", "newKey");
+
+    var partCaptor = ArgumentCaptor.forClass(CopyPartRequest.class);
+    verify(amazonS3, times(3)).copyPart(partCaptor.capture());
+    assertThat(partCaptor.getAllValues()).extracting(CopyPartRequest::getLastByte)
+        .containsExactlyInAnyOrder(99L, 199L, 249L);
+    var completeCaptor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+    verify(amazonS3).completeMultipartUpload(completeCaptor.capture());
+    assertThat(completeCaptor.getValue().getPartETags()).extracting(p -> p.getETag())
+        .containsExactly("etag1", "etag2", "etag3");
+    verify(amazonS3, times(0)).copyObject(any(CopyObjectRequest.class));
+    verify(amazonS3, times(1)).getObjectMetadata("temp", "key");
+    var initiateCaptor = ArgumentCaptor.forClass(InitiateMultipartUploadRequest.class);
+    verify(amazonS3).initiateMultipartUpload(initiateCaptor.capture());
+    var copiedMetadata = initiateCaptor.getValue().getObjectMetadata();
+    assertThat(copiedMetadata.getContentType()).isEqualTo("application/pdf");
+    assertThat(copiedMetadata.getUserMetadata()).containsExactly(Map.entry("owner", "user"));
+    assertThat(copiedMetadata.getETag()).isNull();
+    assertThat(copiedMetadata.getRawMetadataValue("Content-Length")).isNull();
+  }
+
+  @Test
+  void shouldMoveObject() {
+    var objectMetadata = new ObjectMetadata();
+    objectMetadata.setContentLength(100L);
+
+    when(amazonS3.listBuckets()).thenReturn(List.of(new Bucket("temp"), new Bucket("permanent")));
+    when(amazonS3.getObjectMetadata("temp", "key")).thenReturn(objectMetadata);
+    when(amazonS3.copyObject(any(CopyObjectRequest.class))).thenReturn(new CopyObjectResult());
+
+    cephServiceS3.move("temp", "key", "permanent", "key");
+
+    verify(amazonS3).copyObject(any(CopyObjectRequest.class));
+    verify(amazonS3).deleteObject("temp", "key");
+  }
+
+  @Test
+  void shouldCopyObjectsByPrefixPageByPage() {
+    var nextObjectListing = mock(ObjectListing.class);
+    var first = new S3ObjectSummary();
+    first.setKey("process/1/file1");
+    var second = new S3ObjectSummary();
+    second.setKey("process/1/file2");
+
+    when(amazonS3.listBuckets()).thenReturn(List.of(new Bucket("temp"), new Bucket("permanent")));
+    when(amazonS3.listObjects("temp", "process/1/")).thenReturn(objectListing);
+    when(objectListing.getObjectSummaries()).thenReturn(List.of(first));
+    when(objectListing.isTruncated()).thenReturn(true);
+    when(amazonS3.listNextBatchOfObjects(objectListing)).thenReturn(nextObjectListing);
+    when(nextObjectListing.getObjectSummaries()).thenReturn(List.of(second));
+    when(amazonS3.copyObject(any(CopyObjectRequest.class))).thenAnswer(invocation -> {
+      CopyObjectRequest request = invocation.getArgument(0);
+      if (request.getSourceKey().equals("process/1/file2")) {
+        throw new RuntimeException("fail");
+      }
+      return new CopyObjectResult();
+    });
+
+    var result = cephServiceS3.copyPrefix("temp", "process/1/", "permanent", "documents/");
+
+    assertThat(result.getResults()).isEqualTo(Map.of("process/1/file1", "documents/file1"));
+    assertThat(result.getFailures()).containsOnlyKeys("process/1/file2");
+  }
+
+  @Test
+  void shouldGetKeysInParallelByCommonPrefixesInOrder() {
+    var bucketName = "bucket";
+    var keys = List.of("a", "a/1", "a/2", "b0", "c/1", "c/2/3", "d");
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.listObjects(any(ListObjectsRequest.class))).thenAnswer(listingOf(keys));
+
+    try (var stream = cephServiceS3.getKeysInParallel(bucketName,
+        ParallelListingOptions.builder().ordered(true).parallelism(2).build())) {
+      assertThat(stream.collect(Collectors.toList())).isEqualTo(keys);
+    }
+  }
+
+  @Test
+  void shouldGetKeysInParallelByBoundaries() {
+    var bucketName = "bucket";
+    var keys = List.of("p/a", "p/b", "p/c", "p/d", "p/e", "q/a");
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.listObjects(any(ListObjectsRequest.class))).thenAnswer(listingOf(keys));
+
+    try (var stream = cephServiceS3.getKeysInParallel(bucketName, ParallelListingOptions.builder()
+        .prefix("p/").boundaries(List.of("p/d", "p/b")).build())) {
+      assertThat(stream.collect(Collectors.toList()))
+          .containsExactlyInAnyOrder("p/a", "p/b", "p/c", "p/d", "p/e");
+    }
+  }
+
+  @Test
+  void shouldSplitSingleCommonPrefixForParallelListing() {
+    var bucketName = "bucket";
+    var keys = List.of("docs/a/1", "docs/a/2", "docs/b/1", "docs/c", "docs/d/1");
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.listObjects(any(ListObjectsRequest.class))).thenAnswer(listingOf(keys));
+
+    try (var stream = cephServiceS3.getKeysInParallel(bucketName,
+        ParallelListingOptions.builder().ordered(true).parallelism(4).build())) {
+      assertThat(stream.collect(Collectors.toList())).isEqualTo(keys);
+    }
+    verify(amazonS3).listObjects(argThat((ListObjectsRequest request) ->
+        "docs/".equals(request.getPrefix()) && "/".equals(request.getDelimiter())));
+  }
+
+  @Test
+  void shouldStopAbandonedParallelListingAfterConsumerTimeout() {
+    var executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(2);
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, new S3ConfigProperties(), null, executor);
+    mockBigListing("bucket");
+
+    var firstKey = cephServiceS3.getKeysInParallel("bucket", ParallelListingOptions.builder()
+        .boundaries(List.of("key01500")).consumerTimeout(Duration.ofMillis(200)).build())
+        .findFirst();
+
+    assertThat(firstKey).isPresent();
+    awaitIdle(executor, false);
+    cephServiceS3.destroy();
+  }
+
+  @Test
+  void shouldStopUnreachableParallelListing() {
+    var executor = (ThreadPoolExecutor) Executors.newFixedThreadPool(2);
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, new S3ConfigProperties(), null, executor);
+    mockBigListing("bucket");
+
+    var firstKey = cephServiceS3.getKeysInParallel("bucket", ParallelListingOptions.builder()
+        .boundaries(List.of("key01500")).consumerTimeout(Duration.ofHours(1)).build())
+        .findFirst();
+
+    assertThat(firstKey).isPresent();
+    awaitIdle(executor, true);
+    cephServiceS3.destroy();
+  }
+
+  @Test
+  void shouldFailParallelListingWhenShardFails() {
+    var bucketName = "bucket";
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.listObjects(any(ListObjectsRequest.class))).thenThrow(new RuntimeException());
+
+    var options = ParallelListingOptions.builder().boundaries(List.of("m")).build();
+    try (var stream = cephServiceS3.getKeysInParallel(bucketName, options)) {
+      assertThrows(CephCommunicationException.class, stream::count);
+    }
+  }
+
+  @Test
+  void shouldWarmUpConnectionsAndVerifyBuckets() {
+    var warmUpProperties = new WarmUpProperties();
+    warmUpProperties.setConnections(3);
+    warmUpProperties.setBuckets(List.of("bucket", "missing"));
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket("bucket")));
+
+    var result = cephServiceS3.warmUp(warmUpProperties).join();
+
+    verify(amazonS3, times(3)).listBuckets();
+    assertThat(result.isReady()).isFalse();
+    assertThat(result.getOpenedConnections()).isEqualTo(3);
+    assertThat(result.getMissingBuckets()).containsExactly("missing");
+    assertThat(result.getDuration()).isNotNull();
+  }
+
+  @Test
+  void shouldLimitWarmUpConnectionsToConnectionPool() {
+    var s3ConfigProperties = new S3ConfigProperties();
+    s3ConfigProperties.getClient().setMaxConnections(2);
+    var warmUpProperties = new WarmUpProperties();
+    warmUpProperties.setConnections(5);
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket("bucket")));
+
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, s3ConfigProperties);
+    var result = cephServiceS3.warmUp(warmUpProperties).join();
+
+    verify(amazonS3, times(2)).listBuckets();
+    assertThat(result.isReady()).isTrue();
+    assertThat(result.getOpenedConnections()).isEqualTo(2);
+  }
+
+  @Test
+  void shouldReportCauseOfFailedWarmUpRequest() {
+    var warmUpProperties = new WarmUpProperties();
+    warmUpProperties.setConnections(1);
+
+    when(amazonS3.listBuckets()).thenThrow(new IllegalStateException("unreachable"));
+
+    var result = cephServiceS3.warmUp(warmUpProperties).join();
+
+    assertThat(result.getError()).isEqualTo("unreachable");
+  }
+
+  @Test
+  void shouldNotBeReadyWhenWarmUpRequestsFail() {
+    var warmUpProperties = new WarmUpProperties();
+    warmUpProperties.setConnections(2);
+
+    when(amazonS3.listBuckets()).thenThrow(new RuntimeException("unreachable"));
+
+    var result = cephServiceS3.warmUp(warmUpProperties).join();
+
+    assertThat(result.isReady()).isFalse();
+    assertThat(result.getOpenedConnections()).isZero();
+    assertThat(result.getError()).contains("unreachable");
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldCoalesceConcurrentReadsOfSameContent() {
+    var bucketName = "bucket";
+    var contentKey = "key";
+    var leaderStarted = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.doesObjectExist(bucketName, contentKey)).thenReturn(true);
+    when(amazonS3.getObjectAsString(bucketName, contentKey)).thenAnswer(invocation -> {
+      leaderStarted.countDown();
+      release.await();
+      return "content";
+    });
+
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, coalescingProperties());
+    var results = new ConcurrentLinkedQueue<String>();
+    Runnable read = () -> results.add(cephServiceS3.getAsString(bucketName, contentKey).get());
+    var leader = new Thread(read);
+    leader.start();
+    leaderStarted.await();
+    var waiters = List.of(new Thread(read), new Thread(read), new Thread(read));
+    waiters.forEach(Thread::start);
+    awaitWaiting(waiters);
+    release.countDown();
+    leader.join();
+    for (var waiter : waiters) {
+      waiter.join();
+    }
+
+    verify(amazonS3).getObjectAsString(bucketName, contentKey);
+    assertThat(results).hasSize(4).containsOnly("content");
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldCallAgainForCoalescedReaderWhenDeadlineOfFirstReaderIsExceeded() {
+    var bucketName = "bucket";
+    var contentKey = "key";
+    var leaderStarted = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.doesObjectExist(bucketName, contentKey)).thenReturn(true);
+    when(amazonS3.getObjectAsString(bucketName, contentKey)).thenAnswer(invocation -> {
+      leaderStarted.countDown();
+      release.await();
+      throw new ClientExecutionTimeoutException();
+    }).thenReturn("content");
+
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, coalescingProperties());
+    var leaderFailure = new CompletableFuture<Throwable>();
+    var leader = new Thread(() -> leaderFailure.complete(assertThrows(CephTimeoutException.class,
+        () -> cephServiceS3.getAsString(bucketName, contentKey))));
+    leader.start();
+    leaderStarted.await();
+    var result = new CompletableFuture<String>();
+    var waiter = new Thread(() -> result.complete(
+        cephServiceS3.getAsString(bucketName, contentKey).get()));
+    waiter.start();
+    awaitWaiting(List.of(waiter));
+    release.countDown();
+    leader.join();
+    waiter.join();
+
+    assertThat(leaderFailure).isCompleted();
+    assertThat(result).isCompletedWithValue("content");
+    verify(amazonS3, times(2)).getObjectAsString(bucketName, contentKey);
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldShareErrorOfCoalescedCallWithWaitingReaders() {
+    var bucketName = "bucket";
+    var contentKey = "key";
+    var leaderStarted = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.doesObjectExist(bucketName, contentKey)).thenReturn(true);
+    when(amazonS3.getObjectAsString(bucketName, contentKey)).thenAnswer(invocation -> {
+      leaderStarted.countDown();
+      release.await();
+      throw new AssertionError("broken");
+    });
+
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, coalescingProperties());
+    var failures = new ConcurrentLinkedQueue<Throwable>();
+    Runnable read = () -> failures.add(assertThrows(AssertionError.class,
+        () -> cephServiceS3.getAsString(bucketName, contentKey)));
+    var leader = new Thread(read);
+    leader.start();
+    leaderStarted.await();
+    var waiter = new Thread(read);
+    waiter.start();
+    awaitWaiting(List.of(waiter));
+    release.countDown();
+    leader.join(TimeUnit.SECONDS.toMillis(10));
+    waiter.join(TimeUnit.SECONDS.toMillis(10));
+
+    assertThat(waiter.isAlive()).isFalse();
+    assertThat(failures).hasSize(2);
+    verify(amazonS3).getObjectAsString(bucketName, contentKey);
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldGiveEveryCoalescedReaderOwnCopyOfSmallObject() {
+    var bucketName = "bucket";
+    var contentKey = "key";
+    var leaderStarted = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var s3Object = new S3Object();
+    s3Object.setObjectContent(new ByteArrayInputStream("content".getBytes()));
+    var metadata = new ObjectMetadata();
+    metadata.setContentLength(7L);
+    metadata.setUserMetadata(Map.of("name", "value"));
+    s3Object.setObjectMetadata(metadata);
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.doesObjectExist(bucketName, contentKey)).thenReturn(true);
+    when(amazonS3.getObject(bucketName, contentKey)).thenAnswer(invocation -> {
+      leaderStarted.countDown();
+      release.await();
+      return s3Object;
+    });
+
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, coalescingProperties());
+    var results = new ConcurrentLinkedQueue<CephObject>();
+    Runnable read = () -> results.add(cephServiceS3.get(bucketName, contentKey).get());
+    var leader = new Thread(read);
+    leader.start();
+    leaderStarted.await();
+    var waiter = new Thread(read);
+    waiter.start();
+    awaitWaiting(List.of(waiter));
+    release.countDown();
+    leader.join();
+    waiter.join();
+
+    verify(amazonS3).getObject(bucketName, contentKey);
+    assertThat(results).hasSize(2);
+    for (var result : results) {
+      assertThat(result.getContent().readAllBytes()).isEqualTo("content".getBytes());
+      assertThat(result.getMetadata().getUserMetadata()).containsEntry("name", "value");
+    }
+    var iterator = results.iterator();
+    assertThat(iterator.next().getMetadata()).isNotSameAs(iterator.next().getMetadata());
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldGetChangedObjectWithItsMetadata() {
+    var bucketName = "bucket";
+    var contentKey = "key";
+    var lastModified = new Date();
+    var s3Object = new S3Object();
+    s3Object.setObjectContent(new ByteArrayInputStream("content".getBytes()));
+    var metadata = new ObjectMetadata();
+    metadata.setHeader("ETag", "new");
+    metadata.setLastModified(lastModified);
+    metadata.setHeader("x-amz-version-id", "version");
+    metadata.setCacheControl("max-age=60");
+    s3Object.setObjectMetadata(metadata);
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    var requestCaptor = ArgumentCaptor.forClass(GetObjectRequest.class);
+    when(amazonS3.getObject(requestCaptor.capture())).thenReturn(s3Object);
+
+    var result = cephServiceS3.getIfChanged(bucketName, contentKey, "old");
+
+    assertThat(requestCaptor.getValue().getNonmatchingETagConstraints()).containsExactly("old");
+    assertThat(result.isModified()).isTrue();
+    assertThat(result.getObject().getContent().readAllBytes()).isEqualTo("content".getBytes());
+    var resultMetadata = result.getObject().getMetadata();
+    assertThat(resultMetadata.getETag()).isEqualTo("new");
+    assertThat(resultMetadata.getLastModified()).isEqualTo(lastModified);
+    assertThat(resultMetadata.getVersionId()).isEqualTo("version");
+    assertThat(resultMetadata.getCacheControl()).isEqualTo("max-age=60");
+  }
+
+  @Test
+  void shouldReportNotModifiedObject() {
+    var bucketName = "bucket";
+    var contentKey = "key";
+    var modifiedSince = new Date();
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    var requestCaptor = ArgumentCaptor.forClass(GetObjectRequest.class);
+    when(amazonS3.getObject(requestCaptor.capture())).thenReturn(null);
+
+    var result = cephServiceS3.getIfModifiedSince(bucketName, contentKey, modifiedSince);
+
+    assertThat(requestCaptor.getValue().getModifiedSinceConstraint()).isEqualTo(modifiedSince);
+    assertThat(result.isNotModified()).isTrue();
+    assertThat(result.getObject()).isNull();
+  }
+
+  @Test
+  void shouldReportNotFoundObjectOnConditionalGet() {
+    var bucketName = "bucket";
+    var notFound = new AmazonS3Exception("Not Found");
+    notFound.setStatusCode(404);
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.getObject(any(GetObjectRequest.class))).thenThrow(notFound);
+
+    var result = cephServiceS3.getIfChanged(bucketName, "key", "etag");
+
+    assertThat(result.getStatus()).isEqualTo(ConditionalGetResult.Status.NOT_FOUND);
+  }
+
+  @Test
+  void shouldStoreChecksumOfPutContent() {
+    var bucketName = "bucket";
+    var contentKey = "key";
+    var s3ConfigProperties = new S3ConfigProperties();
+    s3ConfigProperties.getChecksum().setEnabled(true);
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, s3ConfigProperties);
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    var metadataCaptor = ArgumentCaptor.forClass(ObjectMetadata.class);
+    when(amazonS3.putObject(eq(bucketName), eq(contentKey), any(ByteArrayInputStream.class),
+        metadataCaptor.capture())).thenReturn(new PutObjectResult());
+
+    cephServiceS3.put(bucketName, contentKey, "content");
+
+    var metadata = metadataCaptor.getValue();
+    assertThat(metadata.getContentMD5())
+        .isEqualTo(ChecksumAlgorithm.MD5.checksumOf("content".getBytes()));
+    assertThat(metadata.getUserMetadata()).containsEntry("checksum-sha256",
+        ChecksumAlgorithm.SHA256.checksumOf("content".getBytes()));
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldVerifyChecksumOfReadContent() {
+    var bucketName = "bucket";
+    var contentKey = "key";
+    var s3ConfigProperties = new S3ConfigProperties();
+    s3ConfigProperties.getChecksum().setEnabled(true);
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, s3ConfigProperties);
+    var s3Object = new S3Object();
+    s3Object.setObjectContent(new ByteArrayInputStream("corrupted".getBytes()));
+    var metadata = new ObjectMetadata();
+    metadata.setUserMetadata(
+        Map.of("checksum-sha256", ChecksumAlgorithm.SHA256.checksumOf("content".getBytes())));
+    s3Object.setObjectMetadata(metadata);
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.doesObjectExist(bucketName, contentKey)).thenReturn(true);
+    when(amazonS3.getObject(bucketName, contentKey)).thenReturn(s3Object);
+
+    var result = cephServiceS3.get(bucketName, contentKey).get();
+
+    assertThat(result.getMetadata().getChecksumAlgorithm()).isEqualTo(ChecksumAlgorithm.SHA256);
+    assertThrows(ChecksumMismatchException.class, () -> result.getContent().readAllBytes());
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldReadBigObjectWithPrefetchingAndResumeDroppedRange() {
+    var bucketName = "bucket";
+    var contentKey = "key";
+    var content = "0123456789".getBytes();
+    var s3ConfigProperties = new S3ConfigProperties();
+    s3ConfigProperties.getPrefetch().setEnabled(true);
+    s3ConfigProperties.getPrefetch().setMinObjectSize(5L);
+    s3ConfigProperties.getPrefetch().setChunkSize(4);
+    s3ConfigProperties.getPrefetch().setBuffers(2);
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, s3ConfigProperties);
+    var metadata = new ObjectMetadata();
+    metadata.setContentLength(content.length);
+    metadata.setHeader("ETag", "etag");
+    var dropped = new AtomicBoolean();
+    var ranges = new ConcurrentLinkedQueue<String>();
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.getObjectMetadata(bucketName, contentKey)).thenReturn(metadata);
+    when(amazonS3.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+      GetObjectRequest request = invocation.getArgument(0);
+      assertThat(request.getMatchingETagConstraints()).containsExactly("etag");
+      var range = request.getRange();
+      ranges.add(range[0] + "-" + range[1]);
+      var s3Object = new S3Object();
+      var from = (int) range[0];
+      var to = (int) range[1] + 1;
+      if (from == 4 && dropped.compareAndSet(false, true)) {
+        s3Object.setObjectContent(new SequenceInputStream(
+            new ByteArrayInputStream(content, from, 1), new InputStream() {
+              @Override
+              public int read() throws IOException {
+                throw new IOException("Connection reset");
+              }
+            }));
+      } else {
+        s3Object.setObjectContent(new ByteArrayInputStream(content, from, to - from));
+      }
+      return s3Object;
+    });
+
+    var result = cephServiceS3.get(bucketName, contentKey);
+
+    assertThat(result).isPresent();
+    assertThat(result.get().getContent().readAllBytes()).isEqualTo(content);
+    assertThat(ranges).containsExactlyInAnyOrder("0-3", "4-7", "5-7", "8-9");
+  }
+
+  @Test
+  void shouldGeneratePresignedUrlsOffline() {
+    var offlineService = new CephServiceS3Impl("http://localhost:7480", "access", "secret");
+    var options = PresignedUrlOptions.builder()
+        .expiration(Duration.ofMinutes(5))
+        .contentType("application/pdf")
+        .contentLength(1024L)
+        .build();
+
+    var getUrl = offlineService.generatePresignedGetUrl("bucket", "key", options);
+    var putUrl = offlineService.generatePresignedPutUrl("bucket", "key", options);
+    var partUrl = offlineService.generatePresignedPartUrl("bucket", "key", "upload", 2, options);
+
+    assertThat(getUrl.getHost()).isEqualTo("localhost");
+    assertThat(getUrl.getPath()).isEqualTo("/bucket/key");
+    assertThat(getUrl.getQuery()).contains("X-Amz-Expires=", "X-Amz-Signature=",
+        "response-content-type=application%2Fpdf");
+    assertThat(putUrl.getQuery()).contains("X-Amz-Signature=", "content-length",
+        "content-type");
+    assertThat(partUrl.getQuery()).contains("uploadId=upload", "partNumber=2");
+  }
+
+  @Test
+  void shouldDeleteByPrefixPageByPage() {
+    var bucketName = "bucket";
+    var firstPage = pageOf(List.of("process/1", "process/2"), true);
+    var secondPage = pageOf(List.of("process/3"), false);
+    var error = new DeleteError();
+    error.setKey("process/3");
+    var progress = new ConcurrentLinkedQueue<DeletionProgress>();
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    var listCaptor = ArgumentCaptor.forClass(ListObjectsRequest.class);
+    when(amazonS3.listObjects(listCaptor.capture())).thenReturn(firstPage);
+    when(amazonS3.listNextBatchOfObjects(firstPage)).thenReturn(secondPage);
+    var deleteCaptor = ArgumentCaptor.forClass(DeleteObjectsRequest.class);
+    when(amazonS3.deleteObjects(deleteCaptor.capture())).thenAnswer(invocation -> {
+      DeleteObjectsRequest request = invocation.getArgument(0);
+      if (request.getKeys().size() == 1) {
+        throw new MultiObjectDeleteException(List.of(error), List.of());
+      }
+      return null;
+    });
+
+    var result = cephServiceS3.deleteByPrefix(bucketName, "process/",
+        DeletionOptions.builder().batchSize(2).progressListener(progress::add).build());
+
+    assertThat(listCaptor.getValue().getPrefix()).isEqualTo("process/");
+    assertThat(listCaptor.getValue().getMaxKeys()).isEqualTo(2);
+    assertThat(deleteCaptor.getAllValues()).hasSize(2);
+    assertThat(result.getListedKeys()).isEqualTo(3L);
+    assertThat(result.getDeletedKeys()).isEqualTo(2L);
+    assertThat(result.getFailedKeys()).isEqualTo(1L);
+    assertThat(progress).hasSize(3).last().isEqualTo(result);
+  }
+
+  @Test
+  void shouldOnlyCountKeysOnDryRunDeletion() {
+    var bucketName = "bucket";
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.listObjects(any(ListObjectsRequest.class)))
+        .thenReturn(pageOf(List.of("process/1", "process/2"), false));
+
+    var result = cephServiceS3.deleteByPrefix(bucketName, "process/",
+        DeletionOptions.builder().dryRun(true).build());
+
+    verify(amazonS3, times(0)).deleteObjects(any(DeleteObjectsRequest.class));
+    assertThat(result.isDryRun()).isTrue();
+    assertThat(result.getListedKeys()).isEqualTo(2L);
+    assertThat(result.getDeletedKeys()).isZero();
+  }
+
+  @Test
+  void shouldReportTimeoutOfRequestAsTimeoutException() {
+    var bucketName = "bucket";
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.listObjects(bucketName, "docs/"))
+        .thenThrow(new ClientExecutionTimeoutException());
+
+    assertThrows(CephTimeoutException.class, () -> cephServiceS3.getKeys(bucketName, "docs/"));
+  }
+
+  @Test
+  void shouldTellWhetherFailedRequestIsSafeToRetry() {
+    var bucketName = "bucket";
+    var slowDown = new AmazonS3Exception("Please reduce your request rate.");
+    slowDown.setStatusCode(503);
+    slowDown.setErrorCode("SlowDown");
+    var internalError = new AmazonS3Exception("Internal Error");
+    internalError.setStatusCode(500);
+    var accessDenied = new AmazonS3Exception("Access Denied");
+    accessDenied.setStatusCode(403);
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.listObjects(bucketName, "docs/"))
+        .thenThrow(slowDown, internalError, accessDenied);
+
+    var throttled = assertThrows(CephThrottledException.class,
+        () -> cephServiceS3.getKeys(bucketName, "docs/"));
+    var failed = assertThrows(CephRetryableException.class,
+        () -> cephServiceS3.getKeys(bucketName, "docs/"));
+    var denied = assertThrows(CephCommunicationException.class,
+        () -> cephServiceS3.getKeys(bucketName, "docs/"));
+    assertThat(throttled.isRetryable()).isTrue();
+    assertThat(failed).isNotInstanceOf(CephThrottledException.class);
+    assertThat(failed.isRetryable()).isTrue();
+    assertThat(denied.isRetryable()).isFalse();
+  }
+
+  @Test
+  void shouldListPageOfFoldersAndContinueFromPageToken() {
+    var bucketName = "bucket";
+    var firstPage = pageOf(List.of("docs/1"), true);
+    firstPage.setCommonPrefixes(List.of("docs/a/", "docs/b/"));
+    firstPage.setNextMarker("docs/b/");
+    var secondPage = pageOf(List.of("docs/2"), false);
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    var listCaptor = ArgumentCaptor.forClass(ListObjectsRequest.class);
+    when(amazonS3.listObjects(listCaptor.capture())).thenReturn(firstPage, secondPage);
+
+    var first = cephServiceS3.list(bucketName, "docs/", "/", 3, null);
+    var second = cephServiceS3.list(bucketName, "docs/", "/", 3, first.getNextPageToken());
+
+    assertThat(first.getCommonPrefixes()).containsExactly("docs/a/", "docs/b/");
+    assertThat(first.getObjects()).extracting(CephObjectSummary::getKey)
+        .containsExactly("docs/1");
+    assertThat(first.getNextPageToken()).isNotNull().doesNotContain("docs");
+    assertThat(second.getObjects()).extracting(CephObjectSummary::getKey)
+        .containsExactly("docs/2");
+    assertThat(second.getNextPageToken()).isNull();
+    assertThat(listCaptor.getAllValues()).extracting(ListObjectsRequest::getMarker)
+        .containsExactly(null, "docs/b/");
+    assertThat(listCaptor.getValue().getDelimiter()).isEqualTo("/");
+    assertThat(listCaptor.getValue().getMaxKeys()).isEqualTo(3);
+  }
+
+  @Test
+  void shouldRejectInvalidPageToken() {
+    assertThrows(IllegalArgumentException.class,
+        () -> cephServiceS3.list("bucket", "docs/", "/", 10, "not a token"));
+    verify(amazonS3, never()).listObjects(any(ListObjectsRequest.class));
+  }
+
+  private static ObjectListing pageOf(List<String> keys, boolean truncated) {
+    var listing = new ObjectListing();
+    for (var key : keys) {
+      var summary = new S3ObjectSummary();
+      summary.setKey(key);
+      listing.getObjectSummaries().add(summary);
+    }
+    listing.setTruncated(truncated);
+    return listing;
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldAbortConnectionWhenBigRemainderIsLeftUnread() {
+    var httpRequest = mock(HttpGet.class);
+
+    try (var cephObject = getObjectWithDrainThreshold(4L, httpRequest)) {
+      assertThat(cephObject.getContent().readNBytes(2)).isEqualTo("01".getBytes());
+    }
+
+    verify(httpRequest).abort();
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldDrainSmallRemainderToReuseConnection() {
+    var httpRequest = mock(HttpGet.class);
+
+    try (var cephObject = getObjectWithDrainThreshold(4L, httpRequest)) {
+      assertThat(cephObject.getContent().readNBytes(8)).isEqualTo("01234567".getBytes());
+    }
+
+    verify(httpRequest, times(0)).abort();
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldAbortConnectionWhenContentPutIntoCacheIsLeftUnread(@TempDir Path directory) {
+    var bucketName = "bucket";
+    var contentKey = "key";
+    var httpRequest = mock(HttpGet.class);
+    var s3ConfigProperties = new S3ConfigProperties();
+    s3ConfigProperties.getContent().setDrainThreshold(4L);
+    s3ConfigProperties.getCache().setEnabled(true);
+    s3ConfigProperties.getCache().setDirectory(directory.toString());
+    s3ConfigProperties.getCache().setBuckets(List.of(bucketName));
+    s3ConfigProperties.getCache().setMinObjectSize(0L);
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, s3ConfigProperties);
+    var metadata = new ObjectMetadata();
+    metadata.setContentLength(10L);
+    metadata.setHeader(Headers.ETAG, "etag");
+    var s3Object = new S3Object();
+    s3Object.setObjectContent(new S3ObjectInputStream(
+        new ByteArrayInputStream("0123456789".getBytes()), httpRequest));
+    s3Object.setObjectMetadata(metadata);
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.getObjectMetadata(bucketName, contentKey)).thenReturn(metadata);
+    when(amazonS3.getObject(any(GetObjectRequest.class))).thenReturn(s3Object);
+
+    try (var cephObject = cephServiceS3.get(bucketName, contentKey).orElseThrow()) {
+      assertThat(cephObject.getContent().readNBytes(2)).isEqualTo("01".getBytes());
+    }
+
+    verify(httpRequest).abort();
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldNotReportFullyReadContentThatWasNotClosed() {
+    var bucketName = "bucket";
+    var contentKey = "key";
+    var httpRequest = mock(HttpGet.class);
+    var contentLeakListener = mock(ContentLeakListener.class);
+    var released = new CountDownLatch(1);
+    var s3Object = new S3Object();
+    s3Object.setObjectContent(new S3ObjectInputStream(
+        new ByteArrayInputStream("0123456789".getBytes()) {
+          @Override
+          public void close() {
+            released.countDown();
+          }
+        }, httpRequest));
+    var metadata = new ObjectMetadata();
+    metadata.setContentLength(10L);
+    s3Object.setObjectMetadata(metadata);
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, new S3ConfigProperties(),
+        contentLeakListener);
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.doesObjectExist(bucketName, contentKey)).thenReturn(true);
+    when(amazonS3.getObject(bucketName, contentKey)).thenReturn(s3Object);
+
+    assertThat(readWithoutClosing(bucketName, contentKey)).isEqualTo("0123456789".getBytes());
+    while (!released.await(10L, TimeUnit.MILLISECONDS)) {
+      System.gc();
+    }
+
+    verify(httpRequest, never()).abort();
+    verify(contentLeakListener, never()).onContentLeaked(bucketName, contentKey);
+  }
+
+  @SneakyThrows
+  private byte[] readWithoutClosing(String bucketName, String contentKey) {
+    return cephServiceS3.get(bucketName, contentKey).orElseThrow().getContent().readAllBytes();
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldReadSpooledContentBeforeItIsUploaded(@TempDir Path directory) {
+    var bucketName = "bucket";
+    var contentKey = "key";
+    var s3ConfigProperties = new S3ConfigProperties();
+    s3ConfigProperties.getSpool().setEnabled(true);
+    s3ConfigProperties.getSpool().setBuckets(List.of(bucketName));
+    s3ConfigProperties.getSpool().setDirectory(directory.toString());
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, s3ConfigProperties);
+    var uploadAllowed = new CountDownLatch(1);
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.putObject(bucketName, contentKey, "content")).thenAnswer(invocation -> {
+      uploadAllowed.await();
+      return new PutObjectResult();
+    });
+    when(amazonS3.listObjects(bucketName, "")).thenReturn(new ObjectListing());
+
+    cephServiceS3.put(bucketName, contentKey, "content");
+
+    assertThat(cephServiceS3.getAsString(bucketName, contentKey)).contains("content");
+    assertThat(cephServiceS3.exist(bucketName, contentKey)).isTrue();
+    assertThat(cephServiceS3.getKeys(bucketName, "")).containsOnly(contentKey);
+    uploadAllowed.countDown();
+    var writeSpool = cephServiceS3.getWriteSpool().orElseThrow();
+    assertThat(writeSpool.awaitUploaded(Duration.ofSeconds(10))).isTrue();
+    verify(amazonS3).putObject(bucketName, contentKey, "content");
+    verify(amazonS3, never()).getObjectAsString(bucketName, contentKey);
+  }
+
+  @Test
+  void shouldServePackedContentsTransparently() {
+    var bucketName = "bucket";
+    var bucket = InMemoryBucket.stub(amazonS3, bucketName);
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, packingProperties(bucketName));
+
+    cephServiceS3.putAll(bucketName, Map.of("doc/1", "first", "doc/2", "second"));
+    cephServiceS3.put(bucketName, "doc/3", "big content");
+
+    assertThat(bucket.getPutKeys()).hasSize(2);
+    assertThat(cephServiceS3.getAsString(bucketName, "doc/1")).contains("first");
+    assertThat(cephServiceS3.exist(bucketName, Set.of("doc/1", "doc/2", "doc/3"))).isTrue();
+    assertThat(cephServiceS3.getKeys(bucketName, "doc/"))
+        .containsOnly("doc/1", "doc/2", "doc/3");
+    assertThat(cephServiceS3.getKeys(bucketName)).containsOnly("doc/1", "doc/2", "doc/3");
+
+    cephServiceS3.put(bucketName, "doc/1", "big content");
+    cephServiceS3.delete(bucketName, Set.of("doc/2"));
+
+    assertThat(cephServiceS3.getAsString(bucketName, "doc/1")).contains("big content");
+    assertThat(cephServiceS3.exist(bucketName, "doc/2")).isFalse();
+    assertThat(cephServiceS3.getKeys(bucketName)).containsOnly("doc/1", "doc/3");
+  }
+
+  @Test
+  void shouldDeletePackedKeysByPrefixKeepingPacks() {
+    var bucketName = "bucket";
+    InMemoryBucket.stub(amazonS3, bucketName);
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, packingProperties(bucketName));
+    cephServiceS3.putAll(bucketName,
+        Map.of("doc/1", "first", "doc/2", "second", "other", "other"));
+    cephServiceS3.put(bucketName, "doc/3", "big content");
+
+    var dryRun = cephServiceS3.deleteByPrefix(bucketName, "",
+        DeletionOptions.builder().dryRun(true).build());
+    var result = cephServiceS3.deleteByPrefix(bucketName, "doc/",
+        DeletionOptions.builder().build());
+
+    assertThat(dryRun.getListedKeys()).isEqualTo(4L);
+    assertThat(result.getListedKeys()).isEqualTo(3L);
+    assertThat(result.getDeletedKeys()).isEqualTo(3L);
+    assertThat(cephServiceS3.getKeys(bucketName)).containsOnly("other");
+    assertThat(cephServiceS3.getAsString(bucketName, "doc/1")).isEmpty();
+    assertThat(cephServiceS3.getAsString(bucketName, "other")).contains("other");
+  }
+
+  @Test
+  void shouldUnpackKeysOverwrittenByPutsOfBytes() {
+    var bucketName = "bucket";
+    cephServiceS3 = newPackingService(bucketName, packingProperties(bucketName));
+
+    cephServiceS3.putAll(bucketName, "text/plain", Map.of("doc/1", bytes("overwritten")));
+
+    assertThat(cephServiceS3.getAsString(bucketName, "doc/1")).contains("overwritten");
+    assertThat(cephServiceS3.getAsString(bucketName, "doc/2")).contains("packed");
+  }
+
+  @Test
+  void shouldUnpackKeysOverwrittenByPutsOfStreams() {
+    var bucketName = "bucket";
+    cephServiceS3 = newPackingService(bucketName, packingProperties(bucketName));
+
+    cephServiceS3.put(bucketName, "doc/1", "text/plain", Map.of(), stream("overwritten"));
+    cephServiceS3.put(bucketName, "doc/2", "text/plain", 11L, Map.of(), stream("overwritten"));
+
+    assertThat(cephServiceS3.getAsString(bucketName, "doc/1")).contains("overwritten");
+    assertThat(cephServiceS3.getAsString(bucketName, "doc/2")).contains("overwritten");
+  }
+
+  @Test
+  void shouldUnpackKeysOverwrittenByDeduplicatedPuts(@TempDir Path directory) {
+    var bucketName = "bucket";
+    var s3ConfigProperties = packingProperties(bucketName);
+    s3ConfigProperties.setDedup(dedupProperties(bucketName, directory).getDedup());
+    cephServiceS3 = newPackingService(bucketName, s3ConfigProperties);
+
+    cephServiceS3.put(bucketName, "doc/1", "text/plain", Map.of(), stream("overwritten"));
+
+    assertThat(cephServiceS3.getAsString(bucketName, "doc/1")).contains("overwritten");
+    assertThat(cephServiceS3.getKeys(bucketName)).containsOnly("doc/1", "doc/2");
+  }
+
+  @Test
+  void shouldUnpackKeysOverwrittenByCopyAndMove() {
+    var bucketName = "bucket";
+    cephServiceS3 = newPackingService(bucketName, packingProperties(bucketName));
+    cephServiceS3.put(bucketName, "source/1", "copied content");
+    cephServiceS3.put(bucketName, "source/2", "moved content");
+
+    cephServiceS3.copy(bucketName, "source/1", bucketName, "doc/1");
+    cephServiceS3.move(bucketName, "source/2", bucketName, "doc/2");
+
+    assertThat(cephServiceS3.getAsString(bucketName, "doc/1")).contains("copied content");
+    assertThat(cephServiceS3.getAsString(bucketName, "doc/2")).contains("moved content");
+  }
+
+  @Test
+  void shouldUnpackKeysOverwrittenByCopyOfPrefix() {
+    var bucketName = "bucket";
+    cephServiceS3 = newPackingService(bucketName, packingProperties(bucketName));
+    cephServiceS3.put(bucketName, "source/1", "copied content");
+
+    cephServiceS3.copyPrefix(bucketName, "source/", bucketName, "doc/");
+
+    assertThat(cephServiceS3.getAsString(bucketName, "doc/1")).contains("copied content");
+    assertThat(cephServiceS3.getAsString(bucketName, "doc/2")).contains("packed");
+  }
+
+  @Test
+  void shouldCopyAndMovePackedSources() {
+    var bucketName = "bucket";
+    cephServiceS3 = newPackingService(bucketName, packingProperties(bucketName));
+
+    cephServiceS3.copy(bucketName, "doc/1", bucketName, "copied/1");
+    cephServiceS3.move(bucketName, "doc/2", bucketName, "moved/2");
+    var result = cephServiceS3.copyPrefix(bucketName, "doc/", bucketName, "prefix/");
+
+    assertThat(result.getResults()).containsOnly(Map.entry("doc/1", "prefix/1"));
+    assertThat(result.getFailures()).isEmpty();
+    assertThat(cephServiceS3.getAsString(bucketName, "copied/1")).contains("packed");
+    assertThat(cephServiceS3.getAsString(bucketName, "moved/2")).contains("packed");
+    assertThat(cephServiceS3.getAsString(bucketName, "prefix/1")).contains("packed");
+    assertThat(cephServiceS3.getAsString(bucketName, "doc/2")).isEmpty();
+    assertThat(cephServiceS3.getKeys(bucketName))
+        .containsOnly("doc/1", "copied/1", "moved/2", "prefix/1");
+  }
+
+  @Test
+  void shouldGetMetadataOfPackedContentAndEvaluateConditions() {
+    var bucketName = "bucket";
+    cephServiceS3 = newPackingService(bucketName, packingProperties(bucketName));
+    var eTag = BinaryUtils.toHex(Md5Utils.computeMD5Hash(bytes("packed")));
+
+    var metadata = cephServiceS3.getMetadata(bucketName, Set.of("doc/1"));
+    var prefixMetadata = cephServiceS3.getMetadata(bucketName, "doc/");
+
+    assertThat(metadata).singleElement().satisfies(found -> {
+      assertThat(found.getETag()).isEqualTo(eTag);
+      assertThat(found.getContentLength()).isEqualTo(6L);
+      assertThat(found.getLastModified()).isNotNull();
+    });
+    assertThat(prefixMetadata).hasSize(2);
+    assertThat(cephServiceS3.getIfChanged(bucketName, "doc/1", eTag).getStatus())
+        .isEqualTo(Status.NOT_MODIFIED);
+    assertThat(cephServiceS3.getIfModifiedSince(bucketName, "doc/1", new Date(Long.MAX_VALUE))
+        .getStatus()).isEqualTo(Status.NOT_MODIFIED);
+    var changed = cephServiceS3.getIfChanged(bucketName, "doc/1", "other");
+    assertThat(changed.getStatus()).isEqualTo(Status.MODIFIED);
+    assertThat(changed.getObject().getMetadata().getETag()).isEqualTo(eTag);
+    assertThat(cephServiceS3.getIfModifiedSince(bucketName, "doc/1", new Date(0L)).getStatus())
+        .isEqualTo(Status.MODIFIED);
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldUploadSameContentOnceAndResolvePointersOnGet(@TempDir Path directory) {
+    var bucketName = "bucket";
+    var document = "scanned document";
+    var bucket = InMemoryBucket.stub(amazonS3, bucketName);
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, dedupProperties(bucketName, directory));
+
+    var putMetadata = cephServiceS3.put(bucketName, "doc/1", "application/pdf",
+        Map.of("owner", "1"), stream(document));
+    cephServiceS3.put(bucketName, "doc/2", "application/pdf", document.length(),
+        Map.of("owner", "2"), stream(document));
+    cephServiceS3.put(bucketName, "doc/3", "text/plain", Map.of(), stream("other document"));
+
+    assertThat(bucket.getPutKeys()).filteredOn(key -> key.startsWith(".content/")).hasSize(2);
+    assertThat(putMetadata.getContentLength()).isEqualTo(document.length());
+    assertThat(putMetadata.getUserMetadata()).containsOnly(Map.entry("owner", "1"));
+    try (var object = cephServiceS3.get(bucketName, "doc/2").orElseThrow()) {
+      assertThat(new String(object.getContent().readAllBytes(), StandardCharsets.UTF_8))
+          .isEqualTo(document);
+      assertThat(object.getMetadata().getContentLength()).isEqualTo(document.length());
+      assertThat(object.getMetadata().getContentType()).isEqualTo("application/pdf");
+      assertThat(object.getMetadata().getUserMetadata()).containsOnly(Map.entry("owner", "2"));
+    }
+    assertThat(cephServiceS3.getAsString(bucketName, "doc/3")).contains("other document");
+    assertThat(cephServiceS3.getKeys(bucketName)).containsOnly("doc/1", "doc/2", "doc/3");
+  }
+
+  @Test
+  void shouldResolvePointersOnGetAllWithPrefetchingOnSingleThread(@TempDir Path directory) {
+    var bucketName = "bucket";
+    var document = "scanned document";
+    InMemoryBucket.stub(amazonS3, bucketName);
+    var s3ConfigProperties = dedupProperties(bucketName, directory);
+    s3ConfigProperties.getClient().setMaxConnections(1);
+    s3ConfigProperties.getPrefetch().setEnabled(true);
+    s3ConfigProperties.getPrefetch().setMinObjectSize(5L);
+    s3ConfigProperties.getPrefetch().setChunkSize(4);
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, s3ConfigProperties);
+    cephServiceS3.put(bucketName, "doc/1", "text/plain", Map.of(), stream(document));
+
+    var result = assertTimeoutPreemptively(Duration.ofSeconds(10),
+        () -> cephServiceS3.getAll(bucketName, List.of("doc/1")));
+
+    assertThat(result.getResults()).containsOnly(Map.entry("doc/1", document));
+    assertThat(result.getFailures()).isEmpty();
+    cephServiceS3.destroy();
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldKeepContentOfPointerWhenUserMetadataIsSet(@TempDir Path directory) {
+    var bucketName = "bucket";
+    var document = "scanned document";
+    InMemoryBucket.stub(amazonS3, bucketName);
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, dedupProperties(bucketName, directory));
+    cephServiceS3.put(bucketName, "doc/1", "application/pdf", Map.of("owner", "1"),
+        stream(document));
+
+    var metadata = cephServiceS3.setUserMetadata(bucketName, "doc/1", Map.of("owner", "2"));
+
+    assertThat(metadata.getContentLength()).isEqualTo(document.length());
+    assertThat(metadata.getUserMetadata()).containsOnly(Map.entry("owner", "2"));
+    try (var object = cephServiceS3.get(bucketName, "doc/1").orElseThrow()) {
+      assertThat(new String(object.getContent().readAllBytes(), StandardCharsets.UTF_8))
+          .isEqualTo(document);
+      assertThat(object.getMetadata().getContentType()).isEqualTo("application/pdf");
+      assertThat(object.getMetadata().getUserMetadata()).containsOnly(Map.entry("owner", "2"));
+    }
+  }
+
+  @Test
+  void shouldResolvePointersOnGetAll(@TempDir Path directory) {
+    var bucketName = "bucket";
+    var document = "scanned document";
+    InMemoryBucket.stub(amazonS3, bucketName);
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, dedupProperties(bucketName, directory));
+    cephServiceS3.put(bucketName, "doc/1", "text/plain", Map.of(), stream(document));
+    cephServiceS3.put(bucketName, "doc/2", "text/plain", Map.of(), stream(document));
+
+    var result = cephServiceS3.getAll(bucketName, List.of("doc/1", "doc/2", "doc/3"));
+
+    assertThat(result.getResults())
+        .containsOnly(Map.entry("doc/1", document), Map.entry("doc/2", document));
+    assertThat(result.getFailures()).isEmpty();
+  }
+
+  @Test
+  void shouldDeleteSpooledKeysByPrefix(@TempDir Path directory) {
+    var bucketName = "bucket";
+    InMemoryBucket.stub(amazonS3, bucketName);
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, spoolProperties(bucketName, directory));
+    var exception = new AmazonS3Exception("Slow Down");
+    exception.setStatusCode(503);
+    doThrow(exception).when(amazonS3).putObject(bucketName, "doc/1", "spooled");
+    cephServiceS3.put(bucketName, "doc/1", "spooled");
+    cephServiceS3.put(bucketName, "doc/2", "text/plain", Map.of(), stream("stored"));
+
+    var dryRun = cephServiceS3.deleteByPrefix(bucketName, "doc/",
+        DeletionOptions.builder().dryRun(true).build());
+
+    assertThat(dryRun.getListedKeys()).isEqualTo(2L);
+    assertThat(cephServiceS3.getAsString(bucketName, "doc/1")).contains("spooled");
+
+    var result = cephServiceS3.deleteByPrefix(bucketName, "doc/",
+        DeletionOptions.builder().build());
+
+    assertThat(result.getListedKeys()).isEqualTo(2L);
+    assertThat(result.getDeletedKeys()).isEqualTo(2L);
+    assertThat(cephServiceS3.getAsString(bucketName, "doc/1")).isEmpty();
+    assertThat(cephServiceS3.getKeys(bucketName)).isEmpty();
+    assertThat(cephServiceS3.getWriteSpool().orElseThrow().getDepth()).isZero();
+    cephServiceS3.destroy();
+  }
+
+  @Test
+  void shouldCopyAndMoveSpooledSources(@TempDir Path directory) {
+    var bucketName = "bucket";
+    InMemoryBucket.stub(amazonS3, bucketName);
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, spoolProperties(bucketName, directory));
+    var exception = new AmazonS3Exception("Slow Down");
+    exception.setStatusCode(503);
+    doThrow(exception).when(amazonS3).putObject(eq(bucketName), argThat(key ->
+        key.startsWith("doc/")), eq("spooled"));
+    cephServiceS3.put(bucketName, "doc/1", "spooled");
+    cephServiceS3.put(bucketName, "doc/2", "spooled");
+
+    cephServiceS3.copy(bucketName, "doc/1", bucketName, "copied/1");
+    cephServiceS3.move(bucketName, "doc/2", bucketName, "moved/2");
+    var result = cephServiceS3.copyPrefix(bucketName, "doc/", bucketName, "prefix/");
+
+    assertThat(result.getResults()).containsOnly(Map.entry("doc/1", "prefix/1"));
+    assertThat(cephServiceS3.getAsString(bucketName, "copied/1")).contains("spooled");
+    assertThat(cephServiceS3.getAsString(bucketName, "moved/2")).contains("spooled");
+    assertThat(cephServiceS3.getAsString(bucketName, "prefix/1")).contains("spooled");
+    assertThat(cephServiceS3.getAsString(bucketName, "doc/2")).isEmpty();
+    assertThat(cephServiceS3.getWriteSpool().orElseThrow().getKeys(bucketName, ""))
+        .containsOnly("doc/1");
+    cephServiceS3.destroy();
+  }
+
+  private CephObject getObjectWithDrainThreshold(long drainThreshold, HttpGet httpRequest) {
+    var bucketName = "bucket";
+    var contentKey = "key";
+    var s3ConfigProperties = new S3ConfigProperties();
+    s3ConfigProperties.getContent().setDrainThreshold(drainThreshold);
+    cephServiceS3 = new CephServiceS3Impl(amazonS3, s3ConfigProperties);
+    var s3Object = new S3Object();
+    s3Object.setObjectContent(new S3ObjectInputStream(
+        new ByteArrayInputStream("0123456789".getBytes()), httpRequest));
+    var metadata = new ObjectMetadata();
+    metadata.setContentLength(10L);
+    s3Object.setObjectMetadata(metadata);
+
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.doesObjectExist(bucketName, contentKey)).thenReturn(true);
+    when(amazonS3.getObject(bucketName, contentKey)).thenReturn(s3Object);
+
+    return cephServiceS3.get(bucketName, contentKey).get();
+  }
+
+  private static S3ConfigProperties coalescingProperties() {
+    var s3ConfigProperties = new S3ConfigProperties();
+    s3ConfigProperties.getCoalescing().setEnabled(true);
+    return s3ConfigProperties;
+  }
+
+  /**
+   * @return properties packing contents of up to 8 bytes of the bucket
+   */
+  private static S3ConfigProperties packingProperties(String bucketName) {
+    var s3ConfigProperties = new S3ConfigProperties();
+    var packing = s3ConfigProperties.getPacking();
+    packing.setEnabled(true);
+    packing.setBuckets(List.of(bucketName));
+    packing.setMaxObjectSize(8);
+    packing.setMaxDelay(Duration.ofMillis(50));
+    packing.setRefreshInterval(Duration.ZERO);
+    packing.setCompactionInterval(Duration.ZERO);
+    return s3ConfigProperties;
+  }
+
+  /**
+   * @return service of an in-memory bucket with packed doc/1 and doc/2
+   */
+  private CephServiceS3Impl newPackingService(String bucketName,
+      S3ConfigProperties s3ConfigProperties) {
+    InMemoryBucket.stub(amazonS3, bucketName);
+    var cephService = new CephServiceS3Impl(amazonS3, s3ConfigProperties);
+    cephService.putAll(bucketName, Map.of("doc/1", "packed", "doc/2", "packed"));
+    return cephService;
+  }
+
+  private static S3ConfigProperties dedupProperties(String bucketName, Path directory) {
+    var s3ConfigProperties = new S3ConfigProperties();
+    var dedup = s3ConfigProperties.getDedup();
+    dedup.setEnabled(true);
+    dedup.setBuckets(List.of(bucketName));
+    dedup.setDirectory(directory.toString());
+    return s3ConfigProperties;
+  }
+
+  /**
+   * @return properties spooling puts of the bucket, failed uploads are retried in a minute
+   */
+  private static S3ConfigProperties spoolProperties(String bucketName, Path directory) {
+    var s3ConfigProperties = new S3ConfigProperties();
+    var spool = s3ConfigProperties.getSpool();
+    spool.setEnabled(true);
+    spool.setBuckets(List.of(bucketName));
+    spool.setDirectory(directory.toString());
+    spool.setRetryDelay(Duration.ofMinutes(1));
+    spool.setMaxRetryDelay(Duration.ofMinutes(1));
+    return s3ConfigProperties;
+  }
+
+  private static InputStream stream(String content) {
+    return new ByteArrayInputStream(bytes(content));
+  }
+
+  private static byte[] bytes(String content) {
+    return content.getBytes(StandardCharsets.UTF_8);
+  }
+
+  @SneakyThrows
+  private static void awaitWaiting(List<Thread> threads) {
+    while (threads.stream().anyMatch(thread -> thread.getState() != Thread.State.WAITING)) {
+      Thread.sleep(10L);
+    }
+  }
+
+  /**
+   * Every shard of the listing has more keys than the listing queue takes.
+   */
+  private void mockBigListing(String bucketName) {
+    var keys = new ArrayList<String>();
+    for (int i = 0; i < 3000; i++) {
+      keys.add(String.format("key%05d", i));
+    }
+    when(amazonS3.listBuckets()).thenReturn(Collections.singletonList(new Bucket(bucketName)));
+    when(amazonS3.listObjects(any(ListObjectsRequest.class))).thenAnswer(listingOf(keys));
+  }
+
+  @SneakyThrows
+  private static void awaitIdle(ThreadPoolExecutor executor, boolean collectGarbage) {
+    var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+    while (executor.getActiveCount() > 0) {
+      assertThat(System.nanoTime()).as("listing threads are released").isLessThan(deadline);
+      if (collectGarbage) {
+        System.gc();
+      }
+      Thread.sleep(50L);
+    }
+  }
+
+  private static Answer<ObjectListing> listingOf(List<String> keys) {
+    var sortedKeys = new TreeSet<>(keys);
+    return invocation -> {
+      ListObjectsRequest request = invocation.getArgument(0);
+      var prefix = request.getPrefix() == null ? "" : request.getPrefix();
+      var listing = new ObjectListing();
+      var commonPrefixes = new TreeSet<String>();
+      var marker = request.getMarker();
+      for (var key : marker == null ? sortedKeys : sortedKeys.tailSet(marker, false)) {
+        if (!key.startsWith(prefix)) {
+          continue;
+        }
+        var delimiterIndex = request.getDelimiter() == null ? -1
+            : key.indexOf(request.getDelimiter(), prefix.length());
+        if (delimiterIndex >= 0) {
+          commonPrefixes.add(key.substring(0, delimiterIndex + 1));
+        } else {
+          var summary = new S3ObjectSummary();
+          summary.setKey(key);
+          listing.getObjectSummaries().add(summary);
+        }
+      }
+      listing.setCommonPrefixes(List.copyOf(commonPrefixes));
+      return listing;
+    };
+  }
 }
\ No newline at end of file
@@ -0,0 +1,207 @@
+/*
+ * Copyright 2021 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.Bucket;
+import com.amazonaws.services.s3.model.CopyObjectRequest;
+import com.amazonaws.services.s3.model.CopyObjectResult;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest;
+import com.amazonaws.services.s3.model.DeleteObjectsRequest.KeyVersion;
+import com.amazonaws.services.s3.model.DeleteObjectsResult;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ListObjectsRequest;
+import com.amazonaws.services.s3.model.ObjectListing;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
+import com.amazonaws.util.BinaryUtils;
+import com.amazonaws.util.IOUtils;
+import com.amazonaws.util.Md5Utils;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+/**
+ * Bucket kept in memory that answers the calls of a mocked {@link AmazonS3}, for the tests of
+ * behaviour spanning several requests, e.g. of packing or deduplication. Ranges and prefixes of
+ * requests are supported, other conditions are ignored.
+ */
+public class InMemoryBucket {
+
+  private final String bucketName;
+  private final Map<String, byte[]> objects = new ConcurrentSkipListMap<>();
+  private final Map<String, ObjectMetadata> metadata = new ConcurrentHashMap<>();
+  private final List<String> putKeys = new CopyOnWriteArrayList<>();
+
+  private InMemoryBucket(String bucketName) {
+    this.bucketName = bucketName;
+  }
+
+  /**
+   * Answer the calls of the mock to the bucket with the in-memory bucket. The stubs are lenient,
+   * as every test uses only some of them.
+   */
+  public static InMemoryBucket stub(AmazonS3 amazonS3, String bucketName) {
+    var bucket = new InMemoryBucket(bucketName);
+    lenient().when(amazonS3.listBuckets()).thenReturn(List.of(new Bucket(bucketName)));
+    lenient().when(amazonS3.putObject(eq(bucketName), anyString(), anyString()))
+        .thenAnswer(invocation -> bucket.put(invocation.getArgument(1),
+            invocation.<String>getArgument(2).getBytes(StandardCharsets.UTF_8),
+            new ObjectMetadata()));
+    lenient().when(amazonS3.putObject(eq(bucketName), anyString(), any(InputStream.class),
+            any(ObjectMetadata.class)))
+        .thenAnswer(invocation -> bucket.put(invocation.getArgument(1),
+            IOUtils.toByteArray(invocation.<InputStream>getArgument(2)),
+            invocation.getArgument(3)));
+    lenient().when(amazonS3.getObject(eq(bucketName), anyString()))
+        .thenAnswer(invocation -> bucket.getObject(
+            new GetObjectRequest(bucketName, invocation.getArgument(1))));
+    lenient().when(amazonS3.getObject(any(GetObjectRequest.class)))
+        .thenAnswer(invocation -> bucket.getObject(invocation.getArgument(0)));
+    lenient().when(amazonS3.getObjectAsString(eq(bucketName), anyString()))
+        .thenAnswer(invocation -> new String(bucket.find(invocation.getArgument(1)),
+            StandardCharsets.UTF_8));
+    lenient().when(amazonS3.getObjectMetadata(eq(bucketName), anyString()))
+        .thenAnswer(invocation -> bucket.getMetadata(invocation.getArgument(1)));
+    lenient().when(amazonS3.doesObjectExist(eq(bucketName), anyString()))
+        .thenAnswer(invocation -> bucket.objects.containsKey(invocation.<String>getArgument(1)));
+    lenient().when(amazonS3.copyObject(any(CopyObjectRequest.class)))
+        .thenAnswer(invocation -> bucket.copyObject(invocation.getArgument(0)));
+    lenient().doAnswer(invocation -> bucket.objects.remove(invocation.<String>getArgument(1)))
+        .when(amazonS3).deleteObject(eq(bucketName), anyString());
+    lenient().when(amazonS3.deleteObjects(any(DeleteObjectsRequest.class)))
+        .thenAnswer(invocation -> bucket.deleteObjects(invocation.getArgument(0)));
+    lenient().when(amazonS3.listObjects(bucketName))
+        .thenAnswer(invocation -> bucket.listObjects(null));
+    lenient().when(amazonS3.listObjects(eq(bucketName), anyString()))
+        .thenAnswer(invocation -> bucket.listObjects(invocation.getArgument(1)));
+    lenient().when(amazonS3.listObjects(any(ListObjectsRequest.class)))
+        .thenAnswer(invocation -> bucket.listObjects(
+            invocation.<ListObjectsRequest>getArgument(0).getPrefix()));
+    return bucket;
+  }
+
+  public Set<String> getKeys() {
+    return objects.keySet();
+  }
+
+  public byte[] getContent(String key) {
+    return objects.get(key);
+  }
+
+  /**
+   * @return keys of all the puts in the order they were made
+   */
+  public List<String> getPutKeys() {
+    return putKeys;
+  }
+
+  private PutObjectResult put(String key, byte[] content, ObjectMetadata objectMetadata) {
+    putKeys.add(key);
+    var eTag = BinaryUtils.toHex(Md5Utils.computeMD5Hash(content));
+    var storedMetadata = objectMetadata.clone();
+    storedMetadata.setContentLength(content.length);
+    storedMetadata.setHeader("ETag", eTag);
+    storedMetadata.setLastModified(new Date());
+    objects.put(key, content);
+    metadata.put(key, storedMetadata);
+    var result = new PutObjectResult();
+    result.setETag(eTag);
+    return result;
+  }
+
+  private S3Object getObject(GetObjectRequest request) {
+    var content = find(request.getKey());
+    var range = request.getRange();
+    if (range != null) {
+      var end = Math.min(range[1] + 1, content.length);
+      content = Arrays.copyOfRange(content, (int) range[0], (int) end);
+    }
+    var object = new S3Object();
+    object.setBucketName(bucketName);
+    object.setKey(request.getKey());
+    object.setObjectContent(new ByteArrayInputStream(content));
+    object.setObjectMetadata(getMetadata(request.getKey()));
+    return object;
+  }
+
+  private ObjectMetadata getMetadata(String key) {
+    find(key);
+    return metadata.get(key).clone();
+  }
+
+  private CopyObjectResult copyObject(CopyObjectRequest request) {
+    var content = find(request.getSourceKey());
+    var newMetadata = request.getNewObjectMetadata();
+    put(request.getDestinationKey(), content,
+        newMetadata == null ? metadata.get(request.getSourceKey()) : newMetadata);
+    var result = new CopyObjectResult();
+    result.setETag(metadata.get(request.getDestinationKey()).getETag());
+    return result;
+  }
+
+  private DeleteObjectsResult deleteObjects(DeleteObjectsRequest request) {
+    request.getKeys().stream().map(KeyVersion::getKey).forEach(objects::remove);
+    return new DeleteObjectsResult(List.of());
+  }
+
+  private ObjectListing listObjects(String prefix) {
+    var listing = new ObjectListing();
+    listing.setBucketName(bucketName);
+    listing.setPrefix(prefix);
+    listing.getObjectSummaries().addAll(objects.entrySet().stream()
+        .filter(object -> prefix == null || object.getKey().startsWith(prefix))
+        .map(object -> {
+          var summary = new S3ObjectSummary();
+          summary.setBucketName(bucketName);
+          summary.setKey(object.getKey());
+          summary.setSize(object.getValue().length);
+          summary.setETag(metadata.get(object.getKey()).getETag());
+          return summary;
+        })
+        .collect(Collectors.toList()));
+    return listing;
+  }
+
+  private byte[] find(String key) {
+    var content = objects.get(key);
+    if (content == null) {
+      var exception = new AmazonS3Exception("Not Found");
+      exception.setStatusCode(404);
+      throw exception;
+    }
+    return content;
+  }
+}
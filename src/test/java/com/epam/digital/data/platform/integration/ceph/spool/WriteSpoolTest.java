@@ -0,0 +1,255 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.spool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.amazonaws.AmazonServiceException;
+import com.epam.digital.data.platform.integration.ceph.config.SpoolProperties;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class WriteSpoolTest {
+
+  private static final String BUCKET = "bucket";
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+  @TempDir
+  Path directory;
+
+  private final Map<String, String> uploaded = new ConcurrentHashMap<>();
+  private SpoolProperties properties;
+  private ExecutorService executor;
+
+  @BeforeEach
+  void before() {
+    properties = new SpoolProperties();
+    properties.setEnabled(true);
+    properties.setBuckets(List.of(BUCKET));
+    properties.setDirectory(directory.toString());
+    properties.setRetryDelay(Duration.ofMillis(10));
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  void after() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldServeSpooledContentUntilItIsUploaded() {
+    var uploadStarted = new CountDownLatch(1);
+    var uploadAllowed = new CountDownLatch(1);
+    var spool = new WriteSpool(properties, executor, (bucket, key, content) -> {
+      uploadStarted.countDown();
+      await(uploadAllowed);
+      uploaded.put(key, string(content));
+    });
+
+    assertThat(spool.offer(BUCKET, "doc/1", bytes("first"))).isTrue();
+    await(uploadStarted);
+
+    assertThat(spool.find(BUCKET, "doc/1")).hasValueSatisfying(
+        content -> assertThat(string(content)).isEqualTo("first"));
+    assertThat(spool.getKeys(BUCKET, "doc/")).containsOnly("doc/1");
+    assertThat(spool.getDepth()).isEqualTo(1);
+    assertThat(spool.getSize()).isPositive();
+
+    uploadAllowed.countDown();
+
+    assertThat(spool.awaitUploaded(TIMEOUT)).isTrue();
+    assertThat(uploaded).containsOnly(Map.entry("doc/1", "first"));
+    assertThat(spool.find(BUCKET, "doc/1")).isEmpty();
+    assertThat(spool.getDepth()).isZero();
+    assertThat(spool.getLagMillis()).isZero();
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldUploadOnlyLatestPutsLeftByPreviousRun() {
+    // the only upload slot is taken by the first put, which never completes
+    properties.setUploadConcurrency(1);
+    var stalled = new WriteSpool(properties, task -> {
+    }, (bucket, key, content) -> {
+    });
+    stalled.offer(BUCKET, "doc/1", bytes("first"));
+    stalled.offer(BUCKET, "doc/2", bytes("second"));
+    stalled.offer(BUCKET, "doc/1", bytes("updated"));
+    stalled.discard(BUCKET, List.of("doc/2"));
+
+    properties.setUploadConcurrency(4);
+    var spool = new WriteSpool(properties, executor,
+        (bucket, key, content) -> uploaded.put(key, string(content)));
+
+    assertThat(spool.awaitUploaded(TIMEOUT)).isTrue();
+    assertThat(uploaded).containsOnly(Map.entry("doc/1", "updated"));
+    assertThat(spool.getSize()).isZero();
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldNotUploadUploadedPutsAgainAfterRestart() {
+    // the stalled put keeps the segment of the uploaded one in the journal
+    var stalled = new CountDownLatch(1);
+    var spool = new WriteSpool(properties, executor, (bucket, key, content) -> {
+      if (key.equals("doc/1")) {
+        await(stalled);
+      }
+      uploaded.put(key, string(content));
+    });
+    spool.offer(BUCKET, "doc/1", bytes("stalled"));
+    spool.offer(BUCKET, "doc/2", bytes("spooled"));
+    while (spool.getDepth() > 1) {
+      Thread.sleep(10L);
+    }
+    uploaded.put("doc/2", "direct");
+
+    var restarted = new WriteSpool(properties, executor,
+        (bucket, key, content) -> uploaded.put(key, string(content)));
+
+    assertThat(restarted.awaitUploaded(TIMEOUT)).isTrue();
+    assertThat(uploaded)
+        .containsOnly(Map.entry("doc/1", "stalled"), Map.entry("doc/2", "direct"));
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldReleasePutsSupersededWhileKeyIsUploaded() {
+    var uploadStarted = new CountDownLatch(1);
+    var uploadAllowed = new CountDownLatch(1);
+    var spool = new WriteSpool(properties, executor, (bucket, key, content) -> {
+      uploadStarted.countDown();
+      await(uploadAllowed);
+      uploaded.put(key, string(content));
+    });
+
+    spool.offer(BUCKET, "doc/1", bytes("first"));
+    await(uploadStarted);
+    spool.offer(BUCKET, "doc/1", bytes("second"));
+    spool.offer(BUCKET, "doc/1", bytes("third"));
+    uploadAllowed.countDown();
+
+    assertThat(spool.awaitUploaded(TIMEOUT)).isTrue();
+    assertThat(uploaded).containsOnly(Map.entry("doc/1", "third"));
+    assertThat(spool.getSize()).isZero();
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldRetryFailedUploadsInOrderOfPuts() {
+    var attempts = new AtomicInteger();
+    var uploads = new CopyOnWriteArrayList<String>();
+    var spool = new WriteSpool(properties, executor, (bucket, key, content) -> {
+      if (attempts.incrementAndGet() == 1) {
+        var exception = new AmazonServiceException("Slow Down");
+        exception.setStatusCode(503);
+        throw exception;
+      }
+      uploads.add(string(content));
+    });
+
+    spool.offer(BUCKET, "doc/1", bytes("first"));
+    spool.offer(BUCKET, "doc/1", bytes("updated"));
+
+    assertThat(spool.awaitUploaded(TIMEOUT)).isTrue();
+    assertThat(uploads).last().isEqualTo("updated");
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldDropUploadsFailedWithClientError() {
+    var spool = new WriteSpool(properties, executor, (bucket, key, content) -> {
+      var exception = new AmazonServiceException("Access Denied");
+      exception.setStatusCode(403);
+      throw exception;
+    });
+
+    spool.offer(BUCKET, "doc/1", bytes("first"));
+
+    assertThat(spool.awaitUploaded(TIMEOUT)).isTrue();
+    assertThat(spool.find(BUCKET, "doc/1")).isEmpty();
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldLeavePutsInJournalWhenClosed() {
+    var attempts = new AtomicInteger();
+    var spool = new WriteSpool(properties, executor, (bucket, key, content) -> {
+      attempts.incrementAndGet();
+      var exception = new AmazonServiceException("Slow Down");
+      exception.setStatusCode(503);
+      throw exception;
+    });
+    spool.offer(BUCKET, "doc/1", bytes("first"));
+    while (attempts.get() == 0) {
+      Thread.sleep(10L);
+    }
+
+    spool.close();
+    // an upload dispatched just before closing may still be running
+    Thread.sleep(50L);
+    var closedAttempts = attempts.get();
+    Thread.sleep(100L);
+
+    assertThat(attempts).hasValue(closedAttempts);
+    var restarted = new WriteSpool(properties, executor,
+        (bucket, key, content) -> uploaded.put(key, string(content)));
+    assertThat(restarted.awaitUploaded(TIMEOUT)).isTrue();
+    assertThat(uploaded).containsOnly(Map.entry("doc/1", "first"));
+  }
+
+  @Test
+  void shouldRejectPutsWhileJournalIsFull() {
+    properties.setMaxSize(8);
+    var spool = new WriteSpool(properties, task -> {
+    }, (bucket, key, content) -> {
+    });
+
+    assertThat(spool.offer(BUCKET, "doc/1", bytes("first"))).isTrue();
+    assertThat(spool.offer(BUCKET, "doc/2", bytes("second"))).isFalse();
+  }
+
+  private static byte[] bytes(String content) {
+    return content.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String string(byte[] content) {
+    return new String(content, StandardCharsets.UTF_8);
+  }
+
+  @SneakyThrows
+  private static void await(CountDownLatch latch) {
+    assertThat(latch.await(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)).isTrue();
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.tracing;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import brave.Span;
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import com.amazonaws.DefaultRequest;
+import com.amazonaws.Request;
+import com.amazonaws.Response;
+import com.amazonaws.handlers.HandlerAfterAttemptContext;
+import com.amazonaws.handlers.HandlerBeforeAttemptContext;
+import com.amazonaws.handlers.HandlerContextKey;
+import com.amazonaws.http.HttpResponse;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.util.AWSRequestMetrics.Field;
+import com.amazonaws.util.AWSRequestMetricsFullSupport;
+import com.amazonaws.util.TimingInfo;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TracingRequestHandlerTest {
+
+  private static final String BUCKET = "bucket";
+
+  private final List<MutableSpan> spans = new CopyOnWriteArrayList<>();
+  private final TracingRequestHandler handler = new TracingRequestHandler();
+  private Tracing tracing;
+
+  @BeforeEach
+  void before() {
+    tracing = Tracing.newBuilder().addSpanHandler(new SpanHandler() {
+      @Override
+      public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        spans.add(span);
+        return true;
+      }
+    }).build();
+  }
+
+  @AfterEach
+  void after() {
+    tracing.close();
+  }
+
+  @Test
+  void shouldTraceRequestWithRetriesAsChildOfCurrentSpan() {
+    var request = request();
+    var metrics = new AWSRequestMetricsFullSupport();
+    metrics.getTimingInfo().addSubMeasurement(Field.HttpRequestTime.name(), timing(30));
+    metrics.getTimingInfo().addSubMeasurement(Field.HttpClientSendRequestTime.name(), timing(5));
+    metrics.getTimingInfo()
+        .addSubMeasurement(Field.HttpClientReceiveResponseTime.name(), timing(10));
+    metrics.getTimingInfo().setCounter(Field.HttpClientPoolPendingCount.name(), 2);
+    request.setAWSRequestMetrics(metrics);
+    var httpResponse = new HttpResponse(request, null);
+    httpResponse.setStatusCode(200);
+    httpResponse.addHeader("Content-Length", "42");
+
+    var parent = tracing.tracer().nextSpan().name("get").start();
+    try (var scope = tracing.tracer().withSpanInScope(parent)) {
+      handler.beforeRequest(request);
+    } finally {
+      parent.finish();
+    }
+    handler.beforeAttempt(HandlerBeforeAttemptContext.builder().withRequest(request).build());
+    handler.afterAttempt(HandlerAfterAttemptContext.builder().withRequest(request)
+        .withException(new AmazonS3Exception("Slow Down")).build());
+    handler.beforeAttempt(HandlerBeforeAttemptContext.builder().withRequest(request).build());
+    handler.afterAttempt(HandlerAfterAttemptContext.builder().withRequest(request).build());
+    handler.afterResponse(request, new Response<>(null, httpResponse));
+
+    assertThat(spans).hasSize(2);
+    var span = spans.stream().filter(s -> s.kind() == Span.Kind.CLIENT).findFirst().get();
+    assertThat(span.parentId()).isEqualTo(parent.context().spanIdString());
+    assertThat(span.remoteServiceName()).isEqualTo("ceph");
+    assertThat(span.tags())
+        .containsEntry(TracingRequestHandler.OPERATION_TAG, "GetObject")
+        .containsEntry(TracingRequestHandler.BUCKET_TAG, BUCKET)
+        .containsEntry(TracingRequestHandler.STATUS_CODE_TAG, "200")
+        .containsEntry(TracingRequestHandler.ATTEMPTS_TAG, "2")
+        .containsEntry(TracingRequestHandler.RESPONSE_SIZE_TAG, "42")
+        .containsEntry(TracingRequestHandler.CONNECTION_WAIT_TAG, "15")
+        .containsEntry(TracingRequestHandler.POOL_PENDING_TAG, "2");
+    assertThat(span.annotationCount()).isEqualTo(1);
+  }
+
+  @Test
+  void shouldRecordErrorOfFailedRequest() {
+    var request = request();
+    var exception = new AmazonS3Exception("Service Unavailable");
+    exception.setStatusCode(503);
+
+    var parent = tracing.tracer().nextSpan().start();
+    try (var scope = tracing.tracer().withSpanInScope(parent)) {
+      handler.beforeRequest(request);
+    }
+    handler.beforeAttempt(HandlerBeforeAttemptContext.builder().withRequest(request).build());
+    handler.afterError(request, null, exception);
+
+    assertThat(spans).hasSize(1);
+    assertThat(spans.get(0).error()).isSameAs(exception);
+    assertThat(spans.get(0).tags())
+        .containsEntry(TracingRequestHandler.STATUS_CODE_TAG, "503")
+        .containsEntry(TracingRequestHandler.ATTEMPTS_TAG, "1")
+        .doesNotContainKey(TracingRequestHandler.CONNECTION_WAIT_TAG);
+  }
+
+  @Test
+  void shouldNotTraceRequestWithoutCurrentSpan() {
+    var request = request();
+
+    handler.beforeRequest(request);
+    handler.beforeAttempt(HandlerBeforeAttemptContext.builder().withRequest(request).build());
+    handler.afterResponse(request, null);
+
+    assertThat(spans).isEmpty();
+  }
+
+  private static Request<?> request() {
+    var request = new DefaultRequest<>(new GetObjectRequest(BUCKET, "key"), "Amazon S3");
+    request.addHandlerContext(HandlerContextKey.OPERATION_NAME, "GetObject");
+    return request;
+  }
+
+  private static TimingInfo timing(long millis) {
+    return TimingInfo.newTimingInfoFullSupport(0L, 0L, millis * 1_000_000L);
+  }
+}
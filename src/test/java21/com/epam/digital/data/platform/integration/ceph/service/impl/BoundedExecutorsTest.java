@@ -0,0 +1,118 @@
+/*
+ * Copyright 2025 EPAM Systems.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.epam.digital.data.platform.integration.ceph.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the Java 21 executors, run by the {@code java21} profile with the Java 21 classes
+ * ahead of the Java 11 ones.
+ */
+class BoundedExecutorsTest {
+
+  @Test
+  @SneakyThrows
+  void shouldRunTasksOnVirtualThreadsWithinParallelism() {
+    var executor = BoundedExecutors.newExecutor(2);
+    var running = new AtomicInteger();
+    var maxRunning = new AtomicInteger();
+    var virtual = new AtomicBoolean(true);
+    var tasks = new ArrayList<CompletableFuture<Void>>();
+
+    for (var i = 0; i < 10; i++) {
+      tasks.add(CompletableFuture.runAsync(() -> {
+        virtual.compareAndSet(true, Thread.currentThread().isVirtual());
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        sleep(20L);
+        running.decrementAndGet();
+      }, executor));
+    }
+    CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+
+    assertThat(virtual).isTrue();
+    assertThat(maxRunning).hasValueLessThanOrEqualTo(2);
+    executor.shutdown();
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldRejectTasksAfterShutdownAndRunSubmittedOnes() {
+    var executor = BoundedExecutors.newExecutor(1);
+    var release = new CountDownLatch(1);
+    var completed = new AtomicInteger();
+
+    executor.execute(() -> {
+      await(release);
+      completed.incrementAndGet();
+    });
+    executor.execute(completed::incrementAndGet);
+    executor.shutdown();
+
+    assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+    }));
+    assertThat(executor.isShutdown()).isTrue();
+    assertThat(executor.isTerminated()).isFalse();
+    release.countDown();
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(completed).hasValue(2);
+  }
+
+  @Test
+  @SneakyThrows
+  void shouldDropTasksWaitingForPermitOnShutdownNow() {
+    var executor = BoundedExecutors.newExecutor(1);
+    var started = new CountDownLatch(1);
+    var dropped = new AtomicBoolean(true);
+
+    executor.execute(() -> {
+      started.countDown();
+      sleep(TimeUnit.SECONDS.toMillis(10));
+    });
+    await(started);
+    executor.execute(() -> dropped.set(false));
+    executor.shutdownNow();
+
+    assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+    assertThat(dropped).isTrue();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @SneakyThrows
+  private static void await(CountDownLatch latch) {
+    assertThat(latch.await(10, TimeUnit.SECONDS)).isTrue();
+  }
+}